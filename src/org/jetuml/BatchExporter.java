@@ -0,0 +1,414 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+
+package org.jetuml;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.jetuml.application.FileExtensions;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.gui.TiledDiagramImage;
+import org.jetuml.persistence.DeserializationException;
+import org.jetuml.persistence.PersistenceService;
+
+import javafx.application.Platform;
+
+/**
+ * Entry point for exporting the images of many diagram files from the command line,
+ * without opening them in the editor. The arguments are diagram files, directories,
+ * which are searched recursively for .jet files, and glob patterns such as
+ * docs/**&#47;*.jet. The image of each diagram is written next to its file, or in
+ * the output directory, with the extension of the format instead of .jet. In the
+ * output directory, the images keep the paths of the diagram files relative to
+ * the directory that contains all of them.
+ *
+ * Files are read, decoded and encoded into images in parallel by a fixed number
+ * of workers. Laying out and drawing the diagrams requires the JavaFX toolkit,
+ * whose application thread lays out one diagram at a time, and draws the tiles
+ * of the images as the workers encode them, so that no image is ever entirely
+ * in memory. The toolkit needs a
+ * display: on a headless machine, run the exporter under a virtual display such
+ * as xvfb-run, or with the Monocle headless platform of JavaFX.
+ */
+public final class BatchExporter
+{
+	private static final String USAGE =
+			"Usage: BatchExporter [-format png|jpg|gif|bmp] [-output <directory>] [-threads <n>] <file|directory|glob>...";
+	private static final String EXTENSION_JET = ".jet";
+	private static final String[] FORMATS = {"png", "jpg", "gif", "bmp"};
+	private static final String GLOB_CHARACTERS = "*?[{";
+	private static final int DIAGRAM_PADDING = 4;
+	private static final double NANOS_PER_MILLI = 1_000_000;
+
+	private static final int EXIT_FAILURES = 1;
+	private static final int EXIT_USAGE = 2;
+
+	/**
+	 * The options of an export.
+	 *
+	 * @param format The name of the image format.
+	 * @param outputDirectory The directory where to write all the images, if not next to the diagram files.
+	 * @param threads The number of workers.
+	 * @param inputs The files, directories and glob patterns of the diagrams to export.
+	 */
+	record Options(String format, Optional<File> outputDirectory, int threads, List<String> inputs) {}
+
+	/* The time spent exporting one file, in nanoseconds. */
+	private record Timing(File output, int width, int height, long read, long layout, long write) {}
+
+	private BatchExporter() {}
+
+	/**
+	 * Exports the diagrams given as arguments, and exits with a status of 0 if
+	 * all of them were exported, 1 if some failed, and 2 if the arguments are invalid.
+	 *
+	 * @param pArgs The options and inputs, as described by the usage message.
+	 */
+	public static void main(String[] pArgs)
+	{
+		Options options;
+		List<File> files;
+		List<File> outputs;
+		try
+		{
+			options = parse(pArgs);
+			files = collectFiles(options.inputs());
+			outputs = outputFiles(files, options);
+			for( File output : outputs )
+			{
+				Files.createDirectories(output.getParentFile().toPath());
+			}
+		}
+		catch( IllegalArgumentException | IOException exception )
+		{
+			System.err.println(exception.getMessage());
+			System.err.println(USAGE);
+			System.exit(EXIT_USAGE);
+			return;
+		}
+		System.setProperty("java.awt.headless", "true");
+		try
+		{
+			Platform.startup(() -> {});
+		}
+		catch( UnsupportedOperationException exception )
+		{
+			System.err.println("The JavaFX toolkit could not start: " + exception.getMessage());
+			System.err.println("On a machine without a display, run the exporter with xvfb-run or the Monocle headless platform.");
+			System.exit(EXIT_FAILURES);
+			return;
+		}
+		int failures = export(files, outputs, options);
+		Platform.exit();
+		System.exit(failures == 0 ? 0 : EXIT_FAILURES);
+	}
+
+	/**
+	 * @param pArgs The arguments of the command line.
+	 * @return The options specified by pArgs.
+	 * @throws IllegalArgumentException If pArgs are not valid.
+	 */
+	static Options parse(String[] pArgs)
+	{
+		String format = FORMATS[0];
+		Optional<File> outputDirectory = Optional.empty();
+		int threads = Runtime.getRuntime().availableProcessors();
+		List<String> inputs = new ArrayList<>();
+		for( int i = 0; i < pArgs.length; i++ )
+		{
+			switch( pArgs[i] )
+			{
+			case "-format" ->
+			{
+				format = valueOf(pArgs, ++i).toLowerCase();
+				if( !Arrays.asList(FORMATS).contains(format) )
+				{
+					throw new IllegalArgumentException("Unsupported image format: " + format);
+				}
+			}
+			case "-output" -> outputDirectory = Optional.of(new File(valueOf(pArgs, ++i)));
+			case "-threads" ->
+			{
+				try
+				{
+					threads = Integer.parseInt(valueOf(pArgs, ++i));
+				}
+				catch( NumberFormatException exception )
+				{
+					throw new IllegalArgumentException("Invalid number of threads: " + pArgs[i]);
+				}
+				if( threads < 1 )
+				{
+					throw new IllegalArgumentException("Invalid number of threads: " + threads);
+				}
+			}
+			default -> inputs.add(pArgs[i]);
+			}
+		}
+		if( inputs.isEmpty() )
+		{
+			throw new IllegalArgumentException("No diagram to export");
+		}
+		return new Options(format, outputDirectory, threads, inputs);
+	}
+
+	private static String valueOf(String[] pArgs, int pIndex)
+	{
+		if( pIndex >= pArgs.length )
+		{
+			throw new IllegalArgumentException("Missing value for option " + pArgs[pIndex - 1]);
+		}
+		return pArgs[pIndex];
+	}
+
+	/**
+	 * @param pInputs Diagram files, directories, and glob patterns.
+	 * @return The diagram files given in pInputs, in the directories in pInputs and their
+	 *     subdirectories, and that match the patterns in pInputs, without duplicates.
+	 * @throws IOException If a directory cannot be searched.
+	 * @throws IllegalArgumentException If an input is neither a file, a directory, nor a pattern.
+	 */
+	static List<File> collectFiles(List<String> pInputs) throws IOException
+	{
+		Set<File> files = new LinkedHashSet<>();
+		for( String input : pInputs )
+		{
+			File file = new File(input);
+			if( file.isDirectory() )
+			{
+				addMatchingFiles(files, file.toPath(), path -> path.toString().endsWith(EXTENSION_JET));
+			}
+			else if( file.isFile() )
+			{
+				files.add(file.getAbsoluteFile());
+			}
+			else if( isPattern(input) )
+			{
+				addFilesMatchingPattern(files, input);
+			}
+			else
+			{
+				throw new IllegalArgumentException("No such file or directory: " + input);
+			}
+		}
+		return new ArrayList<>(files);
+	}
+
+	private static boolean isPattern(String pInput)
+	{
+		return pInput.chars().anyMatch(character -> GLOB_CHARACTERS.indexOf(character) >= 0);
+	}
+
+	/*
+	 * Adds to pFiles the files that match pPattern, looking for them only
+	 * in the directory named by the part of pPattern before the first
+	 * name that contains a glob character.
+	 */
+	private static void addFilesMatchingPattern(Set<File> pFiles, String pPattern) throws IOException
+	{
+		Path pattern = Path.of(pPattern.replace('/', File.separatorChar));
+		int firstPatternName = 0;
+		while( !isPattern(pattern.getName(firstPatternName).toString()) )
+		{
+			firstPatternName++;
+		}
+		Path base = firstPatternName == 0 ? Path.of("") : pattern.subpath(0, firstPatternName);
+		if( pattern.getRoot() != null )
+		{
+			base = pattern.getRoot().resolve(base);
+		}
+		Path relativePattern = pattern.subpath(firstPatternName, pattern.getNameCount());
+		PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + relativePattern);
+		Path searched = base.toString().isEmpty() ? Path.of(".") : base;
+		if( Files.isDirectory(searched) )
+		{
+			addMatchingFiles(pFiles, searched, path -> matcher.matches(searched.relativize(path)));
+		}
+	}
+
+	private static void addMatchingFiles(Set<File> pFiles, Path pDirectory, PathMatcher pMatcher) throws IOException
+	{
+		try( Stream<Path> paths = Files.walk(pDirectory) )
+		{
+			paths.filter(Files::isRegularFile)
+				.filter(pMatcher::matches)
+				.sorted()
+				.forEach(path -> pFiles.add(path.toFile().getAbsoluteFile()));
+		}
+	}
+
+	/**
+	 * @param pFiles Absolute diagram files.
+	 * @param pOptions The options of the export.
+	 * @return The image file of each of pFiles, in the same order.
+	 * @throws IllegalArgumentException If two of pFiles would be exported to the same image.
+	 */
+	static List<File> outputFiles(List<File> pFiles, Options pOptions)
+	{
+		Optional<Path> base = commonDirectory(pFiles);
+		List<File> outputs = new ArrayList<>();
+		Map<File, File> exported = new HashMap<>();
+		for( File file : pFiles )
+		{
+			String name = FileExtensions.clipApplicationExtension(file).getName() + "." + pOptions.format();
+			File directory = file.getParentFile();
+			if( pOptions.outputDirectory().isPresent() )
+			{
+				Path parent = directory.toPath();
+				Path relative = base.isPresent() ? base.get().relativize(parent) : parent.getRoot().relativize(parent);
+				directory = pOptions.outputDirectory().get().toPath().resolve(relative).toFile();
+			}
+			File output = new File(directory, name);
+			File previous = exported.put(output, file);
+			if( previous != null )
+			{
+				throw new IllegalArgumentException(String.format("%s and %s would both be exported to %s", 
+						previous, file, output));
+			}
+			outputs.add(output);
+		}
+		return outputs;
+	}
+
+	/*
+	 * Returns the deepest directory that contains all of pFiles, 
+	 * if they are on the same file system root.
+	 */
+	private static Optional<Path> commonDirectory(List<File> pFiles)
+	{
+		if( pFiles.isEmpty() )
+		{
+			return Optional.empty();
+		}
+		Path common = pFiles.get(0).toPath().getParent();
+		for( File file : pFiles )
+		{
+			while( common != null && !file.toPath().getParent().startsWith(common) )
+			{
+				common = common.getParent();
+			}
+		}
+		return Optional.ofNullable(common);
+	}
+
+	/*
+	 * Exports pFiles to pOutputs with pOptions.threads() workers, prints the time spent on each
+	 * file and a summary, and returns the number of files that could not be exported.
+	 */
+	private static int export(List<File> pFiles, List<File> pOutputs, Options pOptions)
+	{
+		long start = System.nanoTime();
+		ExecutorService workers = Executors.newFixedThreadPool(pOptions.threads());
+		List<Future<Timing>> timings = new ArrayList<>();
+		for( int i = 0; i < pFiles.size(); i++ )
+		{
+			File file = pFiles.get(i);
+			File output = pOutputs.get(i);
+			timings.add(workers.submit(() -> export(file, output, pOptions.format())));
+		}
+		int failures = 0;
+		long pixels = 0;
+		for( int i = 0; i < pFiles.size(); i++ )
+		{
+			try
+			{
+				Timing timing = timings.get(i).get();
+				pixels += (long) timing.width() * timing.height();
+				System.out.println(String.format("%s -> %s (%dx%d): read %.1f ms, layout %.1f ms, draw and write %.1f ms",
+						pFiles.get(i), timing.output(), timing.width(), timing.height(),
+						timing.read() / NANOS_PER_MILLI, timing.layout() / NANOS_PER_MILLI, timing.write() / NANOS_PER_MILLI));
+			}
+			catch( ExecutionException exception )
+			{
+				failures++;
+				System.err.println(pFiles.get(i) + ": " + exception.getCause().getMessage());
+			}
+			catch( InterruptedException exception )
+			{
+				Thread.currentThread().interrupt();
+				failures++;
+			}
+		}
+		workers.shutdown();
+		double seconds = (System.nanoTime() - start) / (NANOS_PER_MILLI * 1000);
+		int exported = pFiles.size() - failures;
+		System.out.println(String.format("Exported %d of %d diagrams in %.2f s with %d threads: %.1f diagrams/s, %.1f megapixels/s",
+				exported, pFiles.size(), seconds, pOptions.threads(), exported / seconds, pixels / seconds / 1_000_000));
+		return failures;
+	}
+
+	/*
+	 * Reads pFile and writes the image of its diagram to pOutput. The diagram is laid out 
+	 * on the JavaFX application thread, which then draws the tiles of the image as the 
+	 * image writer requests them.
+	 */
+	private static Timing export(File pFile, File pOutput, String pFormat)
+			throws IOException, DeserializationException, InterruptedException, ExecutionException
+	{
+		long start = System.nanoTime();
+		Diagram diagram = PersistenceService.read(pFile);
+		long read = System.nanoTime();
+
+		CompletableFuture<TiledDiagramImage> layout = new CompletableFuture<>();
+		Platform.runLater(() ->
+		{
+			try
+			{
+				layout.complete(new TiledDiagramImage(DiagramType.newRendererInstanceFor(diagram), DIAGRAM_PADDING));
+			}
+			catch( RuntimeException exception )
+			{
+				layout.completeExceptionally(exception);
+			}
+		});
+		TiledDiagramImage image = layout.get();
+		long laidOut = System.nanoTime();
+
+		if( !ImageIO.write(image, pFormat, pOutput) )
+		{
+			throw new IOException("No image writer for format " + pFormat);
+		}
+		long write = System.nanoTime();
+		return new Timing(pOutput, image.getWidth(), image.getHeight(), read - start, laidOut - read, write - laidOut);
+	}
+}
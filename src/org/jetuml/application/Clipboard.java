@@ -34,6 +34,7 @@ import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.ElementCopier;
 import org.jetuml.diagram.Node;
 import org.jetuml.diagram.nodes.PointNode;
 import org.jetuml.geom.Point;
@@ -94,9 +95,9 @@ public final class Clipboard
 	{
 		assert pSelection != null;
 		clear();
-		aEdges.addAll(copyEdges(pSelection));
-		aNodes.addAll(copyNodes(aEdges, pSelection));
-		removeDanglingEdges();
+		ElementCopier copier = new ElementCopier();
+		aNodes.addAll(copyNodes(copier, pSelection));
+		aEdges.addAll(copyEdges(copier, pSelection));
 		removeDanglingReferencesToParents();
 	}
 	
@@ -105,8 +106,9 @@ public final class Clipboard
 	 */
 	public Iterable<DiagramElement> getElements()
 	{
-		List<Edge> clonedEdges = copyEdges(new ArrayList<>(aEdges));
-		List<Node> clonedNodes = copyNodes(clonedEdges, new ArrayList<>(aNodes));
+		ElementCopier copier = new ElementCopier();
+		List<Node> clonedNodes = copyNodes(copier, new ArrayList<>(aNodes));
+		List<Edge> clonedEdges = copyEdges(copier, new ArrayList<>(aEdges));
 		List<DiagramElement> result = new ArrayList<>();
 		result.addAll(clonedEdges);
 		result.addAll(clonedNodes);
@@ -123,14 +125,16 @@ public final class Clipboard
 	}
 	
 	/*
-	 * Makes a clone of every edges in pSelection and copies it into the clipboard	 
+	 * Makes a clone of every edge in pSelection whose nodes were copied by pCopier, 
+	 * and connects it to the copies of its nodes. The other edges would be dangling.
 	 */
-	private static List<Edge> copyEdges(Iterable<DiagramElement> pSelection)
+	private static List<Edge> copyEdges(ElementCopier pCopier, Iterable<DiagramElement> pSelection)
 	{
 		return stream(pSelection.spliterator(), false)
 			.filter(Edge.class::isInstance)
 			.map(Edge.class::cast)
-			.map(Edge::clone)
+			.filter(edge -> pCopier.isCopied(edge.start()) && pCopier.isCopied(edge.end()))
+			.map(pCopier::copy)
 			.collect(toList());
 	}
 	
@@ -153,106 +157,22 @@ public final class Clipboard
 	}
 	
 	/*
-	 * Makes a clone of every node in pSelection, copies it into the clipboard,
-	 * and reassigns its edges
+	 * Makes a clone of every node in pSelection with pCopier. Nodes that require 
+	 * a parent are only copied with their parent.
 	 */
-	private List<Node> copyNodes(List<Edge> pEdges, Iterable<DiagramElement> pSelection)
+	private static List<Node> copyNodes(ElementCopier pCopier, Iterable<DiagramElement> pSelection)
 	{
 		List<Node> result = new ArrayList<>();
 		for( DiagramElement element : pSelection )
 		{
-			if( element instanceof Node node)
+			if( element instanceof Node node && !node.requiresParent() )
 			{
-				if( missingParent(node))
-				{
-					continue;
-				}
-				Node cloned = node.clone();
-				result.add(cloned);
-				reassignEdges(pEdges, node, cloned);
+				result.add(pCopier.copy(node));
 			}
 		}
 		return result;
 	}
 	
-	private void removeDanglingEdges()
-	{
-		List<Edge> toDelete = new ArrayList<>();
-		for( Edge edge : aEdges )
-		{
-			if( !recursivelyContains(edge.start()) || !recursivelyContains(edge.end()))
-			{
-				toDelete.add(edge);
-			}
-		}
-		for( Edge edge : toDelete )
-		{
-			aEdges.remove(edge);
-		}
-	}
-	
-	private boolean recursivelyContains(Node pNode)
-	{
-		for( Node node : aNodes )
-		{
-			if( node == pNode )
-			{
-				return true;
-			}
-			else if( recursivelyContains(pNode, node.getChildren()) )
-			{
-				return true;
-			}
-		}
-		return false;
-	}
-	
-	private boolean recursivelyContains(Node pNode, List<Node> pNodes)
-	{
-		for( Node node : pNodes )
-		{
-			if( node == pNode )
-			{
-				return true;
-			}
-			else if( recursivelyContains(pNode, node.getChildren()) )
-			{
-				return true;
-			}
-		}
-		return false;
-	}
-	
-	private void reassignEdges(List<Edge> pEdges, Node pOld, Node pNew)
-	{
-		for( Edge edge : pEdges )
-		{
-			if( edge.start() == pOld )
-			{
-				edge.connect(pNew, edge.end());
-			}
-			if( edge.end() == pOld)
-			{
-				edge.connect(edge.start(), pNew);
-			}
-		}
-		List<Node> oldChildren = pOld.getChildren();
-		List<Node> newChildren = pNew.getChildren();
-		for( int i = 0; i < oldChildren.size(); i++ )
-		{
-			reassignEdges(pEdges, oldChildren.get(i), newChildren.get(i));
-		}
-	}
-	
-	/*
-	 * Returns true if pNode needs a parent that isn't in 
-	 * the clipboard.
-	 */
-	private boolean missingParent(Node pNode)
-	{
-		return pNode.requiresParent() && !aNodes.contains(pNode.getParent()) ;
-	}
-	
 	/*
 	 * Removes the reference to the parent of any node in the list.
 	 * This operation is safe because nodes in the clip-board
@@ -20,6 +20,8 @@
  *******************************************************************************/
 package org.jetuml.diagram;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Base class for nodes and edges. Responsible for storing the single
  * Properties object used to describe the properties of this element.
@@ -28,7 +30,11 @@ package org.jetuml.diagram;
  */
 public abstract class AbstractDiagramElement implements DiagramElement
 {
+	// The source of the versions of all the elements, which can be created on different threads
+	private static final AtomicLong VERSIONS = new AtomicLong();
+	
 	private Properties aProperties;
+	private long aVersion = VERSIONS.incrementAndGet();
 	
 	/**
 	 * Initializes the properties for this object.
@@ -47,6 +53,7 @@ public abstract class AbstractDiagramElement implements DiagramElement
 		try
 		{
 			AbstractDiagramElement clone = (AbstractDiagramElement) super.clone();
+			clone.aVersion = VERSIONS.incrementAndGet();
 			clone.buildProperties();
 			return clone;
 		}
@@ -62,6 +69,22 @@ public abstract class AbstractDiagramElement implements DiagramElement
 		return aProperties;
 	}
 	
+	@Override
+	public final long version()
+	{
+		return aVersion;
+	}
+	
+	/**
+	 * Gives this element a new version. Subclasses must call this method
+	 * after any change to the state of the element, except for setting a 
+	 * property, which calls it automatically.
+	 */
+	protected void changed()
+	{
+		aVersion = VERSIONS.incrementAndGet();
+	}
+	
 	/**
 	 * Builds the properties object associated with this object.
 	 * Must be outside the constructor because of cloning.
@@ -70,6 +93,6 @@ public abstract class AbstractDiagramElement implements DiagramElement
 	 */
 	protected void buildProperties()
 	{
-		aProperties = new Properties();
+		aProperties = new Properties(this::changed);
 	}
 }
@@ -20,10 +20,15 @@
  *******************************************************************************/
 package org.jetuml.diagram;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.jetuml.diagram.nodes.CallNode;
 import org.jetuml.diagram.nodes.FieldNode;
@@ -35,6 +40,16 @@ import org.jetuml.diagram.nodes.FieldNode;
  * of diagrams (handled by DiagramBuilder), or of computing the geometry of a diagram
  * (handled by DiagramView). DiagramData provides immutable access to the information
  * stored in the diagram.
+ * 
+ * The diagram indexes its edges by the nodes they connect, so that the edges
+ * of a node can be found in time proportional to the number of these edges.
+ * Edges notify the diagram that holds them when they are connected to other
+ * nodes, which keeps the index up to date.
+ * 
+ * The diagram also keeps a log of its most recent changes, so that clients 
+ * that derive data from the diagram can update it in time proportional to 
+ * the number of elements changed. Root nodes and edges notify the diagram 
+ * when they change, and a change to a child node is a change to its root.
  */
 public final class Diagram implements DiagramData
 {
@@ -45,6 +60,43 @@ public final class Diagram implements DiagramData
 	private final ArrayList<Node> aRootNodes;
 	private final ArrayList<Edge> aEdges;
 	private final DiagramType aType;
+	
+	/*
+	 * The edges connected to each node, in the same order as in aEdges. 
+	 * An edge that connects a node to itself appears only once.
+	 */
+	private final Map<Node, List<Edge>> aIncidentEdges = new IdentityHashMap<>();
+	
+	/*
+	 * A key for each edge that increases with its position in aEdges, so that the 
+	 * position of an edge in the lists of incident edges can be found without 
+	 * scanning aEdges. Keys are spaced by KEY_GAP so that an edge can usually be 
+	 * inserted between two others without renumbering the keys.
+	 */
+	private static final long KEY_GAP = 1L << 20;
+	private final Map<Edge, Long> aEdgeKeys = new IdentityHashMap<>();
+	private final Comparator<Edge> aEdgeOrder = Comparator.comparingLong(aEdgeKeys::get);
+	
+	/*
+	 * The most recent changes to root nodes and edges, each with the version of 
+	 * the diagram after the change. Consecutive changes to the same element are 
+	 * recorded once, with the version of the last change.
+	 */
+	private static final int MAX_CHANGES = 1000;
+	private final ArrayDeque<RecordedChange> aChanges = new ArrayDeque<>();
+	private long aVersion = 0;
+	private long aLastForgottenVersion = 0;
+	
+	private record RecordedChange(long version, Change change) {}
+	
+	/**
+	 * A change to a root node or an edge of a diagram.
+	 * 
+	 * @param element The root node or edge that changed.
+	 * @param addedOrRemoved True if the element was added to the diagram or removed 
+	 *     from it, or both, and false if the element only changed while in the diagram.
+	 */
+	public record Change(DiagramElement element, boolean addedOrRemoved) {}
 
 	/**
 	 * Creates an empty diagram.
@@ -67,45 +119,12 @@ public final class Diagram implements DiagramData
 	public Diagram duplicate()
 	{
 		Diagram copy = new Diagram(this.aType);
-		aEdges.forEach(edge -> copy.aEdges.add(edge.clone()));
-
-		for( Node node : aRootNodes )
-		{
-			Node nodeCopy = node.clone();
-			copy.aRootNodes.add(nodeCopy);
-			reassignEdges(copy.aEdges, node, nodeCopy);
-		}
-
-		// Reassign diagram
-		copy.aEdges.forEach(edge -> edge.connect(edge.start(), edge.end()));
+		ElementCopier copier = new ElementCopier();
+		aRootNodes.forEach(node -> copy.addRootNode(copier.copy(node)));
+		aEdges.forEach(edge -> copy.addEdge(copier.copy(edge)));
 		return copy;
 	}
 
-	/*
-	 * For node pOriginal, go through all edges that refer to it and replace it with pCopy in the edge. Do this
-	 * recursively for all children of pOriginal, assuming the same topology for pCopy.
-	 */
-	private static void reassignEdges(List<Edge> pEdges, Node pOriginal, Node pCopy)
-	{
-		for( Edge edge : pEdges )
-		{
-			if( edge.start() == pOriginal )
-			{
-				edge.connect(pCopy, edge.end());
-			}
-			if( edge.end() == pOriginal )
-			{
-				edge.connect(edge.start(), pCopy);
-			}
-		}
-		List<Node> oldChildren = pOriginal.getChildren();
-		List<Node> newChildren = pCopy.getChildren();
-		for( int i = 0; i < oldChildren.size(); i++ )
-		{
-			reassignEdges(pEdges, oldChildren.get(i), newChildren.get(i));
-		}
-	}
-
 	@Override
 	public List<Node> rootNodes()
 	{
@@ -234,15 +253,7 @@ public final class Diagram implements DiagramData
 	public Iterable<Edge> edgesConnectedTo(Node pNode)
 	{
 		assert pNode != null && contains(pNode);
-		Collection<Edge> lReturn = new ArrayList<>();
-		for( Edge edge : aEdges )
-		{
-			if( edge.start() == pNode || edge.end() == pNode )
-			{
-				lReturn.add(edge);
-			}
-		}
-		return lReturn;
+		return new ArrayList<>(incidentEdges(pNode));
 	}
 	
 	/**
@@ -257,11 +268,34 @@ public final class Diagram implements DiagramData
 	public List<Edge> edgesTo(Node pNode, Class<? extends Edge> pOfType)
 	{
 		assert pNode != null && pOfType != null;
-		return aEdges.stream()
+		return incidentEdges(pNode).stream()
 				.filter(pOfType::isInstance)
 				.filter(edge -> edge.end() == pNode)
 				.toList();
 	}
+	
+	/**
+	 * Returns all the edges in the diagram of a type assignable to pType,
+	 * and that have pNode as start node, in the order of the list of edges.
+	 * 
+	 * @param pNode The desired start node.
+	 * @param pOfType The desired edge type. Use Edge.class to get edges of any type.
+	 * @return An unmodifiable list of edges of type pOfType (or a subtype) that
+	 * have pNode as start node.
+	 */
+	public List<Edge> edgesFrom(Node pNode, Class<? extends Edge> pOfType)
+	{
+		assert pNode != null && pOfType != null;
+		return incidentEdges(pNode).stream()
+				.filter(pOfType::isInstance)
+				.filter(edge -> edge.start() == pNode)
+				.toList();
+	}
+	
+	private List<Edge> incidentEdges(Node pNode)
+	{
+		return aIncidentEdges.getOrDefault(pNode, Collections.emptyList());
+	}
 
 	/**
 	 * Adds pNode as a root node in this diagram. Callers of this method must ensure that the addition respects the
@@ -274,6 +308,8 @@ public final class Diagram implements DiagramData
 	{
 		assert pNode != null;
 		aRootNodes.add(pNode);
+		pNode.setDiagram(this);
+		record(new Change(pNode, true));
 	}
 
 	/**
@@ -287,6 +323,8 @@ public final class Diagram implements DiagramData
 	{
 		assert pNode != null && aRootNodes.contains(pNode);
 		aRootNodes.remove(pNode);
+		pNode.setDiagram(null);
+		record(new Change(pNode, true));
 	}
 
 	/**
@@ -299,7 +337,11 @@ public final class Diagram implements DiagramData
 	public void addEdge(Edge pEdge)
 	{
 		assert pEdge != null && pEdge.start() != null && pEdge.end() != null;
+		aEdgeKeys.put(pEdge, aEdges.isEmpty() ? 0 : aEdgeKeys.get(aEdges.get(aEdges.size() - 1)) + KEY_GAP);
 		aEdges.add(pEdge);
+		index(pEdge);
+		pEdge.setDiagram(this);
+		record(new Change(pEdge, true));
 	}
 	
 	/**
@@ -312,7 +354,16 @@ public final class Diagram implements DiagramData
 	public void addEdge(int pIndex, Edge pEdge)
 	{
 		assert pEdge != null && pIndex >= 0 && pIndex <= aEdges.size();
+		if( pIndex == aEdges.size() )
+		{
+			addEdge(pEdge);
+			return;
+		}
+		aEdgeKeys.put(pEdge, keyBefore(pIndex));
 		aEdges.add(pIndex, pEdge);
+		index(pEdge);
+		pEdge.setDiagram(this);
+		record(new Change(pEdge, true));
 	}
 
 
@@ -327,6 +378,16 @@ public final class Diagram implements DiagramData
 		assert contains(pEdge);
 		return aEdges.indexOf(pEdge);
 	}
+	
+	/**
+	 * @return A comparator that orders the edges of this diagram as in the list 
+	 *     of edges, without searching the list. The comparator only applies to 
+	 *     edges contained in this diagram.
+	 */
+	public Comparator<Edge> edgeOrder()
+	{
+		return aEdgeOrder;
+	}
 
 	/**
 	 * Removes pEdge from this diagram. Callers must ensure that the removal preserves the integrity of the diagram.
@@ -338,6 +399,160 @@ public final class Diagram implements DiagramData
 	{
 		assert pEdge != null && aEdges.contains(pEdge);
 		aEdges.remove(pEdge);
+		unindex(pEdge, pEdge.start(), pEdge.end());
+		aEdgeKeys.remove(pEdge);
+		pEdge.setDiagram(null);
+		record(new Change(pEdge, true));
+	}
+	
+	/**
+	 * @return The number of changes recorded since this diagram was created.
+	 */
+	public long version()
+	{
+		return aVersion;
+	}
+	
+	/**
+	 * Returns the changes to the root nodes and edges made since the diagram was 
+	 * at version pVersion. A change to a node is recorded as a change to its root. 
+	 * The elements changed are not necessarily still in the diagram.
+	 * 
+	 * @param pVersion A version of this diagram.
+	 * @return The changes made since pVersion, from the most recent, or empty 
+	 *     if too many changes were made since pVersion to list them.
+	 * @pre pVersion >= 0 && pVersion <= version()
+	 */
+	public Optional<List<Change>> changesSince(long pVersion)
+	{
+		assert pVersion >= 0 && pVersion <= aVersion;
+		if( pVersion < aLastForgottenVersion )
+		{
+			return Optional.empty();
+		}
+		List<Change> changes = new ArrayList<>();
+		Iterator<RecordedChange> iterator = aChanges.descendingIterator();
+		while( iterator.hasNext() )
+		{
+			RecordedChange change = iterator.next();
+			if( change.version() <= pVersion )
+			{
+				break;
+			}
+			changes.add(change.change());
+		}
+		return Optional.of(changes);
+	}
+	
+	/**
+	 * Records a change to pElement. This method is called by the root nodes 
+	 * and the edges of this diagram when they change, and should not be called 
+	 * by other clients.
+	 * 
+	 * @param pElement The element that changed.
+	 * @pre pElement != null
+	 */
+	public void elementChanged(DiagramElement pElement)
+	{
+		assert pElement != null;
+		record(new Change(pElement, false));
+	}
+	
+	private void record(Change pChange)
+	{
+		aVersion++;
+		Change change = pChange;
+		if( !aChanges.isEmpty() && aChanges.getLast().change().element() == pChange.element() )
+		{
+			change = new Change(pChange.element(), 
+					pChange.addedOrRemoved() || aChanges.removeLast().change().addedOrRemoved());
+		}
+		else if( aChanges.size() == MAX_CHANGES )
+		{
+			aLastForgottenVersion = aChanges.removeFirst().version();
+		}
+		aChanges.addLast(new RecordedChange(aVersion, change));
+	}
+	
+	/**
+	 * Updates the index of edges after pEdge was connected to different nodes. 
+	 * This method is called by the edges of this diagram, and should not
+	 * be called by other clients.
+	 * 
+	 * @param pEdge The edge that was connected.
+	 * @param pPreviousStart The start node of pEdge before it was connected.
+	 * @param pPreviousEnd The end node of pEdge before it was connected.
+	 * @pre pEdge != null && pEdge is contained in the diagram
+	 */
+	public void edgeConnected(Edge pEdge, Node pPreviousStart, Node pPreviousEnd)
+	{
+		assert pEdge != null && aEdges.contains(pEdge);
+		if( pEdge.start() != pPreviousStart || pEdge.end() != pPreviousEnd )
+		{
+			unindex(pEdge, pPreviousStart, pPreviousEnd);
+			index(pEdge);
+		}
+	}
+	
+	/*
+	 * Returns a key between the keys of the edges at pIndex-1 and pIndex in aEdges,
+	 * and renumbers the keys of all the edges if there is none.
+	 */
+	private long keyBefore(int pIndex)
+	{
+		long next = aEdgeKeys.get(aEdges.get(pIndex));
+		long previous = pIndex == 0 ? next - 2 * KEY_GAP : aEdgeKeys.get(aEdges.get(pIndex - 1));
+		if( next - previous < 2 )
+		{
+			for( int i = 0; i < aEdges.size(); i++ )
+			{
+				aEdgeKeys.put(aEdges.get(i), i * KEY_GAP);
+			}
+			return keyBefore(pIndex);
+		}
+		return previous + (next - previous) / 2;
+	}
+	
+	/*
+	 * Adds pEdge to the lists of edges of its nodes.
+	 */
+	private void index(Edge pEdge)
+	{
+		index(pEdge, pEdge.start());
+		if( pEdge.end() != pEdge.start() )
+		{
+			index(pEdge, pEdge.end());
+		}
+	}
+	
+	private void index(Edge pEdge, Node pNode)
+	{
+		List<Edge> edges = aIncidentEdges.computeIfAbsent(pNode, key -> new ArrayList<>());
+		// The edge is not in the list, so the search returns -(insertion point) - 1
+		edges.add(-Collections.binarySearch(edges, pEdge, aEdgeOrder) - 1, pEdge);
+	}
+	
+	private void unindex(Edge pEdge, Node pStart, Node pEnd)
+	{
+		unindex(pEdge, pStart);
+		if( pEnd != pStart )
+		{
+			unindex(pEdge, pEnd);
+		}
+	}
+	
+	private void unindex(Edge pEdge, Node pNode)
+	{
+		List<Edge> edges = aIncidentEdges.get(pNode);
+		if( edges == null )
+		{
+			return;
+		}
+		edges.removeIf(edge -> edge == pEdge);
+		if( edges.isEmpty() )
+		{
+			aIncidentEdges.remove(pNode);
+		}
 	}
 
 	/**
@@ -29,4 +29,12 @@ public interface DiagramElement extends Cloneable
 	 * @return A set of properties that define this object.
 	 */
 	Properties properties();
+	
+	/**
+	 * @return A number that changes whenever this element changes: when one of its 
+	 *     properties is set and, for a node, when its position, its parent or its 
+	 *     children change, or when one of its descendants changes. Different elements 
+	 *     never have the same version.
+	 */
+	long version();
 }
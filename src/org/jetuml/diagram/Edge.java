@@ -43,10 +43,21 @@ public interface Edge extends DiagramElement
    	 */
    	Node end();
 
+   	/**
+   	 * Records the diagram that contains this edge, so that the diagram
+   	 * can be notified when this edge is connected to different nodes.
+   	 * This method is called by the diagram when the edge is added or removed,
+   	 * and should not be called by other clients.
+   	 * 
+   	 * @param pDiagram The diagram that contains this edge, or null if the 
+   	 *     edge is not in a diagram.
+   	 */
+   	void setDiagram(Diagram pDiagram);
+
    	/**
    	 * @return A clone of this edge, with shallow cloning
    	 *     of the start and end nodes (i.e., the start and end 
-   	 *     nodes are not cloned).
+   	 *     nodes are not cloned). The clone is not in any diagram.
    	 */
    	Edge clone();
 }
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagram;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copies nodes, with their children, and edges between the copied nodes,
+ * so that the copies have the same topology as the originals. The copy of
+ * each node is recorded in an identity map, so copying N nodes and E edges
+ * takes time proportional to N+E.
+ *
+ * Nodes must be copied before the edges that connect them.
+ */
+public final class ElementCopier
+{
+	private final Map<Node, Node> aCopies = new IdentityHashMap<>();
+
+	/**
+	 * Creates a copy of pNode and of its children. If pNode or one of its
+	 * children was already copied, the edges copied afterwards are connected
+	 * to its first copy.
+	 *
+	 * @param pNode The node to copy.
+	 * @return The copy of pNode.
+	 * @pre pNode != null
+	 */
+	public Node copy(Node pNode)
+	{
+		assert pNode != null;
+		Node copy = pNode.clone();
+		recordCopies(pNode, copy);
+		return copy;
+	}
+
+	/*
+	 * Records pCopy as the copy of pOriginal, and the children of pCopy as the copies
+	 * of the children of pOriginal, which are in the same order.
+	 */
+	private void recordCopies(Node pOriginal, Node pCopy)
+	{
+		aCopies.putIfAbsent(pOriginal, pCopy);
+		List<Node> originalChildren = pOriginal.getChildren();
+		List<Node> copiedChildren = pCopy.getChildren();
+		for( int i = 0; i < originalChildren.size(); i++ )
+		{
+			recordCopies(originalChildren.get(i), copiedChildren.get(i));
+		}
+	}
+
+	/**
+	 * @param pNode A node.
+	 * @return True if pNode, or one of its ancestors, was copied.
+	 * @pre pNode != null
+	 */
+	public boolean isCopied(Node pNode)
+	{
+		assert pNode != null;
+		return aCopies.containsKey(pNode);
+	}
+
+	/**
+	 * Creates a copy of pEdge that connects the copies of its nodes.
+	 *
+	 * @param pEdge The edge to copy.
+	 * @return The copy of pEdge.
+	 * @pre pEdge != null && isCopied(pEdge.start()) && isCopied(pEdge.end())
+	 */
+	public Edge copy(Edge pEdge)
+	{
+		assert pEdge != null && isCopied(pEdge.start()) && isCopied(pEdge.end());
+		Edge copy = pEdge.clone();
+		copy.connect(aCopies.get(pEdge.start()), aCopies.get(pEdge.end()));
+		return copy;
+	}
+}
@@ -55,6 +55,17 @@ public interface Node extends DiagramElement
 	 * @param pPoint The new position of the node.
 	 */
 	void moveTo(Point pPoint);
+	
+	/**
+	 * Records the diagram that contains this node as a root node, so that 
+	 * the diagram can be notified when this node or its descendants change.
+	 * This method is called by the diagram when the node is added or removed,
+	 * and should not be called by other clients.
+	 * 
+	 * @param pDiagram The diagram that contains this node as a root node, 
+	 *     or null if the node is not a root node of a diagram.
+	 */
+	void setDiagram(Diagram pDiagram);
 
 	/**
      * Translates the node by a given amount.
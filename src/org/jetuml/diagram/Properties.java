@@ -45,6 +45,28 @@ import java.util.function.Supplier;
 public class Properties implements Iterable<Property>
 {
 	private final Map<PropertyName, Property> aProperties = new LinkedHashMap<>();
+	private final Runnable aChangeHandler;
+	
+	/**
+	 * Creates an empty set of properties.
+	 */
+	public Properties()
+	{
+		this(() -> {});
+	}
+	
+	/**
+	 * Creates an empty set of properties whose setters 
+	 * call pChangeHandler after they assign a value.
+	 * 
+	 * @param pChangeHandler What to do when a property is set.
+	 * @pre pChangeHandler != null
+	 */
+	public Properties(Runnable pChangeHandler)
+	{
+		assert pChangeHandler != null;
+		aChangeHandler = pChangeHandler;
+	}
 	
 	/**
 	 * Adds a property to the end of the list.
@@ -57,7 +79,7 @@ public class Properties implements Iterable<Property>
 	public void add(PropertyName pName, Supplier<Object> pGetter, Consumer<Object> pSetter)
 	{
 		assert pName != null && pGetter != null && pSetter != null && !aProperties.containsKey(pName);
-		aProperties.put(pName, new Property(pName, pGetter, pSetter));
+		aProperties.put(pName, new Property(pName, pGetter, notifying(pSetter)));
 	}
 	
 	/**
@@ -88,11 +110,16 @@ public class Properties implements Iterable<Property>
 		assert pName != null && pGetter != null && pSetter != null && !aProperties.containsKey(pName);
 		assert pIndex >=0 && pIndex <= aProperties.size();
 		List<Property> properties = aProperties.values().stream().collect(toList());
-		properties.add(pIndex, new Property(pName, pGetter, pSetter));
+		properties.add(pIndex, new Property(pName, pGetter, notifying(pSetter)));
 		aProperties.clear();
 		properties.stream().forEach(property -> aProperties.put(property.name(), property));
 	}
 
+	private Consumer<Object> notifying(Consumer<Object> pSetter)
+	{
+		return pSetter.andThen(value -> aChangeHandler.run());
+	}
+
 	@Override
 	public Iterator<Property> iterator()
 	{
@@ -35,6 +35,10 @@ import java.util.List;
  */
 public class CompoundOperation implements DiagramOperation
 {
+	/* An estimate of the size of the operation and of its list, excluding the sub-operations. */
+	private static final int ESTIMATED_SIZE = 56;
+	private static final int REFERENCE_SIZE = 8;
+	
 	private List<DiagramOperation> aOperations = new ArrayList<>();
 	
 	/**
@@ -76,4 +80,85 @@ public class CompoundOperation implements DiagramOperation
 	{
 		return aOperations.isEmpty();
 	}
+	
+	@Override
+	public int estimatedSize()
+	{
+		int size = ESTIMATED_SIZE + REFERENCE_SIZE * aOperations.size();
+		for( DiagramOperation operation : aOperations )
+		{
+			size += operation.estimatedSize();
+		}
+		return size;
+	}
+	
+	/**
+	 * Combines pOperation into this operation if both operations move the 
+	 * same nodes in the same order, which is the case for consecutive moves 
+	 * of the same selection.
+	 * 
+	 * @param pOperation The operation to combine into this one.
+	 * @return True if pOperation was combined into this operation.
+	 * @pre pOperation != null
+	 */
+	@Override
+	public boolean absorb(DiagramOperation pOperation)
+	{
+		assert pOperation != null;
+		if( !(pOperation instanceof CompoundOperation compound) || !movesSameNodesAs(compound) )
+		{
+			return false;
+		}
+		for( int i = 0; i < aOperations.size(); i++ )
+		{
+			aOperations.get(i).absorb(compound.aOperations.get(i));
+		}
+		return true;
+	}
+	
+	private boolean movesSameNodesAs(CompoundOperation pOperation)
+	{
+		if( aOperations.isEmpty() || aOperations.size() != pOperation.aOperations.size() )
+		{
+			return false;
+		}
+		for( int i = 0; i < aOperations.size(); i++ )
+		{
+			if( !(aOperations.get(i) instanceof MoveOperation move) || 
+					!move.movesSameNodeAs(pOperation.aOperations.get(i)) )
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/*
+	 * Replaces the sub-operations that are compound operations by their
+	 * own sub-operations, which does not change the effect of executing or 
+	 * undoing this operation, and releases the unused capacity of the list 
+	 * of sub-operations. Called once no more sub-operations are added.
+	 */
+	void compact()
+	{
+		ArrayList<DiagramOperation> operations = new ArrayList<>();
+		flattenInto(operations);
+		operations.trimToSize();
+		aOperations = operations;
+	}
+	
+	private void flattenInto(List<DiagramOperation> pOperations)
+	{
+		for( DiagramOperation operation : aOperations )
+		{
+			if( operation instanceof CompoundOperation compound )
+			{
+				compound.flattenInto(pOperations);
+			}
+			else
+			{
+				pOperations.add(operation);
+			}
+		}
+	}
 }
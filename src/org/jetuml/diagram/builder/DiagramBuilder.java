@@ -26,6 +26,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -107,10 +108,15 @@ public abstract class DiagramBuilder
 	private static List<Node> getNodeAndAllChildren(Node pNode)
 	{
 		List<Node> result = new ArrayList<>();
-		result.add(pNode);
-		pNode.getChildren().forEach(node -> result.addAll(getNodeAndAllChildren(node)));
+		addNodeAndAllChildren(pNode, result);
 		return result;
 	}
+	
+	private static void addNodeAndAllChildren(Node pNode, List<Node> pResult)
+	{
+		pResult.add(pNode);
+		pNode.getChildren().forEach(node -> addNodeAndAllChildren(node, pResult));
+	}
 
 	/** 
 	 * The default behavior is to position the node so it entirely fits in the diagram, then 
@@ -203,11 +209,16 @@ public abstract class DiagramBuilder
 		}
 		if( pElement instanceof Node node)
 		{
-			List<Node> descendants = getNodeAndAllChildren(node);
-			for(Edge edge : aDiagramRenderer.diagram().edges())
+			// An edge between two descendants is only added once
+			Set<Edge> edges = Collections.newSetFromMap(new IdentityHashMap<>());
+			for( Node descendant : getNodeAndAllChildren(node) )
 			{
-				if(descendants.contains(edge.start() ) || descendants.contains(edge.end()))
+				for( Edge edge : aDiagramRenderer.diagram().edgesConnectedTo(descendant) )
 				{
+					if( !edges.add(edge) )
+					{
+						continue;
+					}
 					result.add(edge);
 					// Special case that if we remove a note edge we must always 
 					// remove the point node as well.
@@ -231,7 +242,7 @@ public abstract class DiagramBuilder
 	/*
 	 * Organize the elements to delete so that they can be reinserted properly
 	 */
-	private List<DiagramElement> tweakOrder(Set<DiagramElement> pElements)
+	private static List<DiagramElement> tweakOrder(Set<DiagramElement> pElements, Positions pPositions)
 	{
 		List<DiagramElement> result = new ArrayList<>();
 		Map<ObjectNode, List<FieldNode>> fields = new HashMap<>();
@@ -259,8 +270,7 @@ public abstract class DiagramBuilder
 				@Override
 				public int compare(FieldNode pField1, FieldNode pField2)
 				{
-					return pField2.getParent().getChildren().indexOf(pField2) - 
-							pField1.getParent().getChildren().indexOf(pField1);
+					return pPositions.childIndexOf(pField2) - pPositions.childIndexOf(pField1);
 				}
 			});
 			for( FieldNode node : nodes )
@@ -286,7 +296,7 @@ public abstract class DiagramBuilder
 				result2.add(element);
 			}
 		}
-		Collections.sort(edges, (pEdge1, pEdge2) -> aDiagramRenderer.diagram().indexOf(pEdge2) - aDiagramRenderer.diagram().indexOf(pEdge1));
+		Collections.sort(edges, (pEdge1, pEdge2) -> pPositions.indexOf(pEdge2) - pPositions.indexOf(pEdge1));
 		Collections.sort(nodes, new Comparator<Node>() 
 		{
 			@Override
@@ -296,12 +306,11 @@ public abstract class DiagramBuilder
 				Node parent2 = pNode2.getParent();
 				if( parent1 == parent2 )
 				{
-					return parent2.getChildren().indexOf(pNode2) -  parent1.getChildren().indexOf(pNode1);
+					return pPositions.childIndexOf(pNode2) - pPositions.childIndexOf(pNode1);
 				}
 				else 
 				{
-					return aDiagramRenderer.diagram().rootNodes().indexOf(parent2) - 
-							aDiagramRenderer.diagram().rootNodes().indexOf(parent1);
+					return pPositions.rootIndexOf(parent2) - pPositions.rootIndexOf(parent1);
 				}
 			}
 		});
@@ -310,6 +319,68 @@ public abstract class DiagramBuilder
 		return result2;
 	}
 	
+	/*
+	 * The positions of the edges, root nodes and children of the diagram, which are 
+	 * computed once for all the elements removed by an operation, so that removing 
+	 * k elements does not require k searches through the diagram.
+	 */
+	private static final class Positions
+	{
+		private final Diagram aDiagram;
+		private Map<Edge, Integer> aEdgeIndexes;
+		private Map<Node, Integer> aRootIndexes;
+		private final Map<Node, Map<Node, Integer>> aChildIndexes = new IdentityHashMap<>();
+		
+		Positions(Diagram pDiagram)
+		{
+			aDiagram = pDiagram;
+		}
+		
+		/*
+		 * The index of pEdge in the diagram.
+		 */
+		int indexOf(Edge pEdge)
+		{
+			if( aEdgeIndexes == null )
+			{
+				aEdgeIndexes = indexes(aDiagram.edges());
+			}
+			return aEdgeIndexes.getOrDefault(pEdge, -1);
+		}
+		
+		/*
+		 * The index of pNode among the root nodes of the diagram, or -1 if it is not a root node.
+		 */
+		int rootIndexOf(Node pNode)
+		{
+			if( aRootIndexes == null )
+			{
+				aRootIndexes = indexes(aDiagram.rootNodes());
+			}
+			return aRootIndexes.getOrDefault(pNode, -1);
+		}
+		
+		/*
+		 * The index of pNode among the children of its parent.
+		 */
+		int childIndexOf(Node pNode)
+		{
+			assert pNode.hasParent();
+			return aChildIndexes.computeIfAbsent(pNode.getParent(), parent -> indexes(parent.getChildren()))
+					.getOrDefault(pNode, -1);
+		}
+		
+		private static <T> Map<T, Integer> indexes(List<T> pElements)
+		{
+			Map<T, Integer> indexes = new IdentityHashMap<>();
+			for( int i = 0; i < pElements.size(); i++ )
+			{
+				indexes.putIfAbsent(pElements.get(i), i);
+			}
+			return indexes;
+		}
+	}
+	
 	/**
 	 * Creates an operation that removes all the elements in pElements.
 	 * 
@@ -326,12 +397,12 @@ public abstract class DiagramBuilder
 			toDelete.addAll(getCoRemovals(element));
 		}
 		CompoundOperation result = new CompoundOperation();
-		
-		for( DiagramElement element : tweakOrder(toDelete))
+		Positions positions = new Positions(aDiagramRenderer.diagram());
+		for( DiagramElement element : tweakOrder(toDelete, positions))
 		{
 			if( element instanceof Edge edge)
 			{
-				int index = aDiagramRenderer.diagram().indexOf(edge);
+				int index = positions.indexOf(edge);
 				result.add(new SimpleOperation(
 						()-> aDiagramRenderer.diagram().removeEdge(edge),
 						()-> aDiagramRenderer.diagram().addEdge(index, edge)));
@@ -342,7 +413,7 @@ public abstract class DiagramBuilder
 				{
 					result.add(new SimpleOperation(
 						createDetachOperation(node),
-						createReinsertOperation(node)));
+						createReinsertOperation(node, positions.childIndexOf(node))));
 				}
 				else
 				{
@@ -366,9 +437,7 @@ public abstract class DiagramBuilder
 	 */
 	public static DiagramOperation createMoveNodeOperation(Node pNode, int pX, int pY)
 	{
-		return new SimpleOperation(
-				()-> pNode.translate(pX, pY),
-				()-> pNode.translate(-pX, -pY));
+		return new MoveOperation(pNode, pX, pY);
 	}
 	
 	/**
@@ -468,11 +537,10 @@ public abstract class DiagramBuilder
 				()-> aDiagramRenderer.diagram().removeEdge(pEdge)));
 	}
 	
-	private static Runnable createReinsertOperation(Node pNode)
+	private static Runnable createReinsertOperation(Node pNode, int pIndex)
 	{
 		Node parent = pNode.getParent();
-		int index = parent.getChildren().indexOf(pNode);
-		return ()-> parent.addChild(index, pNode);
+		return ()-> parent.addChild(pIndex, pNode);
 	}
 	
 	private Runnable createDetachOperation(Node pNode)
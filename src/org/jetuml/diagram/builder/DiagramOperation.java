@@ -36,4 +36,28 @@ public interface DiagramOperation
 	 * Undoes the operation.
 	 */
 	void undo();
+	
+	/**
+	 * @return An estimate of the number of bytes of memory used by 
+	 *     this operation, for the purpose of bounding the history of operations.
+	 */
+	default int estimatedSize()
+	{
+		return SimpleOperation.ESTIMATED_SIZE;
+	}
+	
+	/**
+	 * Combines pOperation, which was executed right after this operation, into 
+	 * this operation, if the two can be combined, so that executing or undoing 
+	 * this operation then has the same effect as executing or undoing both.
+	 * 
+	 * @param pOperation The operation to combine into this one.
+	 * @return True if pOperation was combined into this operation, 
+	 *     false if this operation is unchanged.
+	 * @pre pOperation != null
+	 */
+	default boolean absorb(DiagramOperation pOperation)
+	{
+		return false;
+	}
 }
@@ -21,20 +21,77 @@
 
 package org.jetuml.diagram.builder;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Optional;
 
 /**
  * Responsible for executing and undoing operations, and managing the collection 
  * of previously executed and undone operations. Can also compute whether a 
  * diagram has unsaved modifications.
+ * 
+ * The history of operations is bounded by a maximum number of operations and 
+ * a maximum estimated size in bytes: once it exceeds either, the oldest executed 
+ * operations are forgotten, and then the operations farthest from being redone. 
+ * The last executed operation is always kept. Consecutive moves of the same nodes 
+ * are combined into a single operation, and compound operations are compacted
+ * once they are no longer the last executed operation.
  */
 public class DiagramOperationProcessor
 {
-	private final List<DiagramOperation> aExecutedOperations = new ArrayList<>();
-	private final List<DiagramOperation> aUndoneOperations = new ArrayList<>();
+	/** The maximum number of operations kept by default. */
+	public static final int DEFAULT_MAXIMUM_NUMBER_OF_OPERATIONS = 10_000;
+	
+	/** The maximum estimated size of the operations kept by default, in bytes. */
+	public static final long DEFAULT_MAXIMUM_SIZE = 16 * 1024 * 1024;
+	
+	/* Marks a saved version of the diagram that cannot be reached through the operations. */
+	private static final DiagramOperation UNREACHABLE_SAVED_STATE = new CompoundOperation();
+	
+	private final Deque<DiagramOperation> aExecutedOperations = new ArrayDeque<>();
+	private final Deque<DiagramOperation> aUndoneOperations = new ArrayDeque<>();
 	private Optional<DiagramOperation> aLastSavedOperation = Optional.empty();
+	private final int aMaximumNumberOfOperations;
+	private final long aMaximumSize;
+	// The estimated size of all the executed and undone operations
+	private long aSize = 0;
+	private Optional<OperationObserver> aObserver = Optional.empty();
+	
+	/**
+	 * Creates a processor with the default bounds on its history.
+	 */
+	public DiagramOperationProcessor()
+	{
+		this(DEFAULT_MAXIMUM_NUMBER_OF_OPERATIONS, DEFAULT_MAXIMUM_SIZE);
+	}
+	
+	/**
+	 * Creates a processor whose history of executed and undone
+	 * operations is bounded.
+	 * 
+	 * @param pMaximumNumberOfOperations The maximum number of operations kept.
+	 * @param pMaximumSize The maximum estimated size of the operations kept, in bytes.
+	 * @pre pMaximumNumberOfOperations > 0 && pMaximumSize > 0
+	 */
+	public DiagramOperationProcessor(int pMaximumNumberOfOperations, long pMaximumSize)
+	{
+		assert pMaximumNumberOfOperations > 0 && pMaximumSize > 0;
+		aMaximumNumberOfOperations = pMaximumNumberOfOperations;
+		aMaximumSize = pMaximumSize;
+	}
+	
+	/**
+	 * Sets the object notified of the operations executed and undone by this processor,
+	 * replacing any previous one.
+	 * 
+	 * @param pObserver The observer.
+	 * @pre pObserver != null
+	 */
+	public void setObserver(OperationObserver pObserver)
+	{
+		assert pObserver != null;
+		aObserver = Optional.of(pObserver);
+	}
 	
 	/**
 	 * Executes pOperation and adds it to the list of executed
@@ -47,7 +104,7 @@ public class DiagramOperationProcessor
 	{
 		assert pOperation != null;
 		pOperation.execute();
-		aExecutedOperations.add(pOperation);
+		store(pOperation);
 	}
 	
 	/**
@@ -63,7 +120,7 @@ public class DiagramOperationProcessor
 			}
 			else
 			{
-				return aLastSavedOperation.get() != peek();
+				return aLastSavedOperation.get() != aExecutedOperations.peekLast();
 			}
 		}
 		else
@@ -72,21 +129,23 @@ public class DiagramOperationProcessor
 		}
 	}
 	
-	private DiagramOperation peek()
+	/**
+	 * Indicates that the diagram managed by this processor has been saved.
+	 */
+	public void diagramSaved()
 	{
-		return aExecutedOperations.get(aExecutedOperations.size()-1);
+		aLastSavedOperation = Optional.ofNullable(aExecutedOperations.peekLast());
 	}
 	
 	/**
-	 * Indicates that the diagram managed by this processor has been saved.
+	 * Indicates that the diagram managed by this processor differs from its saved 
+	 * version for another reason than the operations of this processor, for example
+	 * because it was recovered after a crash. The diagram then has unsaved 
+	 * operations until it is saved.
 	 */
-	public void diagramSaved()
+	public void diagramModified()
 	{
-		aLastSavedOperation = Optional.empty();
-		if( aExecutedOperations.size() > 0 )
-		{
-			aLastSavedOperation = Optional.of(peek());
-		}
+		aLastSavedOperation = Optional.of(UNREACHABLE_SAVED_STATE);
 	}
 	
 	/**
@@ -99,7 +158,92 @@ public class DiagramOperationProcessor
 	public void storeAlreadyExecutedOperation(DiagramOperation pOperation)
 	{
 		assert pOperation != null;
-		aExecutedOperations.add(pOperation);
+		store(pOperation);
+	}
+	
+	/*
+	 * Combines pOperation into the last executed operation if possible, unless
+	 * that operation marks the state of the diagram when it was saved. Otherwise 
+	 * adds it as the last executed operation.
+	 */
+	private void store(DiagramOperation pOperation)
+	{
+		aObserver.ifPresent(observer -> observer.operationExecuted(pOperation));
+		DiagramOperation last = aExecutedOperations.peekLast();
+		if( last != null )
+		{
+			aSize -= last.estimatedSize();
+			boolean absorbed = !isLastSaved(last) && last.absorb(pOperation);
+			if( !absorbed && last instanceof CompoundOperation compound )
+			{
+				compound.compact();
+			}
+			aSize += last.estimatedSize();
+			if( absorbed )
+			{
+				return;
+			}
+		}
+		aExecutedOperations.addLast(pOperation);
+		aSize += pOperation.estimatedSize();
+		trim();
+	}
+	
+	private boolean isLastSaved(DiagramOperation pOperation)
+	{
+		return aLastSavedOperation.isPresent() && aLastSavedOperation.get() == pOperation;
+	}
+	
+	/*
+	 * Forgets the oldest operations until the history is within its bounds,
+	 * always keeping the last executed operation.
+	 */
+	private void trim()
+	{
+		while( size() > aMaximumNumberOfOperations || aSize > aMaximumSize )
+		{
+			DiagramOperation forgotten;
+			if( aExecutedOperations.size() > 1 )
+			{
+				forgotten = aExecutedOperations.removeFirst();
+				if( isLastSaved(forgotten) )
+				{
+					// The state of the diagram when it was saved is now the oldest state in the history
+					aLastSavedOperation = Optional.empty();
+				}
+				else if( aLastSavedOperation.isEmpty() )
+				{
+					// The diagram was saved before the forgotten operation, which can no longer be undone
+					aLastSavedOperation = Optional.of(UNREACHABLE_SAVED_STATE);
+				}
+			}
+			else if( !aUndoneOperations.isEmpty() )
+			{
+				forgotten = aUndoneOperations.removeFirst();
+			}
+			else
+			{
+				return;
+			}
+			aSize -= forgotten.estimatedSize();
+		}
+	}
+	
+	/**
+	 * @return The number of executed and undone operations kept by this processor.
+	 */
+	public int size()
+	{
+		return aExecutedOperations.size() + aUndoneOperations.size();
+	}
+	
+	/**
+	 * @return The estimated size in bytes of the executed and 
+	 *     undone operations kept by this processor.
+	 */
+	public long estimatedSize()
+	{
+		return aSize;
 	}
 	
 	/**
@@ -110,9 +254,10 @@ public class DiagramOperationProcessor
 	public void undoLastExecutedOperation()
 	{
 		assert canUndo();
-		DiagramOperation operation = aExecutedOperations.remove(aExecutedOperations.size() - 1);
+		DiagramOperation operation = aExecutedOperations.removeLast();
 		operation.undo();
-		aUndoneOperations.add(operation);
+		aUndoneOperations.addLast(operation);
+		aObserver.ifPresent(observer -> observer.operationUndone(operation));
 	}
 	
 	/**
@@ -123,9 +268,10 @@ public class DiagramOperationProcessor
 	public void redoLastUndoneOperation()
 	{
 		assert canRedo();
-		DiagramOperation operation = aUndoneOperations.remove(aUndoneOperations.size() - 1);
+		DiagramOperation operation = aUndoneOperations.removeLast();
 		operation.execute();
-		aExecutedOperations.add(operation);
+		aExecutedOperations.addLast(operation);
+		aObserver.ifPresent(observer -> observer.operationExecuted(operation));
 	}
 
 	/**
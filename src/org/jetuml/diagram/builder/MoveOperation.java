@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagram.builder;
+
+import org.jetuml.diagram.Node;
+
+/**
+ * An operation that translates a node. Consecutive moves of 
+ * the same node can be combined into a single operation.
+ */
+public final class MoveOperation implements DiagramOperation
+{
+	/* An estimate of the size of the operation, which only refers to its node. */
+	private static final int ESTIMATED_SIZE = 24;
+	
+	private final Node aNode;
+	private int aDeltaX;
+	private int aDeltaY;
+	
+	/**
+	 * Creates an operation to move pNode.
+	 * 
+	 * @param pNode The node to move.
+	 * @param pDeltaX The amount to move the node in the x-coordinate.
+	 * @param pDeltaY The amount to move the node in the y-coordinate.
+	 * @pre pNode != null
+	 */
+	public MoveOperation(Node pNode, int pDeltaX, int pDeltaY)
+	{
+		assert pNode != null;
+		aNode = pNode;
+		aDeltaX = pDeltaX;
+		aDeltaY = pDeltaY;
+	}
+
+	@Override
+	public void execute()
+	{
+		aNode.translate(aDeltaX, aDeltaY);
+	}
+
+	@Override
+	public void undo()
+	{
+		aNode.translate(-aDeltaX, -aDeltaY);
+	}
+	
+	@Override
+	public int estimatedSize()
+	{
+		return ESTIMATED_SIZE;
+	}
+	
+	/**
+	 * Combines pOperation into this operation if it is a move of the same node.
+	 * 
+	 * @param pOperation The operation to combine into this one.
+	 * @return True if pOperation moves the same node as this operation.
+	 * @pre pOperation != null
+	 */
+	@Override
+	public boolean absorb(DiagramOperation pOperation)
+	{
+		assert pOperation != null;
+		if( !movesSameNodeAs(pOperation) )
+		{
+			return false;
+		}
+		MoveOperation move = (MoveOperation) pOperation;
+		aDeltaX += move.aDeltaX;
+		aDeltaY += move.aDeltaY;
+		return true;
+	}
+	
+	/*
+	 * @return True if pOperation is a move of the node of this operation.
+	 */
+	boolean movesSameNodeAs(DiagramOperation pOperation)
+	{
+		return pOperation instanceof MoveOperation move && move.aNode == aNode;
+	}
+}
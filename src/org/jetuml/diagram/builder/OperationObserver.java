@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagram.builder;
+
+/**
+ * Objects interested in the operations executed and undone 
+ * by a DiagramOperationProcessor.
+ */
+public interface OperationObserver
+{
+	/**
+	 * Called after pOperation is executed, for the first time or again 
+	 * when it is redone. If pOperation is combined with the last executed 
+	 * operation, pOperation itself is passed.
+	 * 
+	 * @param pOperation The operation executed.
+	 */
+	void operationExecuted(DiagramOperation pOperation);
+	
+	/**
+	 * Called after pOperation is undone.
+	 * 
+	 * @param pOperation The operation undone.
+	 */
+	void operationUndone(DiagramOperation pOperation);
+}
@@ -28,6 +28,10 @@ package org.jetuml.diagram.builder;
  */
 public class SimpleOperation implements DiagramOperation
 {
+	/* An estimate of the size of an operation and of the two lambda 
+	 * expressions it runs, with a few captured variables. */
+	static final int ESTIMATED_SIZE = 96;
+	
 	private final Runnable aOperation;
 	private final Runnable aReverse;
 	
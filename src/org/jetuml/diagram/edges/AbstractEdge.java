@@ -21,6 +21,7 @@
 package org.jetuml.diagram.edges;
 
 import org.jetuml.diagram.AbstractDiagramElement;
+import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.Node;
 
@@ -31,13 +32,40 @@ public abstract class AbstractEdge extends AbstractDiagramElement implements Edg
 {
 	private Node aStart;
 	private Node aEnd;
+	private Diagram aDiagram;
 	
 	@Override
 	public final void connect(Node pStart, Node pEnd)
 	{
 		assert pStart != null && pEnd != null;
+		Node previousStart = aStart;
+		Node previousEnd = aEnd;
 		aStart = pStart;
 		aEnd = pEnd;
+		if( aDiagram != null )
+		{
+			aDiagram.edgeConnected(this, previousStart, previousEnd);
+		}
+		changed();
+	}
+	
+	@Override
+	public final void setDiagram(Diagram pDiagram)
+	{
+		aDiagram = pDiagram;
+	}
+	
+	/*
+	 * Edges notify their diagram of their changes.
+	 */
+	@Override
+	protected void changed()
+	{
+		super.changed();
+		if( aDiagram != null )
+		{
+			aDiagram.elementChanged(this);
+		}
 	}
 
 	@Override
@@ -56,6 +84,7 @@ public abstract class AbstractEdge extends AbstractDiagramElement implements Edg
 	public AbstractEdge clone()
 	{
 		AbstractEdge clone = (AbstractEdge) super.clone();
+		clone.aDiagram = null;
 		return clone;
 	}
 	
@@ -47,6 +47,7 @@ public final class DependencyEdge extends SingleLabelEdge
 	{
 		assert pDirectionality != null;
 		aDirectionality = pDirectionality;
+		changed();
 	}
 
 	/**
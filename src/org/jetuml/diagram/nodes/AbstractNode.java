@@ -25,6 +25,7 @@ import static java.util.Collections.emptyList;
 import java.util.List;
 
 import org.jetuml.diagram.AbstractDiagramElement;
+import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.Node;
 import org.jetuml.geom.Point;
 
@@ -34,11 +35,13 @@ import org.jetuml.geom.Point;
 public abstract class AbstractNode extends AbstractDiagramElement implements Node
 {
 	private Point aPosition = new Point(0, 0);
+	private Diagram aDiagram;
 	
 	@Override
 	public void translate(int pDeltaX, int pDeltaY)
 	{
 		aPosition = new Point( aPosition.x() + pDeltaX, aPosition.y() + pDeltaY );
+		changed();
 	}
 	
 	@Override
@@ -51,6 +54,31 @@ public abstract class AbstractNode extends AbstractDiagramElement implements Nod
 	public final void moveTo(Point pPoint)
 	{
 		aPosition = pPoint;
+		changed();
+	}
+	
+	@Override
+	public final void setDiagram(Diagram pDiagram)
+	{
+		aDiagram = pDiagram;
+	}
+	
+	/*
+	 * A change to a node is also a change to its ancestors. 
+	 * The root node notifies its diagram.
+	 */
+	@Override
+	protected void changed()
+	{
+		super.changed();
+		if( hasParent() )
+		{
+			((AbstractNode) getParent()).changed();
+		}
+		else if( aDiagram != null )
+		{
+			aDiagram.elementChanged(this);
+		}
 	}
 
 	@Override
@@ -58,6 +86,7 @@ public abstract class AbstractNode extends AbstractDiagramElement implements Nod
 	{
 		AbstractNode clone = (AbstractNode) super.clone();
 		clone.aPosition = aPosition.copy();
+		clone.aDiagram = null;
 		return clone;
 	}
 	
@@ -45,6 +45,7 @@ public class AbstractPackageNode extends NamedNode
 	{
 		assert pNode instanceof PackageNode || pNode == null;
 		aContainer = Optional.of(pNode);
+		changed();
 	}
 	
 	@Override
@@ -52,6 +53,7 @@ public class AbstractPackageNode extends NamedNode
 	{
 		assert hasParent();
 		aContainer = Optional.empty();
+		changed();
 	}
 
 	@Override
@@ -53,6 +53,7 @@ public class CallNode extends AbstractNode
 	public void setOpenBottom(boolean pNewValue)
 	{ 
 		aOpenBottom = pNewValue; 
+		changed();
 	}
 
 	@Override
@@ -92,6 +93,7 @@ public class CallNode extends AbstractNode
 		assert pNode != null;
 		assert pNode instanceof ImplicitParameterNode;
 		aImplicitParameter = Optional.of((ImplicitParameterNode) pNode);
+		changed();
 	}
 	
 	@Override
@@ -99,6 +101,7 @@ public class CallNode extends AbstractNode
 	{
 		assert hasParent();
 		aImplicitParameter = Optional.empty();
+		changed();
 	}
 
 	@Override
@@ -49,6 +49,7 @@ public final class FieldNode extends NamedNode
 	public void setValue(String pNewValue)
 	{
 		aValue = pNewValue;
+		changed();
 	}
 
 	/**
@@ -72,6 +73,7 @@ public final class FieldNode extends NamedNode
 	{
 		assert pNode != null && pNode instanceof ObjectNode;
 		aObject = Optional.of((ObjectNode) pNode);		
+		changed();
 	}
 	
 	@Override
@@ -79,6 +81,7 @@ public final class FieldNode extends NamedNode
 	{
 		assert hasParent();
 		aObject = Optional.empty();
+		changed();
 	}
 	
 	@Override
@@ -39,6 +39,7 @@ public final class PackageDescriptionNode extends AbstractPackageNode
 	{
 		assert pContents != null;
 		aContents = pContents;
+		changed();
 	}
 	
 	/**
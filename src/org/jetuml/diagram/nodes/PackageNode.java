@@ -73,6 +73,7 @@ public final class PackageNode extends AbstractPackageNode
 		}
 		aContainedNodes.add(pIndex, pNode);
 		pNode.link(this);
+		changed();
 	}
 
 	@Override
@@ -89,6 +90,7 @@ public final class PackageNode extends AbstractPackageNode
 		assert pNode.getParent() == this;
 		aContainedNodes.remove(pNode);
 		pNode.unlink();
+		changed();
 	}
 	
 	@Override
@@ -44,6 +44,7 @@ public abstract class TypeNode extends NamedNode
 	{
 		assert pMethods != null;
 		aMethods = pMethods;
+		changed();
 	}
 	
 	/**
@@ -77,6 +78,7 @@ public abstract class TypeNode extends NamedNode
 	{
 		assert pNode instanceof PackageNode && pNode != null;
 		aContainer = Optional.of(pNode);
+		changed();
 	}
 	
 	@Override
@@ -84,6 +86,7 @@ public abstract class TypeNode extends NamedNode
 	{
 		assert hasParent();
 		aContainer = Optional.empty();
+		changed();
 	}
 	
 	@Override
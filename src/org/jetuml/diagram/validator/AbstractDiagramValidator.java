@@ -20,12 +20,14 @@
  *******************************************************************************/
 package org.jetuml.diagram.validator;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 
 import org.jetuml.annotations.TemplateMethod;
 import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.Node;
 import org.jetuml.diagram.edges.NoteEdge;
@@ -41,8 +43,8 @@ import org.jetuml.diagram.validator.constraints.ConstraintValidNoteEdge;
  */
 abstract class AbstractDiagramValidator implements DiagramValidator
 {
-	private static final String DESCRIPTOR_INVALID_ELEMENTS = "StructureInvalidElements";
-	private static final String DESCRIPTOR_INVALID_POINTS = "StructureInvalidPoints";
+	static final String DESCRIPTOR_INVALID_ELEMENTS = "StructureInvalidElements";
+	static final String DESCRIPTOR_INVALID_POINTS = "StructureInvalidPoints";
 	private static final String DESCRIPTOR_INVALID_NODES = "StructureInvalidNodes";
 
 	
@@ -121,7 +123,11 @@ abstract class AbstractDiagramValidator implements DiagramValidator
 		}
 	}
 	
-	private Optional<Violation> validateDiagramNodes()
+	/**
+	 * @return A structural violation if the diagram-specific 
+	 *     validation of the nodes fails, or Optional.empty() otherwise.
+	 */
+	Optional<Violation> validateDiagramNodes()
 	{
 		if( hasValidDiagramNodes() )
 		{
@@ -135,22 +141,47 @@ abstract class AbstractDiagramValidator implements DiagramValidator
 	
 	private Optional<Violation> validateSemantics()
 	{
+		ValidationContext context = new ValidationContext(aDiagram);
 		return aDiagram.edges().stream()
-				.map(edge -> validateAllConstraintsFor(edge))
+				.map(edge -> validateAllConstraintsFor(edge, context))
 				.filter(Optional::isPresent)
 				.map(Optional::get)
 				.findFirst();
 	}
 	
-	private Optional<Violation> validateAllConstraintsFor(Edge pEdge)
+	private Optional<Violation> validateAllConstraintsFor(Edge pEdge, ValidationContext pContext)
 	{
 		// We retrieve the first constraint that is not satisfied (if it exists)
 		return aConstraints.stream()
-				.filter(constraint -> !constraint.satisfied(pEdge, aDiagram))
+				.filter(constraint -> !constraint.satisfied(pEdge, pContext))
 				.findFirst()
 				.map(constraint -> Violation.newSemanticViolation(constraint));
 	}
 	
+	/**
+	 * @param pElement The element to check.
+	 * @return True if the type of pElement is valid in this diagram.
+	 * @pre pElement != null
+	 */
+	boolean hasValidType(DiagramElement pElement)
+	{
+		assert pElement != null;
+		if( pElement instanceof Node )
+		{
+			return aValidNodeTypes.contains(pElement.getClass());
+		}
+		return aValidEdgeTypes.contains(pElement.getClass());
+	}
+	
+	/**
+	 * @return The constraints checked against every edge, in the order 
+	 *     in which they are checked.
+	 */
+	Set<EdgeConstraint> constraints()
+	{
+		return Collections.unmodifiableSet(aConstraints);
+	}
+	
 	private boolean hasValidElementTypes()
 	{
 		return aDiagram.allNodes().stream()
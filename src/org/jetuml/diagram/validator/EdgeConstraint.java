@@ -20,7 +20,6 @@
  *******************************************************************************/
 package org.jetuml.diagram.validator;
 
-import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.Edge;
 
 /**
@@ -32,10 +31,23 @@ public interface EdgeConstraint
 	 * Determines if a constraint is satisfied.
 	 * 
 	 * @param pEdge The edge being validated.
-	 * @param pDiagram The diagram containing the edge.
+	 * @param pContext The validation pass, with the diagram containing the edge.
 	 * @return True if the edge is satisfied.
-	 * @pre pEdge != null && pDiagram != null && pDiagram.contains(pEdge)
+	 * @pre pEdge != null && pContext != null && pContext.diagram().contains(pEdge)
 	 * @pre pEdge.start() != null && pEdge.end() != null;
 	 */
-	boolean satisfied(Edge pEdge, Diagram pDiagram);
+	boolean satisfied(Edge pEdge, ValidationContext pContext);
+	
+	/**
+	 * A constraint is local if whether an edge satisfies it only depends on 
+	 * the edge, on its start and end nodes and their parents, and on the edges 
+	 * connected to its start and end nodes. An incremental validation only checks
+	 * local constraints against the edges close to the elements that changed.
+	 * 
+	 * @return True if this constraint is local.
+	 */
+	default boolean isLocal()
+	{
+		return true;
+	}
 }
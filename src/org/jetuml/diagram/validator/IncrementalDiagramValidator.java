@@ -0,0 +1,350 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagram.validator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.Diagram.Change;
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.nodes.PointNode;
+
+/**
+ * A validator that only checks the parts of a diagram that changed 
+ * since its last validation, and returns the same violation as a 
+ * full validation of the diagram.
+ * 
+ * The root nodes and edges that changed are found in the log of changes 
+ * of the diagram, and compared with the parents and connections recorded 
+ * at the last validation. The types of new elements are checked, and local 
+ * edge constraints are only checked against the edges connected to nodes 
+ * whose edges or parent changed. The results are kept for the edges that 
+ * are not affected. Constraints that are not local are checked against 
+ * every edge. The entire diagram is only compared at the first validation, 
+ * or if too many changes were made since the last one for the diagram to 
+ * list them.
+ */
+public final class IncrementalDiagramValidator implements DiagramValidator
+{
+	private final AbstractDiagramValidator aValidator;
+	private final List<EdgeConstraint> aConstraints;
+	private final boolean aAllConstraintsLocal;
+	
+	// The state of the diagram at the last validation, or -1 before the first validation
+	private long aVersion = -1;
+	private final Map<Node, Node> aParents = new IdentityHashMap<>();
+	// The nodes of the tree of each root node
+	private final Map<Node, List<Node>> aTrees = new IdentityHashMap<>();
+	private final Map<Edge, Connection> aConnections = new IdentityHashMap<>();
+	
+	private final Set<DiagramElement> aElementsWithInvalidType = newIdentitySet();
+	private final Set<Node> aPointNodesWithoutEdges = newIdentitySet();
+	// Whether each edge satisfies the local constraints checked against it
+	private final Map<Edge, Map<EdgeConstraint, Boolean>> aLocalResults = new IdentityHashMap<>();
+	// The edges whose local constraints need to be checked again
+	private final Set<Edge> aUncheckedEdges = newIdentitySet();
+	// If all constraints are local, the edges that do not satisfy all of them
+	private final Set<Edge> aViolatingEdges = newIdentitySet();
+	
+	private record Connection(Node start, Node end) {}
+	
+	/**
+	 * Creates a validator for pDiagram. The first validation checks the entire diagram.
+	 * 
+	 * @param pDiagram The diagram to validate.
+	 * @pre pDiagram != null
+	 */
+	public IncrementalDiagramValidator(Diagram pDiagram)
+	{
+		assert pDiagram != null;
+		DiagramValidator validator = DiagramType.newValidatorInstanceFor(pDiagram);
+		assert validator instanceof AbstractDiagramValidator;
+		aValidator = (AbstractDiagramValidator) validator;
+		aConstraints = new ArrayList<>(aValidator.constraints());
+		aAllConstraintsLocal = aConstraints.stream().allMatch(EdgeConstraint::isLocal);
+	}
+	
+	/**
+	 * @return The diagram validated by this validator.
+	 */
+	public Diagram diagram()
+	{
+		return aValidator.diagram();
+	}
+	
+	@Override
+	public Optional<Violation> validate()
+	{
+		update();
+		if( !aElementsWithInvalidType.isEmpty() )
+		{
+			return Optional.of(Violation.newStructuralViolation(AbstractDiagramValidator.DESCRIPTOR_INVALID_ELEMENTS));
+		}
+		if( !aPointNodesWithoutEdges.isEmpty() )
+		{
+			return Optional.of(Violation.newStructuralViolation(AbstractDiagramValidator.DESCRIPTOR_INVALID_POINTS));
+		}
+		return aValidator.validateDiagramNodes().or(this::validateSemantics);
+	}
+	
+	/*
+	 * Brings the recorded state of the diagram up to date, and finds the edges
+	 * against which the local constraints need to be checked again. They are only 
+	 * checked once the diagram is structurally valid.
+	 */
+	private void update()
+	{
+		Map<DiagramElement, Boolean> changes = changes();
+		Set<Node> affectedNodes = newIdentitySet();
+		
+		// The nodes of the trees of changed root nodes that are no longer in these trees
+		Set<Node> leftNodes = newIdentitySet();
+		Set<Node> nodes = newIdentitySet();
+		changes.forEach((element, inDiagram) -> 
+		{
+			if( element instanceof Node root )
+			{
+				List<Node> previousTree = aTrees.remove(root);
+				if( previousTree != null )
+				{
+					leftNodes.addAll(previousTree);
+				}
+				if( inDiagram )
+				{
+					List<Node> tree = new ArrayList<>();
+					collectNodes(root, tree);
+					aTrees.put(root, tree);
+					nodes.addAll(tree);
+				}
+			}
+		});
+		for( Node node : nodes )
+		{
+			Node parent = node.hasParent() ? node.getParent() : null;
+			if( !aParents.containsKey(node) )
+			{
+				addElement(node);
+			}
+			if( !aParents.containsKey(node) || aParents.get(node) != parent )
+			{
+				aParents.put(node, parent);
+				affectedNodes.add(node);
+			}
+		}
+		for( Node node : leftNodes )
+		{
+			// A node that left a tree can have moved to another changed tree
+			if( !nodes.contains(node) )
+			{
+				aParents.remove(node);
+				aElementsWithInvalidType.remove(node);
+				affectedNodes.add(node);
+			}
+		}
+		
+		changes.forEach((element, inDiagram) -> 
+		{
+			if( element instanceof Edge edge && inDiagram )
+			{
+				Connection connection = new Connection(edge.start(), edge.end());
+				Connection previous = aConnections.get(edge);
+				if( previous == null )
+				{
+					addElement(edge);
+				}
+				if( !connection.equals(previous) )
+				{
+					aConnections.put(edge, connection);
+					aUncheckedEdges.add(edge);
+					addNodes(affectedNodes, connection);
+					if( previous != null )
+					{
+						addNodes(affectedNodes, previous);
+					}
+				}
+			}
+			else if( element instanceof Edge edge && aConnections.containsKey(edge) )
+			{
+				addNodes(affectedNodes, aConnections.remove(edge));
+				aElementsWithInvalidType.remove(edge);
+				aUncheckedEdges.remove(edge);
+				aLocalResults.remove(edge);
+				aViolatingEdges.remove(edge);
+			}
+		});
+		
+		for( Node node : affectedNodes )
+		{
+			List<Edge> edgesTo = diagram().edgesTo(node, Edge.class);
+			List<Edge> edgesFrom = diagram().edgesFrom(node, Edge.class);
+			aUncheckedEdges.addAll(edgesTo);
+			aUncheckedEdges.addAll(edgesFrom);
+			// Point nodes must be connected to an edge
+			if( node instanceof PointNode && aParents.containsKey(node) && aParents.get(node) == null && 
+					edgesTo.isEmpty() && edgesFrom.isEmpty() )
+			{
+				aPointNodesWithoutEdges.add(node);
+			}
+			else
+			{
+				aPointNodesWithoutEdges.remove(node);
+			}
+		}
+		aUncheckedEdges.forEach(aLocalResults::remove);
+	}
+	
+	/*
+	 * Returns the root nodes and edges that changed since the last validation, 
+	 * each with whether it is in the diagram. Before the first validation, or if 
+	 * the diagram no longer lists the changes, these are all the root nodes and 
+	 * edges of the diagram and all the ones recorded at the last validation.
+	 */
+	private Map<DiagramElement, Boolean> changes()
+	{
+		Optional<List<Change>> changes = aVersion < 0 ? Optional.empty() : diagram().changesSince(aVersion);
+		aVersion = diagram().version();
+		Map<DiagramElement, Boolean> result = new IdentityHashMap<>();
+		if( changes.isEmpty() )
+		{
+			aTrees.keySet().forEach(node -> result.put(node, false));
+			aConnections.keySet().forEach(edge -> result.put(edge, false));
+			diagram().rootNodes().forEach(node -> result.put(node, true));
+			diagram().edges().forEach(edge -> result.put(edge, true));
+			return result;
+		}
+		for( Change change : changes.get() )
+		{
+			DiagramElement element = change.element();
+			if( result.containsKey(element) )
+			{
+				continue;
+			}
+			if( !change.addedOrRemoved() )
+			{
+				// Only root nodes and edges in the diagram report their changes
+				result.put(element, true);
+			}
+			else if( element instanceof Node node )
+			{
+				// A root node that was just added is at the end of the list
+				result.put(element, diagram().rootNodes().lastIndexOf(node) >= 0);
+			}
+			else if( element instanceof Edge edge )
+			{
+				result.put(element, diagram().edgesFrom(edge.start(), Edge.class).contains(edge));
+			}
+		}
+		return result;
+	}
+	
+	private void addElement(DiagramElement pElement)
+	{
+		if( !aValidator.hasValidType(pElement) )
+		{
+			aElementsWithInvalidType.add(pElement);
+		}
+	}
+	
+	private static void addNodes(Set<Node> pNodes, Connection pConnection)
+	{
+		pNodes.add(pConnection.start());
+		pNodes.add(pConnection.end());
+	}
+	
+	private static void collectNodes(Node pNode, List<Node> pNodes)
+	{
+		pNodes.add(pNode);
+		pNode.getChildren().forEach(child -> collectNodes(child, pNodes));
+	}
+	
+	/*
+	 * Returns the violation of the first constraint not satisfied by the first 
+	 * edge that does not satisfy all constraints, like a full validation.
+	 */
+	private Optional<Violation> validateSemantics()
+	{
+		ValidationContext context = new ValidationContext(diagram());
+		if( aAllConstraintsLocal )
+		{
+			for( Edge edge : aUncheckedEdges )
+			{
+				if( firstViolatedConstraint(edge, context).isPresent() )
+				{
+					aViolatingEdges.add(edge);
+				}
+				else
+				{
+					aViolatingEdges.remove(edge);
+				}
+			}
+			if( aViolatingEdges.isEmpty() )
+			{
+				aUncheckedEdges.clear();
+				return Optional.empty();
+			}
+		}
+		aUncheckedEdges.clear();
+		for( Edge edge : diagram().edges() )
+		{
+			Optional<EdgeConstraint> violated = firstViolatedConstraint(edge, context);
+			if( violated.isPresent() )
+			{
+				return Optional.of(Violation.newSemanticViolation(violated.get()));
+			}
+		}
+		return Optional.empty();
+	}
+	
+	/*
+	 * Checks the constraints against pEdge in order, like a full validation, 
+	 * reusing the results of the local constraints already checked against it.
+	 */
+	private Optional<EdgeConstraint> firstViolatedConstraint(Edge pEdge, ValidationContext pContext)
+	{
+		Map<EdgeConstraint, Boolean> localResults = aLocalResults.computeIfAbsent(pEdge, edge -> new HashMap<>());
+		for( EdgeConstraint constraint : aConstraints )
+		{
+			boolean satisfied = constraint.isLocal() ? 
+					localResults.computeIfAbsent(constraint, key -> constraint.satisfied(pEdge, pContext)) :
+					constraint.satisfied(pEdge, pContext);
+			if( !satisfied )
+			{
+				return Optional.of(constraint);
+			}
+		}
+		return Optional.empty();
+	}
+	
+	private static <T> Set<T> newIdentitySet()
+	{
+		return Collections.newSetFromMap(new IdentityHashMap<>());
+	}
+}
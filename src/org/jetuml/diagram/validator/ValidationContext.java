@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagram.validator;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.CallEdge;
+import org.jetuml.diagram.nodes.CallNode;
+
+/**
+ * The diagram checked by a validation pass, with information about it that 
+ * is shared by all the constraints checked during the pass. The information 
+ * about a node is computed once, the first time it is needed, so that constraints 
+ * do not need to scan all the edges of the diagram for every edge they check, 
+ * and a validation of a few edges only looks at the nodes of these edges. 
+ * 
+ * A context must not be used after the diagram changes.
+ */
+public final class ValidationContext
+{
+	private final Diagram aDiagram;
+	// The number of edges of each type from a start node to each end node, by start node
+	private final Map<Node, Map<EdgeKey, Integer>> aEdgeCounts = new IdentityHashMap<>();
+	// The largest number of callers of a call node, or -1 if not yet computed
+	private int aMaxNumberOfCallers = -1;
+	
+	private record EdgeKey(Class<? extends Edge> type, Node end) {}
+	
+	/**
+	 * Creates a context for a validation pass of pDiagram.
+	 * 
+	 * @param pDiagram The diagram to validate.
+	 * @pre pDiagram != null
+	 */
+	public ValidationContext(Diagram pDiagram)
+	{
+		assert pDiagram != null;
+		aDiagram = pDiagram;
+	}
+	
+	/**
+	 * @return The diagram being validated.
+	 */
+	public Diagram diagram()
+	{
+		return aDiagram;
+	}
+	
+	/**
+	 * Returns the number of edges of exactly type pType that start at 
+	 * pStart and end at pEnd, in constant time once the edges that start
+	 * at pStart have been counted.
+	 * 
+	 * @param pType The type of the edges to count. Subtypes are not counted.
+	 * @param pStart The start node of the edges to count.
+	 * @param pEnd The end node of the edges to count.
+	 * @return The number of edges of type pType from pStart to pEnd in the diagram.
+	 * @pre pType != null && pStart != null && pEnd != null
+	 */
+	public int numberOfEdges(Class<? extends Edge> pType, Node pStart, Node pEnd)
+	{
+		assert pType != null && pStart != null && pEnd != null;
+		return aEdgeCounts.computeIfAbsent(pStart, this::countEdgesFrom).getOrDefault(new EdgeKey(pType, pEnd), 0);
+	}
+	
+	/**
+	 * Returns the largest number of call edges that end at a same call node. 
+	 * The callers are counted once per validation pass, the first time this 
+	 * method is called.
+	 * 
+	 * @return The largest number of callers of a call node, or 0 if there is none.
+	 */
+	public int maxNumberOfCallers()
+	{
+		if( aMaxNumberOfCallers < 0 )
+		{
+			Map<Node, Integer> callers = new IdentityHashMap<>();
+			for( Edge edge : aDiagram.edges() )
+			{
+				if( edge instanceof CallEdge && edge.end() instanceof CallNode )
+				{
+					callers.merge(edge.end(), 1, Integer::sum);
+				}
+			}
+			aMaxNumberOfCallers = callers.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+		}
+		return aMaxNumberOfCallers;
+	}
+	
+	private Map<EdgeKey, Integer> countEdgesFrom(Node pStart)
+	{
+		Map<EdgeKey, Integer> counts = new HashMap<>();
+		for( Edge edge : aDiagram.edgesFrom(pStart, Edge.class) )
+		{
+			counts.merge(new EdgeKey(edge.getClass(), edge.end()), 1, Integer::sum);
+		}
+		return counts;
+	}
+}
@@ -20,9 +20,9 @@
  *******************************************************************************/
 package org.jetuml.diagram.validator.constraints;
 
-import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.validator.EdgeConstraint;
+import org.jetuml.diagram.validator.ValidationContext;
 
 /**
  * There can't be more than a given number of edges of the same type between two nodes.
@@ -41,25 +41,8 @@ public final class ConstraintMaxNumberOfEdgesOfGivenTypeBetweenNodes implements
     }
 
     @Override
-    public boolean satisfied(Edge pEdge, Diagram pDiagram)
+    public boolean satisfied(Edge pEdge, ValidationContext pContext)
     {
-        return numberOfEdges(pEdge, pDiagram) <= aMaxNumberOfEdges;
-    }
-
-    /*
-     * Returns the number of edges of type pType between pStart and pEnd
-     */
-    private static int numberOfEdges(Edge pEdge, Diagram pDiagram)
-    {
-        assert pEdge != null && pDiagram != null;
-        int result = 0;
-        for( Edge edge : pDiagram.edges() )
-        {
-            if( edge.getClass() == pEdge.getClass() && edge.start() == pEdge.start() && edge.end() == pEdge.end() )
-            {
-                result++;
-            }
-        }
-        return result;
+        return pContext.numberOfEdges(pEdge.getClass(), pEdge.start(), pEdge.end()) <= aMaxNumberOfEdges;
     }
 }
@@ -20,12 +20,9 @@
  *******************************************************************************/
 package org.jetuml.diagram.validator.constraints;
 
-import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.Edge;
-import org.jetuml.diagram.edges.CallEdge;
-import org.jetuml.diagram.nodes.CallNode;
 import org.jetuml.diagram.validator.EdgeConstraint;
-import java.util.List;
+import org.jetuml.diagram.validator.ValidationContext;
 
 /**
  * There can be at most one caller to a call node.
@@ -33,12 +30,17 @@ import java.util.List;
 public final class ConstraintMaxOneCaller implements EdgeConstraint
 {
     @Override
-    public boolean satisfied(Edge pEdge, Diagram pDiagram)
+    public boolean satisfied(Edge pEdge, ValidationContext pContext)
     {
-        return pDiagram.allNodes().stream()								// Nodes
-                .filter(CallNode.class::isInstance)						// Call nodes
-                .map(node -> pDiagram.edgesTo(node, CallEdge.class))	// Lists of callers to call nodes
-                .mapToInt(List::size)									// Size of such lists
-                .allMatch(size -> size <= 1);
+        return pContext.maxNumberOfCallers() <= 1;
+    }
+    
+    /*
+     * The constraint is violated by every edge as soon as any call node has two callers.
+     */
+    @Override
+    public boolean isLocal()
+    {
+        return false;
     }
 }
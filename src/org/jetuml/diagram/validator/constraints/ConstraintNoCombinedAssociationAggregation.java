@@ -20,11 +20,12 @@
  *******************************************************************************/
 package org.jetuml.diagram.validator.constraints;
 
-import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
 import org.jetuml.diagram.edges.AggregationEdge;
 import org.jetuml.diagram.edges.AssociationEdge;
 import org.jetuml.diagram.validator.EdgeConstraint;
+import org.jetuml.diagram.validator.ValidationContext;
 
 /**
  * There can't be both an association and an aggregation edge between two
@@ -33,28 +34,23 @@ import org.jetuml.diagram.validator.EdgeConstraint;
 public final class ConstraintNoCombinedAssociationAggregation implements EdgeConstraint
 {
     @Override
-    public boolean satisfied(Edge pEdge, Diagram pDiagram)
+    public boolean satisfied(Edge pEdge, ValidationContext pContext)
     {
-        return pDiagram.edges().stream()
-                .filter(ConstraintNoCombinedAssociationAggregation::isAssociationOrAggregation)
-                .filter(edge -> isBetweenSameNodes(edge, pEdge))
-                .count() <= 1;
+        int count = numberOfAssociationsOrAggregations(pEdge.start(), pEdge.end(), pContext);
+        if( pEdge.start() != pEdge.end() )
+        {
+            // Irrespective of direction
+            count += numberOfAssociationsOrAggregations(pEdge.end(), pEdge.start(), pContext);
+        }
+        return count <= 1;
     }
 
     /*
      * Aggregation edges and association edges are in the same category
      */
-    private static boolean isAssociationOrAggregation(Edge pEdge)
+    private static int numberOfAssociationsOrAggregations(Node pStart, Node pEnd, ValidationContext pContext)
     {
-        return pEdge.getClass() == AssociationEdge.class || pEdge.getClass() == AggregationEdge.class;
-    }
-
-    /*
-     * Irrespective of direction
-     */
-    private static boolean isBetweenSameNodes(Edge pEdge1, Edge pEdge2)
-    {
-        return pEdge1.start() == pEdge2.start() && pEdge1.end() == pEdge2.end() ||
-                pEdge1.start() == pEdge2.end() && pEdge1.end() == pEdge2.start();
+        return pContext.numberOfEdges(AssociationEdge.class, pStart, pEnd) + 
+                pContext.numberOfEdges(AggregationEdge.class, pStart, pEnd);
     }
 }
@@ -20,9 +20,9 @@
  *******************************************************************************/
 package org.jetuml.diagram.validator.constraints;
 
-import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.validator.EdgeConstraint;
+import org.jetuml.diagram.validator.ValidationContext;
 
 /**
  * There can't be two edges of a given type, one in each direction, between
@@ -42,22 +42,13 @@ public final class ConstraintNoDirectCyclesForEdgeType implements EdgeConstraint
     }
 
     @Override
-    public boolean satisfied(Edge pEdge, Diagram pDiagram)
+    public boolean satisfied(Edge pEdge, ValidationContext pContext)
     {
         if( pEdge.getClass() != aEdgeType || pEdge.start() == pEdge.end() )
         {
             return true;
         }
 
-        int sameDirectionCount = 0;
-        for( Edge edge : pDiagram.edgesConnectedTo(pEdge.start()) )
-        {
-            if( edge.getClass() == aEdgeType && edge.end() == pEdge.start() && edge.start() == pEdge.end() )
-            {
-                sameDirectionCount += 1;
-            }
-        }
-
-        return sameDirectionCount == 0;
+        return pContext.numberOfEdges(aEdgeType, pEdge.end(), pEdge.start()) == 0;
     }
 }
@@ -20,11 +20,11 @@
  *******************************************************************************/
 package org.jetuml.diagram.validator.constraints;
 
-import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.edges.NoteEdge;
 import org.jetuml.diagram.nodes.NoteNode;
 import org.jetuml.diagram.validator.EdgeConstraint;
+import org.jetuml.diagram.validator.ValidationContext;
 
 /**
  * Validates that no edge except note edges can connect to a note node.
@@ -32,7 +32,7 @@ import org.jetuml.diagram.validator.EdgeConstraint;
 public final class ConstraintNoEdgeToNoteExceptNoteEdge implements EdgeConstraint
 {
     @Override
-    public boolean satisfied(Edge pEdge, Diagram pDiagram)
+    public boolean satisfied(Edge pEdge, ValidationContext pContext)
     {
         return !(pEdge.getClass() != NoteEdge.class &&
                 (pEdge.start().getClass() == NoteNode.class || pEdge.end().getClass() == NoteNode.class));
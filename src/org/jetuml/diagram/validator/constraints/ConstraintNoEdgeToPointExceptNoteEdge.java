@@ -20,11 +20,11 @@
  *******************************************************************************/
 package org.jetuml.diagram.validator.constraints;
 
-import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.edges.NoteEdge;
 import org.jetuml.diagram.nodes.PointNode;
 import org.jetuml.diagram.validator.EdgeConstraint;
+import org.jetuml.diagram.validator.ValidationContext;
 
 /**
  * Validates that only note edges can point to point nodes.
@@ -32,7 +32,7 @@ import org.jetuml.diagram.validator.EdgeConstraint;
 public final class ConstraintNoEdgeToPointExceptNoteEdge implements EdgeConstraint
 {
     @Override
-    public boolean satisfied(Edge pEdge, Diagram pDiagram)
+    public boolean satisfied(Edge pEdge, ValidationContext pContext)
     {
         return !(pEdge.getClass() != NoteEdge.class &&
                 (pEdge.start().getClass() == PointNode.class || pEdge.end().getClass() == PointNode.class));
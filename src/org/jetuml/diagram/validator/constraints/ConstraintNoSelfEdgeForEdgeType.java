@@ -20,9 +20,9 @@
  *******************************************************************************/
 package org.jetuml.diagram.validator.constraints;
 
-import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.validator.EdgeConstraint;
+import org.jetuml.diagram.validator.ValidationContext;
 
 /**
  * There can't be an edge of the given type between the same node.
@@ -40,7 +40,7 @@ public final class ConstraintNoSelfEdgeForEdgeType implements EdgeConstraint
     }
 
     @Override
-    public boolean satisfied(Edge pEdge, Diagram pDiagram)
+    public boolean satisfied(Edge pEdge, ValidationContext pContext)
     {
         return !(pEdge.getClass() == aEdgeType && pEdge.start() == pEdge.end());
     }
@@ -20,11 +20,11 @@
  *******************************************************************************/
 package org.jetuml.diagram.validator.constraints;
 
-import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.edges.CallEdge;
 import org.jetuml.diagram.edges.ReturnEdge;
 import org.jetuml.diagram.validator.EdgeConstraint;
+import org.jetuml.diagram.validator.ValidationContext;
 
 import java.util.List;
 
@@ -34,17 +34,19 @@ import java.util.List;
 public final class ConstraintReturnsToCaller implements EdgeConstraint
 {
     @Override
-    public boolean satisfied(Edge pEdge, Diagram pDiagram)
+    public boolean satisfied(Edge pEdge, ValidationContext pContext)
     {
         if( pEdge.getClass() != ReturnEdge.class )
         {
             return true;
         }
-        List<Edge> calls = pDiagram.edgesTo(pEdge.start(), CallEdge.class);
+        List<Edge> calls = pContext.diagram().edgesTo(pEdge.start(), CallEdge.class);
         if(calls.size() != 1)
         {
             return false;
         }
-        return pEdge.end() == calls.get(0).start() && pEdge.end().getParent() != pEdge.start().getParent();
+        // The caller might not be a call node if the call edge is itself invalid
+        return pEdge.end() == calls.get(0).start() && pEdge.start().hasParent() && pEdge.end().hasParent() &&
+                pEdge.end().getParent() != pEdge.start().getParent();
     }
 }
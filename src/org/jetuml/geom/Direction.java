@@ -208,7 +208,7 @@ public final class Direction
 		// Compute the normalized height 
 		// The sign is reversed to account for the fact that in graphics systems
 		// the y-coordinate increases from top to bottom.
-		double hypothenuse = Math.sqrt(pWidth * pWidth + pHeight * pHeight);
+		double hypothenuse = Math.hypot(pWidth, pHeight);
 		double normalizedHeight = -pHeight/hypothenuse;
 		
 		// Compute the angle. We use the arccos instead of the arcsin
@@ -81,6 +81,33 @@ public record Rectangle(int x, int y, int width, int height)
 				pRectangle.maxY() <= maxY();
 	}
 	
+	/**
+	 * @param pRectangle The rectangle to check.
+	 * @return True iif pRectangle and this rectangle share at least one point,
+	 *     including points on their boundaries.
+	 * @pre pRectangle != null.
+	 */
+	public boolean intersects(Rectangle pRectangle)
+	{
+		assert pRectangle != null;
+		return pRectangle.x <= maxX() && x <= pRectangle.maxX() &&
+				pRectangle.y <= maxY() && y <= pRectangle.maxY();
+	}
+	
+	/**
+	 * @param pPoint The point of reference.
+	 * @return The distance between pPoint and the closest point of this rectangle, 
+	 *     which is 0 if the rectangle contains pPoint.
+	 * @pre pPoint != null
+	 */
+	public double distance(Point pPoint)
+	{
+		assert pPoint != null;
+		int dx = Math.max(0, Math.max(x - pPoint.x(), pPoint.x() - maxX()));
+		int dy = Math.max(0, Math.max(y - pPoint.y(), pPoint.y() - maxY()));
+		return Math.sqrt((double) dx * dx + (double) dy * dy);
+	}
+	
 	/**
 	 * @return A point in the center of this rectangle.
 	 */
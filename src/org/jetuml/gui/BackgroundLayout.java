@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.LayoutSnapshot;
+
+import javafx.application.Platform;
+
+/**
+ * Computes the layout of a diagram on a background thread, so that a slow 
+ * layout does not freeze the user interface. The layout is computed on a snapshot 
+ * of the diagram, and handed back to the JavaFX application thread to be published. 
+ * At most one layout of the diagram is computed at a time: a layout requested 
+ * while another one is computed is only computed after the first one is 
+ * published, and only once no matter how many layouts were requested in between.
+ * 
+ * All the methods must be called on the JavaFX application thread.
+ */
+final class BackgroundLayout
+{
+	// A single thread shared by all the diagrams, which does not prevent the application from exiting 
+	private static final Executor EXECUTOR = Executors.newSingleThreadExecutor(pRunnable -> 
+	{
+		Thread thread = new Thread(pRunnable, "Layout");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	private final DiagramRenderer aRenderer;
+	private final Consumer<LayoutSnapshot> aPublisher;
+	private boolean aComputing = false;
+	private boolean aRequested = false;
+	
+	/**
+	 * Creates an object to compute the layout of the diagram of pRenderer.
+	 * 
+	 * @param pRenderer The renderer of the diagram.
+	 * @param pPublisher The code that publishes the layouts once they are computed.
+	 * @pre pRenderer != null && pPublisher != null
+	 */
+	BackgroundLayout(DiagramRenderer pRenderer, Consumer<LayoutSnapshot> pPublisher)
+	{
+		assert pRenderer != null && pPublisher != null;
+		aRenderer = pRenderer;
+		aPublisher = pPublisher;
+	}
+	
+	/**
+	 * Requests that the layout of the diagram be brought up to date with 
+	 * its current state. Does nothing if it is already up to date.
+	 */
+	void request()
+	{
+		if( aComputing )
+		{
+			aRequested = true;
+			return;
+		}
+		Optional<LayoutSnapshot> snapshot = aRenderer.snapshotLayout();
+		if( snapshot.isEmpty() )
+		{
+			return;
+		}
+		aComputing = true;
+		EXECUTOR.execute(() -> 
+		{
+			try
+			{
+				snapshot.get().compute();
+			}
+			finally
+			{
+				Platform.runLater(() -> publish(snapshot.get()));
+			}
+		});
+	}
+	
+	private void publish(LayoutSnapshot pSnapshot)
+	{
+		aComputing = false;
+		aPublisher.accept(pSnapshot);
+		if( aRequested )
+		{
+			aRequested = false;
+			request();
+		}
+	}
+}
@@ -21,8 +21,11 @@
 package org.jetuml.gui;
 import static java.util.stream.Collectors.toList;
 
+import java.awt.image.RenderedImage;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
@@ -45,6 +48,7 @@ import org.jetuml.diagram.builder.ClassDiagramBuilder;
 import org.jetuml.diagram.builder.CompoundOperation;
 import org.jetuml.diagram.builder.DiagramBuilder;
 import org.jetuml.diagram.builder.DiagramOperationProcessor;
+import org.jetuml.diagram.builder.OperationObserver;
 import org.jetuml.diagram.nodes.FieldNode;
 import org.jetuml.diagram.nodes.PackageNode;
 import org.jetuml.diagram.validator.DiagramValidator;
@@ -55,18 +59,28 @@ import org.jetuml.geom.Line;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.Grid;
+import org.jetuml.rendering.LayoutSnapshot;
 import org.jetuml.rendering.ToolGraphics;
 
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.SnapshotParameters;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.paint.Color;
+import javafx.scene.paint.ImagePattern;
+import javafx.scene.paint.Paint;
 import javafx.stage.Stage;
 
 /**
- * A canvas on which to view diagrams.
+ * A canvas on which to view diagrams. The canvas shows the grid and the elements 
+ * of the diagram. It is stacked under a layer with the selection handles and the 
+ * selection tools, so that selecting elements does not require painting the 
+ * diagram again.
  */
 public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanPreferenceChangeHandler, IntegerPreferenceChangeHandler,
 StringPreferenceChangeHandler
@@ -79,11 +93,18 @@ StringPreferenceChangeHandler
 	private static final int GRID_SIZE = 10;
 	private static final int DIAGRAM_PADDING = 4;
 	private static final int CONNECT_THRESHOLD = 8;
+	/* The size of the image of the grid repeated over the background, 
+	 * a multiple of the size of the grid. */
+	private static final int GRID_TILE_SIZE = 100;
+	/* The number of pixels around the bounds of an element that are painted
+	 * again with it, to include its shadow and selection handles. */
+	private static final int DAMAGE_MARGIN = 8;
 	
 	private DiagramOperationProcessor aProcessor = new DiagramOperationProcessor();
 	private final DiagramBuilder aDiagramBuilder;
 	private final DiagramValidator aDiagramValidator;
 	private final DiagramTabToolBar aToolBar;
+	private final BackgroundLayout aBackgroundLayout;
 	private MouseDraggedGestureHandler aHandler;
 	
 	private enum DragMode 
@@ -98,6 +119,44 @@ StringPreferenceChangeHandler
 	private Optional<Line> aRubberband = Optional.empty();
 	private Optional<Rectangle> aLasso = Optional.empty();
 	
+	// The layer over the diagram painted on this canvas
+	private final Canvas aOverlayLayer = new Canvas();
+	
+	/* The background of the diagram: plain white, or a pattern of the grid. The pattern
+	 * is only created again when the grid is turned on, so that the lines of the grid 
+	 * do not need to be stroked on every paint. */
+	private Paint aBackground;
+	
+	// The part of the canvas visible to the user, and the part painted by the last full paint
+	private Rectangle aVisibleRegion;
+	private Rectangle aPaintedRegion;
+	
+	/* Paints requested since the last paint are coalesced and performed together 
+	 * at the next pulse: either the whole panel, or only the parts in aPendingRegion,
+	 * and the overlay layer. */
+	private final AnimationTimer aPaintTimer;
+	private boolean aPaintScheduled = false;
+	private boolean aFullPaintPending = false;
+	private DirtyRegion aPendingRegion = new DirtyRegion(0);
+	private boolean aOverlayPaintPending = false;
+	private long aRequestedPaints = 0;
+	private long aPerformedPaints = 0;
+	
+	/* While the selection is moved, an image of the visible part of the panel without 
+	 * the elements affected by the move, so that only these elements need to be painted 
+	 * again. It is created at the first move of a drag gesture, and discarded for the rest 
+	 * of the gesture if the move changes other elements. */
+	private Optional<DragBackground> aDragBackground = Optional.empty();
+	private boolean aDragBackgroundDiscarded = false;
+	
+	private record DragBackground(Image image, Rectangle region, double scale, Set<DiagramElement> movingElements) {}
+	
+	/* The canvas on which the parts of the panel are painted before their image is copied 
+	 * to the panel, and the image it is copied to. Both are reused for all the parts, and 
+	 * only grow to the size of the largest part painted. */
+	private final Canvas aPartBuffer = new Canvas();
+	private WritableImage aPartImage = new WritableImage(1, 1);
+	
 	/**
 	 * Constructs the canvas, assigns the diagram to it.
 	 * 
@@ -113,13 +172,29 @@ StringPreferenceChangeHandler
 		aToolBar = pToolBar;
 		aDiagramBuilder = pDiagramBuilder;
 		aDiagramValidator = pDiagramValidator;
+		aBackgroundLayout = new BackgroundLayout(aDiagramBuilder.renderer(), this::publishLayout);
 		aMoveTracker = new MoveTracker(aDiagramBuilder.renderer()::getBounds);
 		Dimension dimension = getDiagramCanvasWidth();
 		setWidth(dimension.width());
 		setHeight(dimension.height());
 		aDiagramBuilder.setCanvasDimension(new Dimension((int) getWidth(), (int)getHeight()));
+		aVisibleRegion = new Rectangle(0, 0, (int) getWidth(), (int) getHeight());
+		aPaintedRegion = aVisibleRegion;
+		aPaintTimer = new AnimationTimer()
+		{
+			@Override
+			public void handle(long pNow)
+			{
+				paintPending();
+			}
+		};
 		getGraphicsContext2D().setLineWidth(LINE_WIDTH);
 		getGraphicsContext2D().setFill(Color.WHITE);
+		aOverlayLayer.widthProperty().bind(widthProperty());
+		aOverlayLayer.heightProperty().bind(heightProperty());
+		aOverlayLayer.setMouseTransparent(true);
+		aOverlayLayer.getGraphicsContext2D().setLineWidth(LINE_WIDTH);
+		aBackground = createBackground();
 		aHandler = pHandler;
 		setOnMousePressed(this::mousePressed);
 		setOnMouseReleased(this::mouseReleased);
@@ -151,6 +226,24 @@ StringPreferenceChangeHandler
 		aProcessor.diagramSaved();
 	}
 	
+	/**
+	 * Notify the controller that its diagram differs from its saved 
+	 * version for another reason than the operations on the diagram.
+	 */
+	public void diagramModified()
+	{
+		aProcessor.diagramModified();
+	}
+	
+	/**
+	 * @param pObserver The object to notify of the operations executed and 
+	 *     undone on the diagram.
+	 */
+	public void setOperationObserver(OperationObserver pObserver)
+	{
+		aProcessor.setObserver(pObserver);
+	}
+	
 	/**
 	 * @return True if the diagram controlled by this controller 
 	 *     has unsaved changes.
@@ -182,7 +275,7 @@ StringPreferenceChangeHandler
 		}
 		setSelectionTo(newElementList);
 		Clipboard.instance().copy(newElements);
-		paintPanel(); // TODO double-check if this is necessary since it's already called in setSelectionTo
+		paintPanel();
 	}
 	
 	/**
@@ -234,21 +327,314 @@ StringPreferenceChangeHandler
 	}
 	
 	/**
-	 * Paints the panel and all the graph elements in aDiagramView.
+	 * @return The canvases that show the diagram, from bottom to top: this canvas, 
+	 *     and the layer with the selection handles and tools.
+	 */
+	public List<Canvas> layers()
+	{
+		return List.of(this, aOverlayLayer);
+	}
+	
+	/**
+	 * Requests that the panel and all the graph elements in aDiagramView be painted.
+	 * The panel is painted at the next pulse, only once no matter how many 
+	 * paints were requested in between.
 	 * Called after the panel is resized.
 	 */
 	public void paintPanel()
 	{
-		GraphicsContext context = getGraphicsContext2D();
-		context.setFill(Color.WHITE); 
-		context.fillRect(0, 0, getWidth(), getHeight());
-		if(UserPreferences.instance().getBoolean(BooleanPreference.showGrid)) 
+		aFullPaintPending = true;
+		aPendingRegion = new DirtyRegion(0);
+		schedulePaint();
+	}
+	
+	/*
+	 * Requests that only the parts of the panel in pRegion be painted, 
+	 * at the next pulse.
+	 */
+	private void paintRegion(DirtyRegion pRegion)
+	{
+		if( !aFullPaintPending )
+		{
+			aPendingRegion.add(pRegion);
+		}
+		schedulePaint();
+	}
+	
+	/*
+	 * Requests that only the overlay layer be painted, at the next pulse.
+	 */
+	private void paintOverlay()
+	{
+		aOverlayPaintPending = true;
+		schedulePaint();
+	}
+	
+	private void schedulePaint()
+	{
+		aRequestedPaints++;
+		if( !aPaintScheduled )
 		{
-			Grid.draw(context, new Rectangle(0, 0, (int) getWidth(), (int) getHeight()));
+			aPaintScheduled = true;
+			aPaintTimer.start();
 		}
-		aDiagramBuilder.renderer().draw(context);
+	}
+	
+	/**
+	 * Performs the paints requested since the last paint, if any, 
+	 * without waiting for the next pulse. Paints requested while painting, 
+	 * for example when the selection is synchronized with the diagram,
+	 * are considered performed.
+	 */
+	public void paintPending()
+	{
+		boolean paintRequested = aFullPaintPending || !aPendingRegion.isEmpty() || aOverlayPaintPending;
+		if( aFullPaintPending )
+		{
+			paintVisibleRegion();
+		}
+		else if( !aPendingRegion.isEmpty() )
+		{
+			paintParts(aPendingRegion);
+		}
+		if( paintRequested )
+		{
+			// The selection handles follow the elements they are drawn around
+			paintOverlayLayer();
+			aPerformedPaints++;
+		}
+		aFullPaintPending = false;
+		aPendingRegion = new DirtyRegion(0);
+		aOverlayPaintPending = false;
+		aPaintScheduled = false;
+		aPaintTimer.stop();
+	}
+	
+	/**
+	 * @return The number of paints requested since the canvas was created.
+	 */
+	public long getRequestedPaintCount()
+	{
+		return aRequestedPaints;
+	}
+	
+	/**
+	 * @return The number of paints performed since the canvas was created, 
+	 *     which is at most one per pulse.
+	 */
+	public long getPerformedPaintCount()
+	{
+		return aPerformedPaints;
+	}
+	
+	/*
+	 * Paints the visible region of the panel, and a margin around it that 
+	 * avoids painting again for small scrolling movements.
+	 */
+	private void paintVisibleRegion()
+	{
+		aPaintedRegion = intersection(new Rectangle(
+				aVisibleRegion.x() - aVisibleRegion.width() / 2, aVisibleRegion.y() - aVisibleRegion.height() / 2, 
+				aVisibleRegion.width() * 2, aVisibleRegion.height() * 2), 
+				new Rectangle(0, 0, (int) getWidth(), (int) getHeight()));
+		// The previous layout is painted until the new one is published
+		aBackgroundLayout.request();
 		synchronizeSelectionModel();
-		aSelected.forEach( selected -> aDiagramBuilder.renderer().drawSelectionHandles(selected, context));
+		paintDiagram(getGraphicsContext2D(), aPaintedRegion);
+	}
+	
+	/**
+	 * Sets the part of the canvas that is visible to the user, so that painting 
+	 * can skip the elements of the diagram outside of it. The panel is painted 
+	 * again if pRegion includes parts that were not painted.
+	 * 
+	 * @param pRegion The visible region, in the coordinates of the canvas.
+	 * @pre pRegion != null
+	 */
+	public void setVisibleRegion(Rectangle pRegion)
+	{
+		assert pRegion != null;
+		aVisibleRegion = intersection(pRegion, new Rectangle(0, 0, (int) getWidth(), (int) getHeight()));
+		if( !aPaintedRegion.contains(aVisibleRegion) )
+		{
+			paintPanel();
+		}
+	}
+	
+	/*
+	 * @return The largest rectangle contained in both pRectangle1 and pRectangle2, 
+	 * which is empty if they do not intersect.
+	 */
+	private static Rectangle intersection(Rectangle pRectangle1, Rectangle pRectangle2)
+	{
+		int x = Math.max(pRectangle1.x(), pRectangle2.x());
+		int y = Math.max(pRectangle1.y(), pRectangle2.y());
+		return new Rectangle(x, y, 
+				Math.max(Math.min(pRectangle1.maxX(), pRectangle2.maxX()) - x, 0), 
+				Math.max(Math.min(pRectangle1.maxY(), pRectangle2.maxY()) - y, 0));
+	}
+	
+	/*
+	 * Paints only the parts of the panel in pRegion, and in the region painted
+	 * by the last full paint, assuming the rest of the panel is up to date. The layout 
+	 * of the diagram must be up to date. Each part is painted on the part buffer, 
+	 * whose image then replaces that part of the panel, because a clip does not 
+	 * contain the drop shadows of diagram elements, which would then paint over 
+	 * the surrounding parts of the panel.
+	 */
+	private void paintParts(DirtyRegion pRegion)
+	{
+		double scale = renderScale();
+		SnapshotParameters parameters = new SnapshotParameters();
+		for( Rectangle rectangle : pRegion.rectangles() )
+		{
+			Rectangle area = intersection(rectangle, aPaintedRegion);
+			if( area.width() > 0 && area.height() > 0 )
+			{
+				double width = Math.ceil(area.width() * scale);
+				double height = Math.ceil(area.height() * scale);
+				aPartBuffer.setWidth(Math.max(aPartBuffer.getWidth(), width));
+				aPartBuffer.setHeight(Math.max(aPartBuffer.getHeight(), height));
+				GraphicsContext context = aPartBuffer.getGraphicsContext2D();
+				context.save();
+				context.clearRect(0, 0, width, height);
+				context.scale(scale, scale);
+				context.translate(-area.x(), -area.y());
+				context.setLineWidth(LINE_WIDTH);
+				if( aDragBackground.isPresent() && aDragBackground.get().region().contains(area) )
+				{
+					paintMovingElements(context, area, aDragBackground.get());
+				}
+				else
+				{
+					paintDiagram(context, area);
+				}
+				context.restore();
+				parameters.setViewport(new Rectangle2D(0, 0, width, height));
+				// The image is only replaced if it is too small for the viewport
+				aPartImage = aPartBuffer.snapshot(parameters, aPartImage);
+				getGraphicsContext2D().drawImage(aPartImage, 0, 0, width, height, 
+						area.x(), area.y(), area.width(), area.height());
+			}
+		}
+	}
+	
+	/*
+	 * @return The number of physical pixels per pixel of the canvas on the screen.
+	 */
+	private double renderScale()
+	{
+		if( getScene() != null && getScene().getWindow() != null )
+		{
+			return getScene().getWindow().getRenderScaleX();
+		}
+		return 1;
+	}
+	
+	/*
+	 * @return A canvas with pScale physical pixels per pixel of pArea, 
+	 * on which to draw the part of the panel in pArea.
+	 */
+	private static Canvas createOffscreenCanvas(Rectangle pArea, double pScale)
+	{
+		Canvas canvas = new Canvas(Math.ceil(pArea.width() * pScale), Math.ceil(pArea.height() * pScale));
+		GraphicsContext context = canvas.getGraphicsContext2D();
+		context.scale(pScale, pScale);
+		context.translate(-pArea.x(), -pArea.y());
+		context.setLineWidth(LINE_WIDTH);
+		return canvas;
+	}
+	
+	/*
+	 * Paints the part of pBackground in pArea onto pContext, 
+	 * and the moving elements of the diagram in pArea over it.
+	 */
+	private void paintMovingElements(GraphicsContext pContext, Rectangle pArea, DragBackground pBackground)
+	{
+		double scale = pBackground.scale();
+		pContext.drawImage(pBackground.image(), 
+				(pArea.x() - pBackground.region().x()) * scale, (pArea.y() - pBackground.region().y()) * scale, 
+				pArea.width() * scale, pArea.height() * scale, 
+				pArea.x(), pArea.y(), pArea.width(), pArea.height());
+		aDiagramBuilder.renderer().draw(pContext, pArea, pBackground.movingElements()::contains);
+	}
+	
+	/*
+	 * @return An image of the visible part of the panel without pMovingElements, 
+	 * or Optional.empty() if no part of the panel is visible.
+	 */
+	private Optional<DragBackground> createDragBackground(Set<DiagramElement> pMovingElements)
+	{
+		Rectangle region = intersection(aVisibleRegion, aPaintedRegion);
+		if( region.width() == 0 || region.height() == 0 )
+		{
+			return Optional.empty();
+		}
+		double scale = renderScale();
+		Canvas canvas = createOffscreenCanvas(region, scale);
+		GraphicsContext context = canvas.getGraphicsContext2D();
+		context.setFill(aBackground); 
+		context.fillRect(region.x(), region.y(), region.width(), region.height());
+		context.setFill(Color.WHITE);
+		aDiagramBuilder.renderer().draw(context, region, element -> !pMovingElements.contains(element));
+		return Optional.of(new DragBackground(canvas.snapshot(null, null), region, scale, pMovingElements));
+	}
+	
+	/*
+	 * Discards the drag background for the rest of the drag gesture, if there is one.
+	 * Layouts can be published after the gesture ends.
+	 */
+	private void discardDragBackground()
+	{
+		aDragBackground = Optional.empty();
+		aDragBackgroundDiscarded = aDragMode == DragMode.DRAG_MOVE;
+	}
+	
+	/*
+	 * Paints the background and the elements of the diagram in pArea onto pContext.
+	 */
+	private void paintDiagram(GraphicsContext pContext, Rectangle pArea)
+	{
+		pContext.setFill(aBackground); 
+		pContext.fillRect(pArea.x(), pArea.y(), pArea.width(), pArea.height());
+		// Some elements are filled with the current fill of the context
+		pContext.setFill(Color.WHITE);
+		aDiagramBuilder.renderer().draw(pContext, pArea);
+	}
+	
+	/*
+	 * @return White if the grid is not shown, and otherwise a pattern made of 
+	 * a tile of the grid, anchored at the origin of the canvas.
+	 */
+	private static Paint createBackground()
+	{
+		if(!UserPreferences.instance().getBoolean(BooleanPreference.showGrid)) 
+		{
+			return Color.WHITE;
+		}
+		Canvas tile = new Canvas(GRID_TILE_SIZE, GRID_TILE_SIZE);
+		GraphicsContext context = tile.getGraphicsContext2D();
+		context.setLineWidth(LINE_WIDTH);
+		context.setFill(Color.WHITE); 
+		context.fillRect(0, 0, GRID_TILE_SIZE, GRID_TILE_SIZE);
+		Grid.draw(context, new Rectangle(0, 0, GRID_TILE_SIZE, GRID_TILE_SIZE));
+		return new ImagePattern(tile.snapshot(null, null), 0, 0, GRID_TILE_SIZE, GRID_TILE_SIZE, false);
+	}
+	
+	/*
+	 * Paints the selection handles of the selected elements in the region painted
+	 * by the last full paint, and the selection tools, on the overlay layer.
+	 */
+	private void paintOverlayLayer()
+	{
+		GraphicsContext context = aOverlayLayer.getGraphicsContext2D();
+		context.clearRect(0, 0, getWidth(), getHeight());
+		// Selection handles extend past the bounds of the element they are drawn around
+		Rectangle handlesArea = new Rectangle(aPaintedRegion.x() - DAMAGE_MARGIN, aPaintedRegion.y() - DAMAGE_MARGIN, 
+				aPaintedRegion.width() + 2 * DAMAGE_MARGIN, aPaintedRegion.height() + 2 * DAMAGE_MARGIN);
+		aSelected.stream()
+			.filter(selected -> handlesArea.intersects(aDiagramBuilder.renderer().getBounds(selected)))
+			.forEach(selected -> aDiagramBuilder.renderer().drawSelectionHandles(selected, context));
 		aRubberband.ifPresent( rubberband -> ToolGraphics.drawRubberband(context, rubberband));
 		aLasso.ifPresent( lasso -> ToolGraphics.drawLasso(context, lasso));
 	}
@@ -284,7 +670,7 @@ StringPreferenceChangeHandler
 	@Override
 	public void selectionModelChanged()
 	{
-		paintPanel();		
+		paintOverlay();		
 	}
 	
 	/**
@@ -324,7 +710,7 @@ StringPreferenceChangeHandler
 		clearSelection();
 		aDiagramBuilder.diagram().rootNodes().forEach(this::internalAddToSelection);
 		aDiagramBuilder.diagram().edges().forEach(this::internalAddToSelection);
-		paintPanel();
+		paintOverlay();
 	}
 	
 	/**
@@ -355,6 +741,7 @@ StringPreferenceChangeHandler
 	{
 		if( pPreference == BooleanPreference.showGrid )
 		{
+			aBackground = createBackground();
 			paintPanel();
 		}
 	}
@@ -478,6 +865,9 @@ StringPreferenceChangeHandler
 			{
 				diagram().placeOnTop(pSelected);
 			}
+			DirtyRegion dirtyRegion = new DirtyRegion(DAMAGE_MARGIN);
+			affectedElements(selectedNodes()).forEach(affected -> dirtyRegion.add(aDiagramBuilder.renderer().getBounds(affected)));
+			paintRegion(dirtyRegion);
 			aDragMode = DragMode.DRAG_MOVE;
 			aMoveTracker.start(aSelected);
 		}
@@ -588,7 +978,6 @@ StringPreferenceChangeHandler
 		Point point = getMousePoint(pEvent);
 		aLastMousePoint = new Point(point.x(), point.y()); 
 		aMouseDownPoint = aLastMousePoint;
-		paintPanel();
 	}
 
 	private void mouseReleased(MouseEvent pEvent)
@@ -599,6 +988,9 @@ StringPreferenceChangeHandler
 		}
 		else if( aDragMode == DragMode.DRAG_MOVE)
 		{
+			// The move is painted with all the elements of the diagram from now on
+			aDragBackground = Optional.empty();
+			aDragBackgroundDiscarded = false;
 			alignMoveToGrid();
 			releaseMove();
 		}
@@ -659,7 +1051,8 @@ StringPreferenceChangeHandler
 		Edge newEdge = ((Edge) aToolBar.getCreationPrototype().get()).clone();
 		if(pMousePoint.distance(aMouseDownPoint) > CONNECT_THRESHOLD )
 		{
-			aProcessor.executeNewOperation(aDiagramBuilder.createAddEdgeOperation(newEdge, aMouseDownPoint, pMousePoint));
+			aProcessor.executeNewOperation(aDiagramBuilder.createAddEdgeOperation(newEdge, aMouseDownPoint, 
+					edgeEndPoint(pMousePoint)));
 			Optional<Violation> violation = aDiagramValidator.validate();
 			
 			if( violation.isPresent() )
@@ -676,6 +1069,23 @@ StringPreferenceChangeHandler
 		deactivateRubberband();
 	}
 	
+	/*
+	 * An edge released just outside of a node ends on the node, at the point of 
+	 * the node closest to where it was released.
+	 */
+	private Point edgeEndPoint(Point pMousePoint)
+	{
+		if( aDiagramBuilder.renderer().nodeAt(pMousePoint).isPresent() )
+		{
+			return pMousePoint;
+		}
+		return aDiagramBuilder.renderer().rootNodeNear(pMousePoint, CONNECT_THRESHOLD)
+				.map(node -> aDiagramBuilder.renderer().getBounds(node))
+				.map(bounds -> new Point(Math.max(bounds.x(), Math.min(pMousePoint.x(), bounds.maxX())), 
+						Math.max(bounds.y(), Math.min(pMousePoint.y(), bounds.maxY()))))
+				.orElse(pMousePoint);
+	}
+	
 	private void releaseMove()
 	{
 		CompoundOperation operation = aMoveTracker.stop();
@@ -705,7 +1115,7 @@ StringPreferenceChangeHandler
 			aLastMousePoint = mousePoint;
 			if( !pEvent.isControlDown() )
 			{
-				clearSelection();
+				aSelected.clear();
 			}
 			activateLasso();
 		}
@@ -725,6 +1135,15 @@ StringPreferenceChangeHandler
 		int dx = pMousePoint.x() - aLastMousePoint.x();
 		int dy = pMousePoint.y() - aLastMousePoint.y();
 		
+		// The moved elements must be painted again where they were and where they end up
+		Set<DiagramElement> affectedElements = affectedElements(selectedNodes());
+		if( aDragBackground.isEmpty() && !aDragBackgroundDiscarded && !affectedElements.isEmpty() )
+		{
+			aDragBackground = createDragBackground(affectedElements);
+		}
+		DirtyRegion dirtyRegion = new DirtyRegion(DAMAGE_MARGIN);
+		addBounds(dirtyRegion, affectedElements);
+		
 		// Perform the move without painting it
 		selectedNodes().forEach(selected -> selected.translate(dx, dy));
 		
@@ -737,29 +1156,123 @@ StringPreferenceChangeHandler
 		selectedNodes().forEach(selected -> selected.translate(dxCorrection, dyCorrection));
 		
 		aLastMousePoint = pMousePoint; 
-		paintPanel();
+		addBounds(dirtyRegion, affectedElements);
+		paintRegion(dirtyRegion);
+		// The edges follow the nodes once their new paths are published
+		aBackgroundLayout.request();
+	}
+	
+	/*
+	 * Adds the bounds of pElements to pRegion.
+	 */
+	private void addBounds(DirtyRegion pRegion, Set<DiagramElement> pElements)
+	{
+		pElements.forEach(element -> pRegion.add(aDiagramBuilder.renderer().getBounds(element)));
+	}
+	
+	/*
+	 * Publishes a layout computed in the background, and paints the parts 
+	 * of the panel that it changes.
+	 */
+	private void publishLayout(LayoutSnapshot pSnapshot)
+	{
+		Set<Rectangle> movingEdgeBounds = new HashSet<>();
+		addMovingEdgeBounds(movingEdgeBounds);
+		Optional<List<Rectangle>> layoutChanges = pSnapshot.publish();
+		if( layoutChanges.isEmpty() )
+		{
+			discardDragBackground();
+			paintPanel();
+			return;
+		}
+		if( layoutChanges.get().isEmpty() )
+		{
+			return;
+		}
+		addMovingEdgeBounds(movingEdgeBounds);
+		// The paths of edges that are not affected by the move can change with the layout
+		if( !movingEdgeBounds.containsAll(layoutChanges.get()) )
+		{
+			discardDragBackground();
+		}
+		DirtyRegion dirtyRegion = new DirtyRegion(DAMAGE_MARGIN);
+		layoutChanges.get().forEach(dirtyRegion::add);
+		paintRegion(dirtyRegion);
+	}
+	
+	/*
+	 * Adds the bounds of the edges moved with the selection, if any, to pBounds.
+	 */
+	private void addMovingEdgeBounds(Set<Rectangle> pBounds)
+	{
+		aDragBackground.ifPresent(background -> background.movingElements().stream()
+				.filter(Edge.class::isInstance)
+				.forEach(edge -> pBounds.add(aDiagramBuilder.renderer().getBounds(edge))));
+	}
+	
+	/*
+	 * @return The root nodes that contain pNodes, all their descendants, 
+	 * and the edges connected to any of them. Moving a node can change all of these.
+	 */
+	private Set<DiagramElement> affectedElements(List<Node> pNodes)
+	{
+		Set<Node> roots = Collections.newSetFromMap(new IdentityHashMap<>());
+		for( Node node : pNodes )
+		{
+			Node root = node;
+			while( root.hasParent() )
+			{
+				root = root.getParent();
+			}
+			roots.add(root);
+		}
+		Set<DiagramElement> elements = Collections.newSetFromMap(new IdentityHashMap<>());
+		roots.forEach(root -> addTree(elements, root));
+		return elements;
+	}
+	
+	private void addTree(Set<DiagramElement> pElements, Node pNode)
+	{
+		pElements.add(pNode);
+		diagram().edgesConnectedTo(pNode).forEach(pElements::add);
+		pNode.getChildren().forEach(child -> addTree(pElements, child));
 	}
 	
 	/**
 	 * Creates an image of an entire diagram, with a white border around.
+	 * The diagram is drawn in tiles, so that the size of the image is not 
+	 * limited by the largest texture that can be drawn on.
 	 * @return An image of the diagram.
 	 */
 	public Image createImage()
 	{
-		Rectangle bounds = aDiagramBuilder.renderer().getBounds();
-		Canvas canvas = new Canvas(bounds.width() + DIAGRAM_PADDING * 2, 
-				bounds.height() + DIAGRAM_PADDING *2);
-		GraphicsContext context = canvas.getGraphicsContext2D();
-		context.setLineWidth(LINE_WIDTH);
-		context.setFill(Color.WHITE);
-		context.translate(-bounds.x()+DIAGRAM_PADDING, -bounds.y()+DIAGRAM_PADDING);
-		aDiagramBuilder.renderer().draw(context);
-		WritableImage image = new WritableImage(bounds.width() + DIAGRAM_PADDING * 2, 
-				bounds.height() + DIAGRAM_PADDING *2);
-		canvas.snapshot(null, image);
+		TiledDiagramImage tiles = new TiledDiagramImage(aDiagramBuilder.renderer(), DIAGRAM_PADDING);
+		WritableImage image = new WritableImage(tiles.getWidth(), tiles.getHeight());
+		int[] band = new int[tiles.getWidth() * tiles.getTileHeight()];
+		for( int y = 0; y < tiles.getHeight(); y += tiles.getTileHeight() )
+		{
+			int height = Math.min(tiles.getTileHeight(), tiles.getHeight() - y);
+			tiles.getPixels(0, y, tiles.getWidth(), height, band, 0, tiles.getWidth());
+			image.getPixelWriter().setPixels(0, y, tiles.getWidth(), height, 
+					PixelFormat.getIntArgbInstance(), band, 0, tiles.getWidth());
+		}
 		return image;
 	}
 	
+	/**
+	 * Creates an image of an entire diagram, with a white border around, whose 
+	 * pixels are only drawn when requested, a band of rows at a time. Writing this 
+	 * image row by row, as the PNG encoder does, uses an amount of memory that 
+	 * does not depend on the height of the diagram. The pixels must be requested 
+	 * before the diagram changes.
+	 * 
+	 * @return An image of the diagram.
+	 */
+	public RenderedImage createRenderedImage()
+	{
+		return new TiledDiagramImage(aDiagramBuilder.renderer(), DIAGRAM_PADDING);
+	}
+	
 	/**
 	 * @return A list of all the selected nodes. 
 	 */
@@ -773,17 +1286,14 @@ StringPreferenceChangeHandler
 	
 	/**
 	 * Records information about an active lasso selection tool, select all elements
-	 * in the lasso, and triggers a notification.
-	 * 
-	 * @param pLasso The bounds of the current lasso.
-	 * @pre pLasso != null;
+	 * in the lasso, and paints the overlay layer.
 	 */
 	private void activateLasso()
 	{
 		aLasso = Optional.of(computeLasso());
-		aDiagramBuilder.diagram().rootNodes().forEach( node -> selectNode(node, aLasso.get()));
-		aDiagramBuilder.diagram().edges().forEach( edge -> selectEdge(edge, aLasso.get()));
-		paintPanel();
+		aDiagramBuilder.renderer().rootNodesIntersecting(aLasso.get()).forEach( node -> selectNode(node, aLasso.get()));
+		aDiagramBuilder.renderer().edgesIntersecting(aLasso.get()).forEach( edge -> selectEdge(edge, aLasso.get()));
+		paintOverlay();
 	}
 	
 	private void selectNode(Node pNode, Rectangle pLasso)
@@ -809,11 +1319,12 @@ StringPreferenceChangeHandler
 	private void deactivateLasso()
 	{
 		aLasso = Optional.empty();
-		paintPanel();
+		paintOverlay();
 	}
 	
 	/**
-	 * Records information about an active rubberband selection tool and triggers a notification.
+	 * Records information about an active rubberband selection tool, and paints
+	 * the overlay layer.
 	 * @param pLine The line that represents the rubberband.
 	 * @pre pLine != null;
 	 */
@@ -821,7 +1332,7 @@ StringPreferenceChangeHandler
 	{
 		assert pLine != null;
 		aRubberband = Optional.of(pLine);
-		paintPanel();
+		paintOverlay();
 	}
 	
 	/**
@@ -830,7 +1341,7 @@ StringPreferenceChangeHandler
 	private void deactivateRubberband()
 	{
 		aRubberband = Optional.empty();
-		paintPanel();
+		paintOverlay();
 	}
 	
 	/**
@@ -845,7 +1356,7 @@ StringPreferenceChangeHandler
 		assert pNewSelection != null;
 		clearSelection();
 		pNewSelection.forEach(this::internalAddToSelection);
-		paintPanel();
+		paintOverlay();
 	}
 	
 	/**
@@ -862,7 +1373,7 @@ StringPreferenceChangeHandler
 	{
 		assert pElement != null;
 		internalAddToSelection(pElement);
-		paintPanel();
+		paintOverlay();
 	}
 	
 	private void internalAddToSelection(DiagramElement pElement)
@@ -925,7 +1436,7 @@ StringPreferenceChangeHandler
 	private void clearSelection()
 	{
 		aSelected.clear();
-		paintPanel();
+		paintOverlay();
 	}
 	
 	/**
@@ -963,7 +1474,7 @@ StringPreferenceChangeHandler
 	{
 		assert pElement != null;
 		aSelected.remove(pElement);
-		paintPanel();
+		paintOverlay();
 	}
 	
 	/**
@@ -977,6 +1488,6 @@ StringPreferenceChangeHandler
 		assert pElement != null;
 		aSelected.clear();
 		aSelected.add(pElement);
-		paintPanel();
+		paintOverlay();
 	}
 }
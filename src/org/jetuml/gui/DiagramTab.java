@@ -25,6 +25,7 @@ import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static org.jetuml.application.ApplicationResources.RESOURCES;
 
+import java.awt.image.RenderedImage;
 import java.io.File;
 import java.util.Optional;
 
@@ -33,13 +34,16 @@ import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.builder.DiagramBuilder;
 import org.jetuml.diagram.validator.DiagramValidator;
+import org.jetuml.diagram.validator.IncrementalDiagramValidator;
 import org.jetuml.geom.Direction;
 import org.jetuml.geom.Rectangle;
+import org.jetuml.persistence.OperationJournal;
 
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.geometry.Bounds;
 import javafx.scene.Group;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.Tab;
 import javafx.scene.image.Image;
@@ -59,6 +63,7 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 	private final DoubleProperty aZoom;
 	private DiagramCanvas aDiagramCanvas;
 	private Optional<File> aFile = Optional.empty(); // The file associated with this diagram
+	private Optional<OperationJournal> aJournal = Optional.empty(); // The journal of the changes to the file
 	
 	/**
      * Constructs a diagram tab initialized with pDiagram.
@@ -66,7 +71,7 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 	 */
 	public DiagramTab(Diagram pDiagram)
 	{
-		DiagramValidator validator = DiagramType.newValidatorInstanceFor(pDiagram);
+		DiagramValidator validator = new IncrementalDiagramValidator(pDiagram);
 		DiagramBuilder builder = DiagramType.newBuilderInstanceFor(pDiagram);
 		DiagramTabToolBar sideBar = new DiagramTabToolBar(builder.renderer());
 		aDiagramCanvas = new DiagramCanvas(builder, sideBar, validator, this);
@@ -81,10 +86,10 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 		BorderPane layout = new BorderPane();
 		layout.setRight(sideBar);
 
-		// We put the diagram in a fixed-size StackPane for the sole purpose of being able to
-		// decorate it with CSS. The StackPane needs to have a fixed size so the border fits the 
+		// We put the layers of the diagram in a fixed-size StackPane, which stacks them, and
+		// decorates them with CSS. The StackPane needs to have a fixed size so the border fits the 
 		// canvas and not the parent container.
-		StackPane pane = new StackPane(aDiagramCanvas);
+		StackPane pane = new StackPane(aDiagramCanvas.layers().toArray(new Canvas[0]));
 		final int buffer = 12; // (border insets + border width + 1)*2
 		pane.setMaxSize(aDiagramCanvas.getWidth() + buffer, aDiagramCanvas.getHeight() + buffer);
 		final String cssDefault = "-fx-border-color: grey; -fx-border-insets: 4;"
@@ -112,6 +117,12 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 		setTitle();
 		setContent(layout);
 		
+		// The canvas only paints the region visible through the scroll pane, which changes
+		// when the canvas moves in the scene because of scrolling or zooming, or when the
+		// scroll pane is resized.
+		aDiagramCanvas.localToSceneTransformProperty().addListener((observable, oldValue, newValue) -> updateVisibleRegion());
+		scroll.viewportBoundsProperty().addListener((observable, oldValue, newValue) -> updateVisibleRegion());
+		
 		setOnCloseRequest(event -> 
 		{
 			event.consume();
@@ -134,6 +145,7 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 		UserPreferences.instance().removeBooleanPreferenceChangeHandler(aDiagramCanvas);
 		UserPreferences.instance().removeBooleanPreferenceChangeHandler((DiagramTabToolBar)((BorderPane)getContent()).getRight());
 		UserPreferences.instance().removeIntegerPreferenceChangeHandler(aDiagramCanvas);
+		aJournal.ifPresent(OperationJournal::close);
 	}
 
 	/**
@@ -256,6 +268,17 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 	public void diagramSaved()
 	{
 		aDiagramCanvas.diagramSaved();
+		aJournal.ifPresent(OperationJournal::diagramSaved);
+	}
+	
+	/**
+	 * Notify the tab that its diagram was recovered from the journal 
+	 * of its file, so it has changes that are not saved.
+	 */
+	public void diagramRecovered()
+	{
+		aDiagramCanvas.diagramModified();
+		aJournal.ifPresent(OperationJournal::checkpoint);
 	}
 	
 	/**
@@ -277,13 +300,18 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 	}
 
 	/**
-     * Sets the file property.
-     * @param pFile The file associated with this graph
+     * Sets the file property, and starts recording the changes 
+     * to the diagram in a journal next to the file.
+     * @param pFile The file associated with this graph, in which the diagram is saved
 	 */
 	public void setFile(File pFile)
 	{
 		assert pFile != null;
 		aFile = Optional.of(pFile);
+		aJournal.ifPresent(OperationJournal::close);
+		OperationJournal journal = new OperationJournal(getDiagram(), pFile);
+		aJournal = Optional.of(journal);
+		aDiagramCanvas.setOperationObserver(journal);
 		setTitle();
 	}
 
@@ -325,6 +353,17 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 		return (ScrollPane)((BorderPane)getContent()).getCenter();
 	}
 	
+	/*
+	 * Tells the canvas which of its parts can be seen through the scroll pane.
+	 */
+	private void updateVisibleRegion()
+	{
+		ScrollPane scrollPane = scrollPane();
+		Bounds visible = aDiagramCanvas.sceneToLocal(scrollPane.localToScene(scrollPane.getLayoutBounds()));
+		aDiagramCanvas.setVisibleRegion(new Rectangle((int) Math.floor(visible.getMinX()), (int) Math.floor(visible.getMinY()), 
+				(int) Math.ceil(visible.getWidth()) + 1, (int) Math.ceil(visible.getHeight()) + 1));
+	}
+	
 	private ViewportProjection getViewportProjection()
 	{
 		ScrollPane scrollPane = (ScrollPane)((BorderPane)getContent()).getCenter();
@@ -390,4 +429,13 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 	{
 		return aDiagramCanvas.createImage();
 	}
+	
+	/**
+	 * @return An image of this canvas whose pixels are drawn 
+	 *     when they are requested, to write it to a file.
+	 */
+	public RenderedImage createRenderedImage()
+	{
+		return aDiagramCanvas.createRenderedImage();
+	}
 }	        
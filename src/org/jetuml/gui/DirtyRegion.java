@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.jetuml.geom.Rectangle;
+
+/**
+ * The parts of a canvas that need to be painted again. Each rectangle
+ * added to the region is enlarged by a margin, to account for what is drawn
+ * around the bounds of diagram elements, such as shadows and selection handles.
+ * Rectangles that intersect are merged into their bounding box, so that no
+ * part of the canvas is painted twice.
+ */
+final class DirtyRegion
+{
+	private final int aMargin;
+	private final List<Rectangle> aRectangles = new ArrayList<>();
+
+	/**
+	 * Creates an empty region.
+	 *
+	 * @param pMargin The number of pixels by which to enlarge the rectangles added.
+	 * @pre pMargin >= 0
+	 */
+	DirtyRegion(int pMargin)
+	{
+		assert pMargin >= 0;
+		aMargin = pMargin;
+	}
+
+	/**
+	 * Adds a rectangle, enlarged by the margin, to the region.
+	 *
+	 * @param pRectangle The rectangle to add.
+	 * @pre pRectangle != null
+	 */
+	void add(Rectangle pRectangle)
+	{
+		assert pRectangle != null;
+		merge(new Rectangle(pRectangle.x() - aMargin, pRectangle.y() - aMargin,
+				pRectangle.width() + 2 * aMargin, pRectangle.height() + 2 * aMargin));
+	}
+
+	/**
+	 * Adds the rectangles of another region, which were already enlarged
+	 * by the margin of that region, to this region.
+	 *
+	 * @param pRegion The region to add.
+	 * @pre pRegion != null
+	 */
+	void add(DirtyRegion pRegion)
+	{
+		assert pRegion != null;
+		pRegion.aRectangles.forEach(this::merge);
+	}
+
+	private void merge(Rectangle pRectangle)
+	{
+		Rectangle merged = pRectangle;
+		boolean mergedAgain = true;
+		while( mergedAgain )
+		{
+			mergedAgain = false;
+			for( Iterator<Rectangle> iterator = aRectangles.iterator(); iterator.hasNext(); )
+			{
+				Rectangle rectangle = iterator.next();
+				if( rectangle.intersects(merged) )
+				{
+					iterator.remove();
+					merged = merged.add(rectangle);
+					mergedAgain = true;
+				}
+			}
+		}
+		aRectangles.add(merged);
+	}
+
+	/**
+	 * @return True if nothing was added to the region.
+	 */
+	boolean isEmpty()
+	{
+		return aRectangles.isEmpty();
+	}
+
+	/**
+	 * @return The rectangles that make up the region, none of which intersect.
+	 */
+	List<Rectangle> rectangles()
+	{
+		return new ArrayList<>(aRectangles);
+	}
+}
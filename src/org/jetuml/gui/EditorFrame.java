@@ -23,10 +23,6 @@ package org.jetuml.gui;
 
 import static org.jetuml.application.ApplicationResources.RESOURCES;
 
-import java.awt.Color;
-import java.awt.Graphics2D;
-import java.awt.Transparency;
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -51,9 +47,9 @@ import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.gui.tips.TipDialog;
 import org.jetuml.persistence.DeserializationException;
+import org.jetuml.persistence.OperationJournal;
 import org.jetuml.persistence.PersistenceService;
 
-import javafx.embed.swing.SwingFXUtils;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.ButtonType;
@@ -306,19 +302,59 @@ public class EditorFrame extends BorderPane
 	
 	/**
 	 * Given a valid file and the diagram loaded from this file,
-	 * opens a new tab in the editor with this combination.
+	 * opens a new tab in the editor with this combination. If the 
+	 * file has a journal of changes that were not saved, the user
+	 * can recover them. If the journal cannot be recovered, it is 
+	 * set aside so that the changes are not lost.
 	 * 
 	 * @param pFile A valid diagram file.
 	 * @param pDiagram The diagram loaded from the file.
 	 */
 	public void setOpenFileAsDiagram(File pFile, Diagram pDiagram)
 	{
-		DiagramTab frame = new DiagramTab(pDiagram);
+		Optional<Diagram> recovered = Optional.empty();
+		if( OperationJournal.hasJournal(pFile) && confirmRecovery() )
+		{
+			try
+			{
+				recovered = Optional.of(OperationJournal.recover(pFile));
+			}
+			catch(IOException | DeserializationException exception) 
+			{
+				Alert alert = new DeserializationErrorAlert(exception);
+				alert.initOwner(aMainStage);
+				alert.showAndWait();
+				try
+				{
+					OperationJournal.setAside(pFile);
+				}
+				catch(IOException setAsideException)
+				{
+					// Opening the file would delete the journal
+					return;
+				}
+			}
+		}
+		DiagramTab frame = new DiagramTab(recovered.orElse(pDiagram));
 		frame.setFile(pFile.getAbsoluteFile());
+		if( recovered.isPresent() )
+		{
+			frame.diagramRecovered();
+		}
 		addRecentFile(pFile.getPath());
 		insertGraphFrameIntoTabbedPane(frame);
 	}
 	
+	private boolean confirmRecovery()
+	{
+		Alert alert = new Alert(AlertType.CONFIRMATION, RESOURCES.getString("dialog.recover.ok"), ButtonType.YES, ButtonType.NO);
+		alert.initOwner(aMainStage);
+		alert.setTitle(RESOURCES.getString("dialog.recover.title"));
+		alert.setHeaderText(RESOURCES.getString("dialog.recover.title"));
+		alert.showAndWait();
+		return alert.getResult() == ButtonType.YES;
+	}
+	
 	private List<NamedHandler> getOpenFileHandlers()
 	{
 		List<NamedHandler> result = new ArrayList<>();
@@ -577,27 +613,8 @@ public class EditorFrame extends BorderPane
 		DiagramTab frame = getSelectedDiagramTab();
 		try (OutputStream out = new FileOutputStream(file)) 
 		{
-			BufferedImage image = getBufferedImage(frame); 
-			if("jpg".equals(format))	// to correct the display of JPEG/JPG images (removes red hue)
-			{
-				BufferedImage imageRGB = new BufferedImage(image.getWidth(), image.getHeight(), Transparency.OPAQUE);
-				Graphics2D graphics = imageRGB.createGraphics();
-				graphics.drawImage(image, 0,  0, null);
-				ImageIO.write(imageRGB, format, out);
-				graphics.dispose();
-			}
-			else if("bmp".equals(format))	// to correct the BufferedImage type
-			{
-				BufferedImage imageRGB = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
-				Graphics2D graphics = imageRGB.createGraphics();
-				graphics.drawImage(image, 0, 0, Color.WHITE, null);
-				ImageIO.write(imageRGB, format, out);
-				graphics.dispose();
-			}
-			else
-			{
-				ImageIO.write(image, format, out);
-			}
+			// The image is opaque, which all the formats support without conversion
+			ImageIO.write(frame.createRenderedImage(), format, out);
 		} 
 		catch(IOException exception) 
 		{
@@ -635,11 +652,6 @@ public class EditorFrame extends BorderPane
 		return fileChooser;
 	}
 
-	private static BufferedImage getBufferedImage(DiagramTab pDiagramTab) 
-	{
-		return SwingFXUtils.fromFXImage(pDiagramTab.createImage(), null);
-	}
-	
 	private int getNumberOfUsavedDiagrams()
 	{
 		return (int) tabs().stream()
@@ -669,14 +681,27 @@ public class EditorFrame extends BorderPane
 			if(alert.getResult() == ButtonType.YES) 
 			{
 				Preferences.userNodeForPackage(JetUML.class).put("recent", aRecentFiles.serialize());
+				closeDiagramTabs();
 				System.exit(0);
 			}
 		}
 		else 
 		{
 			Preferences.userNodeForPackage(JetUML.class).put("recent", aRecentFiles.serialize());
+			closeDiagramTabs();
 			System.exit(0);
 		}
+	}
+	
+	/*
+	 * Closes the diagram tabs when exiting, which discards 
+	 * the journals of the changes that were not saved.
+	 */
+	private void closeDiagramTabs()
+	{
+		tabs().stream()
+			.filter(DiagramTab.class::isInstance)
+			.forEach(tab -> ((DiagramTab) tab).close());
 	}		
 	
 	private List<Tab> tabs()
@@ -0,0 +1,356 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import java.awt.Point;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+
+import org.jetuml.geom.Rectangle;
+import org.jetuml.rendering.DiagramRenderer;
+
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+/**
+ * An image of an entire diagram, with a white border around, whose pixels are
+ * only rendered when they are requested. The diagram is drawn in square tiles
+ * on a single small canvas, so that no texture is ever larger than a tile, and
+ * the tiles are assembled into horizontal bands of pixels. Only the band
+ * that contains the last pixels requested is kept in memory, so that encoders
+ * that request the pixels row by row, such as the PNG encoder, write images of
+ * any height in bounded memory. Because such encoders request entire rows, a
+ * band spans the width of the image. Its height is reduced for wide images so
+ * that it never holds more than MAX_BAND_PIXELS, at the cost of drawing each
+ * tile of the canvas over fewer rows.
+ *
+ * The image must be created on the JavaFX application thread. Its pixels can be
+ * requested on any thread: the tiles are always drawn on the JavaFX application
+ * thread, and a thread that requests pixels waits for them. The layout of the
+ * diagram must not change while the image is used.
+ */
+public final class TiledDiagramImage implements RenderedImage
+{
+	/** The size of the square tiles drawn on the canvas, and the maximum height of the bands. */
+	public static final int TILE_SIZE = 512;
+	/** The maximum number of pixels of a band, which bounds its memory to 16 MB. */
+	public static final int MAX_BAND_PIXELS = 1 << 22;
+
+	/* The number of pixels around a tile in which to look for elements to draw,
+	 * to include the shadows of the elements just outside of the tile. */
+	private static final int TILE_MARGIN = 8;
+	private static final double LINE_WIDTH = 0.6;
+
+	private static final int RED_MASK = 0xff0000;
+	private static final int GREEN_MASK = 0xff00;
+	private static final int BLUE_MASK = 0xff;
+	private static final DirectColorModel COLOR_MODEL = new DirectColorModel(24, RED_MASK, GREEN_MASK, BLUE_MASK);
+
+	private final DiagramRenderer aRenderer;
+	private final Rectangle aArea;
+
+	private final Canvas aTileCanvas = new Canvas(TILE_SIZE, TILE_SIZE);
+	private final WritableImage aTileImage = new WritableImage(TILE_SIZE, TILE_SIZE);
+
+	// The band of pixels in memory, or -1 if there is none
+	private int aBandIndex = -1;
+	private final int aBandHeight;
+	private final int[] aBand;
+
+	/**
+	 * Creates an image of the diagram drawn by pRenderer, whose layout is
+	 * brought up to date.
+	 *
+	 * @param pRenderer The renderer of the diagram.
+	 * @param pPadding The number of pixels of the border around the diagram.
+	 * @pre pRenderer != null && pPadding >= 0
+	 */
+	public TiledDiagramImage(DiagramRenderer pRenderer, int pPadding)
+	{
+		assert pRenderer != null && pPadding >= 0;
+		aRenderer = pRenderer;
+		aRenderer.updateLayout();
+		Rectangle bounds = aRenderer.getBounds();
+		aArea = new Rectangle(bounds.x() - pPadding, bounds.y() - pPadding,
+				bounds.width() + pPadding * 2, bounds.height() + pPadding * 2);
+		aBandHeight = Math.max(1, Math.min(TILE_SIZE, MAX_BAND_PIXELS / aArea.width()));
+		aBand = new int[aArea.width() * Math.min(aBandHeight, aArea.height())];
+		aTileCanvas.getGraphicsContext2D().setLineWidth(LINE_WIDTH);
+	}
+
+	/**
+	 * Copies the pixels of this image in a rectangle to an array, with the
+	 * alpha component of every pixel set to opaque.
+	 *
+	 * @param pX The x coordinate of the rectangle, in this image.
+	 * @param pY The y coordinate of the rectangle, in this image.
+	 * @param pWidth The width of the rectangle.
+	 * @param pHeight The height of the rectangle.
+	 * @param pPixels The array where to copy the pixels, in the ARGB format.
+	 * @param pOffset The index in pPixels of the first pixel of the rectangle.
+	 * @param pScanlineStride The distance between the indexes in pPixels of two
+	 *     pixels one above the other.
+	 * @pre The rectangle is contained in this image.
+	 */
+	public void getPixels(int pX, int pY, int pWidth, int pHeight, int[] pPixels, int pOffset, int pScanlineStride)
+	{
+		assert pX >= 0 && pY >= 0 && pWidth >= 0 && pHeight >= 0;
+		assert pX + pWidth <= getWidth() && pY + pHeight <= getHeight();
+		for( int row = pY; row < pY + pHeight; row++ )
+		{
+			loadBand(row / aBandHeight);
+			System.arraycopy(aBand, (row % aBandHeight) * getWidth() + pX,
+					pPixels, pOffset + (row - pY) * pScanlineStride, pWidth);
+		}
+	}
+
+	/*
+	 * Renders all the tiles of band pBandIndex into aBand,
+	 * unless they are already in it.
+	 */
+	private void loadBand(int pBandIndex)
+	{
+		if( pBandIndex == aBandIndex )
+		{
+			return;
+		}
+		if( Platform.isFxApplicationThread() )
+		{
+			renderBand(pBandIndex);
+		}
+		else
+		{
+			CompletableFuture<Void> rendering = new CompletableFuture<>();
+			Platform.runLater(() ->
+			{
+				try
+				{
+					renderBand(pBandIndex);
+					rendering.complete(null);
+				}
+				catch( RuntimeException exception )
+				{
+					rendering.completeExceptionally(exception);
+				}
+			});
+			rendering.join();
+		}
+		aBandIndex = pBandIndex;
+	}
+
+	/*
+	 * Renders all the tiles of band pBandIndex into aBand, on the JavaFX application thread.
+	 */
+	private void renderBand(int pBandIndex)
+	{
+		int bandHeight = bandHeight(pBandIndex);
+		for( int x = 0; x < getWidth(); x += TILE_SIZE )
+		{
+			int tileWidth = Math.min(TILE_SIZE, getWidth() - x);
+			renderTile(new Rectangle(aArea.x() + x, aArea.y() + pBandIndex * aBandHeight, tileWidth, bandHeight));
+			aTileImage.getPixelReader().getPixels(0, 0, tileWidth, bandHeight,
+					PixelFormat.getIntArgbInstance(), aBand, x, getWidth());
+		}
+	}
+
+	/*
+	 * Draws the part of the diagram in pTile, in the coordinates of the diagram,
+	 * onto the top left corner of aTileImage.
+	 */
+	private void renderTile(Rectangle pTile)
+	{
+		GraphicsContext context = aTileCanvas.getGraphicsContext2D();
+		context.save();
+		context.setFill(Color.WHITE);
+		context.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+		context.translate(-pTile.x(), -pTile.y());
+		aRenderer.draw(context, new Rectangle(pTile.x() - TILE_MARGIN, pTile.y() - TILE_MARGIN,
+				pTile.width() + 2 * TILE_MARGIN, pTile.height() + 2 * TILE_MARGIN));
+		context.restore();
+		aTileCanvas.snapshot(null, aTileImage);
+	}
+
+	private int bandHeight(int pBandIndex)
+	{
+		return Math.min(aBandHeight, getHeight() - pBandIndex * aBandHeight);
+	}
+
+	@Override
+	public Vector<RenderedImage> getSources()
+	{
+		return null;
+	}
+
+	@Override
+	public Object getProperty(String pName)
+	{
+		return java.awt.Image.UndefinedProperty;
+	}
+
+	@Override
+	public String[] getPropertyNames()
+	{
+		return null;
+	}
+
+	@Override
+	public ColorModel getColorModel()
+	{
+		return COLOR_MODEL;
+	}
+
+	@Override
+	public SampleModel getSampleModel()
+	{
+		return sampleModel(getWidth(), getHeight());
+	}
+
+	private static SampleModel sampleModel(int pWidth, int pHeight)
+	{
+		return new SinglePixelPackedSampleModel(DataBufferInt.TYPE_INT, pWidth, pHeight,
+				new int[] {RED_MASK, GREEN_MASK, BLUE_MASK});
+	}
+
+	@Override
+	public int getWidth()
+	{
+		return aArea.width();
+	}
+
+	@Override
+	public int getHeight()
+	{
+		return aArea.height();
+	}
+
+	@Override
+	public int getMinX()
+	{
+		return 0;
+	}
+
+	@Override
+	public int getMinY()
+	{
+		return 0;
+	}
+
+	@Override
+	public int getNumXTiles()
+	{
+		return 1;
+	}
+
+	@Override
+	public int getNumYTiles()
+	{
+		return (getHeight() + aBandHeight - 1) / aBandHeight;
+	}
+
+	@Override
+	public int getMinTileX()
+	{
+		return 0;
+	}
+
+	@Override
+	public int getMinTileY()
+	{
+		return 0;
+	}
+
+	@Override
+	public int getTileWidth()
+	{
+		return getWidth();
+	}
+
+	@Override
+	public int getTileHeight()
+	{
+		return aBandHeight;
+	}
+
+	@Override
+	public int getTileGridXOffset()
+	{
+		return 0;
+	}
+
+	@Override
+	public int getTileGridYOffset()
+	{
+		return 0;
+	}
+
+	@Override
+	public Raster getTile(int pTileX, int pTileY)
+	{
+		assert pTileX == 0 && pTileY >= 0 && pTileY < getNumYTiles();
+		return getData(new java.awt.Rectangle(0, pTileY * aBandHeight, getWidth(), bandHeight(pTileY)));
+	}
+
+	@Override
+	public Raster getData()
+	{
+		return getData(new java.awt.Rectangle(0, 0, getWidth(), getHeight()));
+	}
+
+	@Override
+	public Raster getData(java.awt.Rectangle pRectangle)
+	{
+		java.awt.Rectangle area = pRectangle.intersection(new java.awt.Rectangle(0, 0, getWidth(), getHeight()));
+		WritableRaster raster = Raster.createWritableRaster(sampleModel(area.width, area.height),
+				new Point(area.x, area.y));
+		copyData(raster);
+		return raster;
+	}
+
+	@Override
+	public WritableRaster copyData(WritableRaster pRaster)
+	{
+		WritableRaster raster = pRaster;
+		if( raster == null )
+		{
+			raster = Raster.createWritableRaster(getSampleModel(), null);
+		}
+		java.awt.Rectangle area = raster.getBounds().intersection(new java.awt.Rectangle(0, 0, getWidth(), getHeight()));
+		int[] row = new int[area.width];
+		for( int y = area.y; y < area.y + area.height; y++ )
+		{
+			getPixels(area.x, y, area.width, 1, row, 0, area.width);
+			raster.setDataElements(area.x, y, area.width, 1, row);
+		}
+		return raster;
+	}
+}
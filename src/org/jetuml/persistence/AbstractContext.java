@@ -20,6 +20,7 @@
  *******************************************************************************/
 package org.jetuml.persistence;
 
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -31,11 +32,14 @@ import org.jetuml.diagram.Node;
  * Base class for serialization and deserialization contexts. A context 
  * is a mapping between nodes and arbitrary identifiers. The only constraint
  * on identifiers is that they consistently preserve mapping between objects and
- * their identity.
+ * their identity. The mapping is indexed in both directions, so that 
+ * looking up the identifier of a node or the node with an identifier 
+ * takes constant time.
  */
 public abstract class AbstractContext implements Iterable<Node>
 {
-	protected final Map<Node, Integer> aNodes = new LinkedHashMap<>();
+	private final Map<Node, Integer> aNodes = new LinkedHashMap<>();
+	private final Map<Integer, Node> aIds = new HashMap<>();
 	private final Diagram aDiagram;
 	
 	/**
@@ -77,7 +81,46 @@ public abstract class AbstractContext implements Iterable<Node>
 	 */
 	public boolean idExists(int pId)
 	{
-		return aNodes.containsValue(pId);
+		return aIds.containsKey(pId);
+	}
+	
+	/**
+	 * Associates pNode with pId. If pNode was already associated with
+	 * an id, the new id replaces the old one. If pId is already associated 
+	 * with another node, the first node remains the one found by nodeWithId.
+	 * 
+	 * @param pNode The node to add.
+	 * @param pId The id to associate with pNode.
+	 * @pre pNode != null
+	 */
+	protected void associate(Node pNode, int pId)
+	{
+		assert pNode != null;
+		Integer oldId = aNodes.put(pNode, pId);
+		if( oldId != null && aIds.get(oldId) == pNode )
+		{
+			aIds.remove(oldId);
+		}
+		aIds.putIfAbsent(pId, pNode);
+	}
+	
+	/**
+	 * @param pId The identifier to search for.
+	 * @return The node associated with this identifier.
+	 * @pre idExists(pId)
+	 */
+	protected Node nodeWithId(int pId)
+	{
+		assert idExists(pId);
+		return aIds.get(pId);
+	}
+	
+	/**
+	 * @return The number of nodes in the context.
+	 */
+	protected int size()
+	{
+		return aNodes.size();
 	}
 	
 	@Override
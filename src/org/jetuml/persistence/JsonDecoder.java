@@ -20,6 +20,11 @@
  *******************************************************************************/
 package org.jetuml.persistence;
 
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
 import org.jetuml.application.Version;
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramType;
@@ -31,11 +36,18 @@ import org.jetuml.persistence.DeserializationException.Category;
 import org.jetuml.persistence.json.JsonArray;
 import org.jetuml.persistence.json.JsonException;
 import org.jetuml.persistence.json.JsonObject;
+import org.jetuml.persistence.json.JsonParsingException;
+import org.jetuml.persistence.json.JsonReader;
 
 /**
- * Converts a JSONObject to a diagram. Instances of this class are intended to be
- * used as a single-use wrapper around a JSON object that is to be decoded, as such
- * new JsonDecoder(pInputObject).decode()
+ * Converts JSON text to a diagram. Instances of this class are intended to be
+ * used as a single-use wrapper around the JSON text that is to be decoded, as such
+ * new JsonDecoder(pReader).decode()
+ * 
+ * The nodes and edges are built as the JSON text is read, so that only one
+ * node or edge is held in JSON form at a time. If the diagram type or the
+ * nodes appear after the properties that depend on them, these properties are 
+ * held until they can be decoded.
  * 
  * The version information stored in a diagram file is purposefully discarded 
  * as JetUML no longer migrates versions. Storing and handling version numbers
@@ -61,10 +73,26 @@ public final class JsonDecoder
 	private static final String PROPERTY_END = "end";
 
 	/* 
-	 * The object that will be decoded.
+	 * The text that will be decoded.
 	 */
-	private final JsonObject aInputObject;
+	private final JsonReader aReader;
 	private DeserializationContext aContext; // Wraps the diagram
+	private boolean aHasVersion = false;
+	private boolean aNodesDecoded = false;
+	private boolean aEdgesDecoded = false;
+	private JsonArray aPendingNodes; // Nodes read before the diagram type
+	private JsonArray aPendingEdges; // Edges read before the nodes
+	private final Map<Node, Object> aChildren = new LinkedHashMap<>(); // Children ids, restored once all nodes are decoded
+	
+	/**
+	 * @param pReader The reader positioned at the beginning of the JSON text to decode.
+	 * @pre pReader != null;
+	 */
+	public JsonDecoder(JsonReader pReader) 
+	{
+		assert pReader != null;
+		aReader = pReader;
+	}
 	
 	/**
 	 * @param pInputObject The object to decode into a diagram.
@@ -72,28 +100,44 @@ public final class JsonDecoder
 	 */
 	public JsonDecoder(JsonObject pInputObject) 
 	{
-		assert pInputObject != null;
-		aInputObject = pInputObject;
+		this(new JsonReader(new StringReader(pInputObject.toString())));
 	}
 
 	/**
-	 * @param pDiagram A JSON object that encodes the diagram.
 	 * @return The decoded diagram.
 	 * @throws DeserializationException If it's not possible to decode the
-	 * object into a valid diagram.
+	 * text into a valid diagram.
 	 */
 	public Diagram decode()
 	{
-		extractVersion();
-		extractDiagram();
 		try
 		{
-			decodeNodes();
-			restoreChildren();
-			restoreRootNodes();
-			decodeEdges();
+			readDocument();
+			if( !aHasVersion )
+			{
+				throw missingProperty(PROPERTY_VERSION);
+			}
+			if( aContext == null )
+			{
+				throw missingProperty(PROPERTY_DIAGRAM);
+			}
+			if( !aNodesDecoded )
+			{
+				decodeArray(aPendingNodes, PROPERTY_NODES, this::decodeNode);
+				restoreChildren();
+				restoreRootNodes();
+				aNodesDecoded = true;
+			}
+			if( !aEdgesDecoded )
+			{
+				decodeArray(aPendingEdges, PROPERTY_EDGES, this::decodeEdge);
+			}
 			return aContext.diagram();
 		}
+		catch( JsonParsingException exception )
+		{
+			throw new DeserializationException(Category.SYNTACTIC, exception.getMessage(), exception);
+		}
 		catch( JsonException exception )
 		{
 			// Just to be extra safe, but normally all exceptions should be 
@@ -102,13 +146,78 @@ public final class JsonDecoder
 		}
 	}
 	
-	private void extractVersion()
+	/*
+	 * Reads the properties of the diagram, decoding the nodes and edges
+	 * as they are read if possible. If the diagram has a structural problem, 
+	 * the rest of the text is still read, so that malformed JSON text is reported
+	 * in priority.
+	 */
+	private void readDocument()
+	{
+		try
+		{
+			aReader.beginObject();
+			while( aReader.hasNext() )
+			{
+				readProperty(aReader.nextName());
+			}
+			aReader.endObject();
+		}
+		catch( JsonParsingException exception )
+		{
+			throw exception;
+		}
+		catch( DeserializationException | JsonException exception )
+		{
+			aReader.skipToEnd();
+			throw exception;
+		}
+	}
+	
+	private void readProperty(String pName)
+	{
+		if( pName.equals(PROPERTY_VERSION) )
+		{
+			aHasVersion = true;
+			extractVersion(aReader.nextValue());
+		}
+		else if( pName.equals(PROPERTY_DIAGRAM) )
+		{
+			extractDiagram(aReader.nextValue());
+		}
+		else if( pName.equals(PROPERTY_NODES) && aContext != null )
+		{
+			readArray(PROPERTY_NODES, this::decodeNode);
+			restoreChildren();
+			restoreRootNodes();
+			aNodesDecoded = true;
+		}
+		else if( pName.equals(PROPERTY_NODES) )
+		{
+			aPendingNodes = extractArray(aReader.nextValue(), PROPERTY_NODES);
+		}
+		else if( pName.equals(PROPERTY_EDGES) && aNodesDecoded )
+		{
+			readArray(PROPERTY_EDGES, this::decodeEdge);
+			aEdgesDecoded = true;
+		}
+		else if( pName.equals(PROPERTY_EDGES) )
+		{
+			aPendingEdges = extractArray(aReader.nextValue(), PROPERTY_EDGES);
+		}
+		else
+		{
+			aReader.skipValue();
+		}
+	}
+	
+	private static void extractVersion(Object pVersion)
 	{
 		try
 		{
 			// We make sure that the version number can be parse as an integrity check on the 
 			// diagram file, but we do not store the information.
-			Version.parse(extractString(PROPERTY_VERSION));
+			Version.parse(extractString(pVersion, PROPERTY_VERSION));
 		}
 		catch(IllegalArgumentException exception)
 		{
@@ -116,78 +225,109 @@ public final class JsonDecoder
 		}
 	}
 	
-	private void extractDiagram()
+	private void extractDiagram(Object pDiagram)
 	{
+		String diagram = extractString(pDiagram, PROPERTY_DIAGRAM);
 		try
 		{
-			aContext = new DeserializationContext(new Diagram(DiagramType.fromName(extractString(PROPERTY_DIAGRAM))));
+			aContext = new DeserializationContext(new Diagram(DiagramType.fromName(diagram)));
 		}
 		catch(IllegalArgumentException exception)
 		{
-			throw new DeserializationException(Category.STRUCTURAL, "Invalid diagram type: " + extractString(PROPERTY_DIAGRAM));
+			throw new DeserializationException(Category.STRUCTURAL, "Invalid diagram type: " + diagram);
 		}
 	}
 	
 	/*
-	 * Extracts a string value for the given property name, and raises
-	 * a structural DeserializationException if the property is not found
-	 * or was not stored as a string.
+	 * Returns pValue as a string, and raises a structural DeserializationException 
+	 * if it was not stored as a string.
 	 */
-	private String extractString(String pPropertyName)
+	private static String extractString(Object pValue, String pPropertyName)
 	{
-		try
+		if( pValue instanceof String string )
 		{
-			return aInputObject.getString(pPropertyName);
+			return string;
 		}
-		catch(JsonException exception)
+		throw missingProperty(pPropertyName);
+	}
+	
+	/*
+	 * Returns pValue as a JsonArray, and raises a structural DeserializationException 
+	 * if it was not stored as an array.
+	 */
+	private static JsonArray extractArray(Object pValue, String pPropertyName)
+	{
+		if( pValue instanceof JsonArray array )
 		{
-			throw new DeserializationException(Category.STRUCTURAL, String.format("Cannot obtain value of property '%s'", pPropertyName));
+			return array;
 		}
+		throw missingProperty(pPropertyName);
+	}
+	
+	private static DeserializationException missingProperty(String pPropertyName)
+	{
+		return new DeserializationException(Category.STRUCTURAL, 
+				String.format("Cannot obtain value of property '%s'", pPropertyName));
 	}
 	
 	/*
-	 * Extracts a JsonArray value for the given property name, and raises
-	 * a structural DeserializationException if the property is not found
-	 * or was not stored as an array.
+	 * Decodes the elements of the array that is the value of the current property
+	 * as they are read.
 	 */
-	private JsonArray extractArray(String pPropertyName)
+	private void readArray(String pPropertyName, Consumer<Object> pDecoder)
 	{
-		try
+		if( aReader.peek() != JsonReader.Token.BEGIN_ARRAY )
 		{
-			return aInputObject.getJsonArray(pPropertyName);
+			throw missingProperty(pPropertyName);
 		}
-		catch(JsonException exception)
+		aReader.beginArray();
+		while( aReader.hasNext() )
+		{
+			pDecoder.accept(aReader.nextValue());
+		}
+		aReader.endArray();
+	}
+	
+	/*
+	 * Decodes the elements of an array that was read before it could be decoded.
+	 */
+	private static void decodeArray(JsonArray pArray, String pPropertyName, Consumer<Object> pDecoder)
+	{
+		if( pArray == null )
 		{
-			throw new DeserializationException(Category.STRUCTURAL, String.format("Cannot obtain value of property '%s'", pPropertyName));
+			throw missingProperty(pPropertyName);
 		}
+		pArray.forEach(pDecoder);
 	}
 	
 	/*
-	 * Extracts information about nodes from pObject and creates new objects to
-	 * represent them. throws Deserialization Exception
+	 * Creates a new node from its encoding. throws Deserialization Exception
 	 */
-	private void decodeNodes()
+	private void decodeNode(Object pNode)
 	{
-		JsonArray nodes = extractArray(PROPERTY_NODES);
-		for( int i = 0; i < nodes.size(); i++ )
+		try
 		{
-			try
+			if( !(pNode instanceof JsonObject object) )
 			{
-				JsonObject object = nodes.getJsonObject(i);
-				Class<?> nodeClass = Class.forName(PREFIX_NODES + object.getString(PROPERTY_TYPE));
-				Node node = (Node) nodeClass.getDeclaredConstructor().newInstance();
-				node.moveTo(new Point(object.getInt(PROPERTY_X), object.getInt(PROPERTY_Y)));
-				for( Property property : node.properties() )
-				{
-					property.set(object.get(property.name().external()));
-				}
-				aContext.addNode(node, object.getInt(PROPERTY_ID));
+				throw new JsonException("Node is not an object");
 			}
-			catch(ReflectiveOperationException | JsonException exception)
+			Class<?> nodeClass = Class.forName(PREFIX_NODES + object.getString(PROPERTY_TYPE));
+			Node node = (Node) nodeClass.getDeclaredConstructor().newInstance();
+			node.moveTo(new Point(object.getInt(PROPERTY_X), object.getInt(PROPERTY_Y)));
+			for( Property property : node.properties() )
 			{
-				throw new DeserializationException(Category.STRUCTURAL, "Cannot instantiate serialized object", exception);
+				property.set(object.get(property.name().external()));
+			}
+			aContext.addNode(node, object.getInt(PROPERTY_ID));
+			if( object.hasProperty(PROPERTY_CHILDREN) )
+			{
+				aChildren.put(node, object.get(PROPERTY_CHILDREN));
 			}
 		}
+		catch(ReflectiveOperationException | JsonException exception)
+		{
+			throw new DeserializationException(Category.STRUCTURAL, "Cannot instantiate serialized object", exception);
+		}
 	}
 
 	/*
@@ -210,64 +350,58 @@ public final class JsonDecoder
 	 */
 	private void restoreChildren()
 	{
-		JsonArray nodes = extractArray(PROPERTY_NODES);
-		for( int i = 0; i < nodes.size(); i++ )
+		for( Map.Entry<Node, Object> entry : aChildren.entrySet() )
 		{
-			JsonObject object = nodes.getJsonObject(i);
-			if( object.hasProperty(PROPERTY_CHILDREN) )
+			Node node = entry.getKey();
+			JsonArray children = extractArray(entry.getValue(), PROPERTY_CHILDREN);
+			for( int j = 0; j < children.size(); j++ )
 			{
-				Node node = aContext.getNode(object.getInt(PROPERTY_ID));
-				JsonArray children = object.getJsonArray(PROPERTY_CHILDREN);
-				for( int j = 0; j < children.size(); j++ )
+				int childNodeId = children.getInt(j);
+				if( !aContext.idExists(childNodeId))
 				{
-					int childNodeId = children.getInt(j);
-					if( !aContext.idExists(childNodeId))
-					{
-						throw new DeserializationException(Category.STRUCTURAL, "Invalid node id found in children nodes");
-					}
-					Node childNode = aContext.getNode(childNodeId);
-					if( !node.allowsAsChild(childNode) )
-					{
-						throw new DeserializationException(Category.STRUCTURAL, "Invalid parent-child relation");
-					}
-					node.addChild(aContext.getNode(childNodeId));
+					throw new DeserializationException(Category.STRUCTURAL, "Invalid node id found in children nodes");
 				}
+				Node childNode = aContext.getNode(childNodeId);
+				if( !node.allowsAsChild(childNode) )
+				{
+					throw new DeserializationException(Category.STRUCTURAL, "Invalid parent-child relation");
+				}
+				node.addChild(aContext.getNode(childNodeId));
 			}
 		}
 	}
 
 	/*
-	 * Extracts information about nodes from pObject and creates new objects to
-	 * represent them. throws Deserialization Exception
+	 * Creates a new edge from its encoding and adds it to the diagram. 
+	 * throws Deserialization Exception
 	 */
-	private void decodeEdges()
+	private void decodeEdge(Object pEdge)
 	{
-		JsonArray edges = extractArray(PROPERTY_EDGES);
-		for( int i = 0; i < edges.size(); i++ )
+		try
 		{
-			try
+			if( !(pEdge instanceof JsonObject object) )
 			{
-				JsonObject object = edges.getJsonObject(i);
-				Class<?> edgeClass = Class.forName(PREFIX_EDGES + object.getString(PROPERTY_TYPE));
-				Edge edge = (Edge) edgeClass.getDeclaredConstructor().newInstance();
+				throw new DeserializationException(Category.STRUCTURAL, "Edge is not an object");
+			}
+			Class<?> edgeClass = Class.forName(PREFIX_EDGES + object.getString(PROPERTY_TYPE));
+			Edge edge = (Edge) edgeClass.getDeclaredConstructor().newInstance();
 
-				for( Property property : edge.properties() )
-				{
-					property.set(object.get(property.name().external()));
-				}
-				int startNodeId = object.getInt(PROPERTY_START);
-				int endNodeId = object.getInt(PROPERTY_END);
-				if( !aContext.idExists(startNodeId) || !aContext.idExists(endNodeId))
-				{
-					throw new DeserializationException(Category.STRUCTURAL, "At least one edge vertex cannot be found");
-				}
-				edge.connect(aContext.getNode(startNodeId), aContext.getNode(endNodeId));
-				aContext.diagram().addEdge(edge);
+			for( Property property : edge.properties() )
+			{
+				property.set(object.get(property.name().external()));
 			}
-			catch (ReflectiveOperationException exception)
+			int startNodeId = object.getInt(PROPERTY_START);
+			int endNodeId = object.getInt(PROPERTY_END);
+			if( !aContext.idExists(startNodeId) || !aContext.idExists(endNodeId))
 			{
-				throw new DeserializationException(Category.STRUCTURAL, "Cannot instantiate serialized object", exception);
+				throw new DeserializationException(Category.STRUCTURAL, "At least one edge vertex cannot be found");
 			}
+			edge.connect(aContext.getNode(startNodeId), aContext.getNode(endNodeId));
+			aContext.diagram().addEdge(edge);
+		}
+		catch (ReflectiveOperationException exception)
+		{
+			throw new DeserializationException(Category.STRUCTURAL, "Cannot instantiate serialized object", exception);
 		}
 	}
 }
@@ -20,14 +20,17 @@
  *******************************************************************************/
 package org.jetuml.persistence;
 
+import java.io.StringWriter;
+
 import org.jetuml.JetUML;
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.Node;
 import org.jetuml.diagram.Properties;
 import org.jetuml.diagram.Property;
-import org.jetuml.persistence.json.JsonArray;
 import org.jetuml.persistence.json.JsonObject;
+import org.jetuml.persistence.json.JsonParser;
+import org.jetuml.persistence.json.JsonWriter;
 
 /**
  * Converts a graph to JSON notation. The notation includes:
@@ -35,6 +38,9 @@ import org.jetuml.persistence.json.JsonObject;
  * * The graph type
  * * An array of node encodings
  * * An array of edge encodings
+ * 
+ * The diagram type is written first and the nodes before the edges, so that
+ * the JsonDecoder can decode the nodes and edges as they are read.
  */
 public final class JsonEncoder
 {
@@ -47,81 +53,110 @@ public final class JsonEncoder
 	public static JsonObject encode(Diagram pDiagram)
 	{
 		assert pDiagram != null;
-		
-		JsonObject object = new JsonObject();
-		object.put("version", JetUML.VERSION.toString());
-		object.put("diagram", pDiagram.getName());
+		StringWriter text = new StringWriter();
+		encode(pDiagram, new JsonWriter(text));
+		return JsonParser.parse(text.toString());
+	}
+	
+	/**
+	 * Writes the encoding of a diagram as it is produced, without 
+	 * building a JSON object for the diagram.
+	 * 
+	 * @param pDiagram The diagram to serialize.
+	 * @param pWriter The writer to write the encoding to.
+	 * @pre pDiagram != null && pWriter != null
+	 */
+	public static void encode(Diagram pDiagram, JsonWriter pWriter)
+	{
+		assert pDiagram != null && pWriter != null;
 		SerializationContext context = new SerializationContext(pDiagram);
-		object.put("nodes", encodeNodes(context));
-		object.put("edges", encodeEdges(context));
-		return object;
+		pWriter.beginObject();
+		pWriter.name("diagram");
+		pWriter.value(pDiagram.getName());
+		pWriter.name("nodes");
+		encodeNodes(context, pWriter);
+		pWriter.name("edges");
+		encodeEdges(context, pWriter);
+		pWriter.name("version");
+		pWriter.value(JetUML.VERSION.toString());
+		pWriter.endObject();
 	}
 	
-	private static JsonArray encodeNodes(SerializationContext pContext)
+	private static void encodeNodes(SerializationContext pContext, JsonWriter pWriter)
 	{
-		JsonArray nodes = new JsonArray();
+		pWriter.beginArray();
 		for( Node node : pContext ) 
 		{
-			nodes.add(encodeNode(node, pContext));
+			encodeNode(node, pContext, pWriter);
 		}
-		return nodes;
+		pWriter.endArray();
 	}
 	
-	private static JsonObject encodeNode(Node pNode, SerializationContext pContext)
+	private static void encodeNode(Node pNode, SerializationContext pContext, JsonWriter pWriter)
 	{
-		JsonObject object = toJSONObject(pNode.properties());
-		object.put("id", pContext.getId(pNode));
-		object.put("type", pNode.getClass().getSimpleName());
-		object.put("x", pNode.position().x());
-		object.put("y", pNode.position().y());
+		pWriter.beginObject();
+		encodeProperties(pNode.properties(), pWriter);
+		pWriter.name("id");
+		pWriter.value(pContext.getId(pNode));
+		pWriter.name("type");
+		pWriter.value(pNode.getClass().getSimpleName());
+		pWriter.name("x");
+		pWriter.value(pNode.position().x());
+		pWriter.name("y");
+		pWriter.value(pNode.position().y());
 		if( pNode.getChildren().size() > 0 )
 		{
-			object.put("children", encodeChildren(pNode, pContext));
+			pWriter.name("children");
+			encodeChildren(pNode, pContext, pWriter);
 		}
-		return object;
+		pWriter.endObject();
 	}
 	
-	private static JsonArray encodeChildren(Node pNode, SerializationContext pContext)
+	private static void encodeChildren(Node pNode, SerializationContext pContext, JsonWriter pWriter)
 	{
-		JsonArray children = new JsonArray();
-		pNode.getChildren().forEach(child -> children.add(pContext.getId(child)));
-		return children;
+		pWriter.beginArray();
+		pNode.getChildren().forEach(child -> pWriter.value(pContext.getId(child)));
+		pWriter.endArray();
 	}
 	
-	private static JsonArray encodeEdges(AbstractContext pContext)
+	private static void encodeEdges(AbstractContext pContext, JsonWriter pWriter)
 	{
-		JsonArray edges = new JsonArray();
+		pWriter.beginArray();
 		for( Edge edge : pContext.diagram().edges() ) 
 		{
-			JsonObject object = toJSONObject(edge.properties());
-			object.put("type", edge.getClass().getSimpleName());
-			object.put("start", pContext.getId(edge.start()));
-			object.put("end", pContext.getId(edge.end()));
-			
-			edges.add(object);
+			pWriter.beginObject();
+			encodeProperties(edge.properties(), pWriter);
+			pWriter.name("type");
+			pWriter.value(edge.getClass().getSimpleName());
+			pWriter.name("start");
+			pWriter.value(pContext.getId(edge.start()));
+			pWriter.name("end");
+			pWriter.value(pContext.getId(edge.end()));
+			pWriter.endObject();
 		}
-		return edges;
+		pWriter.endArray();
 	}
 	
-	private static JsonObject toJSONObject(Properties pProperties)
+	private static void encodeProperties(Properties pProperties, JsonWriter pWriter)
 	{
-		JsonObject object = new JsonObject();
 		for( Property property : pProperties )
 		{
 			Object value = property.get();
 			if( value instanceof String || value instanceof Enum )
 			{
-				object.put(property.name().external(), value.toString());
+				pWriter.name(property.name().external());
+				pWriter.value(value.toString());
 			}
 			else if( value instanceof Integer)
 			{
-				object.put(property.name().external(), value);
+				pWriter.name(property.name().external());
+				pWriter.value((int) value);
 			}
 			else if( value instanceof Boolean)
 			{
-				object.put(property.name().external(), value);
+				pWriter.name(property.name().external());
+				pWriter.value((boolean) value);
 			}
 		}
-		return object;
 	}
 }
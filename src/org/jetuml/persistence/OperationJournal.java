@@ -0,0 +1,957 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.Diagram.Change;
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.Properties;
+import org.jetuml.diagram.Property;
+import org.jetuml.diagram.builder.DiagramOperation;
+import org.jetuml.diagram.builder.OperationObserver;
+import org.jetuml.geom.Point;
+import org.jetuml.persistence.DeserializationException.Category;
+import org.jetuml.persistence.json.JsonArray;
+import org.jetuml.persistence.json.JsonException;
+import org.jetuml.persistence.json.JsonObject;
+import org.jetuml.persistence.json.JsonParser;
+import org.jetuml.persistence.json.JsonWriter;
+
+/**
+ * A file next to the file of a diagram, in which the changes made to the diagram
+ * since it was last saved are recorded as they are executed or undone, so that they
+ * can be recovered if the application terminates before the diagram is saved.
+ *
+ * The journal is a sequence of lines, each of which is a JSON object:
+ *
+ * - The first line records when the file of the diagram was last modified when the
+ *   journal was started, so that the journal is not applied to another version of the file.
+ * - A line with a "checkpoint" property holds the complete encoding of the diagram,
+ *   with the identifiers of its nodes, in the order of Diagram.allNodes(), followed
+ *   by those of its edges. It replaces the previous lines of the journal.
+ * - Any other line records the changes made by an operation: the root nodes and edges
+ *   removed, the nodes and edges changed, and the root nodes and edges added, with
+ *   the index of each edge added. A node or edge that enters the diagram is recorded
+ *   completely. For the other elements, only the properties that changed are recorded,
+ *   with their previous values, and the position and children of a node or the
+ *   nodes of an edge only if they changed.
+ *
+ * Elements are identified by integers assigned by the journal, which are never reused.
+ * Before the first checkpoint, the nodes and edges of the file have the identifiers
+ * of a checkpoint of the diagram saved in it.
+ *
+ * The changes of an operation are found in the log of changes of the diagram, and
+ * compared to the state of the elements as last recorded, so recording an operation
+ * costs the size of the elements changed and not the size of the diagram. After a
+ * number of lines, the journal is folded into a checkpoint on the background thread,
+ * by recovering the diagram from the journal itself.
+ *
+ * The lines are written on a single background thread shared by all the journals,
+ * in the order they are recorded. If a line cannot be written, the journal is deleted
+ * and no changes are recorded until the diagram is saved again. The instance methods
+ * must be called on the thread that changes the diagram. The journal only ever writes
+ * its own file: the file of the diagram is only written when the diagram is saved.
+ */
+public final class OperationJournal implements OperationObserver
+{
+	private static final String EXTENSION = ".journal";
+	private static final String PREFIX_NODES = "org.jetuml.diagram.nodes.";
+	private static final String PREFIX_EDGES = "org.jetuml.diagram.edges.";
+	private static final String PROPERTY_BASIS = "basis";
+	private static final String PROPERTY_CHECKPOINT = "checkpoint";
+	private static final String PROPERTY_IDENTIFIERS = "identifiers";
+	private static final String PROPERTY_REMOVED_EDGES = "removedEdges";
+	private static final String PROPERTY_REMOVED_ROOTS = "removedRoots";
+	private static final String PROPERTY_NODES = "nodes";
+	private static final String PROPERTY_ADDED_ROOTS = "addedRoots";
+	private static final String PROPERTY_EDGES = "edges";
+	private static final String PROPERTY_ADDED_EDGES = "addedEdges";
+	private static final String PROPERTY_ID = "id";
+	private static final String PROPERTY_TYPE = "type";
+	private static final String PROPERTY_PROPERTIES = "properties";
+	private static final String PROPERTY_PREVIOUS = "previous";
+	private static final String PROPERTY_X = "x";
+	private static final String PROPERTY_Y = "y";
+	private static final String PROPERTY_CHILDREN = "children";
+	private static final String PROPERTY_START = "start";
+	private static final String PROPERTY_END = "end";
+	private static final String LINE_SEPARATOR = "\n";
+	// The number of lines after which the journal is folded into a checkpoint
+	private static final int MAX_LINES = 1000;
+	private static final String SET_ASIDE_EXTENSION = ".unrecovered";
+	
+	// A single thread shared by all the journals, which does not prevent the application from exiting
+	private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(pRunnable ->
+	{
+		Thread thread = new Thread(pRunnable, "Journal");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	private final Diagram aDiagram;
+	private final File aDiagramFile;
+	private final Path aJournalFile;
+	private String aBasis;
+	// The version of the diagram when its changes were last recorded
+	private long aVersion;
+	// The state of the nodes and edges as last recorded, including those no longer in the diagram
+	private Map<DiagramElement, Recorded> aRecorded;
+	// The root nodes and edges in the diagram as last recorded
+	private Set<DiagramElement> aInDiagram;
+	private int aNextIdentifier;
+	// The number of lines in the journal file, or 0 if there is no journal file
+	private int aNumberOfLines;
+	private volatile boolean aFailed;
+	
+	/*
+	 * A task that writes to the journal file.
+	 */
+	private interface Task
+	{
+		void run() throws IOException;
+	}
+	
+	/*
+	 * The state of a node or edge as last recorded. The position and children
+	 * are null for an edge, and the start and end nodes are null for a node.
+	 */
+	private record Recorded(int identifier, long version, Map<String, Object> properties,
+			Point position, List<Node> children, Node start, Node end) {}
+	
+	/**
+	 * Creates a journal for pDiagram, which is in the state saved in pFile.
+	 * Any previous journal of pFile is deleted.
+	 * 
+	 * @param pDiagram The diagram whose changes to record.
+	 * @param pFile The file in which pDiagram is saved.
+	 * @pre pDiagram != null && pFile != null
+	 */
+	public OperationJournal(Diagram pDiagram, File pFile)
+	{
+		assert pDiagram != null && pFile != null;
+		aDiagram = pDiagram;
+		aDiagramFile = pFile;
+		aJournalFile = journalFileFor(pFile);
+		diagramSaved();
+	}
+	
+	private static Path journalFileFor(File pFile)
+	{
+		return new File(pFile.getPath() + EXTENSION).toPath();
+	}
+	
+	/**
+	 * Indicates that the diagram was saved in its file,
+	 * which makes the changes recorded so far unnecessary.
+	 */
+	public void diagramSaved()
+	{
+		aBasis = Long.toString(aDiagramFile.lastModified());
+		recordAll();
+		aNumberOfLines = 0;
+		aFailed = false;
+		submit(() -> Files.deleteIfExists(aJournalFile));
+	}
+	
+	@Override
+	public void operationExecuted(DiagramOperation pOperation)
+	{
+		recordChanges();
+	}
+	
+	@Override
+	public void operationUndone(DiagramOperation pOperation)
+	{
+		recordChanges();
+	}
+	
+	/*
+	 * Records the state of all the elements of the diagram, with the identifiers
+	 * of a checkpoint of the diagram.
+	 */
+	private void recordAll()
+	{
+		aVersion = aDiagram.version();
+		aRecorded = new IdentityHashMap<>();
+		aInDiagram = Collections.newSetFromMap(new IdentityHashMap<>());
+		aNextIdentifier = 0;
+		for( Node node : aDiagram.allNodes() )
+		{
+			aRecorded.put(node, recorded(aNextIdentifier++, node));
+		}
+		for( Edge edge : aDiagram.edges() )
+		{
+			aRecorded.put(edge, recorded(aNextIdentifier++, edge));
+		}
+		aInDiagram.addAll(aDiagram.rootNodes());
+		aInDiagram.addAll(aDiagram.edges());
+	}
+	
+	private static Recorded recorded(int pIdentifier, Node pNode)
+	{
+		return new Recorded(pIdentifier, pNode.version(), values(pNode.properties()), pNode.position(),
+				List.copyOf(pNode.getChildren()), null, null);
+	}
+	
+	private static Recorded recorded(int pIdentifier, Edge pEdge)
+	{
+		return new Recorded(pIdentifier, pEdge.version(), values(pEdge.properties()), null, null,
+				pEdge.start(), pEdge.end());
+	}
+	
+	/*
+	 * The values of the properties that are saved, as JSON values.
+	 */
+	private static Map<String, Object> values(Properties pProperties)
+	{
+		Map<String, Object> values = new LinkedHashMap<>();
+		for( Property property : pProperties )
+		{
+			Object value = property.get();
+			if( value instanceof Enum )
+			{
+				value = value.toString();
+			}
+			if( value instanceof String || value instanceof Integer || value instanceof Boolean )
+			{
+				values.put(property.name().external(), value);
+			}
+		}
+		return values;
+	}
+	
+	/*
+	 * Appends a line with the changes made to the diagram since they were last recorded,
+	 * or writes a checkpoint if the diagram no longer lists them.
+	 */
+	private void recordChanges()
+	{
+		if( aFailed )
+		{
+			return;
+		}
+		Optional<List<Change>> changes = aDiagram.changesSince(aVersion);
+		if( changes.isEmpty() )
+		{
+			checkpoint();
+			return;
+		}
+		aVersion = aDiagram.version();
+		Map<DiagramElement, Boolean> changed = new IdentityHashMap<>();
+		for( Change change : changes.get() )
+		{
+			changed.merge(change.element(), change.addedOrRemoved(), Boolean::logicalOr);
+		}
+		JsonObject line = new JsonObject();
+		JsonArray removedRoots = new JsonArray();
+		JsonArray nodes = new JsonArray();
+		Map<Node, Integer> addedRoots = new IdentityHashMap<>();
+		// The nodes first, so that the nodes of the edges have identifiers
+		changed.forEach((element, addedOrRemoved) ->
+		{
+			if( element instanceof Node node )
+			{
+				int index = addedOrRemoved ? aDiagram.rootNodes().lastIndexOf(node) : 0;
+				boolean wasRoot = aInDiagram.contains(node);
+				if( addedOrRemoved && wasRoot )
+				{
+					removedRoots.add(aRecorded.get(node).identifier());
+					aInDiagram.remove(node);
+				}
+				if( index >= 0 && (wasRoot || addedOrRemoved) )
+				{
+					recordNode(node, !wasRoot, nodes);
+					if( addedOrRemoved )
+					{
+						addedRoots.put(node, index);
+						aInDiagram.add(node);
+					}
+				}
+			}
+		});
+		JsonArray removedEdges = new JsonArray();
+		JsonArray edges = new JsonArray();
+		Map<Edge, Integer> addedEdges = new IdentityHashMap<>();
+		changed.forEach((element, addedOrRemoved) ->
+		{
+			if( element instanceof Edge edge )
+			{
+				int index = addedOrRemoved ? aDiagram.edges().lastIndexOf(edge) : 0;
+				boolean wasInDiagram = aInDiagram.contains(edge);
+				if( addedOrRemoved && wasInDiagram )
+				{
+					removedEdges.add(aRecorded.get(edge).identifier());
+					aInDiagram.remove(edge);
+				}
+				if( index >= 0 && (wasInDiagram || addedOrRemoved) )
+				{
+					recordEdge(edge, !wasInDiagram, edges);
+					if( addedOrRemoved )
+					{
+						addedEdges.put(edge, index);
+						aInDiagram.add(edge);
+					}
+				}
+			}
+		});
+		putIfNotEmpty(line, PROPERTY_REMOVED_EDGES, removedEdges);
+		putIfNotEmpty(line, PROPERTY_REMOVED_ROOTS, removedRoots);
+		putIfNotEmpty(line, PROPERTY_NODES, nodes);
+		// Added root nodes are at the end of the list of root nodes, in the order of their index
+		JsonArray added = new JsonArray();
+		inOrderOfIndex(addedRoots).forEach(node -> added.add(aRecorded.get(node).identifier()));
+		putIfNotEmpty(line, PROPERTY_ADDED_ROOTS, added);
+		putIfNotEmpty(line, PROPERTY_EDGES, edges);
+		// Edges inserted in the order of their index end up at their index
+		JsonArray inserted = new JsonArray();
+		for( Edge edge : inOrderOfIndex(addedEdges) )
+		{
+			inserted.add(aRecorded.get(edge).identifier());
+			inserted.add(addedEdges.get(edge));
+		}
+		putIfNotEmpty(line, PROPERTY_ADDED_EDGES, inserted);
+		if( line.numberOfProperties() > 0 )
+		{
+			append(JsonWriter.write(line));
+		}
+	}
+	
+	private static <T> List<T> inOrderOfIndex(Map<T, Integer> pIndices)
+	{
+		List<T> elements = new ArrayList<>(pIndices.keySet());
+		elements.sort(Comparator.comparing(pIndices::get));
+		return elements;
+	}
+	
+	private static void putIfNotEmpty(JsonObject pObject, String pName, JsonArray pArray)
+	{
+		if( pArray.size() > 0 )
+		{
+			pObject.put(pName, pArray);
+		}
+	}
+	
+	/*
+	 * Records the changes to pNode and its descendants. If pEntered is true, the node
+	 * was not in the diagram when it was last recorded, and is recorded completely.
+	 * Because a change to a node changes the version of its ancestors, the descendants
+	 * of a node whose version did not change are not visited.
+	 */
+	private void recordNode(Node pNode, boolean pEntered, JsonArray pRecords)
+	{
+		Recorded previous = aRecorded.get(pNode);
+		if( !pEntered && previous != null && previous.version() == pNode.version() )
+		{
+			return;
+		}
+		boolean complete = pEntered || previous == null;
+		Recorded current = recorded(previous == null ? aNextIdentifier++ : previous.identifier(), pNode);
+		aRecorded.put(pNode, current);
+		JsonObject record = newRecord(pNode, current, complete ? null : previous);
+		if( complete || !current.position().equals(previous.position()) )
+		{
+			record.put(PROPERTY_X, current.position().x());
+			record.put(PROPERTY_Y, current.position().y());
+		}
+		List<Node> previousChildren = previous == null ? List.of() : previous.children();
+		boolean childrenChanged = !sameElements(previousChildren, current.children());
+		Set<Node> remainingChildren = Collections.newSetFromMap(new IdentityHashMap<>());
+		if( !complete && childrenChanged )
+		{
+			remainingChildren.addAll(previousChildren);
+		}
+		for( Node child : current.children() )
+		{
+			recordNode(child, complete || (childrenChanged && !remainingChildren.contains(child)), pRecords);
+		}
+		if( childrenChanged || complete && !current.children().isEmpty() )
+		{
+			JsonArray children = new JsonArray();
+			current.children().forEach(child -> children.add(aRecorded.get(child).identifier()));
+			record.put(PROPERTY_CHILDREN, children);
+		}
+		pRecords.add(record);
+	}
+	
+	/*
+	 * Records the changes to pEdge, completely if pEntered is true.
+	 */
+	private void recordEdge(Edge pEdge, boolean pEntered, JsonArray pRecords)
+	{
+		Recorded previous = aRecorded.get(pEdge);
+		if( !pEntered && previous != null && previous.version() == pEdge.version() )
+		{
+			return;
+		}
+		boolean complete = pEntered || previous == null;
+		Recorded current = recorded(previous == null ? aNextIdentifier++ : previous.identifier(), pEdge);
+		aRecorded.put(pEdge, current);
+		JsonObject record = newRecord(pEdge, current, complete ? null : previous);
+		if( complete || current.start() != previous.start() || current.end() != previous.end() )
+		{
+			record.put(PROPERTY_START, aRecorded.get(current.start()).identifier());
+			record.put(PROPERTY_END, aRecorded.get(current.end()).identifier());
+		}
+		pRecords.add(record);
+	}
+	
+	/*
+	 * A record with the identifier of pElement, and all its properties and its type
+	 * if pPrevious is null, or the properties that changed since pPrevious otherwise.
+	 */
+	private static JsonObject newRecord(DiagramElement pElement, Recorded pCurrent, Recorded pPrevious)
+	{
+		JsonObject record = new JsonObject();
+		record.put(PROPERTY_ID, pCurrent.identifier());
+		if( pPrevious == null )
+		{
+			record.put(PROPERTY_TYPE, pElement.getClass().getSimpleName());
+			record.put(PROPERTY_PROPERTIES, toObject(pCurrent.properties()));
+			return record;
+		}
+		JsonObject properties = new JsonObject();
+		JsonObject previousValues = new JsonObject();
+		pCurrent.properties().forEach((name, value) ->
+		{
+			Object previousValue = pPrevious.properties().get(name);
+			if( !value.equals(previousValue) )
+			{
+				properties.put(name, value);
+				if( previousValue != null )
+				{
+					previousValues.put(name, previousValue);
+				}
+			}
+		});
+		if( properties.numberOfProperties() > 0 )
+		{
+			record.put(PROPERTY_PROPERTIES, properties);
+			record.put(PROPERTY_PREVIOUS, previousValues);
+		}
+		return record;
+	}
+	
+	private static JsonObject toObject(Map<String, Object> pValues)
+	{
+		JsonObject object = new JsonObject();
+		pValues.forEach(object::put);
+		return object;
+	}
+	
+	private static boolean sameElements(List<Node> pFirst, List<Node> pSecond)
+	{
+		if( pFirst.size() != pSecond.size() )
+		{
+			return false;
+		}
+		for( int i = 0; i < pFirst.size(); i++ )
+		{
+			if( pFirst.get(i) != pSecond.get(i) )
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private void append(String pLine)
+	{
+		if( aNumberOfLines == 0 )
+		{
+			String content = header() + LINE_SEPARATOR + pLine + LINE_SEPARATOR;
+			aNumberOfLines = 2;
+			submit(() -> Files.writeString(aJournalFile, content, StandardCharsets.UTF_8));
+		}
+		else
+		{
+			aNumberOfLines++;
+			submit(() -> Files.writeString(aJournalFile, pLine + LINE_SEPARATOR, StandardCharsets.UTF_8,
+					StandardOpenOption.APPEND));
+		}
+		if( aNumberOfLines >= MAX_LINES )
+		{
+			fold();
+		}
+	}
+	
+	/**
+	 * Replaces the content of the journal by a checkpoint of the diagram in
+	 * its current state. The diagram is copied on the calling thread, and the
+	 * copy is encoded and written on the background thread. This is only
+	 * necessary when the diagram is not in the state saved in its file when
+	 * the journal is started, for example when it was recovered.
+	 */
+	public void checkpoint()
+	{
+		if( aFailed )
+		{
+			return;
+		}
+		// The nodes of the copy are in the same order as those of the diagram
+		Diagram snapshot = aDiagram.duplicate();
+		recordAll();
+		List<Integer> identifiers = new ArrayList<>();
+		for( int i = 0; i < aNextIdentifier; i++ )
+		{
+			identifiers.add(i);
+		}
+		aNumberOfLines = 2;
+		String header = header();
+		submit(() -> replace(header, snapshot, identifiers));
+	}
+	
+	/*
+	 * Folds the lines of the journal into a checkpoint on the background thread, by
+	 * recovering the diagram from the journal. The elements of the diagram recovered
+	 * keep their identifiers. If the journal cannot be folded, it is left as it is.
+	 */
+	private void fold()
+	{
+		aNumberOfLines = 2;
+		submit(() ->
+		{
+			try
+			{
+				List<String> lines = Files.readAllLines(aJournalFile, StandardCharsets.UTF_8);
+				if( lines.isEmpty() || !hasBasis(lines.get(0), aDiagramFile) )
+				{
+					return;
+				}
+				Recovery recovery = replay(lines, aDiagramFile);
+				replace(lines.get(0), recovery.diagram(), recovery.identifiers());
+			}
+			catch(IOException | DeserializationException | JsonException exception)
+			{
+				// The journal is still complete
+			}
+		});
+	}
+	
+	/*
+	 * Atomically replaces the journal by pHeader and a checkpoint of pDiagram.
+	 */
+	private void replace(String pHeader, Diagram pDiagram, List<Integer> pIdentifiers) throws IOException
+	{
+		StringWriter text = new StringWriter();
+		JsonWriter writer = new JsonWriter(text);
+		writer.beginObject();
+		writer.name(PROPERTY_CHECKPOINT);
+		JsonEncoder.encode(pDiagram, writer);
+		writer.name(PROPERTY_IDENTIFIERS);
+		writer.beginArray();
+		pIdentifiers.forEach(writer::value);
+		writer.endArray();
+		writer.endObject();
+		Path temporaryFile = aJournalFile.resolveSibling(aJournalFile.getFileName() + ".tmp");
+		Files.writeString(temporaryFile, pHeader + LINE_SEPARATOR + text + LINE_SEPARATOR, StandardCharsets.UTF_8);
+		Files.move(temporaryFile, aJournalFile, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	private String header()
+	{
+		JsonObject header = new JsonObject();
+		header.put(PROPERTY_BASIS, aBasis);
+		return JsonWriter.write(header);
+	}
+	
+	/**
+	 * Waits until all the changes recorded so far are written.
+	 */
+	public void flush()
+	{
+		waitFor(EXECUTOR.submit(() -> {}));
+	}
+	
+	/**
+	 * Deletes the journal, once the changes to the diagram no longer need to be
+	 * recovered, and waits until it is deleted. No changes are recorded afterwards.
+	 */
+	public void close()
+	{
+		aFailed = true;
+		waitFor(submit(() -> Files.deleteIfExists(aJournalFile)));
+	}
+	
+	private static void waitFor(Future<?> pFuture)
+	{
+		try
+		{
+			pFuture.get();
+		}
+		catch(InterruptedException exception)
+		{
+			Thread.currentThread().interrupt();
+		}
+		catch(ExecutionException exception)
+		{
+			// The tasks do not throw exceptions
+		}
+	}
+	
+	private Future<?> submit(Task pTask)
+	{
+		return EXECUTOR.submit(() ->
+		{
+			try
+			{
+				pTask.run();
+			}
+			catch(IOException exception)
+			{
+				// A journal with missing changes cannot be recovered
+				aFailed = true;
+				try
+				{
+					Files.deleteIfExists(aJournalFile);
+				}
+				catch(IOException deletionException)
+				{
+					// Nothing else to do
+				}
+			}
+		});
+	}
+	
+	/**
+	 * @param pFile A diagram file.
+	 * @return True if pFile has a journal of changes that were not saved,
+	 *     recorded since pFile was last modified.
+	 * @pre pFile != null
+	 */
+	public static boolean hasJournal(File pFile)
+	{
+		assert pFile != null;
+		Path journalFile = journalFileFor(pFile);
+		if( !Files.isRegularFile(journalFile) )
+		{
+			return false;
+		}
+		try( BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8) )
+		{
+			return hasBasis(reader.readLine(), pFile);
+		}
+		catch(IOException | JsonException exception)
+		{
+			return false;
+		}
+	}
+	
+	/**
+	 * Renames the journal of pFile, so that it is kept when a new journal is started
+	 * for pFile, for example when it cannot be recovered.
+	 * 
+	 * @param pFile A diagram file.
+	 * @return The renamed journal.
+	 * @throws IOException If the journal cannot be renamed.
+	 * @pre pFile != null
+	 */
+	public static Path setAside(File pFile) throws IOException
+	{
+		assert pFile != null;
+		Path journalFile = journalFileFor(pFile);
+		return Files.move(journalFile, journalFile.resolveSibling(journalFile.getFileName() + SET_ASIDE_EXTENSION),
+				StandardCopyOption.REPLACE_EXISTING);
+	}
+	
+	private static boolean hasBasis(String pHeader, File pFile)
+	{
+		return pHeader != null &&
+				JsonParser.parse(pHeader).getString(PROPERTY_BASIS).equals(Long.toString(pFile.lastModified()));
+	}
+	
+	/**
+	 * Reads the diagram saved in pFile, and applies the changes recorded in its journal.
+	 * An incomplete last line, which is written when the application terminates, is ignored.
+	 * 
+	 * @param pFile A diagram file.
+	 * @return The diagram with the changes that were not saved.
+	 * @throws IOException If the file or its journal cannot be read.
+	 * @throws DeserializationException If the file or its journal cannot be decoded.
+	 * @pre hasJournal(pFile)
+	 */
+	public static Diagram recover(File pFile) throws IOException, DeserializationException
+	{
+		assert pFile != null;
+		List<String> lines = Files.readAllLines(journalFileFor(pFile), StandardCharsets.UTF_8);
+		try
+		{
+			if( lines.isEmpty() || !hasBasis(lines.get(0), pFile) )
+			{
+				throw new DeserializationException(Category.STRUCTURAL, "The journal does not apply to this file");
+			}
+		}
+		catch(JsonException exception)
+		{
+			throw new DeserializationException(Category.SYNTACTIC, exception.getMessage(), exception);
+		}
+		return replay(lines, pFile).diagram();
+	}
+	
+	/*
+	 * Applies the lines of a journal, after its header, to the diagram saved in pFile.
+	 */
+	private static Recovery replay(List<String> pLines, File pFile) throws IOException
+	{
+		Recovery recovery = null;
+		for( String line : pLines.subList(1, pLines.size()) )
+		{
+			JsonObject record;
+			try
+			{
+				record = JsonParser.parse(line);
+			}
+			catch(JsonException exception)
+			{
+				break;
+			}
+			if( record.hasProperty(PROPERTY_CHECKPOINT) )
+			{
+				recovery = Recovery.fromCheckpoint(record);
+			}
+			else
+			{
+				if( recovery == null )
+				{
+					recovery = new Recovery(PersistenceService.read(pFile));
+				}
+				recovery.apply(record);
+			}
+		}
+		if( recovery == null )
+		{
+			recovery = new Recovery(PersistenceService.read(pFile));
+		}
+		return recovery;
+	}
+	
+	/*
+	 * A diagram being recovered, with its nodes and edges by identifier.
+	 */
+	private static final class Recovery
+	{
+		private final Diagram aDiagram;
+		// Also includes the elements removed from the diagram, which can be added back
+		private final Map<Integer, DiagramElement> aElements = new HashMap<>();
+		
+		Recovery(Diagram pDiagram)
+		{
+			this(pDiagram, null);
+		}
+		
+		/*
+		 * pIdentifiers are the identifiers of the nodes then the edges of pDiagram,
+		 * or null for the identifiers of a checkpoint of the diagram.
+		 */
+		private Recovery(Diagram pDiagram, JsonArray pIdentifiers)
+		{
+			aDiagram = pDiagram;
+			List<DiagramElement> elements = new ArrayList<>(pDiagram.allNodes());
+			elements.addAll(pDiagram.edges());
+			if( pIdentifiers != null && pIdentifiers.size() != elements.size() )
+			{
+				throw new DeserializationException(Category.STRUCTURAL, "Invalid checkpoint in the journal");
+			}
+			for( int i = 0; i < elements.size(); i++ )
+			{
+				aElements.put(pIdentifiers == null ? i : pIdentifiers.getInt(i), elements.get(i));
+			}
+		}
+		
+		static Recovery fromCheckpoint(JsonObject pCheckpoint)
+		{
+			try
+			{
+				return new Recovery(new JsonDecoder(pCheckpoint.getJsonObject(PROPERTY_CHECKPOINT)).decode(),
+						pCheckpoint.getJsonArray(PROPERTY_IDENTIFIERS));
+			}
+			catch(JsonException exception)
+			{
+				throw new DeserializationException(Category.STRUCTURAL, "Invalid checkpoint in the journal");
+			}
+		}
+		
+		Diagram diagram()
+		{
+			return aDiagram;
+		}
+		
+		/*
+		 * The identifiers of the nodes then the edges of the diagram.
+		 */
+		List<Integer> identifiers()
+		{
+			Map<DiagramElement, Integer> identifiers = new IdentityHashMap<>();
+			aElements.forEach((identifier, element) -> identifiers.put(element, identifier));
+			List<Integer> result = new ArrayList<>();
+			aDiagram.allNodes().forEach(node -> result.add(identifiers.get(node)));
+			aDiagram.edges().forEach(edge -> result.add(identifiers.get(edge)));
+			return result;
+		}
+		
+		/*
+		 * Applies a line of changes, in an order in which each step leaves the
+		 * diagram consistent: children are only added once they are removed from
+		 * their previous parent, and edges only once their nodes are in the diagram.
+		 */
+		void apply(JsonObject pChanges)
+		{
+			try
+			{
+				for( Object identifier : array(pChanges, PROPERTY_REMOVED_EDGES) )
+				{
+					aDiagram.removeEdge(element(identifier, Edge.class));
+				}
+				for( Object identifier : array(pChanges, PROPERTY_REMOVED_ROOTS) )
+				{
+					aDiagram.removeRootNode(element(identifier, Node.class));
+				}
+				JsonArray nodes = array(pChanges, PROPERTY_NODES);
+				for( Object record : nodes )
+				{
+					Node node = update((JsonObject) record, PREFIX_NODES, Node.class);
+					if( ((JsonObject) record).hasProperty(PROPERTY_X) )
+					{
+						node.moveTo(new Point(((JsonObject) record).getInt(PROPERTY_X),
+								((JsonObject) record).getInt(PROPERTY_Y)));
+					}
+				}
+				for( Object record : nodes )
+				{
+					if( ((JsonObject) record).hasProperty(PROPERTY_CHILDREN) )
+					{
+						Node node = element(((JsonObject) record).get(PROPERTY_ID), Node.class);
+						List.copyOf(node.getChildren()).forEach(node::removeChild);
+					}
+				}
+				for( Object record : nodes )
+				{
+					if( ((JsonObject) record).hasProperty(PROPERTY_CHILDREN) )
+					{
+						Node node = element(((JsonObject) record).get(PROPERTY_ID), Node.class);
+						for( Object child : ((JsonObject) record).getJsonArray(PROPERTY_CHILDREN) )
+						{
+							node.addChild(element(child, Node.class));
+						}
+					}
+				}
+				for( Object identifier : array(pChanges, PROPERTY_ADDED_ROOTS) )
+				{
+					aDiagram.addRootNode(element(identifier, Node.class));
+				}
+				for( Object record : array(pChanges, PROPERTY_EDGES) )
+				{
+					Edge edge = update((JsonObject) record, PREFIX_EDGES, Edge.class);
+					if( ((JsonObject) record).hasProperty(PROPERTY_START) )
+					{
+						edge.connect(element(((JsonObject) record).get(PROPERTY_START), Node.class),
+								element(((JsonObject) record).get(PROPERTY_END), Node.class));
+					}
+				}
+				JsonArray addedEdges = array(pChanges, PROPERTY_ADDED_EDGES);
+				for( int i = 0; i + 1 < addedEdges.size(); i += 2 )
+				{
+					aDiagram.addEdge(addedEdges.getInt(i + 1), element(addedEdges.get(i), Edge.class));
+				}
+			}
+			catch(JsonException | ClassCastException | IndexOutOfBoundsException exception)
+			{
+				throw new DeserializationException(Category.STRUCTURAL, "Invalid change in the journal");
+			}
+		}
+		
+		private static JsonArray array(JsonObject pObject, String pName)
+		{
+			return pObject.hasProperty(pName) ? pObject.getJsonArray(pName) : new JsonArray();
+		}
+		
+		private <T extends DiagramElement> T element(Object pIdentifier, Class<T> pType)
+		{
+			DiagramElement element = aElements.get(pIdentifier);
+			if( !pType.isInstance(element) )
+			{
+				throw new DeserializationException(Category.STRUCTURAL, "Unknown element in the journal");
+			}
+			return pType.cast(element);
+		}
+		
+		/*
+		 * Creates the element of pRecord if it has a type and is not known,
+		 * and sets the properties in pRecord.
+		 */
+		private <T extends DiagramElement> T update(JsonObject pRecord, String pPrefix, Class<T> pType)
+		{
+			Object identifier = pRecord.get(PROPERTY_ID);
+			if( pRecord.hasProperty(PROPERTY_TYPE) && !aElements.containsKey(identifier) )
+			{
+				try
+				{
+					aElements.put((Integer) identifier, (DiagramElement) Class.forName(pPrefix +
+							pRecord.getString(PROPERTY_TYPE)).getDeclaredConstructor().newInstance());
+				}
+				catch(ReflectiveOperationException exception)
+				{
+					throw new DeserializationException(Category.STRUCTURAL, "Cannot instantiate serialized object",
+							exception);
+				}
+			}
+			T element = element(identifier, pType);
+			if( pRecord.hasProperty(PROPERTY_PROPERTIES) )
+			{
+				JsonObject properties = pRecord.getJsonObject(PROPERTY_PROPERTIES);
+				for( Property property : element.properties() )
+				{
+					if( properties.hasProperty(property.name().external()) )
+					{
+						property.set(properties.get(property.name().external()));
+					}
+				}
+			}
+			return element;
+		}
+	}
+}
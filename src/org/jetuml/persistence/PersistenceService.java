@@ -20,11 +20,13 @@
  *******************************************************************************/
 package org.jetuml.persistence;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Optional;
@@ -35,7 +37,8 @@ import org.jetuml.diagram.validator.DiagramValidator;
 import org.jetuml.diagram.validator.Violation;
 import org.jetuml.persistence.DeserializationException.Category;
 import org.jetuml.persistence.json.JsonException;
-import org.jetuml.persistence.json.JsonParser;
+import org.jetuml.persistence.json.JsonReader;
+import org.jetuml.persistence.json.JsonWriter;
 
 /**
  * Services for saving and loading Diagram objects. The files are encoded
@@ -46,7 +49,8 @@ public final class PersistenceService
 	private PersistenceService() {}
 	
 	/**
-     * Saves the current diagram in a file. 
+     * Saves the current diagram in a file. The encoding of the diagram
+     * is written to the file as it is produced.
      * 
      * @param pDiagram The diagram to save
      * @param pFile The file in which to save the diagram
@@ -57,15 +61,21 @@ public final class PersistenceService
 	public static void save(Diagram pDiagram, File pFile) throws IOException
 	{
 		assert pDiagram != null && pFile != null;
-		try( PrintWriter out = new PrintWriter(
+		try( Writer out = new BufferedWriter(
 				new OutputStreamWriter(new FileOutputStream(pFile), StandardCharsets.UTF_8)))
 		{
-			out.println(JsonEncoder.encode(pDiagram).toString());
+			JsonEncoder.encode(pDiagram, new JsonWriter(out));
+			out.write(System.lineSeparator());
+		}
+		catch(UncheckedIOException exception)
+		{
+			throw exception.getCause();
 		}
 	}
 	
 	/**
-	 * Reads a diagram from a file.
+	 * Reads a diagram from a file. The diagram is decoded as the file is read,
+	 * without first loading the entire text of the file.
 	 * 
 	 * @param pFile The file to read the diagram from.
 	 * @return The diagram that is read in
@@ -76,10 +86,9 @@ public final class PersistenceService
 	public static Diagram read(File pFile) throws IOException, DeserializationException
 	{
 		assert pFile != null;
-		try
+		try( JsonReader reader = new JsonReader(Files.newBufferedReader(pFile.toPath(), StandardCharsets.UTF_8)) )
 		{
-			String inputLine = Files.readString(pFile.toPath(), StandardCharsets.UTF_8);
-			Diagram diagram = new JsonDecoder(JsonParser.parse(inputLine)).decode();
+			Diagram diagram = new JsonDecoder(reader).decode();
 			DiagramValidator validator = DiagramType.newValidatorInstanceFor(diagram);
 			Optional<Violation> violation = validator.validate();
 			if( violation.isPresent() )
@@ -95,6 +104,10 @@ public final class PersistenceService
 			}
 			return diagram;
 		}
+		catch(UncheckedIOException exception)
+		{
+			throw exception.getCause();
+		}
 		catch(JsonException exception)
 		{
 			throw new DeserializationException(Category.SYNTACTIC, exception.getMessage());
@@ -21,6 +21,10 @@ package org.jetuml.persistence.json;
 
 import static java.lang.Character.isWhitespace;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
 /**
  * A sequence of characters with a current position, to facilitate processing
  * character input. Client code is expected to only invoke valid operations,
@@ -30,10 +34,20 @@ import static java.lang.Character.isWhitespace;
  * The position of a character buffer corresponds to the position of the last
  * character read. This position is initialized at -1. A character buffer is
  * only expected to be traversed once.
+ * 
+ * The characters can be obtained from a reader, in which case only a window 
+ * of the input is held in memory. The window always includes the last character
+ * read, so that it is possible to back up by one character.
  */
 class CharacterBuffer
 {
-	private final String aCharacters;
+	private static final int WINDOW_SIZE = 8192;
+	
+	private final Reader aReader;
+	private char[] aWindow;
+	private int aStart = 0; // The position of the first character in the window
+	private int aLength; // The number of characters in the window
+	private boolean aEndReached;
 	private int aPosition = -1;
 
 	/**
@@ -45,7 +59,27 @@ class CharacterBuffer
 	CharacterBuffer(String pInput)
 	{
 		assert pInput != null;
-		aCharacters = pInput;
+		aReader = null;
+		aWindow = pInput.toCharArray();
+		aLength = aWindow.length;
+		aEndReached = true;
+	}
+	
+	/**
+	 * Creates a new CharacterBuffer with no character read, which
+	 * reads characters from pReader as they are needed. Input errors
+	 * are reported as UncheckedIOException.
+	 * 
+	 * @param pReader The reader that supplies the character sequence.
+	 * @pre pReader != null
+	 */
+	CharacterBuffer(Reader pReader)
+	{
+		assert pReader != null;
+		aReader = pReader;
+		aWindow = new char[WINDOW_SIZE];
+		aLength = 0;
+		aEndReached = false;
 	}
 
 	/**
@@ -53,7 +87,7 @@ class CharacterBuffer
 	 */
 	boolean hasMore()
 	{
-		return aPosition + 1 < aCharacters.length();
+		return hasMore(1);
 	}
 
 	/**
@@ -72,17 +106,56 @@ class CharacterBuffer
 	boolean hasMore(int pNumberOfCharacters)
 	{
 		assert pNumberOfCharacters > 0;
-		return aPosition + pNumberOfCharacters < aCharacters.length();
+		while( aPosition + pNumberOfCharacters >= aStart + aLength && !aEndReached )
+		{
+			fill();
+		}
+		return aPosition + pNumberOfCharacters < aStart + aLength;
+	}
+	
+	/*
+	 * Discards the characters before the last character read and reads 
+	 * more characters from the reader into the window.
+	 */
+	private void fill()
+	{
+		int discarded = Math.max(aPosition - aStart, 0);
+		System.arraycopy(aWindow, discarded, aWindow, 0, aLength - discarded);
+		aStart += discarded;
+		aLength -= discarded;
+		if( aLength == aWindow.length )
+		{
+			char[] window = new char[aWindow.length * 2];
+			System.arraycopy(aWindow, 0, window, 0, aLength);
+			aWindow = window;
+		}
+		try
+		{
+			int read = aReader.read(aWindow, aLength, aWindow.length - aLength);
+			if( read < 0 )
+			{
+				aEndReached = true;
+			}
+			else
+			{
+				aLength += read;
+			}
+		}
+		catch(IOException exception)
+		{
+			throw new UncheckedIOException(exception);
+		}
 	}
 
 	/**
-	 * More the position back by one.
+	 * More the position back by one. It is only possible to back up
+	 * to the position before the last character read.
 	 * 
 	 * @pre canBackUp()
 	 */
 	void backUp()
 	{
-		assert aPosition >= 0;
+		assert aPosition >= aStart;
 		aPosition--;
 	}
 
@@ -113,9 +186,10 @@ class CharacterBuffer
 	 */
 	char next()
 	{
-		assert hasMore();
+		boolean hasMore = hasMore(); // Reads more characters into the window if necessary
+		assert hasMore;
 		aPosition++;
-		return aCharacters.charAt(aPosition);
+		return aWindow[aPosition - aStart];
 	}
 
 	/**
@@ -125,20 +199,24 @@ class CharacterBuffer
 	 */
 	boolean isNext(char pCharacter)
 	{
-		return hasMore() && aCharacters.charAt(aPosition + 1) == pCharacter;
+		return hasMore() && aWindow[aPosition + 1 - aStart] == pCharacter;
 	}
 
 	@Override
 	public String toString()
 	{
-		if(aPosition >= 0 && aPosition < aCharacters.length())
+		if(aPosition >= aStart && aPosition < aStart + aLength)
 		{
-			return String.format("At position %d [%s]", aPosition, aCharacters.charAt(aPosition));
+			return String.format("At position %d [%s]", aPosition, aWindow[aPosition - aStart]);
 		}
 		else if(aPosition < 0)
 		{
 			return "Positioned at the beginning";
 		}
+		else if(aPosition < aStart)
+		{
+			return String.format("At position %d", aPosition);
+		}
 		else
 		{
 			return "Positioned at the end";
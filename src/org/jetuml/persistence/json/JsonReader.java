@@ -0,0 +1,559 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.jetuml.persistence.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reads a JSON document one token at a time, so that large documents can be
+ * processed without first building a JsonObject for the entire document. The
+ * supported subset of JSON is the same as for JsonParser, and in particular
+ * the document must be an object. The reader does not read past the end of
+ * this object.
+ *
+ * Malformed JSON text raises a JsonParsingException at the same position
+ * as JsonParser would report it. Attempting to read a token other than
+ * the next one raises a JsonException. Problems reading the input are
+ * reported as UncheckedIOException.
+ */
+public final class JsonReader implements Closeable
+{
+	private static final JsonStringParser STRING_PARSER = new JsonStringParser();
+	private static final JsonBooleanParser BOOLEAN_PARSER = new JsonBooleanParser();
+	private static final JsonIntegerParser INTEGER_PARSER = new JsonIntegerParser();
+
+	private static final char CHAR_START_OBJECT = '{';
+	private static final char CHAR_END_OBJECT = '}';
+	private static final char CHAR_START_ARRAY = '[';
+	private static final char CHAR_END_ARRAY = ']';
+	private static final char CHAR_COMMA = ',';
+	private static final char CHAR_COLON = ':';
+
+	/**
+	 * The tokens of a JSON document.
+	 */
+	public enum Token
+	{
+		/**
+		 * The opening brace of an object.
+		 */
+		BEGIN_OBJECT,
+
+		/**
+		 * The closing brace of an object.
+		 */
+		END_OBJECT,
+
+		/**
+		 * The opening bracket of an array.
+		 */
+		BEGIN_ARRAY,
+
+		/**
+		 * The closing bracket of an array.
+		 */
+		END_ARRAY,
+
+		/**
+		 * The name of a property of an object.
+		 */
+		NAME,
+
+		/**
+		 * A string value.
+		 */
+		STRING,
+
+		/**
+		 * An integer value.
+		 */
+		NUMBER,
+
+		/**
+		 * A boolean value.
+		 */
+		BOOLEAN,
+
+		/**
+		 * The end of the document.
+		 */
+		END_DOCUMENT
+	}
+
+	private final Reader aReader;
+	private final ParsableCharacterBuffer aInput;
+	private final Deque<Scope> aScopes = new ArrayDeque<>();
+	private boolean aStarted = false;
+	private Token aNext; // Null if the next token is not known yet
+
+	/**
+	 * Creates a reader positioned at the beginning of the document.
+	 *
+	 * @param pReader The source of the JSON text.
+	 * @pre pReader != null
+	 */
+	public JsonReader(Reader pReader)
+	{
+		assert pReader != null;
+		aReader = pReader;
+		aInput = new ParsableCharacterBuffer(pReader);
+	}
+
+	/**
+	 * Creates a reader positioned at the beginning of the document.
+	 * The input is decoded as UTF-8.
+	 *
+	 * @param pInput The source of the JSON text.
+	 * @pre pInput != null
+	 */
+	public JsonReader(InputStream pInput)
+	{
+		this(new InputStreamReader(pInput, StandardCharsets.UTF_8.newDecoder()));
+	}
+
+	/**
+	 * Determines the type of the next token without consuming it.
+	 *
+	 * @return The type of the next token.
+	 * @throws JsonParsingException if the input is malformed before the next token.
+	 */
+	public Token peek()
+	{
+		if( aNext == null )
+		{
+			aNext = findNext();
+		}
+		return aNext;
+	}
+
+	/**
+	 * @return True if the current object or array has another property or element.
+	 * @throws JsonParsingException if the input is malformed before the next token.
+	 */
+	public boolean hasNext()
+	{
+		Token next = peek();
+		return next != Token.END_OBJECT && next != Token.END_ARRAY && next != Token.END_DOCUMENT;
+	}
+
+	/**
+	 * @return The position of the last character read.
+	 */
+	public int position()
+	{
+		return aInput.position();
+	}
+
+	/**
+	 * Consumes the opening brace of an object.
+	 *
+	 * @throws JsonException if the next token is not BEGIN_OBJECT.
+	 */
+	public void beginObject()
+	{
+		expect(Token.BEGIN_OBJECT);
+		aInput.consume(CHAR_START_OBJECT);
+		aStarted = true;
+		aScopes.push(new Scope(true));
+	}
+
+	/**
+	 * Consumes the closing brace of an object.
+	 *
+	 * @throws JsonException if the next token is not END_OBJECT.
+	 */
+	public void endObject()
+	{
+		expect(Token.END_OBJECT);
+		aInput.consume(CHAR_END_OBJECT);
+		aScopes.pop();
+		completeValue();
+	}
+
+	/**
+	 * Consumes the opening bracket of an array.
+	 *
+	 * @throws JsonException if the next token is not BEGIN_ARRAY.
+	 */
+	public void beginArray()
+	{
+		expect(Token.BEGIN_ARRAY);
+		aInput.consume(CHAR_START_ARRAY);
+		aScopes.push(new Scope(false));
+	}
+
+	/**
+	 * Consumes the closing bracket of an array.
+	 *
+	 * @throws JsonException if the next token is not END_ARRAY.
+	 */
+	public void endArray()
+	{
+		expect(Token.END_ARRAY);
+		aInput.consume(CHAR_END_ARRAY);
+		aScopes.pop();
+		completeValue();
+	}
+
+	/**
+	 * @return The name of the next property.
+	 * @throws JsonException if the next token is not NAME.
+	 */
+	public String nextName()
+	{
+		expect(Token.NAME);
+		String name = STRING_PARSER.parse(aInput);
+		Scope scope = aScopes.peek();
+		scope.aDuplicateName = !scope.aNames.add(name);
+		scope.aExpectsValue = true;
+		return name;
+	}
+
+	/**
+	 * @return The next string value.
+	 * @throws JsonException if the next token is not STRING.
+	 */
+	public String nextString()
+	{
+		expect(Token.STRING);
+		String value = STRING_PARSER.parse(aInput);
+		completeValue();
+		return value;
+	}
+
+	/**
+	 * @return The next integer value.
+	 * @throws JsonException if the next token is not NUMBER.
+	 */
+	public int nextInt()
+	{
+		expect(Token.NUMBER);
+		int value = INTEGER_PARSER.parse(aInput);
+		completeValue();
+		return value;
+	}
+
+	/**
+	 * @return The next boolean value.
+	 * @throws JsonException if the next token is not BOOLEAN.
+	 */
+	public boolean nextBoolean()
+	{
+		expect(Token.BOOLEAN);
+		boolean value = BOOLEAN_PARSER.parse(aInput);
+		completeValue();
+		return value;
+	}
+
+	/**
+	 * Reads the next object, including all its nested values.
+	 *
+	 * @return The next object.
+	 * @throws JsonException if the next token is not BEGIN_OBJECT.
+	 */
+	public JsonObject nextObject()
+	{
+		beginObject();
+		JsonObject object = new JsonObject();
+		while( hasNext() )
+		{
+			String name = nextName();
+			object.put(name, nextValue());
+		}
+		endObject();
+		return object;
+	}
+
+	/**
+	 * Reads the next array, including all its nested values.
+	 *
+	 * @return The next array.
+	 * @throws JsonException if the next token is not BEGIN_ARRAY.
+	 */
+	public JsonArray nextArray()
+	{
+		beginArray();
+		JsonArray array = new JsonArray();
+		while( hasNext() )
+		{
+			array.add(nextValue());
+		}
+		endArray();
+		return array;
+	}
+
+	/**
+	 * Reads the next value, including all its nested values.
+	 *
+	 * @return The next value, as one of String, Integer, Boolean, JsonObject, or JsonArray.
+	 * @throws JsonException if the next token is not the start of a value.
+	 */
+	public Object nextValue()
+	{
+		Token next = peek();
+		if( next == Token.STRING )
+		{
+			return nextString();
+		}
+		else if( next == Token.NUMBER )
+		{
+			return nextInt();
+		}
+		else if( next == Token.BOOLEAN )
+		{
+			return nextBoolean();
+		}
+		else if( next == Token.BEGIN_OBJECT )
+		{
+			return nextObject();
+		}
+		else if( next == Token.BEGIN_ARRAY )
+		{
+			return nextArray();
+		}
+		throw new JsonException("Expected a value but found " + next);
+	}
+
+	/**
+	 * Consumes the next value, including all its nested values, without
+	 * retaining it.
+	 *
+	 * @throws JsonException if the next token is not the start of a value.
+	 */
+	public void skipValue()
+	{
+		if( !hasNext() || peek() == Token.NAME )
+		{
+			throw new JsonException("Expected a value but found " + peek());
+		}
+		int depth = 0;
+		do
+		{
+			Token next = peek();
+			if( next == Token.BEGIN_OBJECT )
+			{
+				beginObject();
+				depth++;
+			}
+			else if( next == Token.BEGIN_ARRAY )
+			{
+				beginArray();
+				depth++;
+			}
+			else if( next == Token.END_OBJECT )
+			{
+				endObject();
+				depth--;
+			}
+			else if( next == Token.END_ARRAY )
+			{
+				endArray();
+				depth--;
+			}
+			else if( next == Token.NAME )
+			{
+				nextName();
+			}
+			else
+			{
+				skipScalar(next);
+			}
+		} while( depth > 0 );
+	}
+
+	/**
+	 * Consumes the remainder of the document, so that any malformed
+	 * JSON text it contains is reported.
+	 *
+	 * @throws JsonParsingException if the remainder of the document is malformed.
+	 */
+	public void skipToEnd()
+	{
+		while( peek() != Token.END_DOCUMENT )
+		{
+			if( peek() == Token.END_OBJECT )
+			{
+				endObject();
+			}
+			else if( peek() == Token.END_ARRAY )
+			{
+				endArray();
+			}
+			else if( peek() == Token.NAME )
+			{
+				nextName();
+			}
+			else
+			{
+				skipValue();
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		aReader.close();
+	}
+
+	private void skipScalar(Token pToken)
+	{
+		if( pToken == Token.STRING )
+		{
+			nextString();
+		}
+		else if( pToken == Token.NUMBER )
+		{
+			nextInt();
+		}
+		else
+		{
+			nextBoolean();
+		}
+	}
+
+	private void expect(Token pToken)
+	{
+		if( peek() != pToken )
+		{
+			throw new JsonException(String.format("Expected %s but found %s", pToken, aNext));
+		}
+		aNext = null;
+	}
+
+	/*
+	 * Consumes the separators that precede the next token and determines its
+	 * type, in the same order as the JsonObjectParser and JsonArrayParser
+	 * so that errors are reported at the same positions.
+	 */
+	private Token findNext()
+	{
+		if( !aStarted )
+		{
+			if( !aInput.isNext(CHAR_START_OBJECT) )
+			{
+				// Reports the problem at the position JsonParser would
+				aInput.consume(CHAR_START_OBJECT);
+			}
+			return Token.BEGIN_OBJECT;
+		}
+		Scope scope = aScopes.peek();
+		if( scope == null )
+		{
+			return Token.END_DOCUMENT;
+		}
+		aInput.skipBlanks();
+		if( scope.aExpectsValue )
+		{
+			aInput.consume(CHAR_COLON);
+			aInput.skipBlanks();
+			return findValue();
+		}
+		if( scope.aIsObject && aInput.isNext(CHAR_END_OBJECT) )
+		{
+			return Token.END_OBJECT;
+		}
+		if( !scope.aIsObject && aInput.isNext(CHAR_END_ARRAY) )
+		{
+			return Token.END_ARRAY;
+		}
+		if( scope.aNumberOfValues > 0 )
+		{
+			aInput.consume(CHAR_COMMA);
+			aInput.skipBlanks();
+		}
+		if( scope.aIsObject )
+		{
+			return Token.NAME;
+		}
+		return findValue();
+	}
+
+	private Token findValue()
+	{
+		if( STRING_PARSER.isApplicable(aInput) )
+		{
+			return Token.STRING;
+		}
+		else if( BOOLEAN_PARSER.isApplicable(aInput) )
+		{
+			return Token.BOOLEAN;
+		}
+		else if( INTEGER_PARSER.isApplicable(aInput) )
+		{
+			return Token.NUMBER;
+		}
+		else if( aInput.isNext(CHAR_START_OBJECT) )
+		{
+			return Token.BEGIN_OBJECT;
+		}
+		else if( aInput.isNext(CHAR_START_ARRAY) )
+		{
+			return Token.BEGIN_ARRAY;
+		}
+		throw new JsonParsingException(aInput.position());
+	}
+
+	/*
+	 * Records that a value of the current object or array was read. As with
+	 * JsonObjectParser, a duplicate property name is only reported once its
+	 * value has been read.
+	 */
+	private void completeValue()
+	{
+		Scope scope = aScopes.peek();
+		if( scope == null )
+		{
+			return;
+		}
+		if( scope.aDuplicateName )
+		{
+			throw new JsonParsingException(aInput.position());
+		}
+		scope.aExpectsValue = false;
+		scope.aNumberOfValues++;
+	}
+
+	/*
+	 * An object or array that is being read.
+	 */
+	private static final class Scope
+	{
+		private final boolean aIsObject;
+		private final Set<String> aNames = new HashSet<>();
+		private int aNumberOfValues = 0;
+		private boolean aExpectsValue = false; // True after the name of a property is read
+		private boolean aDuplicateName = false;
+
+		Scope(boolean pIsObject)
+		{
+			aIsObject = pIsObject;
+		}
+	}
+}
@@ -21,6 +21,10 @@ package org.jetuml.persistence.json;
 
 import static java.lang.Character.isISOControl;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
 /**
  * Parses strings in JSON document according to the ECMA-404 2nd
  * edition December 2017. Also provides support for writing strings 
@@ -31,6 +35,7 @@ final class JsonStringParser implements JsonValueParser
 	private static final CharacterEscapes CHARACTER_ESCAPES = new CharacterEscapes();
 	private static final int NUMBER_OF_UNICODE_DIGITS = 4;
 	private static final int RADIX_HEXADECIMAL = 16;
+	private static final int BITS_PER_HEXADECIMAL_DIGIT = 4;
 	
 	private static final char CHAR_QUOTE = '"';
 	private static final char CHAR_ESCAPE = '\\';
@@ -172,29 +177,62 @@ final class JsonStringParser implements JsonValueParser
 	 */
 	static String writeJsonString(Object pString)
 	{
-		StringBuilder result = new StringBuilder();
-		result.append(CHAR_QUOTE);
-		for( char character : JsonValueValidator.asString(pString).toCharArray())
+		StringWriter result = new StringWriter();
+		try
 		{
-			if( CHARACTER_ESCAPES.isEscapableCodePoint(character))
-			{
-				result.append(CHARACTER_ESCAPES.getEscape(character));
-			}
-			else if( Character.isISOControl(character))
-			{
-				result.append(toUnicodeString(character));
-			}
-			else
+			writeJsonString(JsonValueValidator.asString(pString), result);
+		}
+		catch(IOException exception)
+		{
+			assert false; // A StringWriter does not raise IOException
+		}
+		return result.toString();
+	}
+	
+	/**
+	 * Writes a string as a proper JSON format string, escaping the 
+	 * characters that need to be escaped. The characters that do not 
+	 * need to be escaped are written in runs rather than one by one.
+	 * 
+	 * @param pString The string to write.
+	 * @param pOutput The writer to write to.
+	 * @throws IOException If there is a problem writing to pOutput.
+	 * @pre pString != null && pOutput != null
+	 */
+	static void writeJsonString(String pString, Writer pOutput) throws IOException
+	{
+		assert pString != null && pOutput != null;
+		pOutput.write(CHAR_QUOTE);
+		int start = 0; // Start of the current run of characters that are not escaped
+		for( int i = 0; i < pString.length(); i++ )
+		{
+			char character = pString.charAt(i);
+			if( CHARACTER_ESCAPES.isEscapableCodePoint(character) || Character.isISOControl(character) )
 			{
-				result.append(character);
+				pOutput.write(pString, start, i - start);
+				start = i + 1;
+				if( CHARACTER_ESCAPES.isEscapableCodePoint(character) )
+				{
+					pOutput.write(CHARACTER_ESCAPES.getEscape(character));
+				}
+				else
+				{
+					writeUnicode(character, pOutput);
+				}
 			}
 		}
-		result.append(CHAR_QUOTE);
-		return result.toString();
+		pOutput.write(pString, start, pString.length() - start);
+		pOutput.write(CHAR_QUOTE);
 	}
 	
-	private static String toUnicodeString(char pCharacter)
+	private static void writeUnicode(char pCharacter, Writer pOutput) throws IOException
 	{
-		return "\\u" + String.format("%04x", (int)pCharacter);
+		pOutput.write(CHAR_ESCAPE);
+		pOutput.write(CHAR_UNICODE_ESCAPE);
+		for( int i = NUMBER_OF_UNICODE_DIGITS - 1; i >= 0; i-- )
+		{
+			int digit = pCharacter >> (i * BITS_PER_HEXADECIMAL_DIGIT) & (RADIX_HEXADECIMAL - 1);
+			pOutput.write(Character.forDigit(digit, RADIX_HEXADECIMAL));
+		}
 	}
 }
@@ -19,15 +19,36 @@
  *******************************************************************************/
 package org.jetuml.persistence.json;
 
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.function.Function;
 
 /**
  * An object able to write a JSON value to its String representation.
+ * 
+ * Instances of this class write JSON text directly to a writer, one token
+ * at a time, so that large documents can be written without first building
+ * a JsonObject for the entire document. The text is written without blanks, as
+ * with the static write method. The writer is not buffered by this class. Problems 
+ * writing the output are reported as UncheckedIOException.
  */
-public final class JsonWriter
+public final class JsonWriter implements Closeable, Flushable
 {
+	private static final char CHAR_START_OBJECT = '{';
+	private static final char CHAR_END_OBJECT = '}';
+	private static final char CHAR_START_ARRAY = '[';
+	private static final char CHAR_END_ARRAY = ']';
+	private static final char CHAR_COMMA = ',';
+	private static final char CHAR_COLON = ':';
+	
+
 	private static final Map<Class<?>, Function<Object, String>> WRITERS = new IdentityHashMap<>();
 	
 	static
@@ -39,7 +60,22 @@ public final class JsonWriter
 		WRITERS.put(JsonArray.class, JsonArrayParser::writeJsonArray);
 	}
 	
-	private JsonWriter() {}
+	private final Writer aWriter;
+	private final Deque<Boolean> aScopes = new ArrayDeque<>(); // True for objects, false for arrays
+	private boolean aNeedsComma = false;
+	private boolean aAfterName = false;
+	
+	/**
+	 * Creates a writer that writes JSON text to pWriter.
+	 * 
+	 * @param pWriter The destination of the JSON text.
+	 * @pre pWriter != null
+	 */
+	public JsonWriter(Writer pWriter)
+	{
+		assert pWriter != null;
+		aWriter = pWriter;
+	}
 	
 	/**
 	 * @param pJsonValue A value to serialize.
@@ -52,4 +88,179 @@ public final class JsonWriter
 		JsonValueValidator.validateType(pJsonValue);
 		return WRITERS.get(pJsonValue.getClass()).apply(pJsonValue);
 	}
+	
+	/**
+	 * Writes the opening brace of an object.
+	 */
+	public void beginObject()
+	{
+		beginValue();
+		write(CHAR_START_OBJECT);
+		aScopes.push(true);
+		aNeedsComma = false;
+	}
+	
+	/**
+	 * Writes the closing brace of an object.
+	 * 
+	 * @pre an object is open and the value of its last property was written.
+	 */
+	public void endObject()
+	{
+		assert Boolean.TRUE.equals(aScopes.peek()) && !aAfterName;
+		aScopes.pop();
+		write(CHAR_END_OBJECT);
+		aNeedsComma = true;
+	}
+	
+	/**
+	 * Writes the opening bracket of an array.
+	 */
+	public void beginArray()
+	{
+		beginValue();
+		write(CHAR_START_ARRAY);
+		aScopes.push(false);
+		aNeedsComma = false;
+	}
+	
+	/**
+	 * Writes the closing bracket of an array.
+	 * 
+	 * @pre an array is open.
+	 */
+	public void endArray()
+	{
+		assert Boolean.FALSE.equals(aScopes.peek());
+		aScopes.pop();
+		write(CHAR_END_ARRAY);
+		aNeedsComma = true;
+	}
+	
+	/**
+	 * Writes the name of a property of the current object. The next
+	 * call must write the value of the property.
+	 * 
+	 * @param pName The name of the property.
+	 * @pre pName != null
+	 * @pre an object is open and the value of its last property was written.
+	 */
+	public void name(String pName)
+	{
+		assert pName != null;
+		assert Boolean.TRUE.equals(aScopes.peek()) && !aAfterName;
+		if( aNeedsComma )
+		{
+			write(CHAR_COMMA);
+		}
+		writeString(pName);
+		write(CHAR_COLON);
+		aAfterName = true;
+	}
+	
+	/**
+	 * Writes a string value.
+	 * 
+	 * @param pValue The value to write.
+	 * @pre pValue != null
+	 */
+	public void value(String pValue)
+	{
+		assert pValue != null;
+		beginValue();
+		writeString(pValue);
+		aNeedsComma = true;
+	}
+	
+	/**
+	 * Writes an integer value.
+	 * 
+	 * @param pValue The value to write.
+	 */
+	public void value(int pValue)
+	{
+		beginValue();
+		write(Integer.toString(pValue));
+		aNeedsComma = true;
+	}
+	
+	/**
+	 * Writes a boolean value.
+	 * 
+	 * @param pValue The value to write.
+	 */
+	public void value(boolean pValue)
+	{
+		beginValue();
+		write(Boolean.toString(pValue));
+		aNeedsComma = true;
+	}
+	
+	@Override
+	public void flush()
+	{
+		try
+		{
+			aWriter.flush();
+		}
+		catch(IOException exception)
+		{
+			throw new UncheckedIOException(exception);
+		}
+	}
+	
+	@Override
+	public void close() throws IOException
+	{
+		aWriter.close();
+	}
+	
+	/*
+	 * Writes the separator that precedes a value, if any.
+	 */
+	private void beginValue()
+	{
+		assert !Boolean.TRUE.equals(aScopes.peek()) || aAfterName;
+		if( aNeedsComma && !aAfterName )
+		{
+			write(CHAR_COMMA);
+		}
+		aAfterName = false;
+	}
+	
+	private void writeString(String pString)
+	{
+		try
+		{
+			JsonStringParser.writeJsonString(pString, aWriter);
+		}
+		catch(IOException exception)
+		{
+			throw new UncheckedIOException(exception);
+		}
+	}
+	
+	private void write(char pCharacter)
+	{
+		try
+		{
+			aWriter.write(pCharacter);
+		}
+		catch(IOException exception)
+		{
+			throw new UncheckedIOException(exception);
+		}
+	}
+	
+	private void write(String pString)
+	{
+		try
+		{
+			aWriter.write(pString);
+		}
+		catch(IOException exception)
+		{
+			throw new UncheckedIOException(exception);
+		}
+	}
 }
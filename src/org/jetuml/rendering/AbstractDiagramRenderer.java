@@ -17,10 +17,22 @@
  ******************************************************************************/
 package org.jetuml.rendering;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
 
+import org.jetuml.application.UserPreferences;
+import org.jetuml.application.UserPreferences.IntegerPreference;
+import org.jetuml.application.UserPreferences.StringPreference;
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
@@ -48,9 +60,39 @@ import javafx.scene.canvas.GraphicsContext;
  */
 public abstract class AbstractDiagramRenderer implements DiagramRenderer
 {
+	// Distance beyond the bounds of an element at which a point can still hit the element
+	private static final int HIT_MARGIN = 6;
+	
 	private final IdentityHashMap<Class<? extends DiagramElement>, DiagramElementRenderer> aRenderers = new IdentityHashMap<>();
 	private final Diagram aDiagram;
 	
+	// Spatial indexes used for hit testing, updated lazily with the changes recorded by the diagram
+	private final SpatialIndex<Node> aNodeIndex = new SpatialIndex<>();
+	private final SpatialIndex<Edge> aEdgeIndex = new SpatialIndex<>();
+	private final Set<Node> aUnindexedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Set<Edge> aUnindexedEdges = Collections.newSetFromMap(new IdentityHashMap<>());
+	// Numbers that sort the root nodes, and the edges, in the order of the diagram
+	private final Map<DiagramElement, Integer> aDiagramOrder = new IdentityHashMap<>();
+	private int aNextOrder = 0;
+	// Elements whose bounds changed for a reason other than a change to the diagram
+	private final Set<DiagramElement> aStaleElements = Collections.newSetFromMap(new IdentityHashMap<>());
+	private List<Object> aIndexFont = List.of();
+	private long aIndexVersion = 0;
+	private boolean aIndexIsValid = false;
+	
+	// The commands drawn for each element, replayed as long as their inputs do not change
+	private final Map<DiagramElement, RecordedElement> aDisplayLists = new WeakHashMap<>();
+	private String aDisplayListFontName = "";
+	private int aDisplayListFontSize = 0;
+	
+	/*
+	 * The version of a parent is only recorded for an element whose drawing depends 
+	 * on its parent, and is 0 otherwise. A change to a child gives a new version to its 
+	 * parent, so the version of the parent also covers the siblings of the element.
+	 */
+	private record RecordedElement(long version, long parentVersion, Rectangle bounds, 
+			Object inputs, DisplayList displayList) {}
+	
 	/*
 	 * Add renderers for elements that are present in all diagrams. 
 	 */
@@ -163,17 +205,123 @@ public abstract class AbstractDiagramRenderer implements DiagramRenderer
 		deactivateAndClearNodeStorages();
 	}
 
+	@Override
+	public void draw(GraphicsContext pGraphics, Rectangle pRegion)
+	{
+		draw(pGraphics, pRegion, element -> true);
+	}
+	
+	@Override
+	public void draw(GraphicsContext pGraphics, Rectangle pRegion, Predicate<DiagramElement> pFilter)
+	{
+		assert pGraphics != null && pRegion != null && pFilter != null;
+		activateNodeStorages();
+		rootNodesIntersecting(pRegion).stream()
+			.filter(pFilter)
+			.forEach(node -> drawNode(node, pGraphics, pRegion));
+		edgesIntersecting(pRegion).stream()
+			.filter(pFilter)
+			.forEach(edge -> draw(edge, pGraphics));
+		deactivateAndClearNodeStorages();
+	}
+	
+	/*
+	 * Draws pNode and the descendants of pNode that could have a part in pRegion.
+	 * Root nodes that cannot be indexed, such as the implicit parameters of sequence 
+	 * diagrams, intersect every region but can have many descendants that do not.
+	 */
+	private void drawNode(Node pNode, GraphicsContext pGraphics, Rectangle pRegion)
+	{
+		draw(pNode, pGraphics);
+		pNode.getChildren().stream()
+			.filter(child -> grow(getBoundsIncludingChildren(child)).intersects(pRegion))
+			.forEach(child -> drawNode(child, pGraphics, pRegion));
+	}
+	
+	/**
+	 * By default, the geometry of diagram elements is computed when it is
+	 * needed, so there is no layout to update.
+	 */
+	@Override
+	public Optional<List<Rectangle>> updateLayout()
+	{
+		return Optional.of(List.of());
+	}
+	
+	@Override
+	public Optional<LayoutSnapshot> snapshotLayout()
+	{
+		return Optional.empty();
+	}
+
+	/**
+	 * Replays the commands recorded the last time pElement was drawn, unless 
+	 * the inputs that determine them changed or they started from different 
+	 * drawing attributes, in which case the element is recorded again. The inputs 
+	 * are the font preferences, the version and bounds of pElement, the version 
+	 * of its parent if its drawing depends on it, and the value returned by 
+	 * drawingInputs(pElement), so checking them does not depend on the number 
+	 * of properties or siblings of pElement.
+	 */
 	@Override
 	public void draw(DiagramElement pElement, GraphicsContext pGraphics)
 	{
-		aRenderers.get(pElement.getClass()).draw(pElement, pGraphics);
+		String fontName = UserPreferences.instance().getString(StringPreference.fontName);
+		int fontSize = UserPreferences.instance().getInteger(IntegerPreference.fontSize);
+		if( !fontName.equals(aDisplayListFontName) || fontSize != aDisplayListFontSize )
+		{
+			aDisplayLists.clear();
+			aDisplayListFontName = fontName;
+			aDisplayListFontSize = fontSize;
+		}
+		DiagramElementRenderer renderer = aRenderers.get(pElement.getClass());
+		long parentVersion = 0;
+		if( pElement instanceof Node node && node.hasParent() && renderer.dependsOnParent(node) )
+		{
+			parentVersion = node.getParent().version();
+		}
+		Rectangle bounds = getBounds(pElement);
+		Object inputs = drawingInputs(pElement);
+		RecordedElement recorded = aDisplayLists.get(pElement);
+		if( recorded == null || recorded.version() != pElement.version() || 
+				recorded.parentVersion() != parentVersion || !recorded.bounds().equals(bounds) || 
+				!Objects.equals(recorded.inputs(), inputs) || 
+				!recorded.displayList().hasInitialAttributesOf(pGraphics) )
+		{
+			DisplayList displayList = new DisplayList(pGraphics);
+			renderer.draw(pElement, displayList);
+			recorded = new RecordedElement(pElement.version(), parentVersion, bounds, inputs, displayList);
+			aDisplayLists.put(pElement, recorded);
+		}
+		recorded.displayList().replay(pGraphics);
+	}
+	
+	/**
+	 * Returns the value that determines how pElement is drawn, other than the 
+	 * font preferences, the version and bounds of pElement, and the version of 
+	 * its parent. By default, this is the connection points of an edge, and 
+	 * null for a node. The value must not include references to diagram elements, 
+	 * so that the elements drawn can be garbage-collected.
+	 * 
+	 * @param pElement The element to draw.
+	 * @return A value that is equal to the value returned the last time pElement
+	 *     was drawn only if pElement would be drawn the same way, or null.
+	 * @pre pElement != null
+	 */
+	protected Object drawingInputs(DiagramElement pElement)
+	{
+		if( pElement instanceof Edge edge )
+		{
+			return ((EdgeRenderer)aRenderers.get(edge.getClass())).getConnectionPoints(edge);
+		}
+		return null;
 	}
 
 	@Override
 	public Optional<Edge> edgeAt(Point pPoint)
 	{
 		assert pPoint != null;
-		return aDiagram.edges().stream()
+		return inDiagramOrder(edgeIndex().elementsAt(pPoint), aUnindexedEdges).stream()
 				.filter(edge -> contains(edge, pPoint))
 				.findFirst();
 	}
@@ -182,12 +330,317 @@ public abstract class AbstractDiagramRenderer implements DiagramRenderer
 	public Optional<Node> nodeAt(Point pPoint)
 	{
 		assert pPoint != null;
-		return aDiagram.rootNodes().stream()
+		return inDiagramOrder(nodeIndex().elementsAt(pPoint), aUnindexedNodes).stream()
 				.map(node -> deepFindNode(node, pPoint))
 				.filter(Optional::isPresent)
 				.map(Optional::get)
 				.reduce((first, second) -> second);
 	}
+	
+	@Override
+	public Optional<Node> rootNodeNear(Point pPoint, int pMaxDistance)
+	{
+		assert pPoint != null && pMaxDistance >= 0;
+		return nodeIndex().nearest(pPoint)
+				.filter(node -> getBoundsIncludingChildren(node).distance(pPoint) <= pMaxDistance);
+	}
+	
+	@Override
+	public List<Node> rootNodesIntersecting(Rectangle pRegion)
+	{
+		assert pRegion != null;
+		return inDiagramOrder(nodeIndex().elementsIntersecting(pRegion), aUnindexedNodes);
+	}
+	
+	@Override
+	public List<Edge> edgesIntersecting(Rectangle pRegion)
+	{
+		assert pRegion != null;
+		return inDiagramOrder(edgeIndex().elementsIntersecting(pRegion), aUnindexedEdges);
+	}
+	
+	/**
+	 * Indicates whether the region where pElement can be hit can currently be bounded 
+	 * by a rectangle. Elements for which this is not the case are not stored in the 
+	 * spatial indexes, and are hit-tested individually. For a node, the region includes 
+	 * the regions of its descendants.
+	 * 
+	 * @param pElement The element to check.
+	 * @return True if pElement can be stored in a spatial index.
+	 * @pre pElement != null
+	 */
+	protected boolean isSpatiallyIndexable(DiagramElement pElement)
+	{
+		return true;
+	}
+	
+	/**
+	 * Discards the spatial indexes used for hit testing. Renderers must call
+	 * this method whenever the bounds of many elements change for a reason other 
+	 * than a change to the diagram, for example when a layout is computed.
+	 */
+	protected void invalidateSpatialIndex()
+	{
+		aIndexIsValid = false;
+	}
+	
+	/**
+	 * Updates the bounds of pElements in the spatial indexes used for hit testing. 
+	 * Renderers must call this method whenever the bounds of a few elements change 
+	 * for a reason other than a change to the diagram, for example when the paths 
+	 * of some edges are laid out.
+	 * 
+	 * @param pElements The root nodes and edges whose bounds changed.
+	 * @pre pElements != null
+	 */
+	protected void updateSpatialIndex(Iterable<? extends DiagramElement> pElements)
+	{
+		assert pElements != null;
+		if( aIndexIsValid )
+		{
+			pElements.forEach(aStaleElements::add);
+		}
+	}
+	
+	private SpatialIndex<Node> nodeIndex()
+	{
+		validateSpatialIndex();
+		return aNodeIndex;
+	}
+	
+	private SpatialIndex<Edge> edgeIndex()
+	{
+		validateSpatialIndex();
+		return aEdgeIndex;
+	}
+	
+	/*
+	 * Brings the spatial indexes up to date with the changes recorded by the diagram 
+	 * since they were last updated, or builds them again if the font changed or the 
+	 * diagram does not list all these changes. 
+	 */
+	private void validateSpatialIndex()
+	{
+		List<Object> font = fontSettings();
+		if( aIndexIsValid && font.equals(aIndexFont) && aDiagram.version() == aIndexVersion && aStaleElements.isEmpty() )
+		{
+			return;
+		}
+		Optional<List<Diagram.Change>> changes = Optional.empty();
+		if( aIndexIsValid && font.equals(aIndexFont) )
+		{
+			changes = aDiagram.changesSince(aIndexVersion);
+		}
+		if( changes.isEmpty() || !updateSpatialIndex(changes.get()) )
+		{
+			buildSpatialIndex();
+		}
+		aIndexFont = font;
+		aIndexVersion = aDiagram.version();
+		aStaleElements.clear();
+		aIndexIsValid = true;
+	}
+	
+	/**
+	 * @return The user preferences that determine the size of the text of the 
+	 *     elements. A change to these preferences can change the bounds of 
+	 *     every element without changing the diagram.
+	 */
+	protected static List<Object> fontSettings()
+	{
+		return List.of(UserPreferences.instance().getString(StringPreference.fontName),
+				UserPreferences.instance().getInteger(IntegerPreference.fontSize));
+	}
+	
+	private void buildSpatialIndex()
+	{
+		aNodeIndex.clear();
+		aEdgeIndex.clear();
+		aUnindexedNodes.clear();
+		aUnindexedEdges.clear();
+		aDiagramOrder.clear();
+		aNextOrder = 0;
+		aDiagram.rootNodes().forEach(this::addToSpatialIndex);
+		aDiagram.edges().forEach(this::addToSpatialIndex);
+	}
+	
+	/*
+	 * Updates the spatial indexes with pChanges and with the stale elements. Returns false 
+	 * if elements were inserted before other elements of the diagram, in which case the 
+	 * indexes must be built again to know the order of the elements.
+	 */
+	private boolean updateSpatialIndex(List<Diagram.Change> pChanges)
+	{
+		Set<DiagramElement> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+		Set<DiagramElement> addedOrRemoved = Collections.newSetFromMap(new IdentityHashMap<>());
+		for( Diagram.Change change : pChanges )
+		{
+			changed.add(change.element());
+			if( change.addedOrRemoved() )
+			{
+				addedOrRemoved.add(change.element());
+			}
+		}
+		changed.addAll(aStaleElements);
+		// The edges connected to a node that changed are updated with the node
+		Set<Edge> edges = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<Node> addedNodes = new ArrayList<>();
+		for( DiagramElement element : changed )
+		{
+			if( element instanceof Edge edge )
+			{
+				edges.add(edge);
+			}
+			else if( addedOrRemoved.contains(element) )
+			{
+				removeFromSpatialIndex(element);
+				aDiagramOrder.remove(element);
+				if( aDiagram.containsAsRoot((Node) element) )
+				{
+					addedNodes.add((Node) element);
+				}
+			}
+			else if( aDiagramOrder.containsKey(element) )
+			{
+				removeFromSpatialIndex(element);
+				addToSpatialIndex(element);
+				collectConnectedEdges((Node) element, edges);
+			}
+		}
+		List<Edge> addedEdges = new ArrayList<>();
+		for( Edge edge : edges )
+		{
+			if( addedOrRemoved.contains(edge) )
+			{
+				removeFromSpatialIndex(edge);
+				aDiagramOrder.remove(edge);
+				if( aDiagram.contains(edge) )
+				{
+					addedEdges.add(edge);
+				}
+			}
+			else if( aDiagramOrder.containsKey(edge) )
+			{
+				removeFromSpatialIndex(edge);
+				addToSpatialIndex(edge);
+			}
+		}
+		if( !areLast(addedNodes, aDiagram.rootNodes()) || !areLast(addedEdges, aDiagram.edges()) )
+		{
+			return false;
+		}
+		aDiagram.rootNodes().subList(aDiagram.rootNodes().size() - addedNodes.size(), aDiagram.rootNodes().size())
+			.forEach(this::addToSpatialIndex);
+		aDiagram.edges().subList(aDiagram.edges().size() - addedEdges.size(), aDiagram.edges().size())
+			.forEach(this::addToSpatialIndex);
+		return true;
+	}
+	
+	/*
+	 * Returns whether pElements are the last elements of pList, in any order.
+	 */
+	private static boolean areLast(List<? extends DiagramElement> pElements, List<? extends DiagramElement> pList)
+	{
+		Set<DiagramElement> elements = Collections.newSetFromMap(new IdentityHashMap<>());
+		elements.addAll(pElements);
+		return pList.subList(pList.size() - pElements.size(), pList.size()).stream().allMatch(elements::contains);
+	}
+	
+	/*
+	 * Adds to pEdges the edges of this diagram connected to pNode 
+	 * or to its descendants.
+	 */
+	private void collectConnectedEdges(Node pNode, Set<Edge> pEdges)
+	{
+		aDiagram.edgesConnectedTo(pNode).forEach(pEdges::add);
+		pNode.getChildren().forEach(child -> collectConnectedEdges(child, pEdges));
+	}
+	
+	/*
+	 * Adds pElement, a root node or an edge of the diagram, to the spatial indexes 
+	 * with its current bounds. If pElement has no place in the diagram order, 
+	 * it is placed after all the other elements.
+	 */
+	private void addToSpatialIndex(DiagramElement pElement)
+	{
+		if( !aDiagramOrder.containsKey(pElement) )
+		{
+			aDiagramOrder.put(pElement, aNextOrder++);
+		}
+		if( pElement instanceof Node node )
+		{
+			if( isSpatiallyIndexable(node) )
+			{
+				aNodeIndex.add(node, grow(getBoundsIncludingChildren(node)));
+			}
+			else
+			{
+				aUnindexedNodes.add(node);
+			}
+		}
+		else if( pElement instanceof Edge edge )
+		{
+			if( isSpatiallyIndexable(edge) )
+			{
+				aEdgeIndex.add(edge, grow(getBounds(edge)));
+			}
+			else
+			{
+				aUnindexedEdges.add(edge);
+			}
+		}
+	}
+	
+	/*
+	 * Removes pElement from the spatial indexes, if it is in them, 
+	 * without changing its place in the diagram order.
+	 */
+	private void removeFromSpatialIndex(DiagramElement pElement)
+	{
+		if( pElement instanceof Node node )
+		{
+			if( aNodeIndex.contains(node) )
+			{
+				aNodeIndex.remove(node);
+			}
+			aUnindexedNodes.remove(node);
+		}
+		else if( pElement instanceof Edge edge )
+		{
+			if( aEdgeIndex.contains(edge) )
+			{
+				aEdgeIndex.remove(edge);
+			}
+			aUnindexedEdges.remove(edge);
+		}
+	}
+	
+	private Rectangle getBoundsIncludingChildren(Node pNode)
+	{
+		Rectangle bounds = getBounds(pNode);
+		for( Node child : pNode.getChildren() )
+		{
+			bounds = bounds.add(getBoundsIncludingChildren(child));
+		}
+		return bounds;
+	}
+	
+	private static Rectangle grow(Rectangle pBounds)
+	{
+		return new Rectangle(pBounds.x() - HIT_MARGIN, pBounds.y() - HIT_MARGIN, 
+				pBounds.width() + 2 * HIT_MARGIN, pBounds.height() + 2 * HIT_MARGIN);
+	}
+	
+	/*
+	 * Merges the elements found in an index with the elements that could not be indexed.
+	 */
+	private <T extends DiagramElement> List<T> inDiagramOrder(List<T> pIndexed, Set<T> pUnindexed)
+	{
+		List<T> result = new ArrayList<>(pIndexed);
+		result.addAll(pUnindexed);
+		result.sort(Comparator.comparingInt(aDiagramOrder::get));
+		return result;
+	}
 
 	@Override
 	public boolean contains(DiagramElement pElement, Point pPoint)
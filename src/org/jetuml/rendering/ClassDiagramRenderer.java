@@ -23,16 +23,25 @@ package org.jetuml.rendering;
 import static java.util.stream.Collectors.toList;
 import static org.jetuml.rendering.EdgePriority.priorityOf;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.ElementCopier;
 import org.jetuml.diagram.Node;
 import org.jetuml.diagram.edges.AggregationEdge;
 import org.jetuml.diagram.edges.AssociationEdge;
@@ -66,7 +75,13 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 	private static final int TWENTY_PIXELS = 20;
 	private static final int TEN_PIXELS = 10;
 	
-	private final EdgeStorage aEdgeStorage = new EdgeStorage();
+	private final EdgeStorage aEdgeStorage;
+	// The inputs of the last layout of the group each stored edge belongs to
+	private final Map<Edge, List<Object>> aLayoutInputs = new IdentityHashMap<>();
+	// The version of the diagram and the font when the last layout snapshot was taken. 
+	// A version of -1 means that the next snapshot compares the inputs of every group.
+	private long aSnapshotVersion = -1;
+	private List<Object> aSnapshotFont = List.of();
 	
 	/**
 	 * @param pDiagram The diagram being rendered.
@@ -74,6 +89,7 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 	public ClassDiagramRenderer(Diagram pDiagram)
 	{
 		super(pDiagram);
+		aEdgeStorage = new EdgeStorage(pDiagram);
 		addElementRenderer(ClassNode.class, new TypeNodeRenderer(this));
 		addElementRenderer(InterfaceNode.class, new InterfaceNodeRenderer(this));
 		addElementRenderer(PackageNode.class, new PackageNodeRenderer(this));
@@ -88,11 +104,16 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 	}
 
 	/**
-	 * Draws pDiagram onto pGraphics.
+	 * Draws the diagram onto pGraphics, after bringing the paths of the edges up
+	 * to date with a synchronous incremental layout. Because this layout computes 
+	 * the groups and layout inputs of every edge, this method is only meant for 
+	 * callers that draw a complete diagram once, such as tests. The diagram canvas 
+	 * must not call it while the diagram is edited: it draws regions with 
+	 * draw(GraphicsContext, Rectangle), and obtains the paths from layout snapshots 
+	 * computed in the background.
 	 * 
 	 * @param pGraphics the graphics context where the diagram should be drawn.
-	 * @param pDiagram the diagram to draw.
-	 * @pre pDiagram != null && pGraphics != null.
+	 * @pre pGraphics != null.
 	 */
 	@Override
 	public void draw(GraphicsContext pGraphics)
@@ -101,8 +122,8 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 		activateNodeStorages();
 		diagram().rootNodes().forEach(node -> drawNode(node, pGraphics));
 		
-		//plan edge paths using Layouter
-		layout();
+		//plan edge paths, reusing the paths of edges whose layout inputs did not change
+		incrementalLayout();
 		
 		//draw edges using plan from EdgeStorage
 		diagram().edges().forEach(edge -> draw(edge, pGraphics));
@@ -124,35 +145,507 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 
 	/**
 	 * Uses positional information of nodes and stored edges to layout and 
-	 * store the EdgePaths of edges in pDiagram.
-	 * @param pDiagram the diagram of interest
-	 * @pre pDiagram.getType() == DiagramType.CLASS
+	 * store the EdgePaths of all the edges in the diagram. This full layout
+	 * pass discards any path computed previously.
+	 * 
+	 * @pre diagram().getType() == DiagramType.CLASS
 	 */
 	public void layout()
 	{
 		assert diagram().getType() == DiagramType.CLASS;
 		aEdgeStorage.clearStorage();
-		layoutSegmentedEdges(EdgePriority.INHERITANCE);	
-		layoutSegmentedEdges(EdgePriority.IMPLEMENTATION);
-		layoutSegmentedEdges(EdgePriority.AGGREGATION);
-		layoutSegmentedEdges(EdgePriority.COMPOSITION);
-		layoutSegmentedEdges(EdgePriority.ASSOCIATION);
-		layoutDependencyEdges();
-		layoutSelfEdges();
+		aLayoutInputs.clear();
+		layout(diagram().edges());
+		invalidateSpatialIndex();
+	}
+	
+	/**
+	 * Lays out only the edges whose EdgePaths could differ from the ones in storage.
+	 * 
+	 * Stored edges are partitioned into independent groups: two edges are in the same 
+	 * group if they are attached to a common node, or if they are attached to nodes whose 
+	 * connection points could coincide. The paths computed for a group do not depend on 
+	 * any other group, so a group only needs to be laid out again if its layout inputs 
+	 * (its edges, their types and labels, and the geometry of their nodes) changed since 
+	 * the last layout. The resulting paths are exactly the ones that a call to layout()
+	 * would produce.
+	 * 
+	 * @return The bounds, before and after the layout, of the edges whose path changed,
+	 *     or Optional.empty() if all paths were computed again or edges were deleted.
+	 * @pre diagram().getType() == DiagramType.CLASS
+	 */
+	public Optional<List<Rectangle>> incrementalLayout()
+	{
+		assert diagram().getType() == DiagramType.CLASS;
+		if( aLayoutInputs.isEmpty() )
+		{
+			layout();
+			recordLayoutInputs(independentEdgeGroups());
+			return Optional.empty();
+		}
+		Map<Edge, List<Object>> previousInputs = new IdentityHashMap<>(aLayoutInputs);
+		List<List<Edge>> groups = independentEdgeGroups();
+		Set<Edge> edgesToLayout = Collections.newSetFromMap(new IdentityHashMap<>());
+		aLayoutInputs.clear();
+		for( List<Edge> group : groups )
+		{
+			List<Object> inputs = layoutInputs(group);
+			group.forEach(edge -> aLayoutInputs.put(edge, inputs));
+			if( !inputs.equals(previousInputs.get(group.get(0))) )
+			{
+				edgesToLayout.addAll(group);
+			}
+		}
+		// Paths of deleted edges and of edges in changed groups are stale
+		List<Edge> deletedEdges = previousInputs.keySet().stream()
+			.filter(edge -> !aLayoutInputs.containsKey(edge))
+			.collect(toList());
+		Map<Edge, EdgePath> previousPaths = new IdentityHashMap<>();
+		Map<Edge, Rectangle> previousBounds = new IdentityHashMap<>();
+		for( Edge edge : edgesToLayout )
+		{
+			if( aEdgeStorage.contains(edge) )
+			{
+				previousPaths.put(edge, aEdgeStorage.getEdgePath(edge));
+				previousBounds.put(edge, getBounds(edge));
+			}
+		}
+		deletedEdges.forEach(aEdgeStorage::remove);
+		edgesToLayout.forEach(aEdgeStorage::remove);
+		if( !edgesToLayout.isEmpty() )
+		{
+			layout(diagram().edges().stream()
+					.filter(edgesToLayout::contains)
+					.collect(toList()));
+		}
+		// The deleted edges are removed from the spatial index with the other changes to the diagram
+		updateSpatialIndex(edgesToLayout);
+		if( !deletedEdges.isEmpty() )
+		{
+			return Optional.empty();
+		}
+		List<Rectangle> changedRegions = new ArrayList<>();
+		for( Edge edge : edgesToLayout )
+		{
+			if( !aEdgeStorage.getEdgePath(edge).equals(previousPaths.get(edge)) )
+			{
+				if( previousBounds.containsKey(edge) )
+				{
+					changedRegions.add(previousBounds.get(edge));
+				}
+				changedRegions.add(getBounds(edge));
+			}
+		}
+		return Optional.of(changedRegions);
+	}
+	
+	@Override
+	public Optional<List<Rectangle>> updateLayout()
+	{
+		return incrementalLayout();
+	}
+	
+	/**
+	 * Takes a snapshot of the groups of edges whose layout inputs changed. The groups 
+	 * to compare are found from the changes recorded by the diagram since the last 
+	 * snapshot: they are the groups that contain the nodes and edges changed, and the 
+	 * groups these elements were in when they were last laid out. Only the root nodes 
+	 * and edges of these groups are copied, so the cost of a snapshot depends on the 
+	 * size of the change rather than on the size of the diagram. The inputs of every 
+	 * group are compared the first time, when the font changed, or when the diagram 
+	 * does not list all the changes since the last snapshot.
+	 */
+	@Override
+	public Optional<LayoutSnapshot> snapshotLayout()
+	{
+		Optional<List<Diagram.Change>> changes = Optional.empty();
+		if( aSnapshotVersion >= 0 && fontSettings().equals(aSnapshotFont) )
+		{
+			changes = diagram().changesSince(aSnapshotVersion);
+		}
+		aSnapshotVersion = diagram().version();
+		aSnapshotFont = fontSettings();
+		List<List<Edge>> groups;
+		List<Edge> deletedEdges = new ArrayList<>();
+		if( changes.isPresent() )
+		{
+			if( changes.get().isEmpty() )
+			{
+				return Optional.empty();
+			}
+			Set<Node> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+			for( Diagram.Change change : changes.get() )
+			{
+				collectChangedNodes(change.element(), nodes);
+				if( change.element() instanceof Edge edge && !isInDiagram(edge) && 
+						(aEdgeStorage.contains(edge) || aLayoutInputs.containsKey(edge)) )
+				{
+					deletedEdges.add(edge);
+				}
+			}
+			groups = independentEdgeGroups(edgesInGroupsOf(nodes));
+		}
+		else
+		{
+			groups = independentEdgeGroups();
+			Set<Edge> storedEdges = Collections.newSetFromMap(new IdentityHashMap<>());
+			groups.forEach(storedEdges::addAll);
+			aLayoutInputs.keySet().stream()
+				.filter(edge -> !storedEdges.contains(edge))
+				.forEach(deletedEdges::add);
+		}
+		Map<Edge, List<Object>> inputs = new IdentityHashMap<>();
+		List<List<Edge>> changedGroups = new ArrayList<>();
+		for( List<Edge> group : groups )
+		{
+			List<Object> groupInputs = layoutInputs(group);
+			if( !groupInputs.equals(aLayoutInputs.get(group.get(0))) )
+			{
+				group.forEach(edge -> inputs.put(edge, groupInputs));
+				changedGroups.add(group);
+			}
+		}
+		if( changedGroups.isEmpty() && deletedEdges.isEmpty() )
+		{
+			return Optional.empty();
+		}
+		return Optional.of(new EdgeLayoutSnapshot(changedGroups, inputs, deletedEdges));
+	}
+	
+	/*
+	 * Adds to pNodes the nodes affected by a change to pElement, a root node or an edge: 
+	 * the nodes of the tree of a root node, the ends of an edge, and the nodes of the 
+	 * groups these were in when they were last laid out.
+	 */
+	private void collectChangedNodes(DiagramElement pElement, Set<Node> pNodes)
+	{
+		if( pElement instanceof Edge edge )
+		{
+			pNodes.add(edge.start());
+			pNodes.add(edge.end());
+			collectLaidOutNodes(edge, pNodes);
+		}
+		else if( pElement instanceof Node node )
+		{
+			pNodes.add(node);
+			storedEdgesConnectedTo(node).forEach(edge -> collectLaidOutNodes(edge, pNodes));
+			node.getChildren().forEach(child -> collectChangedNodes(child, pNodes));
+		}
+	}
+	
+	/*
+	 * Adds to pNodes the nodes of the group pEdge was in when it was last laid out.
+	 */
+	private void collectLaidOutNodes(Edge pEdge, Set<Node> pNodes)
+	{
+		List<Object> inputs = aLayoutInputs.get(pEdge);
+		if( inputs != null )
+		{
+			inputs.stream()
+				.filter(Node.class::isInstance)
+				.forEach(node -> pNodes.add((Node) node));
+		}
+	}
+	
+	/*
+	 * Collects the stored edges of all the groups that contain one of pNodes, in diagram 
+	 * order. The groups are found by following the stored edges of each node, and by 
+	 * looking up in the spatial index the nodes whose connection points could coincide 
+	 * with its connection points. Nodes without stored edges are not in any group.
+	 */
+	private List<Edge> edgesInGroupsOf(Collection<Node> pNodes)
+	{
+		Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		Set<Edge> edges = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<Node> pending = new ArrayDeque<>(pNodes);
+		while( !pending.isEmpty() )
+		{
+			Node node = pending.pop();
+			List<Edge> storedEdges = storedEdgesConnectedTo(node);
+			if( !visited.add(node) || storedEdges.isEmpty() )
+			{
+				continue;
+			}
+			for( Edge edge : storedEdges )
+			{
+				edges.add(edge);
+				pending.push(edge.start());
+				pending.push(edge.end());
+			}
+			Rectangle reach = NodeIndex.reach(getBounds(node));
+			// A node whose reach intersects this reach is in the reach of this reach
+			for( Node root : rootNodesIntersecting(NodeIndex.reach(reach)) )
+			{
+				pushNodesWithinReach(root, reach, pending);
+			}
+		}
+		List<Edge> result = new ArrayList<>(edges);
+		result.sort(diagram().edgeOrder());
+		return result;
+	}
+	
+	/*
+	 * Pushes pNode and its descendants whose reach intersects pReach onto pPending.
+	 */
+	private void pushNodesWithinReach(Node pNode, Rectangle pReach, Deque<Node> pPending)
+	{
+		if( NodeIndex.reach(getBounds(pNode)).intersects(pReach) )
+		{
+			pPending.push(pNode);
+		}
+		pNode.getChildren().forEach(child -> pushNodesWithinReach(child, pReach, pPending));
+	}
+	
+	/*
+	 * The stored edges connected to pNode, in diagram order.
+	 */
+	private List<Edge> storedEdgesConnectedTo(Node pNode)
+	{
+		List<Edge> edges = new ArrayList<>(diagram().edgesFrom(pNode, Edge.class));
+		diagram().edgesTo(pNode, Edge.class).stream()
+			.filter(edge -> edge.start() != pNode)
+			.forEach(edges::add);
+		edges.removeIf(edge -> !EdgePriority.isStoredEdge(edge));
+		edges.sort(diagram().edgeOrder());
+		return edges;
+	}
+	
+	/*
+	 * Checks whether pEdge is in the diagram without searching the list of edges.
+	 */
+	private boolean isInDiagram(Edge pEdge)
+	{
+		return diagram().edgesFrom(pEdge.start(), Edge.class).contains(pEdge);
+	}
+	
+	/*
+	 * Installs the paths of pSnapshot for the groups of edges whose layout inputs 
+	 * are the same as when the snapshot was taken, unless they are already laid out,
+	 * and removes the paths of the edges that were deleted when the snapshot was taken.
+	 * The groups with an edge deleted since then are left to the next snapshot.
+	 */
+	private Optional<List<Rectangle>> publish(EdgeLayoutSnapshot pSnapshot)
+	{
+		List<Edge> deletedEdges = pSnapshot.deletedEdges().stream()
+			.filter(edge -> !isInDiagram(edge))
+			.collect(toList());
+		deletedEdges.forEach(aEdgeStorage::remove);
+		deletedEdges.forEach(aLayoutInputs::remove);
+		List<Rectangle> changedRegions = new ArrayList<>();
+		List<Edge> changedEdges = new ArrayList<>();
+		for( List<Edge> group : pSnapshot.groups() )
+		{
+			if( !group.stream().allMatch(this::isInDiagram) )
+			{
+				continue;
+			}
+			List<Object> inputs = layoutInputs(group);
+			if( !inputs.equals(pSnapshot.inputs(group.get(0))) || inputs.equals(aLayoutInputs.get(group.get(0))) )
+			{
+				continue;
+			}
+			for( Edge edge : group )
+			{
+				EdgePath path = pSnapshot.path(edge);
+				Optional<EdgePath> previousPath = getStoredEdgePath(edge);
+				if( previousPath.isPresent() && !previousPath.get().equals(path) )
+				{
+					changedRegions.add(getBounds(edge));
+				}
+				aEdgeStorage.store(edge, path);
+				aLayoutInputs.put(edge, inputs);
+				if( !previousPath.equals(Optional.of(path)) )
+				{
+					changedRegions.add(getBounds(edge));
+					changedEdges.add(edge);
+				}
+			}
+		}
+		updateSpatialIndex(changedEdges);
+		if( !deletedEdges.isEmpty() )
+		{
+			return Optional.empty();
+		}
+		return Optional.of(changedRegions);
+	}
+	
+	/*
+	 * Stored edges can only be hit-tested once they have been laid out.
+	 */
+	@Override
+	protected boolean isSpatiallyIndexable(DiagramElement pElement)
+	{
+		return !(pElement instanceof Edge edge && EdgePriority.isStoredEdge(edge) && !aEdgeStorage.contains(edge));
+	}
+	
+	/*
+	 * The path of a stored edge can change without changing its bounds and connection 
+	 * points. The path starts and ends at the connection points of the edge.
+	 */
+	@Override
+	protected Object drawingInputs(DiagramElement pElement)
+	{
+		if( pElement instanceof Edge edge && aEdgeStorage.contains(edge) )
+		{
+			return aEdgeStorage.getEdgePath(edge);
+		}
+		return super.drawingInputs(pElement);
+	}
+	
+	/*
+	 * Lays out pEdges, in order of priority.
+	 */
+	private void layout(List<Edge> pEdges)
+	{
+		layoutSegmentedEdges(EdgePriority.INHERITANCE, pEdges);	
+		layoutSegmentedEdges(EdgePriority.IMPLEMENTATION, pEdges);
+		layoutSegmentedEdges(EdgePriority.AGGREGATION, pEdges);
+		layoutSegmentedEdges(EdgePriority.COMPOSITION, pEdges);
+		layoutSegmentedEdges(EdgePriority.ASSOCIATION, pEdges);
+		layoutDependencyEdges(pEdges);
+		layoutSelfEdges(pEdges);
+	}
+	
+	private void recordLayoutInputs(List<List<Edge>> pGroups)
+	{
+		for( List<Edge> group : pGroups )
+		{
+			List<Object> inputs = layoutInputs(group);
+			group.forEach(edge -> aLayoutInputs.put(edge, inputs));
+		}
+	}
+	
+	/**
+	 * Partitions the stored edges of the diagram into groups that can be laid out 
+	 * independently of each other. The edges in each group are in diagram order.
+	 * 
+	 * @return The groups of edges, none of which is empty.
+	 */
+	private List<List<Edge>> independentEdgeGroups()
+	{
+		return independentEdgeGroups(diagram().edges().stream()
+				.filter(EdgePriority::isStoredEdge)
+				.collect(toList()));
+	}
+	
+	/*
+	 * Partitions pStoredEdges, which are in diagram order, into independent groups. 
+	 * If pStoredEdges contains all the edges of some groups of the diagram, the groups 
+	 * are the same as the ones returned by independentEdgeGroups().
+	 */
+	private List<List<Edge>> independentEdgeGroups(List<Edge> pStoredEdges)
+	{
+		Map<Node, Node> parents = new IdentityHashMap<>();
+		for( Edge edge : pStoredEdges )
+		{
+			parents.putIfAbsent(edge.start(), edge.start());
+			parents.putIfAbsent(edge.end(), edge.end());
+			union(parents, edge.start(), edge.end());
+		}
+		// Nodes whose connection points could coincide must be laid out together
+		List<Node> nodes = new ArrayList<>(parents.keySet());
+		Map<Node, Rectangle> reaches = new IdentityHashMap<>();
+		nodes.forEach(node -> reaches.put(node, NodeIndex.reach(getBounds(node))));
+		nodes.sort(Comparator.comparing(node -> reaches.get(node).x()));
+		for( int i = 0; i < nodes.size(); i++ )
+		{
+			Rectangle reach = reaches.get(nodes.get(i));
+			for( int j = i + 1; j < nodes.size() && reaches.get(nodes.get(j)).x() <= reach.maxX(); j++ )
+			{
+				Rectangle other = reaches.get(nodes.get(j));
+				if( reach.intersects(other) )
+				{
+					union(parents, nodes.get(i), nodes.get(j));
+				}
+			}
+		}
+		Map<Node, List<Edge>> groups = new LinkedHashMap<>();
+		for( Edge edge : pStoredEdges )
+		{
+			groups.computeIfAbsent(find(parents, edge.start()), key -> new ArrayList<>()).add(edge);
+		}
+		return new ArrayList<>(groups.values());
+	}
+	
+	private static Node find(Map<Node, Node> pParents, Node pNode)
+	{
+		Node root = pNode;
+		while( pParents.get(root) != root )
+		{
+			root = pParents.get(root);
+		}
+		// Path compression
+		Node current = pNode;
+		while( current != root )
+		{
+			Node next = pParents.get(current);
+			pParents.put(current, root);
+			current = next;
+		}
+		return root;
+	}
+	
+	private static void union(Map<Node, Node> pParents, Node pNode1, Node pNode2)
+	{
+		Node root1 = find(pParents, pNode1);
+		Node root2 = find(pParents, pNode2);
+		if( root1 != root2 )
+		{
+			pParents.put(root1, root2);
+		}
+	}
+	
+	/**
+	 * Collects everything the layout of pGroup depends on. Diagram elements
+	 * are compared by identity, all other inputs by value.
+	 * 
+	 * @param pGroup A group of edges that can be laid out independently.
+	 * @return A list that is equal to the inputs of a future layout of pGroup
+	 *     only if this layout produces the same paths.
+	 */
+	private List<Object> layoutInputs(List<Edge> pGroup)
+	{
+		List<Object> inputs = new ArrayList<>();
+		Set<Node> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+		for( Edge edge : pGroup )
+		{
+			inputs.add(edge);
+			inputs.add(edge.start());
+			inputs.add(edge.end());
+			inputs.add(priorityOf(edge));
+			if( edge instanceof ThreeLabelEdge labeledEdge )
+			{
+				inputs.add(labeledEdge.getStartLabel());
+				inputs.add(labeledEdge.getEndLabel());
+			}
+			nodes.add(edge.start());
+			nodes.add(edge.end());
+		}
+		for( Node node : nodes )
+		{
+			inputs.add(node.position());
+			inputs.add(getBounds(node));
+			for( Side side : Side.values() )
+			{
+				inputs.add(getFace(node, side));
+			}
+		}
+		return inputs;
 	}
 	
 	/**
 	 * Plans the EdgePaths for all segmented edges with EdgePriority 
 	 * pEdgePriority.
 	 * @param pEdgePriority the edge priority level 
+	 * @param pEdges the edges to lay out, in diagram order
 	 * @pre pDiagram.getType() == DiagramType.CLASS
 	 * @pre EdgePriority.isSegmented(pEdgePriority)
 	 */
-	private void layoutSegmentedEdges(EdgePriority pEdgePriority)
+	private void layoutSegmentedEdges(EdgePriority pEdgePriority, List<Edge> pEdges)
 	{
 		assert diagram().getType() == DiagramType.CLASS;
 		assert EdgePriority.isSegmented(pEdgePriority);
-		List<Edge> edgesToProcess = diagram().edges().stream()
+		List<Edge> edgesToProcess = pEdges.stream()
 				.filter(edge -> priorityOf(edge) == pEdgePriority)
 				.sorted(Comparator.comparing(edge -> edge.start().position().x()))
 				.collect(toList());
@@ -183,11 +676,12 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 	
 	/**
 	 * Plans the EdgePaths for Dependency Edges.
+	 * @param pEdges the edges to lay out, in diagram order
 	 */
-	private void layoutDependencyEdges()
+	private void layoutDependencyEdges(List<Edge> pEdges)
 	{
 		assert diagram().getType() == DiagramType.CLASS;
-		for(Edge edge : diagram().edges())
+		for(Edge edge : pEdges)
 		{
 			if(priorityOf(edge)==EdgePriority.DEPENDENCY)
 			{   //Determine the start and end connection points
@@ -202,10 +696,11 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 	
 	/**
 	 * Plans the EdgePaths for self-edges in pDiagram.
+	 * @param pEdges the edges to lay out, in diagram order
 	 */
-	private void layoutSelfEdges()
+	private void layoutSelfEdges(List<Edge> pEdges)
 	{
-		List<Edge> selfEdges = diagram().edges().stream()
+		List<Edge> selfEdges = pEdges.stream()
 			.filter(edge -> priorityOf(edge) == EdgePriority.SELF_EDGE)
 			.collect(toList());
 		for(Edge edge : selfEdges)
@@ -1394,5 +1889,99 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 		}
 		return new Point[] {startPoint, endPoint};
 	}
+	
+	/*
+	 * A copy of some groups of edges, with the root nodes they are connected to, 
+	 * laid out from scratch by a renderer of its own. Because the groups are 
+	 * independent, their paths in the copy are the same as in the diagram. The 
+	 * edges of the copy are in the same order as the edges in the diagram.
+	 */
+	private final class EdgeLayoutSnapshot implements LayoutSnapshot
+	{
+		private final List<List<Edge>> aGroups;
+		private final Map<Edge, List<Object>> aInputs;
+		private final List<Edge> aDeletedEdges;
+		private final List<Edge> aEdges = new ArrayList<>();
+		private final ClassDiagramRenderer aRenderer;
+		private final Map<Edge, EdgePath> aPaths = new IdentityHashMap<>();
+		private boolean aComputed = false;
+		
+		EdgeLayoutSnapshot(List<List<Edge>> pGroups, Map<Edge, List<Object>> pInputs, List<Edge> pDeletedEdges)
+		{
+			aGroups = pGroups;
+			aInputs = pInputs;
+			aDeletedEdges = pDeletedEdges;
+			pGroups.forEach(aEdges::addAll);
+			aEdges.sort(diagram().edgeOrder());
+			Diagram copy = new Diagram(diagram().getType());
+			ElementCopier copier = new ElementCopier();
+			for( Edge edge : aEdges )
+			{
+				copyRoot(edge.start(), copier, copy);
+				copyRoot(edge.end(), copier, copy);
+			}
+			aEdges.forEach(edge -> copy.addEdge(copier.copy(edge)));
+			aRenderer = new ClassDiagramRenderer(copy);
+		}
+		
+		private static void copyRoot(Node pNode, ElementCopier pCopier, Diagram pCopy)
+		{
+			Node root = pNode;
+			while( root.hasParent() )
+			{
+				root = root.getParent();
+			}
+			if( !pCopier.isCopied(root) )
+			{
+				pCopy.addRootNode(pCopier.copy(root));
+			}
+		}
+		
+		List<List<Edge>> groups()
+		{
+			return aGroups;
+		}
+		
+		List<Edge> deletedEdges()
+		{
+			return aDeletedEdges;
+		}
+		
+		List<Object> inputs(Edge pEdge)
+		{
+			return aInputs.get(pEdge);
+		}
+		
+		EdgePath path(Edge pEdge)
+		{
+			assert aPaths.containsKey(pEdge);
+			return aPaths.get(pEdge);
+		}
+		
+		@Override
+		public void compute()
+		{
+			aRenderer.layout();
+			List<Edge> copies = aRenderer.diagram().edges();
+			for( int i = 0; i < copies.size(); i++ )
+			{
+				Edge original = aEdges.get(i);
+				aRenderer.getStoredEdgePath(copies.get(i)).ifPresent(path -> aPaths.put(original, path));
+			}
+			aComputed = true;
+		}
+		
+		@Override
+		public Optional<List<Rectangle>> publish()
+		{
+			if( !aComputed )
+			{
+				// The groups of this snapshot are compared again by the next one
+				aSnapshotVersion = -1;
+				return Optional.of(List.of());
+			}
+			return ClassDiagramRenderer.this.publish(this);
+		}
+	}
 }
 
@@ -65,10 +65,24 @@ public interface DiagramElementRenderer
 	/**
      * Draws the element.
      * @param pElement The element to draw.
-     * @param pGraphics the graphics context
+     * @param pGraphics the display list
      * @pre pElement != null
 	 */
-   	void draw(DiagramElement pElement, GraphicsContext pGraphics);
+   	void draw(DiagramElement pElement, DisplayList pGraphics);
+   	
+   	/**
+   	 * Indicates whether the drawing of an element depends on its parent, other than
+   	 * through the bounds of the element. This is the case when the text of a node 
+   	 * is aligned with the text of its siblings.
+   	 * 
+   	 * @param pElement The element to draw.
+   	 * @return True if pElement must be drawn again whenever its parent changes.
+   	 * @pre pElement != null
+   	 */
+   	default boolean dependsOnParent(DiagramElement pElement)
+   	{
+   		return false;
+   	}
    	
    	/**
      * Draw selection handles around the element.
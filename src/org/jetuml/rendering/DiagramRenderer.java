@@ -20,7 +20,9 @@
  ******************************************************************************/
 package org.jetuml.rendering;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramElement;
@@ -58,6 +60,51 @@ public interface DiagramRenderer
 	 */
 	void draw(GraphicsContext pGraphics);
 	
+	/**
+	 * Draws the part of the diagram that falls in a region onto the graphics 
+	 * context, using the geometry computed by the last call to draw(GraphicsContext)
+	 * or updateLayout(). Elements that only have a part in the region are drawn 
+	 * completely, so the graphics context should be clipped to pRegion.
+	 * 
+	 * @param pGraphics The graphics context where the diagram should be drawn.
+	 * @param pRegion The region to draw.
+	 * @pre pGraphics != null && pRegion != null
+	 */
+	void draw(GraphicsContext pGraphics, Rectangle pRegion);
+	
+	/**
+	 * Draws the part of the diagram that falls in a region onto the graphics 
+	 * context, as draw(GraphicsContext, Rectangle) does, but only the root nodes, 
+	 * with all their descendants, and the edges accepted by a filter.
+	 * 
+	 * @param pGraphics The graphics context where the diagram should be drawn.
+	 * @param pRegion The region to draw.
+	 * @param pFilter Accepts the root nodes and edges to draw.
+	 * @pre pGraphics != null && pRegion != null && pFilter != null
+	 */
+	void draw(GraphicsContext pGraphics, Rectangle pRegion, Predicate<DiagramElement> pFilter);
+	
+	/**
+	 * Brings the geometry of the diagram up to date with the diagram, without 
+	 * drawing it. This must be done after the diagram changes and before 
+	 * drawing a region with draw(GraphicsContext, Rectangle).
+	 * 
+	 * @return The regions of the diagram that changed as a result of the layout, 
+	 * which does not include the bounds of the elements that changed in the diagram,
+	 * or Optional.empty() if the layout may have changed any part of the diagram.
+	 */
+	Optional<List<Rectangle>> updateLayout();
+	
+	/**
+	 * Takes a snapshot of the diagram whose layout can be computed on another thread, 
+	 * as an alternative to updateLayout(). Until the layout of the snapshot is published,
+	 * regions of the diagram are drawn with the previous layout, except for the elements
+	 * that have none, which are laid out when they are first needed.
+	 * 
+	 * @return A snapshot of the diagram, or Optional.empty() if its layout is up to date.
+	 */
+	Optional<LayoutSnapshot> snapshotLayout();
+	
 	/**
      * Draws the element.
      * @param pElement The element to draw.
@@ -84,6 +131,43 @@ public interface DiagramRenderer
      */
 	Optional<Node> nodeAt(Point pPoint);
 	
+	/**
+	 * Returns the root node closest to a point, if the point is within a given
+	 * distance of the node or of its descendants. Root nodes whose bounds cannot 
+	 * be indexed, such as the implicit parameters of sequence diagrams, are not 
+	 * considered.
+	 * 
+	 * @param pPoint A point.
+	 * @param pMaxDistance The largest distance between pPoint and the node.
+	 * @return The root node closest to pPoint, or Optional.empty() if no root node
+	 *     is within pMaxDistance of pPoint.
+	 * @pre pPoint != null && pMaxDistance >= 0
+	 */
+	Optional<Node> rootNodeNear(Point pPoint, int pMaxDistance);
+	
+	/**
+	 * Returns the root nodes that could have a part in a region, in the order
+	 * of the diagram. The result includes every root node whose bounds, or the 
+	 * bounds of one of its descendants, intersect pRegion, and can include 
+	 * nodes that are a few pixels away from it.
+	 * 
+	 * @param pRegion The region of interest.
+	 * @return The root nodes that could be in pRegion.
+	 * @pre pRegion != null
+	 */
+	List<Node> rootNodesIntersecting(Rectangle pRegion);
+	
+	/**
+	 * Returns the edges that could have a part in a region, in the order
+	 * of the diagram. The result includes every edge whose bounds intersect 
+	 * pRegion, and can include edges that are a few pixels away from it.
+	 * 
+	 * @param pRegion The region of interest.
+	 * @return The edges that could be in pRegion.
+	 * @pre pRegion != null
+	 */
+	List<Edge> edgesIntersecting(Rectangle pRegion);
+	
 	/**
 	 * Gets the smallest rectangle enclosing the diagram.
 	 * 
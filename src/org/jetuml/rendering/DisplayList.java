@@ -0,0 +1,576 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.effect.Effect;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.ArcType;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * A recording of drawing commands, which can be replayed onto a graphics context
+ * any number of times. Diagram elements are drawn onto a display list with the
+ * same methods as those of GraphicsContext, so that drawing an element that did
+ * not change only requires replaying its commands, without computing its geometry
+ * or measuring its text again.
+ *
+ * A display list starts from the drawing attributes of a graphics context, such as
+ * its fill and stroke, which the getters return until they are changed. It must
+ * only be replayed onto graphics contexts with the same attributes, which can be
+ * checked with hasInitialAttributesOf. The commands are stored in three compact
+ * arrays: one of operation codes, one of numerical operands, and one of the other
+ * operands.
+ */
+public final class DisplayList
+{
+	private static final int INITIAL_CAPACITY = 16;
+
+	private static final byte SET_FILL = 0;
+	private static final byte SET_STROKE = 1;
+	private static final byte SET_EFFECT = 2;
+	private static final byte SET_LINE_WIDTH = 3;
+	private static final byte SET_LINE_DASHES = 4;
+	private static final byte SET_FONT = 5;
+	private static final byte SET_TEXT_ALIGN = 6;
+	private static final byte SET_TEXT_BASELINE = 7;
+	private static final byte TRANSLATE = 8;
+	private static final byte FILL_RECT = 9;
+	private static final byte STROKE_RECT = 10;
+	private static final byte FILL_ROUND_RECT = 11;
+	private static final byte STROKE_ROUND_RECT = 12;
+	private static final byte FILL_OVAL = 13;
+	private static final byte STROKE_OVAL = 14;
+	private static final byte STROKE_LINE = 15;
+	private static final byte STROKE_ARC = 16;
+	private static final byte FILL_TEXT = 17;
+	private static final byte BEGIN_PATH = 18;
+	private static final byte MOVE_TO = 19;
+	private static final byte LINE_TO = 20;
+	private static final byte QUADRATIC_CURVE_TO = 21;
+	private static final byte FILL = 22;
+	private static final byte STROKE = 23;
+
+	// The attributes of the graphics context from which the recording starts
+	private final Paint aInitialFill;
+	private final Paint aInitialStroke;
+	private final Effect aInitialEffect;
+	private final double aInitialLineWidth;
+	private final double[] aInitialLineDashes;
+	private final Font aInitialFont;
+	private final TextAlignment aInitialTextAlign;
+	private final VPos aInitialTextBaseline;
+
+	// The current attributes, as they will be when the commands recorded so far are replayed
+	private Paint aFill;
+	private Paint aStroke;
+	private double aLineWidth;
+	private double[] aLineDashes;
+	private Font aFont;
+	private TextAlignment aTextAlign;
+	private VPos aTextBaseline;
+
+	private byte[] aOperations = new byte[INITIAL_CAPACITY];
+	private double[] aNumbers = new double[INITIAL_CAPACITY];
+	private Object[] aObjects = new Object[INITIAL_CAPACITY];
+	private int aOperationCount = 0;
+	private int aNumberCount = 0;
+	private int aObjectCount = 0;
+
+	/**
+	 * Creates an empty display list that starts from the drawing attributes
+	 * of pInitialAttributes.
+	 *
+	 * @param pInitialAttributes The graphics context whose attributes the commands start from.
+	 * @pre pInitialAttributes != null
+	 */
+	public DisplayList(GraphicsContext pInitialAttributes)
+	{
+		assert pInitialAttributes != null;
+		aInitialFill = pInitialAttributes.getFill();
+		aInitialStroke = pInitialAttributes.getStroke();
+		aInitialEffect = pInitialAttributes.getEffect(null);
+		aInitialLineWidth = pInitialAttributes.getLineWidth();
+		aInitialLineDashes = pInitialAttributes.getLineDashes();
+		aInitialFont = pInitialAttributes.getFont();
+		aInitialTextAlign = pInitialAttributes.getTextAlign();
+		aInitialTextBaseline = pInitialAttributes.getTextBaseline();
+		aFill = aInitialFill;
+		aStroke = aInitialStroke;
+		aLineWidth = aInitialLineWidth;
+		aLineDashes = aInitialLineDashes;
+		aFont = aInitialFont;
+		aTextAlign = aInitialTextAlign;
+		aTextBaseline = aInitialTextBaseline;
+	}
+
+	/**
+	 * @param pGraphics A graphics context.
+	 * @return True if the drawing attributes of pGraphics are those this display list
+	 *     starts from, so that it can be replayed onto pGraphics.
+	 * @pre pGraphics != null
+	 */
+	public boolean hasInitialAttributesOf(GraphicsContext pGraphics)
+	{
+		assert pGraphics != null;
+		return Objects.equals(aInitialFill, pGraphics.getFill()) &&
+				Objects.equals(aInitialStroke, pGraphics.getStroke()) &&
+				Objects.equals(aInitialEffect, pGraphics.getEffect(null)) &&
+				aInitialLineWidth == pGraphics.getLineWidth() &&
+				Arrays.equals(aInitialLineDashes, pGraphics.getLineDashes()) &&
+				Objects.equals(aInitialFont, pGraphics.getFont()) &&
+				aInitialTextAlign == pGraphics.getTextAlign() &&
+				aInitialTextBaseline == pGraphics.getTextBaseline();
+	}
+
+	/**
+	 * Performs all the recorded commands on pGraphics, in order.
+	 *
+	 * @param pGraphics The graphics context on which to perform the commands.
+	 * @pre pGraphics != null
+	 */
+	public void replay(GraphicsContext pGraphics)
+	{
+		assert pGraphics != null;
+		int number = 0;
+		int object = 0;
+		double[] n = aNumbers;
+		for( int i = 0; i < aOperationCount; i++ )
+		{
+			switch( aOperations[i] )
+			{
+			case SET_FILL -> pGraphics.setFill((Paint) aObjects[object++]);
+			case SET_STROKE -> pGraphics.setStroke((Paint) aObjects[object++]);
+			case SET_EFFECT -> pGraphics.setEffect((Effect) aObjects[object++]);
+			case SET_LINE_WIDTH -> pGraphics.setLineWidth(n[number++]);
+			case SET_LINE_DASHES -> pGraphics.setLineDashes((double[]) aObjects[object++]);
+			case SET_FONT -> pGraphics.setFont((Font) aObjects[object++]);
+			case SET_TEXT_ALIGN -> pGraphics.setTextAlign((TextAlignment) aObjects[object++]);
+			case SET_TEXT_BASELINE -> pGraphics.setTextBaseline((VPos) aObjects[object++]);
+			case TRANSLATE -> pGraphics.translate(n[number++], n[number++]);
+			case FILL_RECT -> pGraphics.fillRect(n[number++], n[number++], n[number++], n[number++]);
+			case STROKE_RECT -> pGraphics.strokeRect(n[number++], n[number++], n[number++], n[number++]);
+			case FILL_ROUND_RECT -> pGraphics.fillRoundRect(n[number++], n[number++], n[number++], n[number++],
+					n[number++], n[number++]);
+			case STROKE_ROUND_RECT -> pGraphics.strokeRoundRect(n[number++], n[number++], n[number++], n[number++],
+					n[number++], n[number++]);
+			case FILL_OVAL -> pGraphics.fillOval(n[number++], n[number++], n[number++], n[number++]);
+			case STROKE_OVAL -> pGraphics.strokeOval(n[number++], n[number++], n[number++], n[number++]);
+			case STROKE_LINE -> pGraphics.strokeLine(n[number++], n[number++], n[number++], n[number++]);
+			case STROKE_ARC -> pGraphics.strokeArc(n[number++], n[number++], n[number++], n[number++],
+					n[number++], n[number++], (ArcType) aObjects[object++]);
+			case FILL_TEXT -> pGraphics.fillText((String) aObjects[object++], n[number++], n[number++]);
+			case BEGIN_PATH -> pGraphics.beginPath();
+			case MOVE_TO -> pGraphics.moveTo(n[number++], n[number++]);
+			case LINE_TO -> pGraphics.lineTo(n[number++], n[number++]);
+			case QUADRATIC_CURVE_TO -> pGraphics.quadraticCurveTo(n[number++], n[number++], n[number++], n[number++]);
+			case FILL -> pGraphics.fill();
+			case STROKE -> pGraphics.stroke();
+			default -> throw new IllegalStateException("Unknown operation " + aOperations[i]);
+			}
+		}
+	}
+
+	/**
+	 * @return The number of commands recorded.
+	 */
+	public int size()
+	{
+		return aOperationCount;
+	}
+
+	/**
+	 * @return The current fill paint.
+	 */
+	public Paint getFill()
+	{
+		return aFill;
+	}
+
+	/**
+	 * @param pFill The fill paint for the commands that follow.
+	 */
+	public void setFill(Paint pFill)
+	{
+		aFill = pFill;
+		add(SET_FILL);
+		addObject(pFill);
+	}
+
+	/**
+	 * @return The current stroke paint.
+	 */
+	public Paint getStroke()
+	{
+		return aStroke;
+	}
+
+	/**
+	 * @param pStroke The stroke paint for the commands that follow.
+	 */
+	public void setStroke(Paint pStroke)
+	{
+		aStroke = pStroke;
+		add(SET_STROKE);
+		addObject(pStroke);
+	}
+
+	/**
+	 * @param pEffect The effect for the commands that follow, or null for none.
+	 */
+	public void setEffect(Effect pEffect)
+	{
+		add(SET_EFFECT);
+		addObject(pEffect);
+	}
+
+	/**
+	 * @return The current line width.
+	 */
+	public double getLineWidth()
+	{
+		return aLineWidth;
+	}
+
+	/**
+	 * @param pWidth The line width for the commands that follow.
+	 */
+	public void setLineWidth(double pWidth)
+	{
+		aLineWidth = pWidth;
+		add(SET_LINE_WIDTH);
+		addNumbers(pWidth);
+	}
+
+	/**
+	 * @return The current line dashes, or null if lines are solid.
+	 */
+	public double[] getLineDashes()
+	{
+		return aLineDashes == null ? null : aLineDashes.clone();
+	}
+
+	/**
+	 * @param pDashes The line dashes for the commands that follow, or null for solid lines.
+	 */
+	public void setLineDashes(double... pDashes)
+	{
+		aLineDashes = pDashes == null ? null : pDashes.clone();
+		add(SET_LINE_DASHES);
+		addObject(aLineDashes);
+	}
+
+	/**
+	 * @return The current font.
+	 */
+	public Font getFont()
+	{
+		return aFont;
+	}
+
+	/**
+	 * @param pFont The font for the commands that follow.
+	 */
+	public void setFont(Font pFont)
+	{
+		aFont = pFont;
+		add(SET_FONT);
+		addObject(pFont);
+	}
+
+	/**
+	 * @return The current text alignment.
+	 */
+	public TextAlignment getTextAlign()
+	{
+		return aTextAlign;
+	}
+
+	/**
+	 * @param pAlign The text alignment for the commands that follow.
+	 */
+	public void setTextAlign(TextAlignment pAlign)
+	{
+		aTextAlign = pAlign;
+		add(SET_TEXT_ALIGN);
+		addObject(pAlign);
+	}
+
+	/**
+	 * @return The current text baseline.
+	 */
+	public VPos getTextBaseline()
+	{
+		return aTextBaseline;
+	}
+
+	/**
+	 * @param pBaseline The text baseline for the commands that follow.
+	 */
+	public void setTextBaseline(VPos pBaseline)
+	{
+		aTextBaseline = pBaseline;
+		add(SET_TEXT_BASELINE);
+		addObject(pBaseline);
+	}
+
+	/**
+	 * Translates the coordinates of the commands that follow, as GraphicsContext.translate.
+	 *
+	 * @param pX The translation along the x axis.
+	 * @param pY The translation along the y axis.
+	 */
+	public void translate(double pX, double pY)
+	{
+		add(TRANSLATE);
+		addNumbers(pX, pY);
+	}
+
+	/**
+	 * Records GraphicsContext.fillRect.
+	 *
+	 * @param pX The x-coordinate of the rectangle.
+	 * @param pY The y-coordinate of the rectangle.
+	 * @param pWidth The width of the rectangle.
+	 * @param pHeight The height of the rectangle.
+	 */
+	public void fillRect(double pX, double pY, double pWidth, double pHeight)
+	{
+		add(FILL_RECT);
+		addNumbers(pX, pY, pWidth, pHeight);
+	}
+
+	/**
+	 * Records GraphicsContext.strokeRect.
+	 *
+	 * @param pX The x-coordinate of the rectangle.
+	 * @param pY The y-coordinate of the rectangle.
+	 * @param pWidth The width of the rectangle.
+	 * @param pHeight The height of the rectangle.
+	 */
+	public void strokeRect(double pX, double pY, double pWidth, double pHeight)
+	{
+		add(STROKE_RECT);
+		addNumbers(pX, pY, pWidth, pHeight);
+	}
+
+	/**
+	 * Records GraphicsContext.fillRoundRect.
+	 *
+	 * @param pX The x-coordinate of the rectangle.
+	 * @param pY The y-coordinate of the rectangle.
+	 * @param pWidth The width of the rectangle.
+	 * @param pHeight The height of the rectangle.
+	 * @param pArcWidth The width of the arcs at the corners.
+	 * @param pArcHeight The height of the arcs at the corners.
+	 */
+	public void fillRoundRect(double pX, double pY, double pWidth, double pHeight, double pArcWidth, double pArcHeight)
+	{
+		add(FILL_ROUND_RECT);
+		addNumbers(pX, pY, pWidth, pHeight, pArcWidth, pArcHeight);
+	}
+
+	/**
+	 * Records GraphicsContext.strokeRoundRect.
+	 *
+	 * @param pX The x-coordinate of the rectangle.
+	 * @param pY The y-coordinate of the rectangle.
+	 * @param pWidth The width of the rectangle.
+	 * @param pHeight The height of the rectangle.
+	 * @param pArcWidth The width of the arcs at the corners.
+	 * @param pArcHeight The height of the arcs at the corners.
+	 */
+	public void strokeRoundRect(double pX, double pY, double pWidth, double pHeight, double pArcWidth, double pArcHeight)
+	{
+		add(STROKE_ROUND_RECT);
+		addNumbers(pX, pY, pWidth, pHeight, pArcWidth, pArcHeight);
+	}
+
+	/**
+	 * Records GraphicsContext.fillOval.
+	 *
+	 * @param pX The x-coordinate of the bounds of the oval.
+	 * @param pY The y-coordinate of the bounds of the oval.
+	 * @param pWidth The width of the oval.
+	 * @param pHeight The height of the oval.
+	 */
+	public void fillOval(double pX, double pY, double pWidth, double pHeight)
+	{
+		add(FILL_OVAL);
+		addNumbers(pX, pY, pWidth, pHeight);
+	}
+
+	/**
+	 * Records GraphicsContext.strokeOval.
+	 *
+	 * @param pX The x-coordinate of the bounds of the oval.
+	 * @param pY The y-coordinate of the bounds of the oval.
+	 * @param pWidth The width of the oval.
+	 * @param pHeight The height of the oval.
+	 */
+	public void strokeOval(double pX, double pY, double pWidth, double pHeight)
+	{
+		add(STROKE_OVAL);
+		addNumbers(pX, pY, pWidth, pHeight);
+	}
+
+	/**
+	 * Records GraphicsContext.strokeLine.
+	 *
+	 * @param pX1 The x-coordinate of the start of the line.
+	 * @param pY1 The y-coordinate of the start of the line.
+	 * @param pX2 The x-coordinate of the end of the line.
+	 * @param pY2 The y-coordinate of the end of the line.
+	 */
+	public void strokeLine(double pX1, double pY1, double pX2, double pY2)
+	{
+		add(STROKE_LINE);
+		addNumbers(pX1, pY1, pX2, pY2);
+	}
+
+	/**
+	 * Records GraphicsContext.strokeArc.
+	 *
+	 * @param pX The x-coordinate of the bounds of the arc.
+	 * @param pY The y-coordinate of the bounds of the arc.
+	 * @param pWidth The width of the bounds of the arc.
+	 * @param pHeight The height of the bounds of the arc.
+	 * @param pStartAngle The start angle of the arc, in degrees.
+	 * @param pArcExtent The extent of the arc, in degrees.
+	 * @param pClosure The closure of the arc.
+	 */
+	public void strokeArc(double pX, double pY, double pWidth, double pHeight, double pStartAngle, double pArcExtent,
+			ArcType pClosure)
+	{
+		add(STROKE_ARC);
+		addNumbers(pX, pY, pWidth, pHeight, pStartAngle, pArcExtent);
+		addObject(pClosure);
+	}
+
+	/**
+	 * Records GraphicsContext.fillText.
+	 *
+	 * @param pText The text to draw.
+	 * @param pX The x-coordinate of the text.
+	 * @param pY The y-coordinate of the text.
+	 */
+	public void fillText(String pText, double pX, double pY)
+	{
+		add(FILL_TEXT);
+		addObject(pText);
+		addNumbers(pX, pY);
+	}
+
+	/**
+	 * Records GraphicsContext.beginPath.
+	 */
+	public void beginPath()
+	{
+		add(BEGIN_PATH);
+	}
+
+	/**
+	 * Records GraphicsContext.moveTo.
+	 *
+	 * @param pX The x-coordinate of the point.
+	 * @param pY The y-coordinate of the point.
+	 */
+	public void moveTo(double pX, double pY)
+	{
+		add(MOVE_TO);
+		addNumbers(pX, pY);
+	}
+
+	/**
+	 * Records GraphicsContext.lineTo.
+	 *
+	 * @param pX The x-coordinate of the point.
+	 * @param pY The y-coordinate of the point.
+	 */
+	public void lineTo(double pX, double pY)
+	{
+		add(LINE_TO);
+		addNumbers(pX, pY);
+	}
+
+	/**
+	 * Records GraphicsContext.quadraticCurveTo.
+	 *
+	 * @param pControlX The x-coordinate of the control point.
+	 * @param pControlY The y-coordinate of the control point.
+	 * @param pX The x-coordinate of the end point.
+	 * @param pY The y-coordinate of the end point.
+	 */
+	public void quadraticCurveTo(double pControlX, double pControlY, double pX, double pY)
+	{
+		add(QUADRATIC_CURVE_TO);
+		addNumbers(pControlX, pControlY, pX, pY);
+	}
+
+	/**
+	 * Records GraphicsContext.fill.
+	 */
+	public void fill()
+	{
+		add(FILL);
+	}
+
+	/**
+	 * Records GraphicsContext.stroke.
+	 */
+	public void stroke()
+	{
+		add(STROKE);
+	}
+
+	private void add(byte pOperation)
+	{
+		if( aOperationCount == aOperations.length )
+		{
+			aOperations = Arrays.copyOf(aOperations, aOperations.length * 2);
+		}
+		aOperations[aOperationCount++] = pOperation;
+	}
+
+	private void addNumbers(double... pNumbers)
+	{
+		if( aNumberCount + pNumbers.length > aNumbers.length )
+		{
+			aNumbers = Arrays.copyOf(aNumbers, Math.max(aNumbers.length * 2, aNumberCount + pNumbers.length));
+		}
+		System.arraycopy(pNumbers, 0, aNumbers, aNumberCount, pNumbers.length);
+		aNumberCount += pNumbers.length;
+	}
+
+	private void addObject(Object pObject)
+	{
+		if( aObjectCount == aObjects.length )
+		{
+			aObjects = Arrays.copyOf(aObjects, aObjects.length * 2);
+		}
+		aObjects[aObjectCount++] = pObject;
+	}
+}
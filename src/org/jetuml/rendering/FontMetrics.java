@@ -20,6 +20,13 @@
  *******************************************************************************/
 package org.jetuml.rendering;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jetuml.application.UserPreferences;
+import org.jetuml.application.UserPreferences.IntegerPreference;
+import org.jetuml.application.UserPreferences.StringPreference;
 import org.jetuml.geom.Dimension;
 import org.jetuml.geom.GeomUtils;
 
@@ -30,6 +37,15 @@ import javafx.scene.text.Text;
 /**
  * A utility class to determine various font metrics
  * for the particular text and font.
+ * 
+ * Measuring text requires a layout pass, so the metrics are memoized.
+ * The dimensions of the most recently used strings are kept in a cache 
+ * of bounded size, and the line height and baseline offset are kept 
+ * for each font. All the metrics are discarded when the font name or 
+ * font size preference changes.
+ * 
+ * The metrics can be requested from any thread, so that layouts can 
+ * be computed in the background.
  */
 public final class FontMetrics 
 {
@@ -39,6 +55,46 @@ public final class FontMetrics
 	private static final String SINGLE_LINED_TEXT = "One";
 	private static final String TWO_LINED_TEXT = "One\nTwo";
 	private static final Text TEXT_NODE = new Text();
+	/*
+	 * The number of strings whose dimensions are kept. It is larger than the number of 
+	 * distinct strings shown in most diagrams, so that repainting them does not measure 
+	 * any text, while bounding the cache to a few hundred kilobytes: an entry takes 
+	 * about a hundred bytes in addition to its string.
+	 */
+	private static final int DIMENSION_CACHE_CAPACITY = 4096;
+	
+	private static final Map<TextKey, Dimension> DIMENSIONS = new LinkedHashMap<>(16, 0.75f, true)
+	{
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<TextKey, Dimension> pEldest)
+		{
+			return size() > DIMENSION_CACHE_CAPACITY;
+		}
+	};
+	private static final Map<Font, Integer> HEIGHTS = new HashMap<>();
+	private static final Map<Font, Integer> BASELINE_OFFSETS = new HashMap<>();
+	private static long hits = 0;
+	private static long misses = 0;
+	
+	private record TextKey(Font font, String text) {}
+	
+	static
+	{
+		UserPreferences.instance().addIntegerPreferenceChangeHandler(pPreference ->
+		{
+			if( pPreference == IntegerPreference.fontSize )
+			{
+				clearCache();
+			}
+		});
+		UserPreferences.instance().addStringPreferenceChangeHandler(pPreference ->
+		{
+			if( pPreference == StringPreference.fontName )
+			{
+				clearCache();
+			}
+		});
+	}
 
 	private FontMetrics() {}
 
@@ -53,15 +109,25 @@ public final class FontMetrics
 	 * @pre pString != null
 	 * @pre pFont != null
 	 */
-	public static Dimension getDimension(String pString, Font pFont)
+	public static synchronized Dimension getDimension(String pString, Font pFont)
 	{
 		assert pString != null;
 		assert pFont != null;
 
+		TextKey key = new TextKey(pFont, pString);
+		Dimension dimension = DIMENSIONS.get(key);
+		if( dimension != null )
+		{
+			hits++;
+			return dimension;
+		}
+		misses++;
 		TEXT_NODE.setFont(pFont);
 		TEXT_NODE.setText(pString);
 		Bounds bounds = TEXT_NODE.getLayoutBounds();
-		return new Dimension(GeomUtils.round(bounds.getWidth()), GeomUtils.round(bounds.getHeight()));
+		dimension = new Dimension(GeomUtils.round(bounds.getWidth()), GeomUtils.round(bounds.getHeight()));
+		DIMENSIONS.put(key, dimension);
+		return dimension;
 	}
 	
 	/**
@@ -73,16 +139,19 @@ public final class FontMetrics
 	 * @return The height of a single lined text.
 	 * @pre pFont != null
 	 */
-	public static int getHeight(Font pFont)
+	public static synchronized int getHeight(Font pFont)
 	{
 		assert pFont != null;
 		
-		TEXT_NODE.setFont(pFont);
-		TEXT_NODE.setText(TWO_LINED_TEXT);
-		double twoLineHeight = TEXT_NODE.getLayoutBounds().getHeight();
-		TEXT_NODE.setText(SINGLE_LINED_TEXT);
-		double singleLineHeight = TEXT_NODE.getLayoutBounds().getHeight();
-		return GeomUtils.round(twoLineHeight - singleLineHeight);
+		return HEIGHTS.computeIfAbsent(pFont, font ->
+		{
+			TEXT_NODE.setFont(font);
+			TEXT_NODE.setText(TWO_LINED_TEXT);
+			double twoLineHeight = TEXT_NODE.getLayoutBounds().getHeight();
+			TEXT_NODE.setText(SINGLE_LINED_TEXT);
+			double singleLineHeight = TEXT_NODE.getLayoutBounds().getHeight();
+			return GeomUtils.round(twoLineHeight - singleLineHeight);
+		});
 	}
 	
 	/**
@@ -92,12 +161,51 @@ public final class FontMetrics
 	 * @return the distance above the baseline for a single lined text.
 	 * @pre pFont != null
 	 */
-	public static int getBaselineOffset(Font pFont)
+	public static synchronized int getBaselineOffset(Font pFont)
 	{
 		assert pFont != null;
 		
-		TEXT_NODE.setFont(pFont);
-		TEXT_NODE.setText(SINGLE_LINED_TEXT);
-		return GeomUtils.round(TEXT_NODE.getBaselineOffset());
+		return BASELINE_OFFSETS.computeIfAbsent(pFont, font ->
+		{
+			TEXT_NODE.setFont(font);
+			TEXT_NODE.setText(SINGLE_LINED_TEXT);
+			return GeomUtils.round(TEXT_NODE.getBaselineOffset());
+		});
+	}
+	
+	/**
+	 * @return The number of calls to getDimension that were answered 
+	 *     from the cache since the application started.
+	 */
+	public static synchronized long getCacheHits()
+	{
+		return hits;
+	}
+	
+	/**
+	 * @return The number of calls to getDimension that required measuring 
+	 *     the text since the application started.
+	 */
+	public static synchronized long getCacheMisses()
+	{
+		return misses;
+	}
+	
+	/**
+	 * @return The number of string dimensions currently in the cache.
+	 */
+	public static synchronized int getCacheSize()
+	{
+		return DIMENSIONS.size();
+	}
+	
+	/**
+	 * Discards all the memoized metrics. The hit and miss counters are not reset.
+	 */
+	public static synchronized void clearCache()
+	{
+		DIMENSIONS.clear();
+		HEIGHTS.clear();
+		BASELINE_OFFSETS.clear();
 	}
 } 
\ No newline at end of file
@@ -41,7 +41,9 @@ public final class Grid
 	private Grid() {}
 	
 	/**
-     * Draws this grid inside a rectangle.
+     * Draws the lines of this grid that fall inside a rectangle. The lines are 
+     * at multiples of the grid size, so that grids drawn in adjacent rectangles 
+     * line up.
      * @param pGraphics the graphics context
      * @param pBounds the bounding rectangle
      */
@@ -53,16 +55,24 @@ public final class Grid
 		int y1 = pBounds.y();
 		int x2 = pBounds.maxX();
 		int y2 = pBounds.maxY();
-		for(int x = x1; x < x2; x += GRID_SIZE)
+		for(int x = firstGridLine(x1); x < x2; x += GRID_SIZE)
 		{
 			ToolGraphics.strokeSharpLine(pGraphics, x, y1, x, y2);
 		}
-		for(int y = y1; y < y2; y += GRID_SIZE)
+		for(int y = firstGridLine(y1); y < y2; y += GRID_SIZE)
 		{
 			ToolGraphics.strokeSharpLine(pGraphics, x1, y, x2, y);
 		}
 		pGraphics.setStroke(oldStroke);
 	}
+	
+	/*
+	 * @return The smallest multiple of the grid size that is greater than or equal to pCoordinate.
+	 */
+	private static int firstGridLine(int pCoordinate)
+	{
+		return (int)(Math.ceil(pCoordinate / GRID_SIZE) * GRID_SIZE);
+	}
 
 	
 	/**
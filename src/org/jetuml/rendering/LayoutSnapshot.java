@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ ******************************************************************************/
+package org.jetuml.rendering;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.jetuml.geom.Rectangle;
+
+/**
+ * The layout of a diagram as it was when the snapshot was taken, which can be 
+ * computed on a thread other than the one that edits the diagram, and then 
+ * published to the renderer the snapshot was taken from. The snapshot does not 
+ * share any element with the diagram, so the diagram can be edited while the 
+ * layout is computed.
+ */
+public interface LayoutSnapshot
+{
+	/**
+	 * Computes the layout of the snapshot. This method can be called on any thread.
+	 */
+	void compute();
+	
+	/**
+	 * Installs the layout computed by compute() in the renderer the snapshot was 
+	 * taken from, for the parts of the diagram that did not change since the snapshot 
+	 * was taken. The other parts keep their previous layout. This method must be called 
+	 * on the thread that edits the diagram.
+	 * 
+	 * @return The regions of the diagram that changed as a result of the layout,
+	 * or Optional.empty() if the layout may have changed any part of the diagram,
+	 * as for DiagramRenderer.updateLayout().
+	 */
+	Optional<List<Rectangle>> publish();
+}
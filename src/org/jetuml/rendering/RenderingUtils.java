@@ -48,14 +48,14 @@ public final class RenderingUtils
 	/**
 	 * Draws a circle with default attributes, without a drop shadow.
 	 * 
-	 * @param pGraphics The graphics context.
+	 * @param pGraphics The display list.
 	 * @param pX The x-coordinate of the top-left of the circle.
 	 * @param pY The y-coordinate of the top-left of the circle.
 	 * @param pFill The color with which to fill the circle.
 	 * @param pDiameter The diameter of the circle.
 	 * @param pShadow True to include a drop shadow.
 	 */
-	public static void drawCircle(GraphicsContext pGraphics, int pX, int pY, int pDiameter, Paint pFill, boolean pShadow)
+	public static void drawCircle(DisplayList pGraphics, int pX, int pY, int pDiameter, Paint pFill, boolean pShadow)
 	{
 		drawOval( pGraphics, pX, pY, pDiameter, pDiameter, pFill, pShadow);
 	}
@@ -63,7 +63,7 @@ public final class RenderingUtils
 	/**
 	 * Draws a circle with default attributes, without a drop shadow.
 	 * 
-	 * @param pGraphics The graphics context.
+	 * @param pGraphics The display list.
 	 * @param pX The x-coordinate of the top-left of the circle.
 	 * @param pY The y-coordinate of the top-left of the circle.
 	 * @param pFill The color with which to fill the circle.
@@ -71,7 +71,7 @@ public final class RenderingUtils
 	 * @param pHeight The height of the oval to draw.
 	 * @param pShadow True to include a drop shadow.
 	 */
-	public static void drawOval(GraphicsContext pGraphics, int pX, int pY, int pWidth, int pHeight, Paint pFill, boolean pShadow)
+	public static void drawOval(DisplayList pGraphics, int pX, int pY, int pWidth, int pHeight, Paint pFill, boolean pShadow)
 	{
 		assert pWidth > 0 && pHeight > 0 && pFill != null && pGraphics != null;
 		Paint oldFill = pGraphics.getFill();
@@ -89,10 +89,10 @@ public final class RenderingUtils
 	/**
 	 * Draws a white rounded rectangle with a drop shadow.
 	 * 
-	 * @param pGraphics The graphics context.
+	 * @param pGraphics The display list.
 	 * @param pRectangle The rectangle to draw.
 	 */
-	public static void drawRoundedRectangle(GraphicsContext pGraphics, Rectangle pRectangle)
+	public static void drawRoundedRectangle(DisplayList pGraphics, Rectangle pRectangle)
 	{
 		assert pGraphics != null && pRectangle != null;
 		pGraphics.setEffect(DROP_SHADOW);
@@ -132,10 +132,10 @@ public final class RenderingUtils
 	/**
 	 * Draws a rectangle with default attributes.
 	 * 
-	 * @param pGraphics The graphics context on which to draw the rectangle.
+	 * @param pGraphics The display list on which to draw the rectangle.
 	 * @param pRectangle The rectangle to draw.
 	 */
-	public static void drawRectangle( GraphicsContext pGraphics, Rectangle pRectangle)
+	public static void drawRectangle( DisplayList pGraphics, Rectangle pRectangle)
 	{
 		assert pGraphics != null && pRectangle != null;
 		pGraphics.setEffect(DROP_SHADOW);
@@ -147,14 +147,14 @@ public final class RenderingUtils
 	/**
 	 * Draws a line with default attributes and a specified line style.
 	 * 
-	 * @param pGraphics The graphics context.
+	 * @param pGraphics The display list.
 	 * @param pX1 The x-coordinate of the first point
 	 * @param pY1 The y-coordinate of the first point
 	 * @param pX2 The x-coordinate of the second point
 	 * @param pY2 The y-coordinate of the second point
 	 * @param pStyle The line style for the path.
 	 */
-	public static void drawLine(GraphicsContext pGraphics, int pX1, int pY1, int pX2, int pY2, LineStyle pStyle)
+	public static void drawLine(DisplayList pGraphics, int pX1, int pY1, int pX2, int pY2, LineStyle pStyle)
 	{
 		double[] oldDash = pGraphics.getLineDashes();
 		pGraphics.setLineDashes(pStyle.getLineDashes());
@@ -165,13 +165,13 @@ public final class RenderingUtils
 	/**
 	 * Draw pText in black with the given font, at point pX, pY.
 	 * 
-	 * @param pGraphics The graphics context.
+	 * @param pGraphics The display list.
 	 * @param pX The x-coordinate where to draw the text.
 	 * @param pY The y-coordinate where to draw the text.
 	 * @param pText The text to draw.
 	 * @param pFont The font to use.
 	 */
-	public static void drawText(GraphicsContext pGraphics, int pX, int pY, String pText, Font pFont)
+	public static void drawText(DisplayList pGraphics, int pX, int pY, String pText, Font pFont)
 	{
 		Font font = pGraphics.getFont();
 		pGraphics.setFont(pFont);
@@ -22,7 +22,9 @@ package org.jetuml.rendering;
 
 import static java.util.stream.Collectors.toList;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +32,9 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.jetuml.application.UserPreferences;
+import org.jetuml.application.UserPreferences.IntegerPreference;
+import org.jetuml.application.UserPreferences.StringPreference;
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.Edge;
@@ -87,6 +92,8 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 
 	private final Map<Node, Integer> aCallNodeTopCoordinate = new IdentityHashMap<>();
 	private final Map<Node, Integer> aCallNodeBottomCoordinate = new IdentityHashMap<>();
+	// The inputs of the last computation of the y-coordinates
+	private List<Object> aLayoutInputs = List.of();
 	
 	/**
 	 * @param pDiagram The diagram being rendered.
@@ -108,12 +115,104 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 		super.draw(pGraphics); 
 	}
 	
+	/*
+	 * A change to the vertical position of a call node can move every 
+	 * call node and edge below it, so it is reported as a change to the whole diagram.
+	 */
+	@Override
+	public Optional<List<Rectangle>> updateLayout()
+	{
+		if( layout() )
+		{
+			return Optional.empty();
+		}
+		return Optional.of(List.of());
+	}
+	
 	/*
 	 * Computes the position of the nodes in the sequence diagram, except the note nodes.
+	 * 
+	 * @return True if the position of any call node changed.
 	 */
-	private void layout()
+	private boolean layout()
 	{
+		Map<Node, Integer> previousTopCoordinates = new HashMap<>(aCallNodeTopCoordinate);
+		Map<Node, Integer> previousBottomCoordinates = new HashMap<>(aCallNodeBottomCoordinate);
 		computeYPositions();
+		aLayoutInputs = layoutInputs();
+		if( !previousTopCoordinates.equals(aCallNodeTopCoordinate) || 
+				!previousBottomCoordinates.equals(aCallNodeBottomCoordinate) )
+		{
+			invalidateSpatialIndex();
+			return true;
+		}
+		return false;
+	}
+	
+	@Override
+	public Optional<LayoutSnapshot> snapshotLayout()
+	{
+		List<Object> inputs = layoutInputs();
+		if( inputs.equals(aLayoutInputs) )
+		{
+			return Optional.empty();
+		}
+		return Optional.of(new CallNodeLayoutSnapshot(inputs));
+	}
+	
+	/*
+	 * The y-coordinates of the call nodes only depend on the font, on the call 
+	 * nodes, and on the edges between them, in diagram order.
+	 */
+	private List<Object> layoutInputs()
+	{
+		List<Object> inputs = new ArrayList<>();
+		inputs.add(UserPreferences.instance().getString(StringPreference.fontName));
+		inputs.add(UserPreferences.instance().getInteger(IntegerPreference.fontSize));
+		diagram().allNodes().stream()
+			.filter(node -> node.getClass() == CallNode.class)
+			.forEach(inputs::add);
+		for( Edge edge : diagram().edges() )
+		{
+			inputs.add(edge);
+			inputs.add(edge.start());
+			inputs.add(edge.end());
+		}
+		return inputs;
+	}
+	
+	/*
+	 * Installs the y-coordinates of pSnapshot, unless the diagram changed
+	 * since the snapshot was taken or the y-coordinates are already up to date.
+	 */
+	private Optional<List<Rectangle>> publish(CallNodeLayoutSnapshot pSnapshot)
+	{
+		List<Object> inputs = layoutInputs();
+		if( !inputs.equals(pSnapshot.aInputs) || inputs.equals(aLayoutInputs) )
+		{
+			return Optional.of(List.of());
+		}
+		aLayoutInputs = inputs;
+		if( pSnapshot.aTopCoordinates.equals(aCallNodeTopCoordinate) && 
+				pSnapshot.aBottomCoordinates.equals(aCallNodeBottomCoordinate) )
+		{
+			return Optional.of(List.of());
+		}
+		aCallNodeTopCoordinate.clear();
+		aCallNodeTopCoordinate.putAll(pSnapshot.aTopCoordinates);
+		aCallNodeBottomCoordinate.clear();
+		aCallNodeBottomCoordinate.putAll(pSnapshot.aBottomCoordinates);
+		invalidateSpatialIndex();
+		return Optional.empty();
+	}
+	
+	/*
+	 * Implicit parameter nodes can be hit anywhere along their lifeline.
+	 */
+	@Override
+	protected boolean isSpatiallyIndexable(DiagramElement pElement)
+	{
+		return pElement.getClass() != ImplicitParameterNode.class;
 	}
 	
 	/**
@@ -162,9 +261,7 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 	public Optional<CallNode> getCaller(Node pNode)
 	{
 		assert pNode != null && diagram().contains(pNode);
-		return diagram().edges().stream()
-			.filter(CallEdge.class::isInstance)
-			.filter(edge -> edge.end() == pNode)
+		return diagram().edgesTo(pNode, CallEdge.class).stream()
 			.map(Edge::start)
 			.map(CallNode.class::cast)
 			.findFirst();
@@ -222,6 +319,7 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 	public int getY(Node pNode)
 	{
 		assert pNode != null;
+		layOutIfMissing(pNode);
 		assert aCallNodeTopCoordinate.containsKey(pNode);
 		return aCallNodeTopCoordinate.get(pNode);
 	}
@@ -233,10 +331,23 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 	public int getMaxY(Node pNode)
 	{
 		assert pNode != null;
+		layOutIfMissing(pNode);
 		assert aCallNodeBottomCoordinate.containsKey(pNode);
 		return aCallNodeBottomCoordinate.get(pNode);
 	}
 	
+	/*
+	 * A call node added since the y-coordinates were published by a layout 
+	 * computed in the background is laid out when it is first needed.
+	 */
+	private void layOutIfMissing(Node pNode)
+	{
+		if( !aCallNodeTopCoordinate.containsKey(pNode) )
+		{
+			layout();
+		}
+	}
+	
 	/*
 	 * Computes the y position of the pNode call node, and all its callees,
 	 * through recursive descent. Also adjust the parent in case it's a constructor call.
@@ -282,8 +393,7 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 	private Optional<Edge> getIncomingCall(Node pNode)
 	{
 		assert pNode.getClass() == CallNode.class;
-		return diagram().edges().stream()
-			.filter(edge -> edge.end() == pNode)
+		return diagram().edgesTo(pNode, Edge.class).stream()
 			.findFirst();
 	}
 	
@@ -297,7 +407,7 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 		Optional<Node> topNode = diagram().allNodes().stream()
 			.filter(CallNode.class::isInstance)
 			.filter(node -> node.getParent() == pNode)
-			.sorted(Comparator.comparing(aCallNodeTopCoordinate::get))
+			.sorted(Comparator.comparing(this::getY))
 			.findFirst();
 		if(topNode.isEmpty() || !isConstructorCall(topNode.get()))
 		{
@@ -305,7 +415,7 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 		}
 		else
 		{
-			return aCallNodeTopCoordinate.get(topNode.get()) - CONSTRUCTOR_DROP;
+			return getY(topNode.get()) - CONSTRUCTOR_DROP;
 		}
 	}
 	
@@ -367,9 +477,7 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 	private List<Node> getCallees(Node pNode)
 	{
 		assert pNode != null && diagram().contains(pNode);
-		return diagram().edges().stream()
-				.filter(CallEdge.class::isInstance)
-				.filter(edge -> edge.start() == pNode)
+		return diagram().edgesFrom(pNode, CallEdge.class).stream()
 				.map(Edge::end)
 				.collect(toList());
 	}
@@ -483,4 +591,52 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 				.filter(edge -> edge.start() == pCaller)
 				.collect(toList());
 	}
+	
+	/*
+	 * A copy of the diagram whose y-coordinates are computed by a renderer of its own.
+	 * The nodes of the copy are in the same order as the nodes of the diagram.
+	 */
+	private final class CallNodeLayoutSnapshot implements LayoutSnapshot
+	{
+		private final List<Object> aInputs;
+		private final List<Node> aNodes;
+		private final SequenceDiagramRenderer aRenderer;
+		private final Map<Node, Integer> aTopCoordinates = new IdentityHashMap<>();
+		private final Map<Node, Integer> aBottomCoordinates = new IdentityHashMap<>();
+		private boolean aComputed = false;
+		
+		CallNodeLayoutSnapshot(List<Object> pInputs)
+		{
+			aInputs = pInputs;
+			aNodes = diagram().allNodes();
+			aRenderer = new SequenceDiagramRenderer(diagram().duplicate());
+		}
+		
+		@Override
+		public void compute()
+		{
+			aRenderer.computeYPositions();
+			List<Node> copies = aRenderer.diagram().allNodes();
+			for( int i = 0; i < copies.size(); i++ )
+			{
+				Node copy = copies.get(i);
+				if( aRenderer.aCallNodeTopCoordinate.containsKey(copy) )
+				{
+					aTopCoordinates.put(aNodes.get(i), aRenderer.aCallNodeTopCoordinate.get(copy));
+					aBottomCoordinates.put(aNodes.get(i), aRenderer.aCallNodeBottomCoordinate.get(copy));
+				}
+			}
+			aComputed = true;
+		}
+		
+		@Override
+		public Optional<List<Rectangle>> publish()
+		{
+			if( !aComputed )
+			{
+				return Optional.of(List.of());
+			}
+			return SequenceDiagramRenderer.this.publish(this);
+		}
+	}
 }
@@ -0,0 +1,308 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.jetuml.geom.Point;
+import org.jetuml.geom.Rectangle;
+
+/**
+ * A uniform grid that maps elements to the cells overlapped by their bounds,
+ * so that the elements at a point or in a region can be found without
+ * examining every element. Elements are compared by identity, and query
+ * results are returned in the order in which the elements were added.
+ *
+ * @param <T> The type of the indexed elements.
+ */
+public final class SpatialIndex<T>
+{
+	private static final int CELL_SIZE = 128;
+
+	private final Map<Cell, List<T>> aCells = new HashMap<>();
+	private final Map<T, Entry> aEntries = new IdentityHashMap<>();
+	private int aNextSequence = 0;
+
+	// Range of cells that have been occupied since the last time the index was cleared
+	private int aMinColumn = Integer.MAX_VALUE;
+	private int aMaxColumn = Integer.MIN_VALUE;
+	private int aMinRow = Integer.MAX_VALUE;
+	private int aMaxRow = Integer.MIN_VALUE;
+
+	private record Cell(int column, int row) {}
+
+	private record Entry(Rectangle bounds, int sequence) {}
+
+	/**
+	 * Adds pElement to the index.
+	 *
+	 * @param pElement The element to add.
+	 * @param pBounds The bounds of the element.
+	 * @pre pElement != null && pBounds != null
+	 * @pre !contains(pElement)
+	 */
+	public void add(T pElement, Rectangle pBounds)
+	{
+		assert pElement != null && pBounds != null;
+		assert !contains(pElement);
+		aEntries.put(pElement, new Entry(pBounds, aNextSequence++));
+		for( Cell cell : cellsOverlapping(pBounds) )
+		{
+			aCells.computeIfAbsent(cell, key -> new ArrayList<>()).add(pElement);
+		}
+		aMinColumn = Math.min(aMinColumn, column(pBounds.x()));
+		aMaxColumn = Math.max(aMaxColumn, column(pBounds.maxX()));
+		aMinRow = Math.min(aMinRow, row(pBounds.y()));
+		aMaxRow = Math.max(aMaxRow, row(pBounds.maxY()));
+	}
+
+	/**
+	 * Removes pElement from the index.
+	 *
+	 * @param pElement The element to remove.
+	 * @pre contains(pElement)
+	 */
+	public void remove(T pElement)
+	{
+		assert contains(pElement);
+		for( Cell cell : cellsOverlapping(aEntries.remove(pElement).bounds()) )
+		{
+			List<T> elements = aCells.get(cell);
+			elements.removeIf(element -> element == pElement);
+			if( elements.isEmpty() )
+			{
+				aCells.remove(cell);
+			}
+		}
+	}
+
+	/**
+	 * Removes all the elements from the index.
+	 */
+	public void clear()
+	{
+		aCells.clear();
+		aEntries.clear();
+		aNextSequence = 0;
+		aMinColumn = Integer.MAX_VALUE;
+		aMaxColumn = Integer.MIN_VALUE;
+		aMinRow = Integer.MAX_VALUE;
+		aMaxRow = Integer.MIN_VALUE;
+	}
+
+	/**
+	 * @param pElement The element to check.
+	 * @return True if pElement is in the index.
+	 */
+	public boolean contains(T pElement)
+	{
+		return aEntries.containsKey(pElement);
+	}
+
+	/**
+	 * @return The number of elements in the index.
+	 */
+	public int size()
+	{
+		return aEntries.size();
+	}
+
+	/**
+	 * @param pPoint The point to test.
+	 * @return The elements whose bounds contain pPoint, in the order in which they were added.
+	 * @pre pPoint != null
+	 */
+	public List<T> elementsAt(Point pPoint)
+	{
+		assert pPoint != null;
+		List<T> result = new ArrayList<>();
+		for( T element : aCells.getOrDefault(new Cell(column(pPoint.x()), row(pPoint.y())), Collections.emptyList()) )
+		{
+			if( aEntries.get(element).bounds().contains(pPoint) )
+			{
+				result.add(element);
+			}
+		}
+		result.sort(bySequence());
+		return result;
+	}
+
+	/**
+	 * @param pRegion The region to test.
+	 * @return The elements whose bounds intersect pRegion, in the order in which they were added.
+	 * @pre pRegion != null
+	 */
+	public List<T> elementsIntersecting(Rectangle pRegion)
+	{
+		assert pRegion != null;
+		Set<T> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+		long numberOfCells = ((long) column(pRegion.maxX()) - column(pRegion.x()) + 1) *
+				((long) row(pRegion.maxY()) - row(pRegion.y()) + 1);
+		if( numberOfCells > aCells.size() )
+		{
+			// Visiting the occupied cells is cheaper than visiting the cells of the region
+			candidates.addAll(aEntries.keySet());
+		}
+		else
+		{
+			cellsOverlapping(pRegion).forEach(cell ->
+					candidates.addAll(aCells.getOrDefault(cell, Collections.emptyList())));
+		}
+		List<T> result = new ArrayList<>();
+		for( T element : candidates )
+		{
+			if( aEntries.get(element).bounds().intersects(pRegion) )
+			{
+				result.add(element);
+			}
+		}
+		result.sort(bySequence());
+		return result;
+	}
+
+	/**
+	 * Finds the element whose bounds are the closest to pPoint. The cells are visited
+	 * in rings of increasing distance around the cell of the point, and the search stops
+	 * as soon as no unvisited cell can hold a closer element. If several elements are at
+	 * the same distance, the one added first is returned.
+	 *
+	 * @param pPoint The point of reference.
+	 * @return The element closest to pPoint, or empty if the index is empty.
+	 * @pre pPoint != null
+	 */
+	public Optional<T> nearest(Point pPoint)
+	{
+		assert pPoint != null;
+		if( aEntries.isEmpty() )
+		{
+			return Optional.empty();
+		}
+		T best = null;
+		double bestDistance = Double.MAX_VALUE;
+		int column = column(pPoint.x());
+		int row = row(pPoint.y());
+		int minRing = Math.max(Math.max(aMinColumn - column, column - aMaxColumn),
+				Math.max(Math.max(aMinRow - row, row - aMaxRow), 0));
+		int maxRing = Math.max(Math.max(column - aMinColumn, aMaxColumn - column),
+				Math.max(row - aMinRow, aMaxRow - row));
+		for( int ring = minRing; ring <= maxRing; ring++ )
+		{
+			for( Cell cell : ring(column, row, ring) )
+			{
+				for( T element : aCells.getOrDefault(cell, Collections.emptyList()) )
+				{
+					double distance = aEntries.get(element).bounds().distance(pPoint);
+					if( distance < bestDistance ||
+							distance == bestDistance && aEntries.get(element).sequence() < aEntries.get(best).sequence() )
+					{
+						best = element;
+						bestDistance = distance;
+					}
+				}
+			}
+			// Cells beyond this ring are at least ring * CELL_SIZE away from the point
+			if( bestDistance < (double) ring * CELL_SIZE )
+			{
+				break;
+			}
+		}
+		return Optional.ofNullable(best);
+	}
+
+	private Comparator<T> bySequence()
+	{
+		return Comparator.comparingInt(element -> aEntries.get(element).sequence());
+	}
+
+	/*
+	 * @return The occupied cells at a Chebyshev distance of pRing from the cell at pColumn, pRow.
+	 */
+	private List<Cell> ring(int pColumn, int pRow, int pRing)
+	{
+		List<Cell> cells = new ArrayList<>();
+		for( int column = Math.max(pColumn - pRing, aMinColumn); column <= Math.min(pColumn + pRing, aMaxColumn); column++ )
+		{
+			for( int row : rowsInRing(pColumn, pRow, pRing, column) )
+			{
+				if( row >= aMinRow && row <= aMaxRow && aCells.containsKey(new Cell(column, row)) )
+				{
+					cells.add(new Cell(column, row));
+				}
+			}
+		}
+		return cells;
+	}
+	
+	/*
+	 * @return The rows of the cells of column pColumn that are on the ring.
+	 */
+	private List<Integer> rowsInRing(int pCenterColumn, int pCenterRow, int pRing, int pColumn)
+	{
+		if( Math.abs(pColumn - pCenterColumn) == pRing )
+		{
+			List<Integer> rows = new ArrayList<>();
+			for( int row = Math.max(pCenterRow - pRing, aMinRow); row <= Math.min(pCenterRow + pRing, aMaxRow); row++ )
+			{
+				rows.add(row);
+			}
+			return rows;
+		}
+		else if( pRing == 0 )
+		{
+			return List.of(pCenterRow);
+		}
+		else
+		{
+			return List.of(pCenterRow - pRing, pCenterRow + pRing);
+		}
+	}
+
+	private static List<Cell> cellsOverlapping(Rectangle pBounds)
+	{
+		List<Cell> cells = new ArrayList<>();
+		for( int column = column(pBounds.x()); column <= column(pBounds.maxX()); column++ )
+		{
+			for( int row = row(pBounds.y()); row <= row(pBounds.maxY()); row++ )
+			{
+				cells.add(new Cell(column, row));
+			}
+		}
+		return cells;
+	}
+
+	private static int column(int pX)
+	{
+		return Math.floorDiv(pX, CELL_SIZE);
+	}
+
+	private static int row(int pY)
+	{
+		return Math.floorDiv(pY, CELL_SIZE);
+	}
+}
@@ -34,7 +34,6 @@ import org.jetuml.geom.Dimension;
 import org.jetuml.geom.Rectangle;
 
 import javafx.geometry.VPos;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontPosture;
 import javafx.scene.text.FontWeight;
@@ -123,7 +122,7 @@ public final class StringRenderer
 	 * @pre pAlign != null
 	 * @return The StringRenderer instance with the requested properties.
 	 */
-	public static StringRenderer get(Alignment pAlign, TextDecoration... pDecorations)
+	public static synchronized StringRenderer get(Alignment pAlign, TextDecoration... pDecorations)
 	{
 		assert pAlign != null;
 		
@@ -137,10 +136,10 @@ public final class StringRenderer
 	/**
      * Draws the string inside a given rectangle.
      * @param pString The string to draw.
-     * @param pGraphics the graphics context
+     * @param pGraphics the display list
      * @param pRectangle the rectangle into which to place the string
 	 */
-	public void draw(String pString, GraphicsContext pGraphics, Rectangle pRectangle)
+	public void draw(String pString, DisplayList pGraphics, Rectangle pRectangle)
 	{
 		final VPos oldVPos = pGraphics.getTextBaseline();
 		final TextAlignment oldAlign = pGraphics.getTextAlign();
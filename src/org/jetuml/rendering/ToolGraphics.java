@@ -146,11 +146,11 @@ public final class ToolGraphics
 	 * with the JavaFX coordinate system. See the documentation for 
 	 * javafx.scene.shape.Shape for details.
 	 * 
-	 * @param pGraphics The graphics context.
+	 * @param pGraphics The display list.
 	 * @param pPath The path to stroke
 	 * @param pStyle The line style for the path.
 	 */
-	public static void strokeSharpPath(GraphicsContext pGraphics, Path pPath, LineStyle pStyle)
+	public static void strokeSharpPath(DisplayList pGraphics, Path pPath, LineStyle pStyle)
 	{
 		double[] oldDash = pGraphics.getLineDashes();
 		pGraphics.setLineDashes(pStyle.getLineDashes());
@@ -162,7 +162,7 @@ public final class ToolGraphics
 		pGraphics.setLineWidth(width);
 	}
 	
-	private static void applyPath(GraphicsContext pGraphics, Path pPath)
+	private static void applyPath(DisplayList pGraphics, Path pPath)
 	{
 		pGraphics.beginPath();
 		for(PathElement element : pPath.getElements())
@@ -188,12 +188,12 @@ public final class ToolGraphics
 	 * with the JavaFX coordinate system. See the documentation for 
 	 * javafx.scene.shape.Shape for details.
 	 * 
-	 * @param pGraphics The graphics context.
+	 * @param pGraphics The display list.
 	 * @param pPath The path to stroke
 	 * @param pFill The fill color for the path.
 	 * @param pShadow True to include a drop shadow.
 	 */
-	public static void strokeAndFillSharpPath(GraphicsContext pGraphics, Path pPath, Paint pFill, boolean pShadow)
+	public static void strokeAndFillSharpPath(DisplayList pGraphics, Path pPath, Paint pFill, boolean pShadow)
 	{
 		double width = pGraphics.getLineWidth();
 		Paint fill = pGraphics.getFill();
@@ -29,10 +29,10 @@ import org.jetuml.geom.Line;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.ArrowHead;
+import org.jetuml.rendering.DisplayList;
 import org.jetuml.rendering.ToolGraphics;
 
 import javafx.geometry.Bounds;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.LineTo;
 import javafx.scene.shape.MoveTo;
@@ -51,11 +51,11 @@ public final class ArrowHeadRenderer
 	/**
 	 * Draws an arrow head at the end of the axis.
 	 * 
-	 * @param pGraphics the graphics context
+	 * @param pGraphics the display list
 	 * @param pArrowHead The type of arrow head to draw
 	 * @param pAxis A line in the direction of the arrow ending a pAxis.getPoint2()
 	 */
-	public static void draw(GraphicsContext pGraphics, ArrowHead pArrowHead, Line pAxis)
+	public static void draw(DisplayList pGraphics, ArrowHead pArrowHead, Line pAxis)
 	{
 		assert pGraphics != null && pArrowHead != null && pAxis != null;
 		
@@ -72,11 +72,11 @@ public final class ArrowHeadRenderer
 	/**
 	 * Draws an arrow head at pPoint2 for a direction given from pPoint2.
 	 * 
-	 * @param pGraphics the graphics context
+	 * @param pGraphics the display list
 	 * @param pArrowHead The type of arrow head to draw
 	 * @param pAxis A line in the direction of the arrow ending a pAxis.getPoint2()
 	 */
-	public static void draw(GraphicsContext pGraphics, ArrowHead pArrowHead, Point pPoint1, Point pPoint2)
+	public static void draw(DisplayList pGraphics, ArrowHead pArrowHead, Point pPoint1, Point pPoint2)
 	{
 		assert pGraphics != null && pArrowHead != null && pPoint1 != null && pPoint2 != null;
 		
@@ -36,6 +36,7 @@ import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.ArrowHead;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.DisplayList;
 import org.jetuml.rendering.LineStyle;
 import org.jetuml.rendering.StringRenderer;
 import org.jetuml.rendering.StringRenderer.Alignment;
@@ -122,7 +123,7 @@ public final class CallEdgeRenderer extends AbstractEdgeRenderer
 	}
 
 	@Override
-	public void draw(DiagramElement pElement, GraphicsContext pGraphics)
+	public void draw(DiagramElement pElement, DisplayList pGraphics)
 	{
 		Edge edge = (Edge) pElement;
 		ToolGraphics.strokeSharpPath(pGraphics, (Path) getShape(edge), LineStyle.SOLID);
@@ -156,7 +157,7 @@ public final class CallEdgeRenderer extends AbstractEdgeRenderer
 		}
 	}
 
-	private void drawLabel(CallEdge pEdge, GraphicsContext pGraphics, String pLabel)
+	private void drawLabel(CallEdge pEdge, DisplayList pGraphics, String pLabel)
 	{
 		if( pEdge.isSelfEdge() )
 		{
@@ -221,10 +222,12 @@ public final class CallEdgeRenderer extends AbstractEdgeRenderer
 		Canvas canvas = new Canvas(BUTTON_SIZE, BUTTON_SIZE);
 		GraphicsContext graphics = canvas.getGraphicsContext2D();
 		canvas.getGraphicsContext2D().scale(scale, scale);
+		DisplayList displayList = new DisplayList(graphics);
 		Path path = new Path();
 		path.getElements().addAll(new MoveTo(1, offset), new LineTo(BUTTON_SIZE*(1/scale)-1, offset));
-		ToolGraphics.strokeSharpPath(graphics, path, LineStyle.SOLID);
-		ArrowHeadRenderer.draw(graphics, ArrowHead.V, new Point(1, offset), new Point((int)(BUTTON_SIZE*(1/scale)-1), offset));
+		ToolGraphics.strokeSharpPath(displayList, path, LineStyle.SOLID);
+		ArrowHeadRenderer.draw(displayList, ArrowHead.V, new Point(1, offset), new Point((int)(BUTTON_SIZE*(1/scale)-1), offset));
+		displayList.replay(graphics);
 		return canvas;
 	}
 }
@@ -26,17 +26,34 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.Node;
 import org.jetuml.geom.Point;
 import org.jetuml.rendering.EdgePath;
 
 /**
- * Stores the EdgePaths of Edges for class diagrams.
+ * Stores the EdgePaths of Edges for class diagrams. The stored edges connected
+ * to a node are found with the index of incident edges of the diagram, so they 
+ * are found at the nodes they currently connect, even if they were connected to 
+ * other nodes after they were stored.
  */
 public class EdgeStorage
 {
 	private Map<Edge, EdgePath> aEdgePaths = new IdentityHashMap<>();
+	private final Diagram aDiagram;
+	
+	/**
+	 * Creates an empty storage for the edges of pDiagram.
+	 * 
+	 * @param pDiagram The diagram whose edges are stored.
+	 * @pre pDiagram != null
+	 */
+	public EdgeStorage(Diagram pDiagram)
+	{
+		assert pDiagram != null;
+		aDiagram = pDiagram;
+	}
  	
  	/**
  	 * Adds pEdge and pEdgePath into storage.
@@ -91,20 +108,19 @@ public class EdgeStorage
  	/**
  	 * Returns a list of edges in storage which are connected to pNode.
 	 * @param pNode The node of interest
-	 * @return All the edges connected to pNode
+	 * @return All the edges of the diagram in storage that are connected to pNode,
+	 *     in the order of the edges of the diagram.
 	 * @pre pNode != null
 	 */
 	public List<Edge> edgesConnectedTo(Node pNode)
 	{
 		assert pNode != null;
-		List<Edge> result = new ArrayList<>();
-		for( Edge edge : aEdgePaths.keySet() )
-		{
-			if( edge.start() == pNode || edge.end() == pNode )
-			{
-				result.add(edge);
-			}
-		}
+		List<Edge> result = new ArrayList<>(aDiagram.edgesFrom(pNode, Edge.class));
+		aDiagram.edgesTo(pNode, Edge.class).stream()
+			.filter(edge -> edge.start() != pNode)
+			.forEach(result::add);
+		result.removeIf(edge -> !aEdgePaths.containsKey(edge));
+		result.sort(aDiagram.edgeOrder());
 		return result;
 	}
 	
@@ -142,6 +158,17 @@ public class EdgeStorage
 				.collect(Collectors.toList());
 	}
 	
+	/**
+	 * Removes pEdge and its EdgePath from storage, if it is present.
+	 * @param pEdge the edge to remove
+	 * @pre pEdge!=null
+	 */
+	public void remove(Edge pEdge)
+	{
+		assert pEdge!=null;
+		aEdgePaths.remove(pEdge);
+	}
+	
 	/**
 	 * Clears edge storage.
 	 */
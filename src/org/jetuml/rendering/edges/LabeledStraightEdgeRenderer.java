@@ -29,13 +29,12 @@ import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.ArrowHead;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.DisplayList;
 import org.jetuml.rendering.LineStyle;
 import org.jetuml.rendering.StringRenderer;
 import org.jetuml.rendering.StringRenderer.Alignment;
 import org.jetuml.rendering.StringRenderer.TextDecoration;
 
-import javafx.scene.canvas.GraphicsContext;
-
 /**
  * Can draw a straight edge with a label than can be obtained dynamically. 
  */
@@ -60,7 +59,7 @@ public class LabeledStraightEdgeRenderer extends StraightEdgeRenderer
 	}
 	
 	@Override
-	public void draw(DiagramElement pElement, GraphicsContext pGraphics)
+	public void draw(DiagramElement pElement, DisplayList pGraphics)
 	{
 		super.draw(pElement, pGraphics);
 		Edge edge = (Edge) pElement;
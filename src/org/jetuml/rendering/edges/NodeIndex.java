@@ -23,6 +23,7 @@ package org.jetuml.rendering.edges;
 import org.jetuml.geom.GeomUtils;
 import org.jetuml.geom.Line;
 import org.jetuml.geom.Point;
+import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.Grid;
 import org.jetuml.rendering.Side;
 
@@ -75,6 +76,28 @@ public enum NodeIndex
 		}
 	}
 	
+	/**
+	 * Returns a rectangle that contains every point an index can be mapped to on
+	 * the faces of a node with bounds pBounds. Because the spacing between connection 
+	 * points is at least 10 pixels and the center of a face is snapped to the grid, 
+	 * connection points can fall outside the bounds of a small node, or of a node 
+	 * with a face that is shorter than its bounds.
+	 * 
+	 * @param pBounds The bounds of a node.
+	 * @return A rectangle that contains all the connection points of the node.
+	 * @pre pBounds != null
+	 */
+	public static Rectangle reach(Rectangle pBounds)
+	{
+		assert pBounds != null;
+		// At most 4 increments from the center on North and South faces, and 2 on East and West 
+		// faces, in addition to half a grid cell to account for snapping.
+		int horizontalReach = (NUM_SPACES_NS / 2) * SPACE_INCREMENT + SPACE_INCREMENT / 2;
+		int verticalReach = (NUM_SPACES_EW / 2) * SPACE_INCREMENT + SPACE_INCREMENT / 2;
+		return new Rectangle(pBounds.x() - horizontalReach, pBounds.y() - verticalReach, 
+				pBounds.width() + 2 * horizontalReach, pBounds.height() + 2 * verticalReach);
+	}
+	
 	/*
 	 * Determines the number of pixels in between edge connection points on 
 	 * pNode. This allows the space between NodeIndex connection points
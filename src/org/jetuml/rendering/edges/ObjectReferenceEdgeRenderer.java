@@ -29,6 +29,7 @@ import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.ArrowHead;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.DisplayList;
 import org.jetuml.rendering.LineStyle;
 import org.jetuml.rendering.ToolGraphics;
 
@@ -119,7 +120,7 @@ public final class ObjectReferenceEdgeRenderer extends AbstractEdgeRenderer
 	}
 
 	@Override
-	public void draw(DiagramElement pElement, GraphicsContext pGraphics)
+	public void draw(DiagramElement pElement, DisplayList pGraphics)
 	{
 		Edge edge = (Edge) pElement;
 		ToolGraphics.strokeSharpPath(pGraphics, (Path) getShape(edge), LineStyle.SOLID);
@@ -159,9 +160,11 @@ public final class ObjectReferenceEdgeRenderer extends AbstractEdgeRenderer
 		Canvas canvas = new Canvas(BUTTON_SIZE, BUTTON_SIZE);
 		GraphicsContext graphics = canvas.getGraphicsContext2D();
 		graphics.scale(0.6, 0.6);
+		DisplayList displayList = new DisplayList(graphics);
 		Path path = getCShape(new Line(new Point(5, 5), new Point(15,25)));
-		ToolGraphics.strokeSharpPath(graphics, path, LineStyle.SOLID);
-		ArrowHeadRenderer.draw(graphics, ArrowHead.BLACK_TRIANGLE, new Point(20,25), new Point(15, 25));
+		ToolGraphics.strokeSharpPath(displayList, path, LineStyle.SOLID);
+		ArrowHeadRenderer.draw(displayList, ArrowHead.BLACK_TRIANGLE, new Point(20,25), new Point(15, 25));
+		displayList.replay(graphics);
 		return canvas;
 	}
 }
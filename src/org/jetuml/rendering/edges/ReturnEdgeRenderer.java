@@ -30,6 +30,7 @@ import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.ArrowHead;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.DisplayList;
 import org.jetuml.rendering.LineStyle;
 import org.jetuml.rendering.ToolGraphics;
 
@@ -81,10 +82,12 @@ public final class ReturnEdgeRenderer extends LabeledStraightEdgeRenderer
 		Canvas canvas = new Canvas(BUTTON_SIZE, BUTTON_SIZE);
 		GraphicsContext graphics = canvas.getGraphicsContext2D();
 		canvas.getGraphicsContext2D().scale(scale, scale);
+		DisplayList displayList = new DisplayList(graphics);
 		Path path = new Path();
 		path.getElements().addAll(new MoveTo(1, offset), new LineTo(BUTTON_SIZE*(1/scale)-1, offset));
-		ToolGraphics.strokeSharpPath(graphics, path, LineStyle.DOTTED);
-		ArrowHeadRenderer.draw(graphics, ArrowHead.V, new Point((int)(BUTTON_SIZE*(1/scale)-1), offset), new Point(1, offset));
+		ToolGraphics.strokeSharpPath(displayList, path, LineStyle.DOTTED);
+		ArrowHeadRenderer.draw(displayList, ArrowHead.V, new Point((int)(BUTTON_SIZE*(1/scale)-1), offset), new Point(1, offset));
+		displayList.replay(graphics);
 		return canvas;
 	}
 }
\ No newline at end of file
@@ -32,6 +32,7 @@ import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.ArrowHead;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.DisplayList;
 import org.jetuml.rendering.LineStyle;
 import org.jetuml.rendering.StringRenderer;
 import org.jetuml.rendering.StringRenderer.Alignment;
@@ -75,7 +76,7 @@ public final class StateTransitionEdgeRenderer extends AbstractEdgeRenderer
 	}
 	
 	@Override
-	public void draw(DiagramElement pElement, GraphicsContext pGraphics)
+	public void draw(DiagramElement pElement, DisplayList pGraphics)
 	{
 		Edge edge = (Edge) pElement;
 		if(isSelfEdge(edge))
@@ -91,7 +92,7 @@ public final class StateTransitionEdgeRenderer extends AbstractEdgeRenderer
 		drawArrowHead(edge, pGraphics);
 	}
 	
-	private void drawArrowHead(Edge pEdge, GraphicsContext pGraphics)
+	private void drawArrowHead(Edge pEdge, DisplayList pGraphics)
 	{
 		if( isSelfEdge(pEdge) )
 		{
@@ -116,16 +117,16 @@ public final class StateTransitionEdgeRenderer extends AbstractEdgeRenderer
 	
 	/*
 	 *  Draws the label.
-	 *  @param pGraphics2D the graphics context
+	 *  @param pGraphics the display list
 	 */
-	private void drawLabel(StateTransitionEdge pEdge, GraphicsContext pGraphics)
+	private void drawLabel(StateTransitionEdge pEdge, DisplayList pGraphics)
 	{
 		String label = wrapLabel(pEdge);
 		Rectangle labelBounds = getLabelBounds(pEdge);
 		STRING_VIEWER.draw(label, pGraphics, labelBounds);
 	}
 	
-	private void drawSelfEdge(Edge pEdge, GraphicsContext pGraphics)
+	private void drawSelfEdge(Edge pEdge, DisplayList pGraphics)
 	{
 		Arc arc = (Arc) getShape(pEdge);
 		double width = pGraphics.getLineWidth();
@@ -435,6 +436,7 @@ public final class StateTransitionEdgeRenderer extends AbstractEdgeRenderer
 		Canvas canvas = new Canvas(BUTTON_SIZE, BUTTON_SIZE);
 		GraphicsContext graphics = canvas.getGraphicsContext2D();
 		graphics.scale(0.6, 0.6);
+		DisplayList displayList = new DisplayList(graphics);
 		Line line = new Line(new Point(2,2), new Point(40,40));
 		final double tangent = Math.tan(Math.toRadians(DEGREES_10));
 		double dx = (line.x2() - line.x1()) / 2;
@@ -447,8 +449,9 @@ public final class StateTransitionEdgeRenderer extends AbstractEdgeRenderer
 		QuadCurveTo curveTo = new QuadCurveTo(control.x(), control.y(), line.point2().x(), line.point2().y());
 		path.getElements().addAll(moveTo, curveTo);
 		
-		ToolGraphics.strokeSharpPath(graphics, path, LineStyle.SOLID);
-		ArrowHeadRenderer.draw(graphics, ArrowHead.V, control, new Point(40, 40));
+		ToolGraphics.strokeSharpPath(displayList, path, LineStyle.SOLID);
+		ArrowHeadRenderer.draw(displayList, ArrowHead.V, control, new Point(40, 40));
+		displayList.replay(graphics);
 		return canvas;
 	}
 }
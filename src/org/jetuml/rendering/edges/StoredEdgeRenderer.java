@@ -42,6 +42,7 @@ import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.ArrowHead;
 import org.jetuml.rendering.ClassDiagramRenderer;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.DisplayList;
 import org.jetuml.rendering.EdgePath;
 import org.jetuml.rendering.EdgePriority;
 import org.jetuml.rendering.LineStyle;
@@ -201,13 +202,13 @@ public class StoredEdgeRenderer extends AbstractEdgeRenderer
 	/*
 	 * Draws a label for an edge.
 	 * 
-	 * @param pGraphics the graphics context
+	 * @param pGraphics the display list
 	 * @param pEndPoint1 an endpoint of the segment along which to draw the string
 	 * @param pEndPoint2 the other endpoint of the segment along which to draw the string
 	 * @param pString the string to draw 
 	 * @param pCenter true if the string should be centered along the segment
 	 */
-	private static void drawLabel(GraphicsContext pGraphics, Line pSegment, 
+	private static void drawLabel(DisplayList pGraphics, Line pSegment, 
 			ArrowHead pArrowHead, String pString, boolean pCenter, boolean pIsStepUp)
 	{
 		if(pString == null || pString.length() == 0)
@@ -409,7 +410,7 @@ public class StoredEdgeRenderer extends AbstractEdgeRenderer
 	}
 
 	@Override
-	public void draw(DiagramElement pElement, GraphicsContext pGraphics) 
+	public void draw(DiagramElement pElement, DisplayList pGraphics) 
 	{
 		assert pElement !=null && pGraphics != null;
 		Edge edge = (Edge) pElement;
@@ -453,14 +454,16 @@ public class StoredEdgeRenderer extends AbstractEdgeRenderer
 	{
 		Edge edge = (Edge)pElement;
 		Canvas canvas = new Canvas(BUTTON_SIZE, BUTTON_SIZE);
+		DisplayList displayList = new DisplayList(canvas.getGraphicsContext2D());
 		Path path = new Path();
 		path.getElements().addAll(new MoveTo(OFFSET, OFFSET), new LineTo(BUTTON_SIZE-OFFSET, BUTTON_SIZE-OFFSET));
-		ToolGraphics.strokeSharpPath(canvas.getGraphicsContext2D(), path, getLineStyle(edge));
+		ToolGraphics.strokeSharpPath(displayList, path, getLineStyle(edge));
 		
-		ArrowHeadRenderer.draw(canvas.getGraphicsContext2D(), getArrowEnd(edge), 
+		ArrowHeadRenderer.draw(displayList, getArrowEnd(edge), 
 				new Point(OFFSET, OFFSET), new Point(BUTTON_SIZE-OFFSET, BUTTON_SIZE - OFFSET));
-		ArrowHeadRenderer.draw(canvas.getGraphicsContext2D(), getArrowStart(edge), 
+		ArrowHeadRenderer.draw(displayList, getArrowStart(edge), 
 				new Point(BUTTON_SIZE-OFFSET, BUTTON_SIZE - OFFSET), new Point(OFFSET, OFFSET));
+		displayList.replay(canvas.getGraphicsContext2D());
 		return canvas;
 	}
 
@@ -503,14 +506,20 @@ public class StoredEdgeRenderer extends AbstractEdgeRenderer
 	}
 	
 	/**
-	 * Gets the EdgePath of pEdge from EdgeStorage.
+	 * Gets the EdgePath of pEdge from EdgeStorage. An edge that was not laid out yet,
+	 * because its layout is computed in the background, is laid out first.
 	 * @param pEdge the edge of interest
 	 * @return the EdgePath of pEdge from storage
-	 * @pre pEdge is present in EdgeStorage
 	 */
 	private EdgePath getStoredEdgePath(Edge pEdge)
 	{
-		Optional<EdgePath> edgePath = ((ClassDiagramRenderer)parent()).getStoredEdgePath(pEdge);
+		ClassDiagramRenderer parent = (ClassDiagramRenderer) parent();
+		Optional<EdgePath> edgePath = parent.getStoredEdgePath(pEdge);
+		if( edgePath.isEmpty() )
+		{
+			parent.incrementalLayout();
+			edgePath = parent.getStoredEdgePath(pEdge);
+		}
 		assert edgePath.isPresent();
 		return edgePath.get();
 	}
@@ -28,11 +28,11 @@ import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.ArrowHead;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.DisplayList;
 import org.jetuml.rendering.LineStyle;
 import org.jetuml.rendering.ToolGraphics;
 
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.shape.LineTo;
 import javafx.scene.shape.MoveTo;
 import javafx.scene.shape.Path;
@@ -62,7 +62,7 @@ public class StraightEdgeRenderer extends AbstractEdgeRenderer
 	}
 	
 	@Override
-	public void draw(DiagramElement pElement, GraphicsContext pGraphics)
+	public void draw(DiagramElement pElement, DisplayList pGraphics)
 	{
 		Edge edge = (Edge) pElement;
 		Path shape = (Path) getShape(edge);
@@ -87,11 +87,13 @@ public class StraightEdgeRenderer extends AbstractEdgeRenderer
 	public Canvas createIcon(DiagramType pDiagramType, DiagramElement pElement)
 	{
 		Canvas canvas = new Canvas(BUTTON_SIZE, BUTTON_SIZE);
+		DisplayList displayList = new DisplayList(canvas.getGraphicsContext2D());
 		Path path = new Path();
 		path.getElements().addAll(new MoveTo(OFFSET, OFFSET), new LineTo(BUTTON_SIZE-OFFSET, BUTTON_SIZE-OFFSET));
-		ToolGraphics.strokeSharpPath(canvas.getGraphicsContext2D(), path, aLineStyle);
-		ArrowHeadRenderer.draw(canvas.getGraphicsContext2D(), aArrowHead, 
+		ToolGraphics.strokeSharpPath(displayList, path, aLineStyle);
+		ArrowHeadRenderer.draw(displayList, aArrowHead, 
 				new Point(OFFSET, OFFSET), new Point(BUTTON_SIZE-OFFSET, BUTTON_SIZE - OFFSET));
+		displayList.replay(canvas.getGraphicsContext2D());
 		return canvas;
 	}
 }
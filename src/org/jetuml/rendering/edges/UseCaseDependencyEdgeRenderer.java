@@ -27,6 +27,7 @@ import org.jetuml.diagram.edges.UseCaseDependencyEdge;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.ArrowHead;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.DisplayList;
 import org.jetuml.rendering.LineStyle;
 import org.jetuml.rendering.StringRenderer;
 import org.jetuml.rendering.StringRenderer.Alignment;
@@ -55,8 +56,10 @@ public final class UseCaseDependencyEdgeRenderer extends LabeledStraightEdgeRend
 		Canvas canvas = super.createIcon(pDiagramType, edge);
 		final float scale = 0.75f;
 		canvas.getGraphicsContext2D().scale(scale, scale);
+		DisplayList displayList = new DisplayList(canvas.getGraphicsContext2D());
 		StringRenderer.get(Alignment.CENTER_CENTER, TextDecoration.PADDED).draw(getIconTag(edge), 
-				canvas.getGraphicsContext2D(), new Rectangle(1, BUTTON_SIZE, 1, 1));
+				displayList, new Rectangle(1, BUTTON_SIZE, 1, 1));
+		displayList.replay(canvas.getGraphicsContext2D());
 		return canvas;
 	}
 
@@ -20,6 +20,8 @@
  *******************************************************************************/
 package org.jetuml.rendering.nodes;
 
+import java.util.Optional;
+
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Node;
@@ -29,6 +31,7 @@ import org.jetuml.geom.Line;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.DisplayList;
 import org.jetuml.rendering.Side;
 import org.jetuml.rendering.ToolGraphics;
 
@@ -45,6 +48,7 @@ public abstract class AbstractNodeRenderer implements NodeRenderer
 	public static final int OFFSET = 3;
 	
 	private NodeStorage aNodeStorage = new NodeStorage();
+	private final BoundsCache aBoundsCache = new BoundsCache();
 	private final DiagramRenderer aParent;
 	
 	protected AbstractNodeRenderer(DiagramRenderer pParent)
@@ -101,14 +105,39 @@ public abstract class AbstractNodeRenderer implements NodeRenderer
 		graphics.translate(Math.max((height - width) / 2, 0), Math.max((width - height) / 2, 0));
 		graphics.setFill(Color.WHITE);
 		graphics.setStroke(Color.BLACK);
-		draw(node, canvas.getGraphicsContext2D());
+		DisplayList displayList = new DisplayList(graphics);
+		draw(node, displayList);
+		displayList.replay(graphics);
 		return canvas;
 	}
 	
 	@Override
 	public final Rectangle getBounds(DiagramElement pElement)
 	{
-		return aNodeStorage.getBounds((Node)pElement, this::internalGetBounds);
+		return aNodeStorage.getBounds((Node)pElement, this::cachedBounds);
+	}
+	
+	private Rectangle cachedBounds(Node pNode)
+	{
+		return boundsScope(pNode)
+				.map(scope -> aBoundsCache.getBounds(pNode, scope, this::internalGetBounds))
+				.orElseGet(() -> internalGetBounds(pNode));
+	}
+	
+	/**
+	 * Returns the root of the subtree of nodes whose positions, properties and children
+	 * determine the bounds of pNode. By default, this is pNode itself. The bounds of 
+	 * pNode are cached across paints until one of these inputs changes.
+	 * 
+	 * @param pNode The node whose bounds are computed.
+	 * @return The root of the subtree that determines the bounds of pNode, or empty 
+	 *     if the bounds also depend on elements outside of any subtree that contains 
+	 *     pNode, in which case they are not cached.
+	 * @pre pNode != null
+	 */
+	protected Optional<Node> boundsScope(Node pNode)
+	{
+		return Optional.of(pNode);
 	}
 	
 	@Override
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering.nodes;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+import org.jetuml.application.UserPreferences;
+import org.jetuml.application.UserPreferences.IntegerPreference;
+import org.jetuml.application.UserPreferences.StringPreference;
+import org.jetuml.diagram.Node;
+import org.jetuml.geom.Rectangle;
+
+/**
+ * Stores the bounds of nodes across paints. The bounds of a node are computed
+ * from the nodes of a subtree, called its scope, which contains the node.
+ * Cached bounds are reused until the inputs of the computation change:
+ * the font preferences, or the position, properties or children of any
+ * node in the scope. Because these changes also change the version of the
+ * scope, checking the cached bounds does not require visiting the scope.
+ * The nodes themselves are only weakly referenced, so nodes removed from 
+ * a diagram do not stay in the cache.
+ */
+public class BoundsCache
+{
+	private final Map<Node, CachedBounds> aNodeBounds = new WeakHashMap<>();
+
+	/*
+	 * Versions are unique across elements, so the version of the scope also 
+	 * distinguishes the scopes of a node that moved to a different parent.
+	 */
+	private record CachedBounds(String fontName, int fontSize, long scopeVersion, Rectangle bounds) {}
+
+	/**
+	 * Returns the bounds of a node either from the cache or from the calculator.
+	 *
+	 * @param pNode The node of interest.
+	 * @param pScope The root of the subtree of nodes that determine the bounds of pNode.
+	 * @param pBoundCalculator The bound calculator.
+	 * @return The bounds of pNode.
+	 * @pre pNode != null && pScope != null && pBoundCalculator != null
+	 */
+	public Rectangle getBounds(Node pNode, Node pScope, Function<Node, Rectangle> pBoundCalculator)
+	{
+		assert pNode != null && pScope != null && pBoundCalculator != null;
+		String fontName = UserPreferences.instance().getString(StringPreference.fontName);
+		int fontSize = UserPreferences.instance().getInteger(IntegerPreference.fontSize);
+		CachedBounds cached = aNodeBounds.get(pNode);
+		if( cached == null || cached.scopeVersion() != pScope.version() || cached.fontSize() != fontSize || 
+				!cached.fontName().equals(fontName) )
+		{
+			cached = new CachedBounds(fontName, fontSize, pScope.version(), pBoundCalculator.apply(pNode));
+			aNodeBounds.put(pNode, cached);
+		}
+		return cached.bounds();
+	}
+
+	/**
+	 * Removes all the bounds from the cache.
+	 */
+	public void clear()
+	{
+		aNodeBounds.clear();
+	}
+}
@@ -20,6 +20,8 @@
  *******************************************************************************/
 package org.jetuml.rendering.nodes;
 
+import java.util.Optional;
+
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.Node;
 import org.jetuml.diagram.nodes.CallNode;
@@ -29,11 +31,11 @@ import org.jetuml.geom.Direction;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.DisplayList;
 import org.jetuml.rendering.LineStyle;
 import org.jetuml.rendering.RenderingUtils;
 import org.jetuml.rendering.SequenceDiagramRenderer;
 
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 
 /**
@@ -62,7 +64,7 @@ public final class CallNodeRenderer extends AbstractNodeRenderer
 	}
 	
 	@Override
-	public void draw(DiagramElement pElement, GraphicsContext pGraphics)
+	public void draw(DiagramElement pElement, DisplayList pGraphics)
 	{
 		if(((CallNode)pElement).isOpenBottom())
 		{
@@ -111,6 +113,15 @@ public final class CallNodeRenderer extends AbstractNodeRenderer
 		return lifelineXCoordinate - NESTING_SHIFT_DISTANCE + (NESTING_SHIFT_DISTANCE * nestingDepth);
 	}
 	
+	/*
+	 * The bounds of a call node depend on the calls in the diagram.
+	 */
+	@Override
+	protected Optional<Node> boundsScope(Node pNode)
+	{
+		return Optional.empty();
+	}
+	
 	@Override
 	protected Rectangle internalGetBounds(Node pNode)
 	{
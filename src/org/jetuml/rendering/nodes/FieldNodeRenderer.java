@@ -20,6 +20,8 @@
  *******************************************************************************/
 package org.jetuml.rendering.nodes;
 
+import java.util.Optional;
+
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Node;
@@ -30,6 +32,7 @@ import org.jetuml.geom.Direction;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.DisplayList;
 import org.jetuml.rendering.StringRenderer;
 import org.jetuml.rendering.StringRenderer.Alignment;
 
@@ -71,7 +74,7 @@ public final class FieldNodeRenderer extends AbstractNodeRenderer
 	}
 	
 	@Override
-	public void draw(DiagramElement pElement, GraphicsContext pGraphics)
+	public void draw(DiagramElement pElement, DisplayList pGraphics)
 	{
 		final Rectangle bounds = getBounds(pElement);
 		Node node = (Node) pElement;
@@ -85,6 +88,16 @@ public final class FieldNodeRenderer extends AbstractNodeRenderer
 				pGraphics, new Rectangle(split + midOffset, bounds.y(), rightWidth(node), bounds.height()));
 	}
 	
+	/*
+	 * The name and the value of a field are split where the ones of the 
+	 * other fields of its object are.
+	 */
+	@Override
+	public boolean dependsOnParent(DiagramElement pElement)
+	{
+		return ((Node) pElement).hasParent();
+	}
+	
 	private static int getSplitPosition(Node pNode)
 	{
 		ObjectNode parent = (ObjectNode)pNode.getParent();
@@ -98,6 +111,23 @@ public final class FieldNodeRenderer extends AbstractNodeRenderer
 		}
 	}
 	
+	/*
+	 * The bounds of a field depend on the bounds of its object
+	 * and on the other fields of the object.
+	 */
+	@Override
+	protected Optional<Node> boundsScope(Node pNode)
+	{
+		if( pNode.hasParent() )
+		{
+			return Optional.of(pNode.getParent());
+		}
+		else
+		{
+			return Optional.of(pNode);
+		}
+	}
+	
 	@Override
 	protected Rectangle internalGetBounds(Node pNode)
 	{
@@ -176,8 +206,10 @@ public final class FieldNodeRenderer extends AbstractNodeRenderer
 		graphics.translate(Math.max((height - width) / 2, 0), 0);
 		graphics.setFill(Color.WHITE);
 		graphics.setStroke(Color.BLACK);
-		EQUALS_VIEWER.draw(ICON_LABEL, graphics, 
+		DisplayList displayList = new DisplayList(graphics);
+		EQUALS_VIEWER.draw(ICON_LABEL, displayList, 
 				new Rectangle(0, BUTTON_SIZE/2 - height/2+OFFSET, width, height));
+		displayList.replay(graphics);
 		return canvas;
 	}
 }
@@ -22,6 +22,8 @@ package org.jetuml.rendering.nodes;
 
 import static org.jetuml.geom.GeomUtils.max;
 
+import java.util.Optional;
+
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Node;
@@ -31,6 +33,7 @@ import org.jetuml.geom.Direction;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.DisplayList;
 import org.jetuml.rendering.LineStyle;
 import org.jetuml.rendering.RenderingUtils;
 import org.jetuml.rendering.SequenceDiagramRenderer;
@@ -75,7 +78,7 @@ public final class ImplicitParameterNodeRenderer extends AbstractNodeRenderer
 	}
 	
 	@Override
-	public void draw(DiagramElement pElement, GraphicsContext pGraphics)
+	public void draw(DiagramElement pElement, DisplayList pGraphics)
 	{
 		Rectangle top = getTopRectangle((Node)pElement);
 		RenderingUtils.drawRectangle(pGraphics, top);
@@ -153,6 +156,15 @@ public final class ImplicitParameterNodeRenderer extends AbstractNodeRenderer
 				HORIZONTAL_PADDING, DEFAULT_WIDTH)/2 + pNode.position().x();
 	}
 
+	/*
+	 * The bounds of an implicit parameter node depend on the calls in the diagram.
+	 */
+	@Override
+	protected Optional<Node> boundsScope(Node pNode)
+	{
+		return Optional.empty();
+	}
+	
 	@Override
 	protected Rectangle internalGetBounds(Node pNode)
 	{
@@ -178,9 +190,11 @@ public final class ImplicitParameterNodeRenderer extends AbstractNodeRenderer
 		graphics.setFill(Color.WHITE);
 		graphics.setStroke(Color.BLACK);
 		Rectangle top = new Rectangle(0, 0, DEFAULT_WIDTH, TOP_HEIGHT);
-		RenderingUtils.drawRectangle(canvas.getGraphicsContext2D(), top);
+		DisplayList displayList = new DisplayList(graphics);
+		RenderingUtils.drawRectangle(displayList, top);
 		int xmid = DEFAULT_WIDTH/2;
-		RenderingUtils.drawLine(canvas.getGraphicsContext2D(), xmid,  top.maxY(), xmid, height, LineStyle.DOTTED);
+		RenderingUtils.drawLine(displayList, xmid,  top.maxY(), xmid, height, LineStyle.DOTTED);
+		displayList.replay(graphics);
 		return canvas;
 	}
 }
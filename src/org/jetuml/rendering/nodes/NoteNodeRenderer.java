@@ -26,12 +26,12 @@ import org.jetuml.diagram.nodes.NoteNode;
 import org.jetuml.geom.Dimension;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.DisplayList;
 import org.jetuml.rendering.StringRenderer;
 import org.jetuml.rendering.ToolGraphics;
 import org.jetuml.rendering.StringRenderer.Alignment;
 import org.jetuml.rendering.StringRenderer.TextDecoration;
 
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.LineTo;
 import javafx.scene.shape.MoveTo;
@@ -63,7 +63,7 @@ public final class NoteNodeRenderer extends AbstractNodeRenderer
 	}
 	
 	@Override
-	public void draw(DiagramElement pElement, GraphicsContext pGraphics)
+	public void draw(DiagramElement pElement, DisplayList pGraphics)
 	{
 		Node node = (Node) pElement;
 		ToolGraphics.strokeAndFillSharpPath(pGraphics, createNotePath(node), NOTE_COLOR, true);
@@ -88,7 +88,7 @@ public final class NoteNodeRenderer extends AbstractNodeRenderer
 	
 	/**
 	 * Fills in note fold.
-	 * @param pGraphics GraphicsContext in which to fill the fold
+	 * @param pGraphics The display list in which to fill the fold
 	 */
 	private Path createFoldPath(Node pNode)
 	{
@@ -27,6 +27,7 @@ import org.jetuml.diagram.nodes.ObjectNode;
 import org.jetuml.geom.Dimension;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.DisplayList;
 import org.jetuml.rendering.Grid;
 import org.jetuml.rendering.LineStyle;
 import org.jetuml.rendering.RenderingUtils;
@@ -34,8 +35,6 @@ import org.jetuml.rendering.StringRenderer;
 import org.jetuml.rendering.StringRenderer.Alignment;
 import org.jetuml.rendering.StringRenderer.TextDecoration;
 
-import javafx.scene.canvas.GraphicsContext;
-
 /**
  * An object to render an object in an object diagram.
  */
@@ -64,7 +63,7 @@ public final class ObjectNodeRenderer extends AbstractNodeRenderer
 	}
 	
 	@Override
-	public void draw(DiagramElement pElement, GraphicsContext pGraphics)
+	public void draw(DiagramElement pElement, DisplayList pGraphics)
 	{
 		final Rectangle bounds = getBounds(pElement);
 		Node node = (Node) pElement;
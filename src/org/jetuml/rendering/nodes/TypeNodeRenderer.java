@@ -28,14 +28,13 @@ import org.jetuml.diagram.nodes.TypeNode;
 import org.jetuml.geom.Dimension;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.DisplayList;
 import org.jetuml.rendering.LineStyle;
 import org.jetuml.rendering.RenderingUtils;
 import org.jetuml.rendering.StringRenderer;
 import org.jetuml.rendering.StringRenderer.Alignment;
 import org.jetuml.rendering.StringRenderer.TextDecoration;
 
-import javafx.scene.canvas.GraphicsContext;
-
 /**
  * An object to render a class or interface in a class diagram.
  * 
@@ -74,7 +73,7 @@ public class TypeNodeRenderer extends AbstractNodeRenderer
 	}
 	
 	@Override
-	public void draw(DiagramElement pElement, GraphicsContext pGraphics)
+	public void draw(DiagramElement pElement, DisplayList pGraphics)
 	{	
 		assert pElement instanceof TypeNode;
 		TypeNode node = (TypeNode) pElement;
@@ -106,7 +105,7 @@ public class TypeNodeRenderer extends AbstractNodeRenderer
 		}
 	}
 	
-	private void drawName(TypeNode pNode, Rectangle pBounds, int pSplitY, int pNameBoxHeight, GraphicsContext pGraphics)
+	private void drawName(TypeNode pNode, Rectangle pBounds, int pSplitY, int pNameBoxHeight, DisplayList pGraphics)
 	{
 		String name = getNameText(pNode).trim();
 		String[] nameByLine = name.split("\n");
@@ -146,7 +145,7 @@ public class TypeNodeRenderer extends AbstractNodeRenderer
 		}
 	}
 	
-	private static void drawAttribute(TypeNode pNode, Rectangle pBounds, int pSplitY, int pAttributeBoxHeight, GraphicsContext pGraphics)
+	private static void drawAttribute(TypeNode pNode, Rectangle pBounds, int pSplitY, int pAttributeBoxHeight, DisplayList pGraphics)
 	{
 		String attributes = pNode.getAttributes().trim();
 		String[] attributesByLine = attributes.split("\n");
@@ -168,7 +167,7 @@ public class TypeNodeRenderer extends AbstractNodeRenderer
 		}	
 	}
 	
-	private static void drawMethod(TypeNode pNode, Rectangle pBounds, int pSplitY, int pMethodBoxHeight, GraphicsContext pGraphics)
+	private static void drawMethod(TypeNode pNode, Rectangle pBounds, int pSplitY, int pMethodBoxHeight, DisplayList pGraphics)
 	{
 		String methods = pNode.getMethods().trim();
 		String[] methodsByLine = methods.split("\n");
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.jetuml.BatchExporter.Options;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestBatchExporter
+{
+	@TempDir
+	Path aDirectory;
+
+	@Test
+	void testParse_Defaults()
+	{
+		Options options = BatchExporter.parse(new String[] {"a.jet", "docs"});
+		assertEquals("png", options.format());
+		assertEquals(Optional.empty(), options.outputDirectory());
+		assertEquals(Runtime.getRuntime().availableProcessors(), options.threads());
+		assertEquals(List.of("a.jet", "docs"), options.inputs());
+	}
+
+	@Test
+	void testParse_Options()
+	{
+		Options options = BatchExporter.parse(new String[] {"-format", "JPG", "-output", "images", "-threads", "3", "a.jet"});
+		assertEquals("jpg", options.format());
+		assertEquals(Optional.of(new File("images")), options.outputDirectory());
+		assertEquals(3, options.threads());
+		assertEquals(List.of("a.jet"), options.inputs());
+	}
+
+	@Test
+	void testParse_Invalid()
+	{
+		assertThrows(IllegalArgumentException.class, () -> BatchExporter.parse(new String[] {}));
+		assertThrows(IllegalArgumentException.class, () -> BatchExporter.parse(new String[] {"-format", "svg", "a.jet"}));
+		assertThrows(IllegalArgumentException.class, () -> BatchExporter.parse(new String[] {"-threads", "0", "a.jet"}));
+		assertThrows(IllegalArgumentException.class, () -> BatchExporter.parse(new String[] {"-threads", "many", "a.jet"}));
+		assertThrows(IllegalArgumentException.class, () -> BatchExporter.parse(new String[] {"a.jet", "-output"}));
+	}
+
+	@Test
+	void testCollectFiles() throws IOException
+	{
+		File top = createFile("top.jet");
+		File nested = createFile("sub/nested.class.jet");
+		createFile("sub/notes.txt");
+		File other = createFile("other/other.jet");
+
+		assertEquals(List.of(nested, top), BatchExporter.collectFiles(List.of(aDirectory.resolve("sub").toString(), top.getPath())));
+		assertEquals(List.of(other, nested, top), BatchExporter.collectFiles(List.of(aDirectory.toString())));
+		assertEquals(List.of(other, nested), BatchExporter.collectFiles(List.of(aDirectory + File.separator + "*" + File.separator + "*.jet")));
+		assertEquals(List.of(top), BatchExporter.collectFiles(List.of(aDirectory + File.separator + "t*.jet", top.getPath())));
+		assertThrows(IllegalArgumentException.class, () -> BatchExporter.collectFiles(List.of(aDirectory.resolve("missing.jet").toString())));
+	}
+
+	@Test
+	void testOutputFiles() throws IOException
+	{
+		File first = createFile("a/diagram.jet");
+		File second = createFile("b/c/diagram.jet");
+		Options nextToFiles = BatchExporter.parse(new String[] {"a.jet"});
+		assertEquals(List.of(new File(first.getParentFile(), "diagram.png"), new File(second.getParentFile(), "diagram.png")),
+				BatchExporter.outputFiles(List.of(first, second), nextToFiles));
+
+		File images = aDirectory.resolve("images").toFile();
+		Options inDirectory = BatchExporter.parse(new String[] {"-output", images.getPath(), "a.jet"});
+		assertEquals(List.of(new File(images, "a/diagram.png"), new File(images, "b/c/diagram.png")),
+				BatchExporter.outputFiles(List.of(first, second), inDirectory));
+		assertEquals(List.of(new File(images, "diagram.png")), BatchExporter.outputFiles(List.of(second), inDirectory));
+	}
+
+	@Test
+	void testOutputFiles_Collision() throws IOException
+	{
+		File first = createFile("diagram.jet");
+		File second = createFile("diagram");
+		Options options = BatchExporter.parse(new String[] {"a.jet"});
+		assertThrows(IllegalArgumentException.class, () -> BatchExporter.outputFiles(List.of(first, second), options));
+	}
+
+	private File createFile(String pPath) throws IOException
+	{
+		Path path = aDirectory.resolve(pPath);
+		Files.createDirectories(path.getParent());
+		Files.createFile(path);
+		return path.toFile().getAbsoluteFile();
+	}
+}
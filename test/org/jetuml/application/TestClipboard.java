@@ -43,6 +43,7 @@ import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.ElementCopier;
 import org.jetuml.diagram.Node;
 import org.jetuml.diagram.edges.AssociationEdge;
 import org.jetuml.diagram.edges.DependencyEdge;
@@ -71,13 +72,13 @@ public class TestClipboard
 	}
 	
 	@SuppressWarnings("unchecked")
-	private static List<Edge> copyEdges(Iterable<DiagramElement> pSelection)
+	private static List<Edge> copyEdges(ElementCopier pCopier, Iterable<DiagramElement> pSelection)
 	{
 		try
 		{
-			Method method = Clipboard.class.getDeclaredMethod("copyEdges", Iterable.class);
+			Method method = Clipboard.class.getDeclaredMethod("copyEdges", ElementCopier.class, Iterable.class);
 			method.setAccessible(true);
-			return (List<Edge>) method.invoke(null, pSelection);
+			return (List<Edge>) method.invoke(null, pCopier, pSelection);
 		}
 		catch(Exception e)
 		{
@@ -118,13 +119,13 @@ public class TestClipboard
 	@Test
 	void testCopyEdges_Empty()
 	{
-		assertTrue(copyEdges(new ArrayList<>()).isEmpty());
+		assertTrue(copyEdges(new ElementCopier(), new ArrayList<>()).isEmpty());
 	}
 	
 	@Test
 	void testCopyEdges_OnlyNodes()
 	{
-		assertTrue(copyEdges(List.of(aNode1, aNode2)).isEmpty());
+		assertTrue(copyEdges(new ElementCopier(), List.of(aNode1, aNode2)).isEmpty());
 	}
 	
 	@Test
@@ -134,14 +135,27 @@ public class TestClipboard
 		edge1.connect(aNode1, aNode2);
 		Edge edge2 = new AssociationEdge();
 		edge2.connect(aNode2, aNode1);
-		List<Edge> copies = copyEdges(List.of(aNode1, edge1, aNode2, edge2));
+		ElementCopier copier = new ElementCopier();
+		Node copy1 = copier.copy(aNode1);
+		Node copy2 = copier.copy(aNode2);
+		List<Edge> copies = copyEdges(copier, List.of(aNode1, edge1, aNode2, edge2));
 		assertNotSame(edge1, copies.get(0));
 		assertSame(DependencyEdge.class, copies.get(0).getClass());
-		assertSame(aNode1, copies.get(0).start());
-		assertSame(aNode2, copies.get(0).end());
+		assertSame(copy1, copies.get(0).start());
+		assertSame(copy2, copies.get(0).end());
 		assertNotSame(edge2, copies.get(1));
-		assertSame(aNode2, copies.get(1).start());
-		assertSame(aNode1, copies.get(1).end());
+		assertSame(copy2, copies.get(1).start());
+		assertSame(copy1, copies.get(1).end());
+	}
+	
+	@Test
+	void testCopyEdges_Dangling()
+	{
+		Edge edge = new DependencyEdge();
+		edge.connect(aNode1, aNode2);
+		ElementCopier copier = new ElementCopier();
+		copier.copy(aNode1);
+		assertTrue(copyEdges(copier, List.of(aNode1, edge)).isEmpty());
 	}
 	
 	@Test
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Measures the average duration and allocation of an operation. The operation
+ * is first run during a number of warm-up iterations, then during a number
+ * of measurement iterations. Each iteration repeats the operation until it has
+ * run for a minimum amount of time, so that short operations are timed in batches.
+ * Allocations are those of the current thread, as reported by the JVM.
+ *
+ * The management API of the JVM is used reflectively, so that the jetuml module
+ * does not require the jdk.management module only for the benchmarks. When the
+ * benchmarks run on the module path, this module must be added with
+ * --add-modules=jdk.management.
+ */
+public final class BenchmarkRunner
+{
+	private static final long NANOS_PER_MILLI = 1_000_000L;
+	private static final String MANAGEMENT_FACTORY = "java.lang.management.ManagementFactory";
+	private static final String THREAD_BEAN = "com.sun.management.ThreadMXBean";
+	private static final String COLLECTOR_BEAN = "java.lang.management.GarbageCollectorMXBean";
+	private static final Object THREADS = invoke(MANAGEMENT_FACTORY, "getThreadMXBean", null);
+
+	private final int aWarmupIterations;
+	private final int aMeasurementIterations;
+	private final long aMinimumIterationTime;
+	
+	// Keeps the results of the operations reachable, so that they are not optimized away
+	private static volatile int sink;
+
+	/**
+	 * An operation to measure.
+	 */
+	public interface Operation
+	{
+		/**
+		 * Runs the operation once.
+		 *
+		 * @return A value computed by the operation, so that the work is not optimized away.
+		 * @throws Exception If the operation fails.
+		 */
+		Object run() throws Exception;
+	}
+
+	/**
+	 * The measurements for one operation.
+	 *
+	 * @param nanosPerOperation The average duration of the operation, in nanoseconds.
+	 * @param bytesPerOperation The average number of bytes allocated by the operation.
+	 * @param collections The number of garbage collections during the measurement iterations.
+	 */
+	public record Result(double nanosPerOperation, double bytesPerOperation, long collections)
+	{
+		/**
+		 * @return The allocation rate, in megabytes per second.
+		 */
+		public double allocationRate()
+		{
+			return bytesPerOperation / nanosPerOperation * 1000;
+		}
+	}
+
+	/**
+	 * @param pWarmupIterations The number of iterations whose measurements are discarded.
+	 * @param pMeasurementIterations The number of iterations whose measurements are averaged.
+	 * @param pMinimumIterationTime The minimum duration of an iteration, in milliseconds.
+	 * @pre pWarmupIterations >= 0 && pMeasurementIterations > 0 && pMinimumIterationTime >= 0
+	 */
+	public BenchmarkRunner(int pWarmupIterations, int pMeasurementIterations, int pMinimumIterationTime)
+	{
+		assert pWarmupIterations >= 0 && pMeasurementIterations > 0 && pMinimumIterationTime >= 0;
+		assert (boolean) invoke(THREAD_BEAN, "isThreadAllocatedMemorySupported", THREADS);
+		aWarmupIterations = pWarmupIterations;
+		aMeasurementIterations = pMeasurementIterations;
+		aMinimumIterationTime = pMinimumIterationTime * NANOS_PER_MILLI;
+	}
+
+	/**
+	 * @param pOperation The operation to measure.
+	 * @return The measurements for pOperation.
+	 * @throws Exception If the operation fails.
+	 * @pre pOperation != null
+	 */
+	public Result measure(Operation pOperation) throws Exception
+	{
+		assert pOperation != null;
+		for( int i = 0; i < aWarmupIterations; i++ )
+		{
+			runIteration(pOperation);
+		}
+		invoke(THREAD_BEAN, "setThreadAllocatedMemoryEnabled", THREADS, true);
+		long collections = totalCollections();
+		long bytes = allocatedBytes();
+		long nanos = 0;
+		long operations = 0;
+		for( int i = 0; i < aMeasurementIterations; i++ )
+		{
+			long start = System.nanoTime();
+			operations += runIteration(pOperation);
+			nanos += System.nanoTime() - start;
+		}
+		bytes = allocatedBytes() - bytes;
+		collections = totalCollections() - collections;
+		return new Result((double) nanos / operations, (double) bytes / operations, collections);
+	}
+
+	/*
+	 * @return The number of times the operation was run.
+	 */
+	private long runIteration(Operation pOperation) throws Exception
+	{
+		long start = System.nanoTime();
+		long operations = 0;
+		do
+		{
+			consume(pOperation.run());
+			operations++;
+		}
+		while( System.nanoTime() - start < aMinimumIterationTime );
+		return operations;
+	}
+
+	private static long allocatedBytes()
+	{
+		return (long) invoke(THREAD_BEAN, "getCurrentThreadAllocatedBytes", THREADS);
+	}
+
+	private static long totalCollections()
+	{
+		long result = 0;
+		for( Object collector : (List<?>) invoke(MANAGEMENT_FACTORY, "getGarbageCollectorMXBeans", null) )
+		{
+			result += Math.max(0, (long) invoke(COLLECTOR_BEAN, "getCollectionCount", collector));
+		}
+		return result;
+	}
+
+	/*
+	 * Calls the public method pMethodName of the class pClassName on pTarget, 
+	 * or statically if pTarget is null.
+	 */
+	private static Object invoke(String pClassName, String pMethodName, Object pTarget, Object... pArguments)
+	{
+		try
+		{
+			for( Method method : Class.forName(pClassName).getMethods() )
+			{
+				if( method.getName().equals(pMethodName) && method.getParameterCount() == pArguments.length )
+				{
+					return method.invoke(pTarget, pArguments);
+				}
+			}
+			throw new IllegalStateException("No method " + pMethodName + " in " + pClassName);
+		}
+		catch(ClassNotFoundException | IllegalAccessException | InvocationTargetException exception)
+		{
+			throw new IllegalStateException("The management API of the JVM is not available. "
+					+ "Run the benchmarks with --add-modules=jdk.management", exception);
+		}
+	}
+
+	private static void consume(Object pResult)
+	{
+		sink += System.identityHashCode(pResult);
+	}
+}
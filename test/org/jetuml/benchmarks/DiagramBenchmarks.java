@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetuml.JavaFXLoader;
+import org.jetuml.application.Clipboard;
+import org.jetuml.benchmarks.BenchmarkRunner.Operation;
+import org.jetuml.benchmarks.BenchmarkRunner.Result;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Node;
+import org.jetuml.geom.Point;
+import org.jetuml.geom.Rectangle;
+import org.jetuml.persistence.PersistenceService;
+import org.jetuml.rendering.ClassDiagramRenderer;
+import org.jetuml.rendering.DiagramRenderer;
+
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * Measures the main operations on generated diagrams of every type and of
+ * increasing size, and reports their duration and allocation rate,
+ * so that performance regressions show up. The benchmarks are:
+ *
+ * - draw: DiagramRenderer.draw on a canvas;
+ * - layout: ClassDiagramRenderer.layout for class diagrams, and the computation
+ *   of the positions of call nodes by a new renderer for sequence diagrams;
+ * - read and save: PersistenceService.read and PersistenceService.save;
+ * - nodeAt and edgeAt: hit testing at points spread over the diagram;
+ * - validate: a run of the validator for the diagram type;
+ * - duplicate: Diagram.duplicate;
+ * - copy and paste: copying all the root nodes and edges of the diagram into
+ *   the clipboard, and getting clones of the elements of the clipboard.
+ *
+ * Usage: DiagramBenchmarks [--types=CLASS,SEQUENCE,...] [--sizes=100,1000,10000]
+ * [--benchmarks=draw,layout,...] [--warmup=N] [--iterations=N] [--time=MILLISECONDS] [--seed=N]
+ *
+ * On the module path, the JVM also needs --add-modules=jdk.management (see BenchmarkRunner).
+ *
+ * For example, DiagramBenchmarks --types=CLASS --sizes=40000 --benchmarks=validate
+ * validates a class diagram with about 20000 edges, half of the elements of
+ * generated class diagrams being edges.
+ */
+public final class DiagramBenchmarks
+{
+	private static final int NUMBER_OF_PROBES = 256;
+	private static final String[] BENCHMARKS = {"draw", "layout", "read", "save", "nodeAt", "edgeAt", "validate",
+			"duplicate", "copy", "paste"};
+
+	private DiagramBenchmarks() {}
+
+	/**
+	 * Runs the benchmarks.
+	 *
+	 * @param pArgs See the class comment.
+	 * @throws Exception If a benchmark fails.
+	 */
+	public static void main(String[] pArgs) throws Exception
+	{
+		JavaFXLoader.load();
+		Map<String, String> options = parseOptions(pArgs);
+		DiagramGenerator generator = new DiagramGenerator(Long.parseLong(options.getOrDefault("seed", "0")));
+		List<String> benchmarks = Arrays.asList(options.getOrDefault("benchmarks", String.join(",", BENCHMARKS)).split(","));
+		BenchmarkRunner runner = new BenchmarkRunner(
+				Integer.parseInt(options.getOrDefault("warmup", "3")),
+				Integer.parseInt(options.getOrDefault("iterations", "5")),
+				Integer.parseInt(options.getOrDefault("time", "200")));
+
+		System.out.println(String.format("%-9s %6s %-9s %14s %14s %10s %5s",
+				"Type", "Size", "Benchmark", "us/op", "bytes/op", "MB/s", "GCs"));
+		for( DiagramType type : parseTypes(options) )
+		{
+			for( String size : options.getOrDefault("sizes", "100,1000,10000").split(",") )
+			{
+				Diagram diagram = generator.generate(type, Integer.parseInt(size));
+				for( String benchmark : benchmarks )
+				{
+					Operation operation = createOperation(benchmark, diagram);
+					if( operation != null )
+					{
+						Result result = runner.measure(operation);
+						System.out.println(String.format("%-9s %6s %-9s %14.1f %14.0f %10.1f %5d",
+								type, size, benchmark, result.nanosPerOperation() / 1000,
+								result.bytesPerOperation(), result.allocationRate(), result.collections()));
+					}
+				}
+			}
+		}
+		Platform.exit();
+	}
+
+	/*
+	 * @return The values of the options in pArgs, which are of the form --option=value, by option.
+	 */
+	static Map<String, String> parseOptions(String[] pArgs)
+	{
+		Map<String, String> options = new LinkedHashMap<>();
+		for( String argument : pArgs )
+		{
+			if( !argument.startsWith("--") || !argument.contains("=") )
+			{
+				throw new IllegalArgumentException("Expected --option=value but got " + argument);
+			}
+			options.put(argument.substring(2, argument.indexOf('=')), argument.substring(argument.indexOf('=') + 1));
+		}
+		return options;
+	}
+
+	/*
+	 * @return The diagram types in the types option, or all types if the option is absent.
+	 */
+	static List<DiagramType> parseTypes(Map<String, String> pOptions)
+	{
+		List<DiagramType> types = new ArrayList<>();
+		for( String name : pOptions.getOrDefault("types", "CLASS,SEQUENCE,STATE,OBJECT,USECASE").split(",") )
+		{
+			types.add(DiagramType.valueOf(name));
+		}
+		return types;
+	}
+
+	/*
+	 * @return The operation for benchmark pName on pDiagram, or null if
+	 * the benchmark does not apply to this type of diagram.
+	 */
+	private static Operation createOperation(String pName, Diagram pDiagram) throws Exception
+	{
+		DiagramRenderer renderer = DiagramType.newRendererInstanceFor(pDiagram);
+		Rectangle bounds = renderer.getBounds();
+		if( pName.equals("draw") )
+		{
+			Canvas canvas = new Canvas(bounds.maxX(), bounds.maxY());
+			GraphicsContext graphics = canvas.getGraphicsContext2D();
+			return () ->
+			{
+				// Clearing the whole canvas discards the drawing commands buffered so far
+				graphics.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+				renderer.draw(graphics);
+				return graphics;
+			};
+		}
+		else if( pName.equals("layout") && renderer instanceof ClassDiagramRenderer classRenderer )
+		{
+			return () ->
+			{
+				classRenderer.layout();
+				return classRenderer;
+			};
+		}
+		else if( pName.equals("layout") && pDiagram.getType() == DiagramType.SEQUENCE )
+		{
+			return () -> DiagramType.newRendererInstanceFor(pDiagram).getBounds();
+		}
+		else if( pName.equals("read") )
+		{
+			File file = temporaryFile(pDiagram);
+			PersistenceService.save(pDiagram, file);
+			return () -> PersistenceService.read(file);
+		}
+		else if( pName.equals("save") )
+		{
+			File file = temporaryFile(pDiagram);
+			return () ->
+			{
+				PersistenceService.save(pDiagram, file);
+				return file;
+			};
+		}
+		else if( pName.equals("nodeAt") )
+		{
+			Point[] probes = probes(pDiagram);
+			int[] next = {0};
+			return () -> renderer.nodeAt(probes[next[0]++ % probes.length]);
+		}
+		else if( pName.equals("edgeAt") )
+		{
+			Point[] probes = probes(pDiagram);
+			int[] next = {0};
+			return () -> renderer.edgeAt(probes[next[0]++ % probes.length]);
+		}
+		else if( pName.equals("validate") )
+		{
+			return () -> DiagramType.newValidatorInstanceFor(pDiagram).validate();
+		}
+		else if( pName.equals("duplicate") )
+		{
+			return pDiagram::duplicate;
+		}
+		else if( pName.equals("copy") )
+		{
+			List<DiagramElement> selection = selection(pDiagram);
+			return () ->
+			{
+				Clipboard.instance().copy(selection);
+				return Clipboard.instance();
+			};
+		}
+		else if( pName.equals("paste") )
+		{
+			Clipboard.instance().copy(selection(pDiagram));
+			return () -> Clipboard.instance().getElements();
+		}
+		return null;
+	}
+
+	/*
+	 * The root nodes and edges of pDiagram, which are the elements selected
+	 * when selecting everything in the editor.
+	 */
+	private static List<DiagramElement> selection(Diagram pDiagram)
+	{
+		List<DiagramElement> selection = new ArrayList<>(pDiagram.rootNodes());
+		selection.addAll(pDiagram.edges());
+		return selection;
+	}
+
+	private static File temporaryFile(Diagram pDiagram) throws Exception
+	{
+		File file = File.createTempFile("benchmark", pDiagram.getFileExtension() + ".jet");
+		file.deleteOnExit();
+		return file;
+	}
+
+	/*
+	 * Points near the positions of nodes spread over the whole diagram,
+	 * so that some probes hit an element and others do not.
+	 */
+	private static Point[] probes(Diagram pDiagram)
+	{
+		List<Node> nodes = pDiagram.allNodes();
+		Point[] probes = new Point[NUMBER_OF_PROBES];
+		for( int i = 0; i < probes.length; i++ )
+		{
+			Point position = nodes.get(i * nodes.size() / probes.length).position();
+			probes[i] = new Point(position.x() + i % 2 * 10, position.y() + i % 3 * 20);
+		}
+		return probes;
+	}
+}
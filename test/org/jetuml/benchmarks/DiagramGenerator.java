@@ -0,0 +1,775 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.StringJoiner;
+
+import org.jetuml.JavaFXLoader;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.builder.DiagramBuilder;
+import org.jetuml.diagram.edges.AggregationEdge;
+import org.jetuml.diagram.edges.AssociationEdge;
+import org.jetuml.diagram.edges.CallEdge;
+import org.jetuml.diagram.edges.ConstructorEdge;
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.edges.GeneralizationEdge;
+import org.jetuml.diagram.edges.NoteEdge;
+import org.jetuml.diagram.edges.ObjectCollaborationEdge;
+import org.jetuml.diagram.edges.ObjectReferenceEdge;
+import org.jetuml.diagram.edges.ReturnEdge;
+import org.jetuml.diagram.edges.StateTransitionEdge;
+import org.jetuml.diagram.edges.UseCaseAssociationEdge;
+import org.jetuml.diagram.edges.UseCaseDependencyEdge;
+import org.jetuml.diagram.edges.UseCaseGeneralizationEdge;
+import org.jetuml.diagram.nodes.ActorNode;
+import org.jetuml.diagram.nodes.CallNode;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.diagram.nodes.FieldNode;
+import org.jetuml.diagram.nodes.FinalStateNode;
+import org.jetuml.diagram.nodes.ImplicitParameterNode;
+import org.jetuml.diagram.nodes.InitialStateNode;
+import org.jetuml.diagram.nodes.InterfaceNode;
+import org.jetuml.diagram.nodes.NoteNode;
+import org.jetuml.diagram.nodes.ObjectNode;
+import org.jetuml.diagram.nodes.PackageDescriptionNode;
+import org.jetuml.diagram.nodes.PackageNode;
+import org.jetuml.diagram.nodes.PointNode;
+import org.jetuml.diagram.nodes.StateNode;
+import org.jetuml.diagram.nodes.TypeNode;
+import org.jetuml.diagram.nodes.UseCaseNode;
+import org.jetuml.diagram.validator.Violation;
+import org.jetuml.geom.Dimension;
+import org.jetuml.geom.Point;
+import org.jetuml.persistence.PersistenceService;
+
+import javafx.application.Platform;
+
+/**
+ * Generates valid diagrams of every type and of a requested number of elements,
+ * for benchmarking and load testing. The diagrams are random, but two generators
+ * created with the same seed generate the same sequence of diagrams.
+ *
+ * The elements are added through the builder of each diagram type: root nodes with
+ * createAddNodeOperation, and edges with createAddElementsOperation. The children of
+ * packages, objects, and implicit parameters are attached to their parent before the
+ * parent is added, because locating a parent from a point requires hit testing, which
+ * would make the generation time quadratic in the size of the diagram. The structure of
+ * the generated diagrams respects the constraints of the validator of their type:
+ *
+ * - class diagrams have nested packages, classes, interfaces, package descriptions,
+ *   and at most one dependency, generalization, association, or aggregation between two types;
+ * - sequence diagrams have a single call tree up to MAX_CALL_DEPTH calls deep, with
+ *   self calls, constructor calls, and returns to the caller;
+ * - state diagrams have one initial state, final states, and at most two transitions
+ *   between two states;
+ * - object diagrams have objects with up to MAX_FIELDS fields, references from fields
+ *   to objects, and collaborations between objects;
+ * - use case diagrams have actors and use cases, linked by associations, generalizations,
+ *   and dependencies.
+ *
+ * Every diagram also has notes, attached to a node or to a point.
+ *
+ * Usage: DiagramGenerator [--output=DIRECTORY] [--types=CLASS,SEQUENCE,...]
+ * [--sizes=100,1000,10000] [--count=N] [--seed=N]
+ */
+public final class DiagramGenerator
+{
+	private static final Dimension CANVAS_DIMENSION = new Dimension(Integer.MAX_VALUE / 2, Integer.MAX_VALUE / 2);
+	private static final int COLUMNS = 20;
+	private static final int CELL_WIDTH = 220;
+	private static final int CELL_HEIGHT = 240;
+	private static final int PACKAGE_PADDING = 30;
+	private static final int PACKAGE_TOP = 60;
+	private static final int PACKAGE_ROW_WIDTH = 3 * CELL_WIDTH;
+	private static final int MAX_PACKAGE_DEPTH = 3;
+	private static final int TYPES_PER_PACKAGE = 8;
+	private static final int MAX_CALL_DEPTH = 30;
+	private static final int CALLS_PER_LIFELINE = 25;
+	private static final int MAX_LIFELINES = 60;
+	private static final int MAX_FIELDS = 6;
+	private static final int NODES_PER_ACTOR = 10;
+	private static final int ELEMENTS_PER_NOTE = 100;
+	private static final int ELEMENTS_PER_OBJECT = 6;
+	// The maximum distance between the positions, in the list of nodes, of two nodes connected by a random edge
+	private static final int LOCALITY = 30;
+	// Each note adds up to a note, an edge, and a point
+	private static final int ELEMENTS_FOR_NOTE = 3;
+
+	private final Random aRandom;
+
+	/**
+	 * @param pSeed The seed of the random number generator.
+	 */
+	public DiagramGenerator(long pSeed)
+	{
+		aRandom = new Random(pSeed);
+	}
+
+	/**
+	 * Generates a diagram. The number of elements of the diagram, that is its
+	 * nodes, including child nodes, and its edges, is close to pNumberOfElements.
+	 *
+	 * @param pType The type of diagram to generate.
+	 * @param pNumberOfElements The approximate number of elements in the diagram.
+	 * @return A new valid diagram of type pType.
+	 * @pre pType != null && pNumberOfElements >= ELEMENTS_PER_NOTE / 10
+	 */
+	public Diagram generate(DiagramType pType, int pNumberOfElements)
+	{
+		assert pType != null && pNumberOfElements >= ELEMENTS_PER_NOTE / 10;
+		DiagramBuilder builder = DiagramType.newBuilderInstanceFor(new Diagram(pType));
+		builder.setCanvasDimension(CANVAS_DIMENSION);
+		List<DiagramElement> edges = new ArrayList<>();
+		if( pType == DiagramType.CLASS )
+		{
+			generateClassDiagram(builder, edges, pNumberOfElements);
+		}
+		else if( pType == DiagramType.SEQUENCE )
+		{
+			generateSequenceDiagram(builder, edges, pNumberOfElements);
+		}
+		else if( pType == DiagramType.STATE )
+		{
+			generateStateDiagram(builder, edges, pNumberOfElements);
+		}
+		else if( pType == DiagramType.OBJECT )
+		{
+			generateObjectDiagram(builder, edges, pNumberOfElements);
+		}
+		else
+		{
+			generateUseCaseDiagram(builder, edges, pNumberOfElements);
+		}
+		builder.createAddElementsOperation(edges).execute();
+		return builder.diagram();
+	}
+
+	/**
+	 * Writes a corpus of generated diagrams.
+	 *
+	 * @param pArgs See the class comment.
+	 * @throws IOException If a diagram cannot be written.
+	 */
+	public static void main(String[] pArgs) throws IOException
+	{
+		JavaFXLoader.load();
+		Map<String, String> options = DiagramBenchmarks.parseOptions(pArgs);
+		File output = new File(options.getOrDefault("output", "corpus"));
+		if( !output.isDirectory() && !output.mkdirs() )
+		{
+			throw new IOException("Cannot create directory " + output);
+		}
+		int count = Integer.parseInt(options.getOrDefault("count", "1"));
+		DiagramGenerator generator = new DiagramGenerator(Long.parseLong(options.getOrDefault("seed", "0")));
+		for( DiagramType type : DiagramBenchmarks.parseTypes(options) )
+		{
+			for( String size : options.getOrDefault("sizes", "100,1000,10000").split(",") )
+			{
+				for( int i = 0; i < count; i++ )
+				{
+					Diagram diagram = generator.generate(type, Integer.parseInt(size));
+					Optional<Violation> violation = DiagramType.newValidatorInstanceFor(diagram).validate();
+					if( violation.isPresent() )
+					{
+						throw new IllegalStateException("Generated an invalid diagram: " + violation.get());
+					}
+					File file = new File(output, String.format("%s-%s-%d%s.jet",
+							type.name().toLowerCase(), size, i, type.getFileExtension()));
+					PersistenceService.save(diagram, file);
+					System.out.println(String.format("%s: %d nodes, %d edges", file,
+							diagram.allNodes().size(), diagram.edges().size()));
+				}
+			}
+		}
+		Platform.exit();
+	}
+
+	/*
+	 * Packages form a forest, and each type is either a root node or in a package.
+	 * All edges are between types, and there is at most one edge between two types,
+	 * so there can be no cycle of two edges of the same type.
+	 */
+	private void generateClassDiagram(DiagramBuilder pBuilder, List<DiagramElement> pEdges, int pNumberOfElements)
+	{
+		List<Node> roots = new ArrayList<>();
+		int numberOfTypes = pNumberOfElements * 2 / 5;
+		List<PackageNode> packages = new ArrayList<>();
+		for( int i = 0; i < Math.max(1, numberOfTypes / TYPES_PER_PACKAGE); i++ )
+		{
+			PackageNode node = new PackageNode();
+			node.setName("package" + i);
+			PackageNode parent = i == 0 || aRandom.nextBoolean() ? null : packages.get(aRandom.nextInt(i));
+			if( parent != null && depth(parent) < MAX_PACKAGE_DEPTH )
+			{
+				parent.addChild(node);
+			}
+			else
+			{
+				roots.add(node);
+			}
+			packages.add(node);
+		}
+		List<TypeNode> types = new ArrayList<>();
+		for( int i = 0; i < numberOfTypes; i++ )
+		{
+			TypeNode type = createType(i);
+			if( aRandom.nextInt(4) == 0 )
+			{
+				roots.add(type);
+			}
+			else
+			{
+				packages.get(aRandom.nextInt(packages.size())).addChild(type);
+			}
+			types.add(type);
+		}
+		int numberOfDescriptions = Math.max(1, pNumberOfElements / (2 * ELEMENTS_PER_NOTE));
+		for( int i = 0; i < numberOfDescriptions; i++ )
+		{
+			PackageDescriptionNode node = new PackageDescriptionNode();
+			node.setName("description" + i);
+			node.setContents("Contents of package " + i);
+			roots.add(node);
+		}
+		int x = 0;
+		int y = 0;
+		int rowHeight = 0;
+		for( Node root : roots )
+		{
+			Dimension extent = layOut(root, 0, 0);
+			if( x > 0 && x + extent.width() > COLUMNS * CELL_WIDTH )
+			{
+				x = 0;
+				y += rowHeight;
+				rowHeight = 0;
+			}
+			addRootNode(pBuilder, root, new Point(x, y));
+			x += extent.width();
+			rowHeight = Math.max(rowHeight, extent.height());
+		}
+		int numberOfNotes = numberOfNotes(pNumberOfElements);
+		int numberOfEdges = pNumberOfElements - numberOfTypes - packages.size() - numberOfDescriptions -
+				ELEMENTS_FOR_NOTE * numberOfNotes;
+		Set<Long> pairs = new HashSet<>();
+		for( int i = 0; i < 4 * numberOfEdges && pEdges.size() < numberOfEdges; i++ )
+		{
+			int first = aRandom.nextInt(numberOfTypes - 1);
+			int second = partner(first, numberOfTypes);
+			if( pairs.add(pair(first, second)) )
+			{
+				pEdges.add(createClassEdge(types.get(first), types.get(second)));
+			}
+		}
+		addNotes(pBuilder, pEdges, types, numberOfNotes, COLUMNS * CELL_WIDTH);
+	}
+
+	private TypeNode createType(int pIndex)
+	{
+		if( aRandom.nextInt(5) == 0 )
+		{
+			InterfaceNode node = new InterfaceNode();
+			node.setName("Interface" + pIndex);
+			node.setMethods(members("+ operation", "()"));
+			return node;
+		}
+		ClassNode node = new ClassNode();
+		node.setName("Class" + pIndex);
+		node.setAttributes(members("- field", " : int"));
+		node.setMethods(members("+ method", "()"));
+		return node;
+	}
+
+	private String members(String pPrefix, String pSuffix)
+	{
+		StringJoiner result = new StringJoiner("\n");
+		for( int i = aRandom.nextInt(4); i > 0; i-- )
+		{
+			result.add(pPrefix + i + pSuffix);
+		}
+		return result.toString();
+	}
+
+	/*
+	 * Moves pNode to (pX, pY) and lays out its children, if it is a package,
+	 * in rows inside the package.
+	 * @return The dimension of the area occupied by pNode.
+	 */
+	private static Dimension layOut(Node pNode, int pX, int pY)
+	{
+		pNode.moveTo(new Point(pX, pY));
+		if( pNode.getClass() != PackageNode.class || pNode.getChildren().isEmpty() )
+		{
+			return new Dimension(CELL_WIDTH, CELL_HEIGHT);
+		}
+		int x = PACKAGE_PADDING;
+		int y = PACKAGE_TOP;
+		int width = 0;
+		int rowHeight = 0;
+		for( Node child : pNode.getChildren() )
+		{
+			if( x >= PACKAGE_ROW_WIDTH )
+			{
+				x = PACKAGE_PADDING;
+				y += rowHeight;
+				rowHeight = 0;
+			}
+			Dimension extent = layOut(child, pX + x, pY + y);
+			x += extent.width();
+			width = Math.max(width, x);
+			rowHeight = Math.max(rowHeight, extent.height());
+		}
+		return new Dimension(width + PACKAGE_PADDING, y + rowHeight + PACKAGE_PADDING);
+	}
+
+	private static int depth(Node pNode)
+	{
+		int depth = 0;
+		for( Node node = pNode; node.hasParent(); node = node.getParent() )
+		{
+			depth++;
+		}
+		return depth;
+	}
+
+	/*
+	 * pFirst comes before pSecond in the list of types. Generalizations go from the
+	 * later type to the earlier type, unless this would make an interface extend a class.
+	 */
+	private Edge createClassEdge(TypeNode pFirst, TypeNode pSecond)
+	{
+		int kind = aRandom.nextInt(20);
+		if( kind < 7 )
+		{
+			DependencyEdge edge = new DependencyEdge();
+			if( aRandom.nextInt(4) == 0 )
+			{
+				edge.setMiddleLabel("«create»");
+			}
+			return connectRandomly(edge, pFirst, pSecond);
+		}
+		else if( kind < 11 )
+		{
+			TypeNode subtype = pSecond;
+			TypeNode supertype = pFirst;
+			if( subtype instanceof InterfaceNode && supertype instanceof ClassNode )
+			{
+				subtype = pFirst;
+				supertype = pSecond;
+			}
+			GeneralizationEdge edge = new GeneralizationEdge();
+			if( supertype instanceof InterfaceNode && subtype instanceof ClassNode )
+			{
+				edge.setType(GeneralizationEdge.Type.Implementation);
+			}
+			edge.connect(subtype, supertype);
+			return edge;
+		}
+		else if( kind < 16 )
+		{
+			AssociationEdge edge = new AssociationEdge();
+			edge.setDirectionality(randomElement(AssociationEdge.Directionality.values()));
+			edge.setStartLabel("1");
+			edge.setEndLabel(aRandom.nextBoolean() ? "*" : "0..1");
+			return connectRandomly(edge, pFirst, pSecond);
+		}
+		else
+		{
+			AggregationEdge edge = new AggregationEdge();
+			edge.setType(randomElement(AggregationEdge.Type.values()));
+			edge.setEndLabel("*");
+			return connectRandomly(edge, pFirst, pSecond);
+		}
+	}
+
+	/*
+	 * The calls form a single tree, built depth first: each step either returns from
+	 * the current call or makes a new call from it. Returns are only added for calls to
+	 * another object, and constructor calls only target objects that received no call yet.
+	 */
+	private void generateSequenceDiagram(DiagramBuilder pBuilder, List<DiagramElement> pEdges, int pNumberOfElements)
+	{
+		int numberOfNotes = numberOfNotes(pNumberOfElements);
+		List<ImplicitParameterNode> objects = new ArrayList<>();
+		for( int i = 0; i < Math.min(MAX_LIFELINES, Math.max(2, pNumberOfElements / CALLS_PER_LIFELINE)); i++ )
+		{
+			ImplicitParameterNode node = new ImplicitParameterNode();
+			node.setName("object" + i + ":Type" + i);
+			objects.add(node);
+		}
+		Deque<CallNode> stack = new ArrayDeque<>();
+		CallNode root = new CallNode();
+		objects.get(0).addChild(root);
+		stack.push(root);
+		int numberOfElements = objects.size() + 1 + ELEMENTS_FOR_NOTE * numberOfNotes;
+		int numberOfCalls = 0;
+		while( numberOfElements < pNumberOfElements )
+		{
+			if( stack.size() > 1 && (stack.size() >= MAX_CALL_DEPTH || aRandom.nextInt(3) == 0) )
+			{
+				CallNode callee = stack.pop();
+				if( callee.getParent() != stack.peek().getParent() && aRandom.nextBoolean() )
+				{
+					ReturnEdge edge = new ReturnEdge();
+					edge.setMiddleLabel("result" + numberOfElements);
+					edge.connect(callee, stack.peek());
+					pEdges.add(edge);
+					numberOfElements++;
+				}
+			}
+			else
+			{
+				CallNode caller = stack.peek();
+				ImplicitParameterNode object = randomElement(objects);
+				CallEdge edge;
+				if( object != caller.getParent() && object.getChildren().isEmpty() && aRandom.nextBoolean() )
+				{
+					edge = new ConstructorEdge();
+					edge.setMiddleLabel("«create»");
+				}
+				else
+				{
+					edge = new CallEdge();
+					edge.setMiddleLabel("method" + numberOfCalls + "()");
+				}
+				CallNode callee = new CallNode();
+				object.addChild(callee);
+				edge.connect(caller, callee);
+				pEdges.add(edge);
+				stack.push(callee);
+				numberOfElements += 2;
+				numberOfCalls++;
+			}
+		}
+		for( int i = 0; i < objects.size(); i++ )
+		{
+			addRootNode(pBuilder, objects.get(i), new Point(i * CELL_WIDTH, 0));
+		}
+		addNotes(pBuilder, pEdges, objects, numberOfNotes, objects.size() * CELL_WIDTH);
+	}
+
+	/*
+	 * The initial state leads to a chain of states, with additional random transitions
+	 * between states and from states to final states.
+	 */
+	private void generateStateDiagram(DiagramBuilder pBuilder, List<DiagramElement> pEdges, int pNumberOfElements)
+	{
+		List<Node> nodes = new ArrayList<>();
+		nodes.add(new InitialStateNode());
+		int numberOfStates = Math.max(2, pNumberOfElements * 2 / 5);
+		for( int i = 0; i < numberOfStates; i++ )
+		{
+			StateNode node = new StateNode();
+			node.setName("State" + i);
+			nodes.add(node);
+		}
+		int numberOfFinalStates = Math.max(1, pNumberOfElements / (2 * ELEMENTS_PER_NOTE));
+		for( int i = 0; i < numberOfFinalStates; i++ )
+		{
+			nodes.add(new FinalStateNode());
+		}
+		for( int i = 0; i < nodes.size(); i++ )
+		{
+			addRootNode(pBuilder, nodes.get(i), gridPosition(i));
+		}
+		int numberOfNotes = numberOfNotes(pNumberOfElements);
+		int numberOfEdges = pNumberOfElements - nodes.size() - ELEMENTS_FOR_NOTE * numberOfNotes;
+		Map<Long, Integer> transitions = new HashMap<>();
+		for( int i = 0; i < numberOfStates; i++ )
+		{
+			pEdges.add(createTransition(nodes.get(i), nodes.get(i + 1)));
+			transitions.put((long) i << Integer.SIZE | i + 1, 1);
+		}
+		for( int i = 0; i < 4 * numberOfEdges && pEdges.size() < numberOfEdges; i++ )
+		{
+			int start = 1 + aRandom.nextInt(numberOfStates);
+			int end = numberOfStates + 1 + aRandom.nextInt(numberOfFinalStates);
+			if( aRandom.nextInt(10) > 0 )
+			{
+				end = Math.max(1, Math.min(numberOfStates, start - LOCALITY / 2 + aRandom.nextInt(LOCALITY)));
+			}
+			// Transitions in opposite directions are distinct, so the key is for the ordered pair
+			if( transitions.merge((long) start << Integer.SIZE | end, 1, Integer::sum) <= 2 )
+			{
+				pEdges.add(createTransition(nodes.get(start), nodes.get(end)));
+			}
+		}
+		addNotes(pBuilder, pEdges, nodes.subList(1, numberOfStates + 1), numberOfNotes, COLUMNS * CELL_WIDTH);
+	}
+
+	private Edge createTransition(Node pStart, Node pEnd)
+	{
+		StateTransitionEdge edge = new StateTransitionEdge();
+		if( aRandom.nextInt(3) == 0 )
+		{
+			edge.setMiddleLabel("event" + aRandom.nextInt(100) + " [guard]");
+		}
+		else
+		{
+			edge.setMiddleLabel("event" + aRandom.nextInt(100));
+		}
+		edge.connect(pStart, pEnd);
+		return edge;
+	}
+
+	/*
+	 * Some fields of each object hold a reference to a nearby object, possibly the
+	 * object itself, and the others hold a value. Collaborations link distinct objects,
+	 * with at most one collaboration between two objects.
+	 */
+	private void generateObjectDiagram(DiagramBuilder pBuilder, List<DiagramElement> pEdges, int pNumberOfElements)
+	{
+		int numberOfNotes = numberOfNotes(pNumberOfElements);
+		int numberOfObjects = Math.max(2, (pNumberOfElements - ELEMENTS_FOR_NOTE * numberOfNotes) / ELEMENTS_PER_OBJECT);
+		List<ObjectNode> objects = new ArrayList<>();
+		Map<FieldNode, Integer> references = new HashMap<>();
+		int numberOfElements = numberOfObjects + ELEMENTS_FOR_NOTE * numberOfNotes;
+		for( int i = 0; i < numberOfObjects; i++ )
+		{
+			ObjectNode object = new ObjectNode();
+			object.setName("object" + i + ":Type" + i % 10);
+			for( int j = aRandom.nextInt(MAX_FIELDS) + 1; j > 0; j-- )
+			{
+				FieldNode field = new FieldNode();
+				field.setName("field" + j);
+				int kind = aRandom.nextInt(5);
+				if( kind < 2 )
+				{
+					field.setValue("");
+					references.put(field, i);
+					numberOfElements++;
+				}
+				else if( kind < 4 )
+				{
+					field.setValue(Integer.toString(aRandom.nextInt(1000)));
+				}
+				else
+				{
+					field.setValue("\"value" + aRandom.nextInt(1000) + "\"");
+				}
+				object.addChild(field);
+				numberOfElements++;
+			}
+			addRootNode(pBuilder, object, gridPosition(i));
+			objects.add(object);
+		}
+		for( ObjectNode object : objects )
+		{
+			for( Node field : object.getChildren() )
+			{
+				if( references.containsKey(field) )
+				{
+					int target = references.get(field) - LOCALITY / 2 + aRandom.nextInt(LOCALITY);
+					ObjectReferenceEdge edge = new ObjectReferenceEdge();
+					edge.connect(field, objects.get(Math.max(0, Math.min(numberOfObjects - 1, target))));
+					pEdges.add(edge);
+				}
+			}
+		}
+		int numberOfCollaborations = pNumberOfElements - numberOfElements;
+		Set<Long> pairs = new HashSet<>();
+		for( int i = 0; i < 4 * numberOfCollaborations && pairs.size() < numberOfCollaborations; i++ )
+		{
+			int first = aRandom.nextInt(numberOfObjects - 1);
+			int second = partner(first, numberOfObjects);
+			if( pairs.add(pair(first, second)) )
+			{
+				ObjectCollaborationEdge edge = new ObjectCollaborationEdge();
+				edge.setMiddleLabel("uses");
+				pEdges.add(connectRandomly(edge, objects.get(first), objects.get(second)));
+			}
+		}
+		addNotes(pBuilder, pEdges, objects, numberOfNotes, COLUMNS * CELL_WIDTH);
+	}
+
+	/*
+	 * Each actor is followed by the use cases it is associated with. Additional edges
+	 * link nearby nodes, with at most one edge between two nodes.
+	 */
+	private void generateUseCaseDiagram(DiagramBuilder pBuilder, List<DiagramElement> pEdges, int pNumberOfElements)
+	{
+		int numberOfNotes = numberOfNotes(pNumberOfElements);
+		int numberOfNodes = Math.max(2, (pNumberOfElements - ELEMENTS_FOR_NOTE * numberOfNotes) * 2 / 5);
+		List<Node> nodes = new ArrayList<>();
+		Set<Long> pairs = new HashSet<>();
+		for( int i = 0; i < numberOfNodes; i++ )
+		{
+			if( i % NODES_PER_ACTOR == 0 )
+			{
+				ActorNode node = new ActorNode();
+				node.setName("Actor" + i);
+				nodes.add(node);
+			}
+			else
+			{
+				UseCaseNode node = new UseCaseNode();
+				node.setName("Use case " + i);
+				nodes.add(node);
+				int actor = i - i % NODES_PER_ACTOR;
+				UseCaseAssociationEdge edge = new UseCaseAssociationEdge();
+				edge.connect(nodes.get(actor), node);
+				pEdges.add(edge);
+				pairs.add(pair(actor, i));
+			}
+			addRootNode(pBuilder, nodes.get(i), gridPosition(i));
+		}
+		int numberOfEdges = pNumberOfElements - numberOfNodes - ELEMENTS_FOR_NOTE * numberOfNotes;
+		for( int i = 0; i < 4 * numberOfEdges && pEdges.size() < numberOfEdges; i++ )
+		{
+			int first = aRandom.nextInt(numberOfNodes - 1);
+			int second = partner(first, numberOfNodes);
+			if( pairs.add(pair(first, second)) )
+			{
+				pEdges.add(createUseCaseEdge(nodes.get(first), nodes.get(second)));
+			}
+		}
+		addNotes(pBuilder, pEdges, nodes, numberOfNotes, COLUMNS * CELL_WIDTH);
+	}
+
+	/*
+	 * pFirst comes before pSecond in the list of nodes.
+	 */
+	private Edge createUseCaseEdge(Node pFirst, Node pSecond)
+	{
+		if( pFirst.getClass() != pSecond.getClass() )
+		{
+			Edge edge = new UseCaseAssociationEdge();
+			if( pFirst instanceof ActorNode )
+			{
+				edge.connect(pFirst, pSecond);
+			}
+			else
+			{
+				edge.connect(pSecond, pFirst);
+			}
+			return edge;
+		}
+		else if( pFirst instanceof UseCaseNode && aRandom.nextInt(3) > 0 )
+		{
+			UseCaseDependencyEdge edge = new UseCaseDependencyEdge(aRandom.nextBoolean() ?
+					UseCaseDependencyEdge.Type.Include : UseCaseDependencyEdge.Type.Extend);
+			return connectRandomly(edge, pFirst, pSecond);
+		}
+		else
+		{
+			Edge edge = new UseCaseGeneralizationEdge();
+			edge.connect(pSecond, pFirst);
+			return edge;
+		}
+	}
+
+	/*
+	 * Adds pNumberOfNotes notes in a column at pX. Every other note is attached
+	 * to one of pNodes, and the others to a point.
+	 */
+	private void addNotes(DiagramBuilder pBuilder, List<DiagramElement> pEdges, List<? extends Node> pNodes,
+			int pNumberOfNotes, int pX)
+	{
+		for( int i = 0; i < pNumberOfNotes; i++ )
+		{
+			NoteNode note = new NoteNode();
+			note.setName("Note " + i);
+			addRootNode(pBuilder, note, new Point(pX, i * CELL_HEIGHT));
+			NoteEdge edge = new NoteEdge();
+			if( i % 2 == 0 )
+			{
+				edge.connect(randomElement(pNodes), note);
+			}
+			else
+			{
+				PointNode point = new PointNode();
+				addRootNode(pBuilder, point, new Point(pX + CELL_WIDTH, i * CELL_HEIGHT));
+				edge.connect(note, point);
+			}
+			pEdges.add(edge);
+		}
+	}
+
+	private static void addRootNode(DiagramBuilder pBuilder, Node pNode, Point pPosition)
+	{
+		pBuilder.createAddNodeOperation(pNode, pPosition).execute();
+	}
+
+	private Edge connectRandomly(Edge pEdge, Node pNode1, Node pNode2)
+	{
+		if( aRandom.nextBoolean() )
+		{
+			pEdge.connect(pNode1, pNode2);
+		}
+		else
+		{
+			pEdge.connect(pNode2, pNode1);
+		}
+		return pEdge;
+	}
+
+	/*
+	 * @return The index of a random node after pIndex, and at most LOCALITY positions after it.
+	 * @pre pIndex < pSize - 1
+	 */
+	private int partner(int pIndex, int pSize)
+	{
+		return pIndex + 1 + aRandom.nextInt(Math.min(LOCALITY, pSize - pIndex - 1));
+	}
+
+	private <T> T randomElement(List<T> pElements)
+	{
+		return pElements.get(aRandom.nextInt(pElements.size()));
+	}
+
+	private <T> T randomElement(T[] pElements)
+	{
+		return pElements[aRandom.nextInt(pElements.length)];
+	}
+
+	/*
+	 * @return A key that identifies the unordered pair of indexes pIndex1 and pIndex2.
+	 */
+	private static long pair(int pIndex1, int pIndex2)
+	{
+		return (long) Math.min(pIndex1, pIndex2) << Integer.SIZE | Math.max(pIndex1, pIndex2);
+	}
+
+	private static int numberOfNotes(int pNumberOfElements)
+	{
+		return Math.max(1, pNumberOfElements / ELEMENTS_PER_NOTE);
+	}
+
+	private static Point gridPosition(int pIndex)
+	{
+		return new Point(pIndex % COLUMNS * CELL_WIDTH, pIndex / COLUMNS * CELL_HEIGHT);
+	}
+}
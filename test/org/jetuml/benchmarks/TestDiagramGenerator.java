@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.jetuml.JavaFXLoader;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.persistence.JsonEncoder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class TestDiagramGenerator
+{
+	private static final int NUMBER_OF_ELEMENTS = 500;
+
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+
+	private static int numberOfElements(Diagram pDiagram)
+	{
+		return pDiagram.allNodes().size() + pDiagram.edges().size();
+	}
+
+	private static String encode(Diagram pDiagram)
+	{
+		return JsonEncoder.encode(pDiagram).toString();
+	}
+
+	@ParameterizedTest
+	@EnumSource(DiagramType.class)
+	void testGenerate_Valid(DiagramType pType)
+	{
+		for( int seed = 0; seed < 5; seed++ )
+		{
+			Diagram diagram = new DiagramGenerator(seed).generate(pType, NUMBER_OF_ELEMENTS);
+			assertEquals(pType, diagram.getType());
+			assertTrue(DiagramType.newValidatorInstanceFor(diagram).validate().isEmpty());
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(DiagramType.class)
+	void testGenerate_Size(DiagramType pType)
+	{
+		int numberOfElements = numberOfElements(new DiagramGenerator(0).generate(pType, NUMBER_OF_ELEMENTS));
+		assertTrue(numberOfElements >= NUMBER_OF_ELEMENTS * 4 / 5 && numberOfElements <= NUMBER_OF_ELEMENTS * 6 / 5);
+	}
+
+	@ParameterizedTest
+	@EnumSource(DiagramType.class)
+	void testGenerate_Seeded(DiagramType pType)
+	{
+		assertEquals(encode(new DiagramGenerator(1).generate(pType, NUMBER_OF_ELEMENTS)),
+				encode(new DiagramGenerator(1).generate(pType, NUMBER_OF_ELEMENTS)));
+		assertNotEquals(encode(new DiagramGenerator(1).generate(pType, NUMBER_OF_ELEMENTS)),
+				encode(new DiagramGenerator(2).generate(pType, NUMBER_OF_ELEMENTS)));
+	}
+}
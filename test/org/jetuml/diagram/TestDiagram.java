@@ -25,9 +25,12 @@ import static org.jetuml.testutils.CollectionAssertions.hasElementsSameAs;
 import static org.jetuml.testutils.CollectionAssertions.hasSetOfElementsEqualsTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -220,4 +223,189 @@ public class TestDiagram
 
 		assertThat(aDiagram.edgesTo(aNode2, DependencyEdge.class), hasElementsSameAs, edge1);
 	}
+	
+	@Test
+	void testEdgesFrom_NodeAndTypeSelection()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		Edge edge1 = createEdge(new DependencyEdge(), aNode1, aNode2);
+		createEdge(new AssociationEdge(), aNode1, aNode2);
+		Edge edge3 = createEdge(new DependencyEdge(), aNode1, aNode1);
+		
+		assertThat(aDiagram.edgesFrom(aNode1, DependencyEdge.class), hasElementsSameAs, edge1, edge3);
+		assertThat(aDiagram.edgesFrom(aNode2, Edge.class), CollectionAssertions.isEmpty);
+	}
+	
+	@Test
+	void testEdgesConnectedTo_DiagramOrder()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		aDiagram.addRootNode(aNode3);
+		Edge edge1 = createEdge(new DependencyEdge(), aNode1, aNode2);
+		Edge edge2 = createEdge(new DependencyEdge(), aNode2, aNode3);
+		Edge edge3 = createEdge(new DependencyEdge(), aNode2, aNode2);
+		Edge edge4 = new DependencyEdge();
+		edge4.connect(aNode3, aNode2);
+		aDiagram.addEdge(1, edge4);
+		
+		assertEquals(List.of(edge1, edge4, edge2, edge3), aDiagram.edgesConnectedTo(aNode2));
+		assertEquals(List.of(edge4, edge2), aDiagram.edgesConnectedTo(aNode3));
+	}
+	
+	@Test
+	void testEdgesConnectedTo_ManyInsertions()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		createEdge(new DependencyEdge(), aNode1, aNode2);
+		createEdge(new DependencyEdge(), aNode2, aNode1);
+		// Inserting at the same position eventually requires renumbering the edges
+		for( int i = 0; i < 50; i++ )
+		{
+			Edge edge = new DependencyEdge();
+			edge.connect(aNode1, i % 2 == 0 ? aNode1 : aNode2);
+			aDiagram.addEdge(1, edge);
+		}
+		aDiagram.edges().get(10).connect(aNode2, aNode1);
+		
+		assertEquals(aDiagram.edges(), aDiagram.edgesConnectedTo(aNode1));
+		assertEquals(aDiagram.edges().stream().filter(edge -> edge.end() == aNode2 || edge.start() == aNode2).toList(), 
+				aDiagram.edgesConnectedTo(aNode2));
+	}
+	
+	@Test
+	void testEdgeOrder()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		createEdge(new DependencyEdge(), aNode1, aNode2);
+		createEdge(new DependencyEdge(), aNode2, aNode1);
+		for( int i = 0; i < 50; i++ )
+		{
+			Edge edge = new DependencyEdge();
+			edge.connect(aNode1, aNode2);
+			aDiagram.addEdge(1, edge);
+		}
+		List<Edge> edges = new ArrayList<>(aDiagram.edges());
+		Collections.reverse(edges);
+		edges.sort(aDiagram.edgeOrder());
+		
+		assertEquals(aDiagram.edges(), edges);
+	}
+	
+	@Test
+	void testEdgesConnectedTo_AfterConnect()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		aDiagram.addRootNode(aNode3);
+		Edge edge1 = createEdge(new DependencyEdge(), aNode1, aNode2);
+		Edge edge2 = createEdge(new DependencyEdge(), aNode3, aNode2);
+		edge1.connect(aNode3, aNode2);
+		
+		assertFalse(aDiagram.edgesConnectedTo(aNode1).iterator().hasNext());
+		assertEquals(List.of(edge1, edge2), aDiagram.edgesConnectedTo(aNode3));
+		assertThat(aDiagram.edgesTo(aNode2, Edge.class), hasElementsSameAs, edge1, edge2);
+	}
+	
+	@Test
+	void testEdgesConnectedTo_AfterRemove()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		Edge edge1 = createEdge(new DependencyEdge(), aNode1, aNode2);
+		Edge edge2 = createEdge(new DependencyEdge(), aNode2, aNode1);
+		aDiagram.removeEdge(edge1);
+		// Connecting an edge that was removed does not affect the diagram
+		edge1.connect(aNode2, aNode2);
+		
+		assertEquals(List.of(edge2), aDiagram.edgesConnectedTo(aNode1));
+		assertEquals(List.of(edge2), aDiagram.edgesConnectedTo(aNode2));
+	}
+	
+	@Test
+	void testEdgesConnectedTo_Duplicate()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		createEdge(new DependencyEdge(), aNode1, aNode2);
+		Diagram copy = aDiagram.duplicate();
+		Node node1 = copy.rootNodes().get(0);
+		Edge edge = copy.edges().get(0);
+		
+		assertEquals(List.of(edge), copy.edgesConnectedTo(node1));
+		edge.connect(node1, node1);
+		assertEquals(List.of(edge), copy.edgesConnectedTo(node1));
+		assertFalse(copy.edgesConnectedTo(copy.rootNodes().get(1)).iterator().hasNext());
+		assertEquals(1, aDiagram.edgesTo(aNode2, Edge.class).size());
+	}
+	
+	@Test
+	void testChangesSince_NoChanges()
+	{
+		aDiagram.addRootNode(aNode1);
+		assertEquals(List.of(), aDiagram.changesSince(aDiagram.version()).get());
+	}
+	
+	@Test
+	void testChangesSince_ChildReportedAsRoot()
+	{
+		((PackageNode)aNode2).addChild(aNode3);
+		aDiagram.addRootNode(aNode2);
+		aDiagram.addRootNode(aNode1);
+		long version = aDiagram.version();
+		long nodeVersion = aNode2.version();
+		aNode3.translate(10, 10);
+		assertNotEquals(nodeVersion, aNode2.version());
+		assertEquals(List.of(new Diagram.Change(aNode2, false)), aDiagram.changesSince(version).get());
+	}
+	
+	@Test
+	void testChangesSince_Properties()
+	{
+		aDiagram.addRootNode(aNode3);
+		aDiagram.addRootNode(aNode1);
+		long version = aDiagram.version();
+		aNode3.properties().get(PropertyName.NAME).set("Foo");
+		assertEquals(List.of(new Diagram.Change(aNode3, false)), aDiagram.changesSince(version).get());
+	}
+	
+	@Test
+	void testChangesSince_AddedThenMoved()
+	{
+		aDiagram.addRootNode(aNode1);
+		long version = aDiagram.version();
+		aDiagram.addRootNode(aNode2);
+		aNode2.translate(10, 10);
+		aNode2.translate(10, 10);
+		Edge edge = createEdge(new DependencyEdge(), aNode1, aNode2);
+		aDiagram.removeRootNode(aNode1);
+		aNode1.translate(10, 10);
+		assertEquals(List.of(new Diagram.Change(aNode1, true), new Diagram.Change(edge, true), 
+				new Diagram.Change(aNode2, true)), aDiagram.changesSince(version).get());
+	}
+	
+	@Test
+	void testChangesSince_Forgotten()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		long version = aDiagram.version();
+		for( int i = 0; i < 1000; i++ )
+		{
+			aNode1.translate(1, 0);
+			aNode2.translate(1, 0);
+		}
+		assertTrue(aDiagram.changesSince(version).isEmpty());
+		assertEquals(List.of(new Diagram.Change(aNode2, false)), aDiagram.changesSince(aDiagram.version() - 1).get());
+	}
+	
+	private Edge createEdge(Edge pEdge, Node pStart, Node pEnd)
+	{
+		pEdge.connect(pStart, pEnd);
+		aDiagram.addEdge(pEdge);
+		return pEdge;
+	}
 }
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagram;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.diagram.nodes.PackageNode;
+import org.junit.jupiter.api.Test;
+
+public class TestElementCopier
+{
+	private final ElementCopier aCopier = new ElementCopier();
+	private final PackageNode aPackage = new PackageNode();
+	private final ClassNode aNode1 = new ClassNode();
+	private final ClassNode aNode2 = new ClassNode();
+
+	@Test
+	public void testCopyNode()
+	{
+		assertFalse(aCopier.isCopied(aNode1));
+		Node copy = aCopier.copy(aNode1);
+		assertNotSame(aNode1, copy);
+		assertTrue(aCopier.isCopied(aNode1));
+		assertFalse(aCopier.isCopied(copy));
+	}
+
+	@Test
+	public void testCopyEdgeBetweenChildren()
+	{
+		aPackage.addChild(aNode1);
+		aPackage.addChild(aNode2);
+		DependencyEdge edge = new DependencyEdge();
+		edge.connect(aNode1, aNode2);
+		Node copy = aCopier.copy(aPackage);
+		assertTrue(aCopier.isCopied(aNode1));
+		Edge edgeCopy = aCopier.copy(edge);
+		assertNotSame(edge, edgeCopy);
+		assertSame(copy.getChildren().get(0), edgeCopy.start());
+		assertSame(copy.getChildren().get(1), edgeCopy.end());
+		assertSame(aNode1, edge.start());
+		assertSame(aNode2, edge.end());
+	}
+
+	@Test
+	public void testCopyEdge_FirstCopy()
+	{
+		aPackage.addChild(aNode1);
+		DependencyEdge edge = new DependencyEdge();
+		edge.connect(aNode1, aNode1);
+		Node packageCopy = aCopier.copy(aPackage);
+		aCopier.copy(aNode1);
+		Edge edgeCopy = aCopier.copy(edge);
+		assertSame(packageCopy.getChildren().get(0), edgeCopy.start());
+		assertSame(packageCopy.getChildren().get(0), edgeCopy.end());
+	}
+}
@@ -25,6 +25,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.geom.Point;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -129,6 +131,64 @@ public class TestCompoundOperation
 		assertEquals("ABCDE54321", aBuilder.toString());
 	}
 	
+	@Test
+	public void testCompact()
+	{
+		aOperation.add(new SimpleOperation(()-> aBuilder.append("A"), ()->aBuilder.append("1")));
+		CompoundOperation sub1 = new CompoundOperation();
+		sub1.add(new SimpleOperation(()-> aBuilder.append("B"), ()->aBuilder.append("2")));
+		CompoundOperation sub2 = new CompoundOperation();
+		sub2.add(new SimpleOperation(()-> aBuilder.append("C"), ()->aBuilder.append("3")));
+		sub1.add(sub2);
+		sub1.add(new CompoundOperation());
+		aOperation.add(sub1);
+		int size = aOperation.estimatedSize();
+		aOperation.compact();
+		assertTrue(aOperation.estimatedSize() < size);
+		aOperation.execute();
+		assertEquals("ABC", aBuilder.toString());
+		aOperation.undo();
+		assertEquals("ABC321", aBuilder.toString());
+	}
+	
+	@Test
+	public void testAbsorb_Moves()
+	{
+		ClassNode node1 = new ClassNode();
+		ClassNode node2 = new ClassNode();
+		aOperation.add(new MoveOperation(node1, 10, 20));
+		aOperation.add(new MoveOperation(node2, 5, 5));
+		CompoundOperation next = new CompoundOperation();
+		next.add(new MoveOperation(node1, 1, 2));
+		next.add(new MoveOperation(node2, 3, 4));
+		assertTrue(aOperation.absorb(next));
+		aOperation.execute();
+		assertEquals(new Point(11, 22), node1.position());
+		assertEquals(new Point(8, 9), node2.position());
+		aOperation.undo();
+		assertEquals(new Point(0, 0), node1.position());
+		assertEquals(new Point(0, 0), node2.position());
+	}
+	
+	@Test
+	public void testAbsorb_NotSameMoves()
+	{
+		ClassNode node1 = new ClassNode();
+		ClassNode node2 = new ClassNode();
+		aOperation.add(new MoveOperation(node1, 10, 20));
+		CompoundOperation next = new CompoundOperation();
+		next.add(new MoveOperation(node2, 1, 2));
+		assertFalse(aOperation.absorb(next));
+		next = new CompoundOperation();
+		next.add(new MoveOperation(node1, 1, 2));
+		next.add(new MoveOperation(node2, 1, 2));
+		assertFalse(aOperation.absorb(next));
+		assertFalse(new CompoundOperation().absorb(new CompoundOperation()));
+		assertFalse(aOperation.absorb(new MoveOperation(node1, 1, 2)));
+		aOperation.execute();
+		assertEquals(new Point(10, 20), node1.position());
+	}
+	
 	@Test
 	public void testIsEmpty()
 	{
@@ -0,0 +1,447 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagram.builder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.edges.NoteEdge;
+import org.jetuml.diagram.edges.ObjectCollaborationEdge;
+import org.jetuml.diagram.edges.ObjectReferenceEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.diagram.nodes.FieldNode;
+import org.jetuml.diagram.nodes.NoteNode;
+import org.jetuml.diagram.nodes.ObjectNode;
+import org.jetuml.diagram.nodes.PackageNode;
+import org.jetuml.diagram.nodes.PointNode;
+import org.jetuml.geom.Rectangle;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the operations created by createRemoveElementsOperation with
+ * the operations created by the previous version of the method, which
+ * searched the diagram for each removed element. The sub-operations are
+ * executed, then undone, one at a time, and the state of the diagram must
+ * be the same after each step.
+ */
+public class TestDiagramBuilder
+{
+	private final List<Node> aNodes = new ArrayList<>();
+	private Diagram aDiagram;
+	private DiagramBuilder aBuilder;
+
+	private void createObjectDiagram()
+	{
+		aDiagram = new Diagram(DiagramType.OBJECT);
+		aBuilder = new ObjectDiagramBuilder(aDiagram);
+	}
+
+	private <T extends Node> T root(T pNode)
+	{
+		aNodes.add(pNode);
+		aDiagram.addRootNode(pNode);
+		return pNode;
+	}
+
+	private <T extends Node> T child(Node pParent, T pNode)
+	{
+		aNodes.add(pNode);
+		pParent.addChild(pNode);
+		return pNode;
+	}
+
+	private <T extends Edge> T edge(T pEdge, Node pStart, Node pEnd)
+	{
+		pEdge.connect(pStart, pEnd);
+		aDiagram.addEdge(pEdge);
+		return pEdge;
+	}
+
+	@Test
+	void testFields()
+	{
+		createObjectDiagram();
+		ObjectNode object1 = root(new ObjectNode());
+		ObjectNode object2 = root(new ObjectNode());
+		FieldNode field1 = child(object1, new FieldNode());
+		child(object1, new FieldNode());
+		FieldNode field3 = child(object1, new FieldNode());
+		FieldNode field4 = child(object2, new FieldNode());
+		FieldNode field5 = child(object2, new FieldNode());
+		edge(new ObjectReferenceEdge(), field1, object2);
+		edge(new ObjectReferenceEdge(), field3, object2);
+		Edge collaboration = edge(new ObjectCollaborationEdge(), object1, object2);
+		edge(new ObjectReferenceEdge(), field5, object1);
+
+		assertRemovesAsBefore(List.of(field3, field5, field1, field4, collaboration));
+	}
+
+	@Test
+	void testObjectWithFields()
+	{
+		createObjectDiagram();
+		ObjectNode object1 = root(new ObjectNode());
+		ObjectNode object2 = root(new ObjectNode());
+		FieldNode field1 = child(object1, new FieldNode());
+		FieldNode field2 = child(object1, new FieldNode());
+		FieldNode field3 = child(object2, new FieldNode());
+		edge(new ObjectReferenceEdge(), field3, object1);
+		edge(new ObjectReferenceEdge(), field2, object2);
+		edge(new ObjectCollaborationEdge(), object2, object1);
+		edge(new ObjectReferenceEdge(), field1, object1);
+
+		assertRemovesAsBefore(List.of(object1, field3));
+	}
+
+	@Test
+	void testNoteEdgeToPointNode()
+	{
+		createObjectDiagram();
+		ObjectNode object = root(new ObjectNode());
+		NoteNode note = root(new NoteNode());
+		PointNode point = root(new PointNode());
+		edge(new NoteEdge(), note, object);
+		Edge noteEdge = edge(new NoteEdge(), note, point);
+		edge(new ObjectCollaborationEdge(), object, object);
+
+		assertRemovesAsBefore(List.of(noteEdge));
+	}
+
+	@Test
+	void testNoteWithPointNodes()
+	{
+		createObjectDiagram();
+		ObjectNode object = root(new ObjectNode());
+		NoteNode note = root(new NoteNode());
+		PointNode point1 = root(new PointNode());
+		PointNode point2 = root(new PointNode());
+		edge(new NoteEdge(), note, point1);
+		edge(new NoteEdge(), note, object);
+		edge(new NoteEdge(), note, point2);
+
+		assertRemovesAsBefore(List.of(note));
+	}
+
+	@Test
+	void testPointNode()
+	{
+		createObjectDiagram();
+		NoteNode note = root(new NoteNode());
+		PointNode point1 = root(new PointNode());
+		PointNode point2 = root(new PointNode());
+		edge(new NoteEdge(), note, point1);
+		edge(new NoteEdge(), note, point2);
+
+		assertRemovesAsBefore(List.of(point2));
+	}
+
+	@Test
+	void testNestedPackages()
+	{
+		aDiagram = new Diagram(DiagramType.CLASS);
+		aBuilder = new ClassDiagramBuilder(aDiagram);
+		PackageNode package1 = root(new PackageNode());
+		ClassNode class1 = root(new ClassNode());
+		PackageNode package2 = child(package1, new PackageNode());
+		ClassNode class2 = child(package1, new ClassNode());
+		ClassNode class3 = child(package2, new ClassNode());
+		ClassNode class4 = child(package2, new ClassNode());
+		PackageNode package3 = child(package2, new PackageNode());
+		ClassNode class5 = child(package3, new ClassNode());
+		edge(new DependencyEdge(), class3, class1);
+		edge(new DependencyEdge(), class1, class2);
+		edge(new DependencyEdge(), class5, class3);
+		edge(new DependencyEdge(), class4, class4);
+		Edge dependency = edge(new DependencyEdge(), class2, class1);
+		edge(new DependencyEdge(), class5, class2);
+
+		assertRemovesAsBefore(List.of(class5, package2, class1, class2));
+		assertRemovesAsBefore(List.of(package3, class4, dependency));
+	}
+
+	private void assertRemovesAsBefore(List<DiagramElement> pSelection)
+	{
+		List<Node> rootNodes = List.copyOf(aDiagram.rootNodes());
+		List<List<Object>> expected = executeAndUndo(new PreviousRemoval(aBuilder).createRemoveElementsOperation(pSelection));
+		// Undoing the removal of a root node adds it after the other root nodes
+		rootNodes.forEach(aDiagram::removeRootNode);
+		rootNodes.forEach(aDiagram::addRootNode);
+		assertEquals(expected, executeAndUndo(aBuilder.createRemoveElementsOperation(pSelection)));
+	}
+
+	/*
+	 * Executes the sub-operations of pOperation, then undoes them, and returns the
+	 * state of the diagram after each step.
+	 */
+	private List<List<Object>> executeAndUndo(DiagramOperation pOperation)
+	{
+		List<DiagramOperation> operations = operations((CompoundOperation) pOperation);
+		List<List<Object>> snapshots = new ArrayList<>();
+		for( DiagramOperation operation : operations )
+		{
+			operation.execute();
+			snapshots.add(snapshot());
+		}
+		for( int i = operations.size() - 1; i >= 0; i-- )
+		{
+			operations.get(i).undo();
+			snapshots.add(snapshot());
+		}
+		return snapshots;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<DiagramOperation> operations(CompoundOperation pOperation)
+	{
+		try
+		{
+			Field field = CompoundOperation.class.getDeclaredField("aOperations");
+			field.setAccessible(true);
+			return (List<DiagramOperation>) field.get(pOperation);
+		}
+		catch(ReflectiveOperationException exception)
+		{
+			fail();
+			return null;
+		}
+	}
+
+	private List<Object> snapshot()
+	{
+		List<Object> snapshot = new ArrayList<>();
+		snapshot.add(List.copyOf(aDiagram.rootNodes()));
+		snapshot.add(List.copyOf(aDiagram.edges()));
+		for( Node node : aNodes )
+		{
+			snapshot.add(node.position());
+			snapshot.add(List.copyOf(node.getChildren()));
+		}
+		return snapshot;
+	}
+
+	/*
+	 * The previous version of createRemoveElementsOperation.
+	 */
+	private static final class PreviousRemoval
+	{
+		private final DiagramBuilder aBuilder;
+		private final Diagram aDiagram;
+
+		PreviousRemoval(DiagramBuilder pBuilder)
+		{
+			aBuilder = pBuilder;
+			aDiagram = pBuilder.renderer().diagram();
+		}
+
+		DiagramOperation createRemoveElementsOperation(Iterable<DiagramElement> pElements)
+		{
+			Set<DiagramElement> toDelete = new HashSet<>();
+			for( DiagramElement element : pElements)
+			{
+				toDelete.addAll(getCoRemovals(element));
+			}
+			CompoundOperation result = new CompoundOperation();
+			for( DiagramElement element : tweakOrder(toDelete))
+			{
+				if( element instanceof Edge edge)
+				{
+					int index = aDiagram.indexOf(edge);
+					result.add(new SimpleOperation(
+							()-> aDiagram.removeEdge(edge),
+							()-> aDiagram.addEdge(index, edge)));
+				}
+				else if( element instanceof Node node)
+				{
+					if(node.hasParent())
+					{
+						result.add(new SimpleOperation(
+							createDetachOperation(node),
+							createReinsertOperation(node)));
+					}
+					else
+					{
+						result.add(new SimpleOperation(
+							()-> aDiagram.removeRootNode(node),
+							()-> aDiagram.addRootNode(node)));
+					}
+				}
+			}
+			return result;
+		}
+
+		private List<DiagramElement> getCoRemovals(DiagramElement pElement)
+		{
+			ArrayList<DiagramElement> result = new ArrayList<>();
+			result.add(pElement);
+			if( pElement.getClass() == PointNode.class )
+			{
+				for( Edge edge : aDiagram.edgesConnectedTo((Node)pElement))
+				{
+					result.add(edge);
+				}
+			}
+			if( pElement.getClass() == NoteEdge.class )
+			{
+				Edge edge = (Edge)pElement;
+				if( edge.start().getClass() == PointNode.class )
+				{
+					result.add(edge.start());
+				}
+				if( edge.end().getClass() == PointNode.class )
+				{
+					result.add(edge.end());
+				}
+			}
+			if( pElement instanceof Node node)
+			{
+				List<Node> descendants = getNodeAndAllChildren(node);
+				for(Edge edge : aDiagram.edges())
+				{
+					if(descendants.contains(edge.start() ) || descendants.contains(edge.end()))
+					{
+						result.add(edge);
+						if( edge instanceof NoteEdge )
+						{
+							if( edge.start() instanceof PointNode )
+							{
+								result.add(edge.start());
+							}
+							if( edge.end() instanceof PointNode )
+							{
+								result.add(edge.end());
+							}
+						}
+					}
+				}
+			}
+			return result;
+		}
+
+		private static List<Node> getNodeAndAllChildren(Node pNode)
+		{
+			List<Node> result = new ArrayList<>();
+			result.add(pNode);
+			pNode.getChildren().forEach(node -> result.addAll(getNodeAndAllChildren(node)));
+			return result;
+		}
+
+		private List<DiagramElement> tweakOrder(Set<DiagramElement> pElements)
+		{
+			List<DiagramElement> result = new ArrayList<>();
+			Map<ObjectNode, List<FieldNode>> fields = new HashMap<>();
+			for( DiagramElement element : pElements )
+			{
+				if( element.getClass() != FieldNode.class )
+				{
+					result.add(element);
+				}
+				else
+				{
+					FieldNode field = (FieldNode) element;
+					if( !fields.containsKey(field.getParent()) )
+					{
+						fields.put((ObjectNode)field.getParent(), new ArrayList<>());
+					}
+					fields.get(field.getParent()).add(field);
+				}
+			}
+			for( ObjectNode object : fields.keySet() )
+			{
+				List<FieldNode> nodes = fields.get(object);
+				Collections.sort(nodes, (pField1, pField2) -> pField2.getParent().getChildren().indexOf(pField2) -
+						pField1.getParent().getChildren().indexOf(pField1));
+				result.addAll(nodes);
+			}
+			ArrayList<DiagramElement> result2 = new ArrayList<>();
+			ArrayList<Edge> edges = new ArrayList<>();
+			ArrayList<Node> nodes = new ArrayList<>();
+			for( DiagramElement element : result )
+			{
+				if( element instanceof Edge edge)
+				{
+					edges.add(edge);
+				}
+				else if( element instanceof Node node && node.hasParent() )
+				{
+					nodes.add(node);
+				}
+				else
+				{
+					result2.add(element);
+				}
+			}
+			Collections.sort(edges, (pEdge1, pEdge2) -> aDiagram.indexOf(pEdge2) - aDiagram.indexOf(pEdge1));
+			Collections.sort(nodes, (pNode1, pNode2) ->
+			{
+				Node parent1 = pNode1.getParent();
+				Node parent2 = pNode2.getParent();
+				if( parent1 == parent2 )
+				{
+					return parent2.getChildren().indexOf(pNode2) -  parent1.getChildren().indexOf(pNode1);
+				}
+				else
+				{
+					return aDiagram.rootNodes().indexOf(parent2) - aDiagram.rootNodes().indexOf(parent1);
+				}
+			});
+			result2.addAll(edges);
+			result2.addAll(nodes);
+			return result2;
+		}
+
+		private static Runnable createReinsertOperation(Node pNode)
+		{
+			Node parent = pNode.getParent();
+			int index = parent.getChildren().indexOf(pNode);
+			return ()-> parent.addChild(index, pNode);
+		}
+
+		private Runnable createDetachOperation(Node pNode)
+		{
+			Node parent = pNode.getParent();
+			if(parent.getClass()==PackageNode.class && parent.getChildren().size()==1)
+			{
+				return ()->
+				{
+					Rectangle parentBound = aBuilder.packageNodeRenderer().getBounds(parent);
+					parent.removeChild(pNode);
+					parent.translate( parentBound.x()-parent.position().x(),  parentBound.y()-parent.position().y() );
+				};
+			}
+			return ()-> parent.removeChild(pNode);
+		}
+	}
+}
@@ -25,6 +25,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.geom.Point;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -280,4 +282,164 @@ public class TestDiagramOperationProcessor
 		aProcessor.redoLastUndoneOperation();
 		assertFalse(aProcessor.hasUnsavedOperations());
 	}
+	
+	@Test
+	public void testMaximumNumberOfOperations()
+	{
+		aProcessor = new DiagramOperationProcessor(2, Long.MAX_VALUE);
+		aProcessor.executeNewOperation(createOperation('A'));
+		aProcessor.executeNewOperation(createOperation('B'));
+		aProcessor.executeNewOperation(createOperation('C'));
+		assertEquals(2, aProcessor.size());
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.undoLastExecutedOperation();
+		assertFalse(aProcessor.canUndo());
+		assertEquals("A", aBuilder.toString());
+		aProcessor.redoLastUndoneOperation();
+		aProcessor.redoLastUndoneOperation();
+		assertEquals("ABC", aBuilder.toString());
+	}
+	
+	@Test
+	public void testMaximumNumberOfOperations_ForgetsUndoneOperations()
+	{
+		aProcessor = new DiagramOperationProcessor(2, Long.MAX_VALUE);
+		aProcessor.executeNewOperation(createOperation('A'));
+		aProcessor.executeNewOperation(createOperation('B'));
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.executeNewOperation(createOperation('C'));
+		assertEquals(2, aProcessor.size());
+		aProcessor.redoLastUndoneOperation();
+		assertFalse(aProcessor.canRedo());
+		assertEquals("CA", aBuilder.toString());
+	}
+	
+	@Test
+	public void testMaximumSize()
+	{
+		aProcessor = new DiagramOperationProcessor(100, 3 * SimpleOperation.ESTIMATED_SIZE);
+		for( char letter = 'A'; letter <= 'E'; letter++ )
+		{
+			aProcessor.executeNewOperation(createOperation(letter));
+		}
+		assertEquals(3, aProcessor.size());
+		assertEquals(3 * SimpleOperation.ESTIMATED_SIZE, aProcessor.estimatedSize());
+		
+		// The last operation is kept even if it exceeds the maximum size
+		CompoundOperation operation = new CompoundOperation();
+		for( int i = 0; i < 5; i++ )
+		{
+			operation.add(createOperation('F'));
+		}
+		aProcessor.executeNewOperation(operation);
+		assertEquals(1, aProcessor.size());
+		assertEquals(operation.estimatedSize(), aProcessor.estimatedSize());
+		aProcessor.undoLastExecutedOperation();
+		assertEquals("ABCDE", aBuilder.toString());
+	}
+	
+	@Test
+	public void testHasUnsavedOperations_SavedOperationForgotten()
+	{
+		aProcessor = new DiagramOperationProcessor(2, Long.MAX_VALUE);
+		aProcessor.executeNewOperation(createOperation('A'));
+		aProcessor.diagramSaved();
+		aProcessor.executeNewOperation(createOperation('B'));
+		aProcessor.executeNewOperation(createOperation('C'));
+		assertTrue(aProcessor.hasUnsavedOperations());
+		aProcessor.undoLastExecutedOperation();
+		assertTrue(aProcessor.hasUnsavedOperations());
+		aProcessor.undoLastExecutedOperation();
+		assertFalse(aProcessor.hasUnsavedOperations());
+	}
+	
+	@Test
+	public void testHasUnsavedOperations_SavedBeforeForgottenOperation()
+	{
+		aProcessor = new DiagramOperationProcessor(2, Long.MAX_VALUE);
+		aProcessor.diagramSaved();
+		aProcessor.executeNewOperation(createOperation('A'));
+		aProcessor.executeNewOperation(createOperation('B'));
+		aProcessor.executeNewOperation(createOperation('C'));
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.undoLastExecutedOperation();
+		assertEquals("A", aBuilder.toString());
+		assertTrue(aProcessor.hasUnsavedOperations());
+		aProcessor.diagramSaved();
+		assertFalse(aProcessor.hasUnsavedOperations());
+	}
+	
+	@Test
+	public void testMovesOfSameNodesCombined()
+	{
+		ClassNode node = new ClassNode();
+		aProcessor.executeNewOperation(createOperation('A'));
+		aProcessor.executeNewOperation(new MoveOperation(node, 10, 10));
+		aProcessor.executeNewOperation(new MoveOperation(node, 5, 0));
+		assertEquals(2, aProcessor.size());
+		assertEquals(new Point(15, 10), node.position());
+		aProcessor.undoLastExecutedOperation();
+		assertEquals(new Point(0, 0), node.position());
+		assertEquals("A", aBuilder.toString());
+		aProcessor.redoLastUndoneOperation();
+		assertEquals(new Point(15, 10), node.position());
+		
+		aProcessor.executeNewOperation(new MoveOperation(new ClassNode(), 10, 10));
+		assertEquals(3, aProcessor.size());
+	}
+	
+	@Test
+	public void testMovesNotCombinedWithSavedOperation()
+	{
+		ClassNode node = new ClassNode();
+		aProcessor.executeNewOperation(new MoveOperation(node, 10, 10));
+		aProcessor.diagramSaved();
+		aProcessor.executeNewOperation(new MoveOperation(node, 5, 0));
+		assertEquals(2, aProcessor.size());
+		assertTrue(aProcessor.hasUnsavedOperations());
+		aProcessor.undoLastExecutedOperation();
+		assertFalse(aProcessor.hasUnsavedOperations());
+		assertEquals(new Point(10, 10), node.position());
+	}
+
+	@Test
+	public void testDiagramModified()
+	{
+		aProcessor.executeNewOperation(createOperation('A'));
+		aProcessor.diagramSaved();
+		aProcessor.diagramModified();
+		assertTrue(aProcessor.hasUnsavedOperations());
+		aProcessor.undoLastExecutedOperation();
+		assertTrue(aProcessor.hasUnsavedOperations());
+		aProcessor.diagramSaved();
+		assertFalse(aProcessor.hasUnsavedOperations());
+	}
+	
+	@Test
+	public void testObserver()
+	{
+		StringBuilder notifications = new StringBuilder();
+		aProcessor.setObserver(new OperationObserver()
+		{
+			@Override
+			public void operationExecuted(DiagramOperation pOperation)
+			{
+				notifications.append('E');
+			}
+
+			@Override
+			public void operationUndone(DiagramOperation pOperation)
+			{
+				notifications.append('U');
+			}
+		});
+		ClassNode node = new ClassNode();
+		aProcessor.executeNewOperation(new MoveOperation(node, 10, 10));
+		aProcessor.executeNewOperation(new MoveOperation(node, 5, 0));
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.redoLastUndoneOperation();
+		aProcessor.storeAlreadyExecutedOperation(createOperation('A'));
+		assertEquals("EEUEE", notifications.toString());
+	}
 }
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagram.builder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.geom.Point;
+import org.junit.jupiter.api.Test;
+
+public class TestMoveOperation
+{
+	private final ClassNode aNode = new ClassNode();
+	
+	@Test
+	public void testExecuteAndUndo()
+	{
+		MoveOperation operation = new MoveOperation(aNode, 10, -5);
+		operation.execute();
+		assertEquals(new Point(10, -5), aNode.position());
+		operation.undo();
+		assertEquals(new Point(0, 0), aNode.position());
+	}
+	
+	@Test
+	public void testAbsorb_SameNode()
+	{
+		MoveOperation operation = new MoveOperation(aNode, 10, -5);
+		assertTrue(operation.absorb(new MoveOperation(aNode, 3, 7)));
+		operation.execute();
+		assertEquals(new Point(13, 2), aNode.position());
+		operation.undo();
+		assertEquals(new Point(0, 0), aNode.position());
+	}
+	
+	@Test
+	public void testAbsorb_OtherOperation()
+	{
+		MoveOperation operation = new MoveOperation(aNode, 10, -5);
+		assertFalse(operation.absorb(new MoveOperation(new ClassNode(), 3, 7)));
+		assertFalse(operation.absorb(new SimpleOperation(() -> {}, () -> {})));
+		operation.execute();
+		assertEquals(new Point(10, -5), aNode.position());
+	}
+}
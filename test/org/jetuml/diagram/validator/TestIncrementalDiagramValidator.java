@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagram.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.CallEdge;
+import org.jetuml.diagram.edges.ReturnEdge;
+import org.jetuml.diagram.nodes.CallNode;
+import org.jetuml.diagram.nodes.FieldNode;
+import org.jetuml.diagram.nodes.PointNode;
+import org.jetuml.persistence.PersistenceService;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Compares the violations found by an incremental validator with 
+ * the violations found by a full validation of the same diagram, 
+ * after each of a sequence of edits.
+ */
+public class TestIncrementalDiagramValidator
+{
+	private static final int NUMBER_OF_EDITS = 400;
+	
+	private final Random aRandom = new Random(1);
+	
+	/*
+	 * Asserts that pValidator finds the same violation as a full validation of its diagram.
+	 */
+	private static void assertSameAsFullValidation(IncrementalDiagramValidator pValidator)
+	{
+		Optional<Violation> expected = DiagramType.newValidatorInstanceFor(pValidator.diagram()).validate();
+		assertEquals(expected.map(Violation::toString), pValidator.validate().map(Violation::toString));
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"testPersistenceService.class.jet", "testPersistenceService2.class.jet", 
+			"performanceDiagram.class.jet", "testPersistenceService.object.jet", "testPersistenceService.sequence.jet", 
+			"testPersistenceService.state.jet", "testPersistenceService.usecase.jet"})
+	void testRemoveAndDuplicateEachEdge(String pFileName) throws IOException
+	{
+		Diagram diagram = PersistenceService.read(Path.of("testdata", pFileName).toFile());
+		IncrementalDiagramValidator validator = new IncrementalDiagramValidator(diagram);
+		assertSameAsFullValidation(validator);
+		for( Edge edge : new ArrayList<>(diagram.edges()) )
+		{
+			int index = diagram.indexOf(edge);
+			diagram.removeEdge(edge);
+			assertSameAsFullValidation(validator);
+			diagram.addEdge(index, edge);
+			assertSameAsFullValidation(validator);
+			
+			Edge duplicate = edge.clone();
+			duplicate.connect(edge.start(), edge.end());
+			diagram.addEdge(duplicate);
+			assertSameAsFullValidation(validator);
+			Edge reverse = edge.clone();
+			reverse.connect(edge.end(), edge.start());
+			diagram.addEdge(reverse);
+			assertSameAsFullValidation(validator);
+			diagram.removeEdge(duplicate);
+			diagram.removeEdge(reverse);
+			assertSameAsFullValidation(validator);
+		}
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"testPersistenceService.class.jet", "testPersistenceService.sequence.jet"})
+	void testMoreChangesThanTheDiagramLists(String pFileName) throws IOException
+	{
+		Diagram diagram = PersistenceService.read(Path.of("testdata", pFileName).toFile());
+		IncrementalDiagramValidator validator = new IncrementalDiagramValidator(diagram);
+		assertSameAsFullValidation(validator);
+		List<Node> added = new ArrayList<>();
+		for( int i = 0; i < 1500; i++ )
+		{
+			added.add(new PointNode());
+			diagram.addRootNode(added.get(i));
+		}
+		assertSameAsFullValidation(validator);
+		added.forEach(diagram::removeRootNode);
+		assertSameAsFullValidation(validator);
+	}
+	
+	@ParameterizedTest
+	@EnumSource(DiagramType.class)
+	void testRandomEdits(DiagramType pType)
+	{
+		Diagram diagram = new Diagram(pType);
+		IncrementalDiagramValidator validator = new IncrementalDiagramValidator(diagram);
+		List<Node> nodeTypes = new ArrayList<>();
+		List<Edge> edgeTypes = new ArrayList<>();
+		for( DiagramElement prototype : pType.getPrototypes() )
+		{
+			if( prototype instanceof Node node )
+			{
+				nodeTypes.add(node);
+			}
+			else
+			{
+				edgeTypes.add((Edge) prototype);
+			}
+		}
+		// Types that are invalid in some diagrams, or that require a parent
+		List<Node> otherNodeTypes = List.of(new CallNode(), new FieldNode(), new PointNode());
+		List<Edge> otherEdgeTypes = List.of(new CallEdge(), new ReturnEdge());
+		
+		for( int i = 0; i < NUMBER_OF_EDITS; i++ )
+		{
+			int edit = aRandom.nextInt(10);
+			// Most additions that make the diagram invalid are rolled back, like in the editor
+			if( edit < 3 || diagram.rootNodes().isEmpty() )
+			{
+				Node node = pick(aRandom.nextInt(10) == 0 ? otherNodeTypes : nodeTypes).clone();
+				addNode(diagram, node);
+				if( !validator.isValid() && aRandom.nextInt(4) > 0 )
+				{
+					removeNode(diagram, node);
+				}
+			}
+			else if( edit < 7 )
+			{
+				Edge edge = pick(aRandom.nextInt(10) == 0 ? otherEdgeTypes : edgeTypes).clone();
+				edge.connect(pick(diagram.allNodes()), pick(diagram.allNodes()));
+				diagram.addEdge(edge);
+				if( !validator.isValid() && aRandom.nextInt(4) > 0 )
+				{
+					diagram.removeEdge(edge);
+				}
+			}
+			else if( edit < 9 && !diagram.edges().isEmpty() )
+			{
+				diagram.removeEdge(pick(diagram.edges()));
+			}
+			else
+			{
+				removeNode(diagram, pick(diagram.allNodes()));
+			}
+			assertSameAsFullValidation(validator);
+		}
+	}
+	
+	private <T> T pick(List<T> pElements)
+	{
+		return pElements.get(aRandom.nextInt(pElements.size()));
+	}
+	
+	/*
+	 * Adds pNode as a child of a node that allows it, if there is one, 
+	 * or as a root node otherwise.
+	 */
+	private void addNode(Diagram pDiagram, Node pNode)
+	{
+		List<Node> parents = pDiagram.allNodes().stream()
+				.filter(node -> node.allowsAsChild(pNode))
+				.toList();
+		if( parents.isEmpty() || aRandom.nextInt(5) == 0 )
+		{
+			pDiagram.addRootNode(pNode);
+		}
+		else
+		{
+			pick(parents).addChild(pNode);
+		}
+	}
+	
+	/*
+	 * Removes pNode, its descendants, and the edges connected to any of them.
+	 */
+	private static void removeNode(Diagram pDiagram, Node pNode)
+	{
+		List<Node> removed = new ArrayList<>();
+		collectNodes(pNode, removed);
+		pDiagram.edges().stream()
+			.filter(edge -> removed.contains(edge.start()) || removed.contains(edge.end()))
+			.toList()
+			.forEach(pDiagram::removeEdge);
+		if( pNode.hasParent() )
+		{
+			pNode.getParent().removeChild(pNode);
+		}
+		else
+		{
+			pDiagram.removeRootNode(pNode);
+		}
+	}
+	
+	private static void collectNodes(Node pNode, List<Node> pNodes)
+	{
+		pNodes.add(pNode);
+		pNode.getChildren().forEach(child -> collectNodes(child, pNodes));
+	}
+}
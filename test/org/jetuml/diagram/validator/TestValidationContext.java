@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagram.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.AggregationEdge;
+import org.jetuml.diagram.edges.AssociationEdge;
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.junit.jupiter.api.Test;
+
+public class TestValidationContext
+{
+	private final Diagram aDiagram = new Diagram(DiagramType.CLASS);
+	private final ClassNode aNode1 = new ClassNode();
+	private final ClassNode aNode2 = new ClassNode();
+	private final ClassNode aNode3 = new ClassNode();
+
+	private void addEdge(Edge pEdge, Node pStart, Node pEnd)
+	{
+		pEdge.connect(pStart, pEnd);
+		aDiagram.addEdge(pEdge);
+	}
+
+	@Test
+	void testDiagram()
+	{
+		assertSame(aDiagram, new ValidationContext(aDiagram).diagram());
+	}
+
+	@Test
+	void testNumberOfEdges_Empty()
+	{
+		aDiagram.addRootNode(aNode1);
+		assertEquals(0, new ValidationContext(aDiagram).numberOfEdges(DependencyEdge.class, aNode1, aNode1));
+	}
+
+	@Test
+	void testNumberOfEdges()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		aDiagram.addRootNode(aNode3);
+		addEdge(new DependencyEdge(), aNode1, aNode2);
+		addEdge(new DependencyEdge(), aNode1, aNode2);
+		addEdge(new DependencyEdge(), aNode2, aNode1);
+		addEdge(new AggregationEdge(), aNode1, aNode2);
+		addEdge(new DependencyEdge(), aNode3, aNode3);
+		ValidationContext context = new ValidationContext(aDiagram);
+		assertEquals(2, context.numberOfEdges(DependencyEdge.class, aNode1, aNode2));
+		assertEquals(1, context.numberOfEdges(DependencyEdge.class, aNode2, aNode1));
+		assertEquals(1, context.numberOfEdges(AggregationEdge.class, aNode1, aNode2));
+		assertEquals(0, context.numberOfEdges(AggregationEdge.class, aNode2, aNode1));
+		assertEquals(0, context.numberOfEdges(AssociationEdge.class, aNode1, aNode2));
+		assertEquals(1, context.numberOfEdges(DependencyEdge.class, aNode3, aNode3));
+		assertEquals(0, context.numberOfEdges(DependencyEdge.class, aNode1, aNode3));
+	}
+}
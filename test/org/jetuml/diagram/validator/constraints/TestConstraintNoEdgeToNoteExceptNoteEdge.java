@@ -30,6 +30,7 @@ import org.jetuml.diagram.edges.NoteEdge;
 import org.jetuml.diagram.nodes.ClassNode;
 import org.jetuml.diagram.nodes.NoteNode;
 import org.jetuml.diagram.nodes.PointNode;
+import org.jetuml.diagram.validator.ValidationContext;
 import org.junit.jupiter.api.Test;
 
 public class TestConstraintNoEdgeToNoteExceptNoteEdge
@@ -50,7 +51,7 @@ public class TestConstraintNoEdgeToNoteExceptNoteEdge
 		aDiagram.addRootNode(nodeB);
 		aDiagram.addEdge(edge);
 		
-		assertTrue(CONSTRAINT.satisfied(edge, aDiagram));
+		assertTrue(CONSTRAINT.satisfied(edge, new ValidationContext(aDiagram)));
 	}
 	
 	@Test
@@ -64,7 +65,7 @@ public class TestConstraintNoEdgeToNoteExceptNoteEdge
 		aDiagram.addRootNode(nodeB);
 		aDiagram.addEdge(edge);
 		
-		assertFalse(CONSTRAINT.satisfied(edge, aDiagram));
+		assertFalse(CONSTRAINT.satisfied(edge, new ValidationContext(aDiagram)));
 	}
 	
 	@Test
@@ -78,7 +79,7 @@ public class TestConstraintNoEdgeToNoteExceptNoteEdge
 		aDiagram.addRootNode(nodeB);
 		aDiagram.addEdge(edge);
 		
-		assertFalse(CONSTRAINT.satisfied(edge, aDiagram));
+		assertFalse(CONSTRAINT.satisfied(edge, new ValidationContext(aDiagram)));
 	}
 	
 	@Test
@@ -92,7 +93,7 @@ public class TestConstraintNoEdgeToNoteExceptNoteEdge
 		aDiagram.addRootNode(nodeB);
 		aDiagram.addEdge(edge);
 		
-		assertFalse(CONSTRAINT.satisfied(edge, aDiagram));
+		assertFalse(CONSTRAINT.satisfied(edge, new ValidationContext(aDiagram)));
 	}
 	
 	@Test
@@ -106,6 +107,6 @@ public class TestConstraintNoEdgeToNoteExceptNoteEdge
 		aDiagram.addRootNode(nodeB);
 		aDiagram.addEdge(edge);
 		
-		assertTrue(CONSTRAINT.satisfied(edge, aDiagram));
+		assertTrue(CONSTRAINT.satisfied(edge, new ValidationContext(aDiagram)));
 	}
 }
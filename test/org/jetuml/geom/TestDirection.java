@@ -80,6 +80,13 @@ public class TestDirection
 		assertSame( Direction.WEST, Direction.fromLine(new Point(0,0), new Point(-1, 0)));
 	}
 	
+	@Test
+	void testFromLine_Long()
+	{
+		assertSame( Direction.EAST, Direction.fromLine(new Point(0,0), new Point(100000, 0)));
+		assertEquals( 135, Direction.fromLine(new Point(0,0), new Point(100000, 100000)).asAngle());
+	}
+	
 	private static IntStream angleGenerator()
 	{
 		return IntStream.range(0, 500);
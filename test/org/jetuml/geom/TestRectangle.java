@@ -72,6 +72,18 @@ public class TestRectangle
 		assertFalse(RECTANGLE_1.contains(new Point(0,41)));
 	}
 	
+	@Test
+	void testIntersects()
+	{
+		assertTrue(RECTANGLE_1.intersects(RECTANGLE_1));
+		assertTrue(RECTANGLE_1.intersects(new Rectangle(10, 10, 5, 5)));
+		assertTrue(RECTANGLE_1.intersects(new Rectangle(-10, -10, 100, 100)));
+		assertTrue(RECTANGLE_1.intersects(new Rectangle(60, 40, 10, 10)));
+		assertTrue(RECTANGLE_1.intersects(new Rectangle(-10, 30, 20, 50)));
+		assertFalse(RECTANGLE_1.intersects(new Rectangle(61, 0, 10, 10)));
+		assertFalse(RECTANGLE_1.intersects(new Rectangle(0, -11, 10, 10)));
+	}
+	
 	@Test
 	void testGetCenter()
 	{
@@ -100,6 +112,17 @@ public class TestRectangle
 		assertEquals( new Rectangle(0,0,100,100), rectangle);
 	}
 	
+	@Test
+	void testDistance()
+	{
+		Rectangle rectangle = new Rectangle(10,10,20,20);
+		assertEquals(0, rectangle.distance(new Point(15,15)));
+		assertEquals(0, rectangle.distance(new Point(30,10)));
+		assertEquals(5, rectangle.distance(new Point(35,20)));
+		assertEquals(10, rectangle.distance(new Point(20,0)));
+		assertEquals(5, rectangle.distance(new Point(33,34)));
+	}
+	
 	@Test
 	void testAddRectangle()
 	{
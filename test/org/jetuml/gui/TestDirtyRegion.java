@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.jetuml.geom.Rectangle;
+import org.junit.jupiter.api.Test;
+
+public class TestDirtyRegion
+{
+	private DirtyRegion aRegion = new DirtyRegion(5);
+
+	@Test
+	void testEmpty()
+	{
+		assertTrue(aRegion.isEmpty());
+		assertTrue(aRegion.rectangles().isEmpty());
+	}
+
+	@Test
+	void testAdd_Margin()
+	{
+		aRegion.add(new Rectangle(10, 20, 30, 40));
+		assertFalse(aRegion.isEmpty());
+		assertEquals(List.of(new Rectangle(5, 15, 40, 50)), aRegion.rectangles());
+	}
+
+	@Test
+	void testAdd_Disjoint()
+	{
+		aRegion.add(new Rectangle(0, 0, 10, 10));
+		aRegion.add(new Rectangle(100, 100, 10, 10));
+		assertEquals(List.of(new Rectangle(-5, -5, 20, 20), new Rectangle(95, 95, 20, 20)), aRegion.rectangles());
+	}
+
+	@Test
+	void testAdd_IntersectingWithMargin()
+	{
+		aRegion.add(new Rectangle(0, 0, 10, 10));
+		aRegion.add(new Rectangle(18, 0, 10, 10));
+		assertEquals(List.of(new Rectangle(-5, -5, 38, 20)), aRegion.rectangles());
+	}
+
+	@Test
+	void testAdd_MergeCascades()
+	{
+		aRegion.add(new Rectangle(0, 0, 10, 10));
+		aRegion.add(new Rectangle(100, 0, 10, 10));
+		aRegion.add(new Rectangle(0, 100, 110, 10));
+		// Only intersects the third rectangle, but the result of the merge intersects the others
+		aRegion.add(new Rectangle(50, 5, 10, 100));
+		assertEquals(List.of(new Rectangle(-5, -5, 120, 120)), aRegion.rectangles());
+	}
+
+	@Test
+	void testAdd_Region()
+	{
+		aRegion.add(new Rectangle(0, 0, 10, 10));
+		DirtyRegion other = new DirtyRegion(1);
+		other.add(new Rectangle(16, 0, 10, 10));
+		other.add(new Rectangle(100, 100, 10, 10));
+		aRegion.add(other);
+		// The rectangles of the other region are not enlarged by the margin of this region
+		assertEquals(List.of(new Rectangle(-5, -5, 32, 20), new Rectangle(99, 99, 12, 12)), aRegion.rectangles());
+	}
+}
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.Raster;
+import java.util.concurrent.Semaphore;
+
+import org.jetuml.JavaFXLoader;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.geom.Rectangle;
+import org.jetuml.rendering.DiagramRenderer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javafx.application.Platform;
+
+public class TestTiledDiagramImage
+{
+	private static final int PADDING = 4;
+
+	private Diagram aDiagram = new Diagram(DiagramType.CLASS);
+	private DiagramRenderer aRenderer = DiagramType.newRendererInstanceFor(aDiagram);
+
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+
+	@BeforeEach
+	void setup()
+	{
+		ClassNode node1 = new ClassNode();
+		node1.translate(10, 20);
+		ClassNode node2 = new ClassNode();
+		// Far enough below the first node that the image has three bands
+		node2.translate(300, 1200);
+		aDiagram.addRootNode(node1);
+		aDiagram.addRootNode(node2);
+	}
+
+	/*
+	 * Runs pTask on the JavaFX application thread and waits for it to complete.
+	 */
+	private static void runOnFXThread(Runnable pTask) throws InterruptedException
+	{
+		Semaphore semaphore = new Semaphore(0);
+		Platform.runLater(() ->
+		{
+			try
+			{
+				pTask.run();
+			}
+			finally
+			{
+				semaphore.release();
+			}
+		});
+		semaphore.acquire();
+	}
+
+	@Test
+	void testDimensions()
+	{
+		TiledDiagramImage image = new TiledDiagramImage(aRenderer, PADDING);
+		Rectangle bounds = aRenderer.getBounds();
+		assertEquals(bounds.width() + 2 * PADDING, image.getWidth());
+		assertEquals(bounds.height() + 2 * PADDING, image.getHeight());
+		assertEquals(1, image.getNumXTiles());
+		assertEquals(3, image.getNumYTiles());
+		assertEquals(image.getWidth(), image.getTileWidth());
+		assertEquals(TiledDiagramImage.TILE_SIZE, image.getTileHeight());
+	}
+
+	@Test
+	void testWideDiagram()
+	{
+		ClassNode node = new ClassNode();
+		node.translate(20000, 0);
+		aDiagram.addRootNode(node);
+		TiledDiagramImage image = new TiledDiagramImage(aRenderer, PADDING);
+		assertTrue(image.getTileHeight() < TiledDiagramImage.TILE_SIZE);
+		assertTrue(image.getTileWidth() * image.getTileHeight() <= TiledDiagramImage.MAX_BAND_PIXELS);
+		assertEquals((image.getHeight() + image.getTileHeight() - 1) / image.getTileHeight(), image.getNumYTiles());
+	}
+
+	@Test
+	void testRowsMatchWholeImage() throws InterruptedException
+	{
+		TiledDiagramImage image = new TiledDiagramImage(aRenderer, PADDING);
+		int[][] rows = new int[image.getHeight()][];
+		int[][] wholeRows = new int[image.getHeight()][];
+		runOnFXThread(() ->
+		{
+			for( int y = 0; y < image.getHeight(); y++ )
+			{
+				Raster row = image.getData(new java.awt.Rectangle(0, y, image.getWidth(), 1));
+				rows[y] = row.getPixels(0, y, image.getWidth(), 1, (int[]) null);
+			}
+			Raster whole = image.getData();
+			for( int y = 0; y < image.getHeight(); y++ )
+			{
+				wholeRows[y] = whole.getPixels(0, y, image.getWidth(), 1, (int[]) null);
+			}
+		});
+		for( int y = 0; y < image.getHeight(); y++ )
+		{
+			assertArrayEquals(wholeRows[y], rows[y]);
+		}
+	}
+
+	@Test
+	void testBorderIsWhite() throws InterruptedException
+	{
+		TiledDiagramImage image = new TiledDiagramImage(aRenderer, PADDING);
+		int[] pixel = new int[1];
+		runOnFXThread(() -> image.getPixels(0, image.getHeight() - 1, 1, 1, pixel, 0, 1));
+		assertEquals(0xffffff, pixel[0] & 0xffffff);
+	}
+}
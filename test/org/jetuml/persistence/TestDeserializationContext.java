@@ -97,6 +97,27 @@ public class TestDeserializationContext
 		assertSame(aClassNode3, aContext.getNode(2));
 	}
 	
+	@Test
+	void testAddNode_NewId()
+	{
+		aContext = new DeserializationContext(aDiagram);
+		aContext.addNode(aClassNode1, 0);
+		aContext.addNode(aClassNode1, 4);
+		assertFalse(aContext.idExists(0));
+		assertTrue(aContext.idExists(4));
+		assertSame(aClassNode1, aContext.getNode(4));
+	}
+	
+	@Test
+	void testAddNode_SameIdTwice()
+	{
+		aContext = new DeserializationContext(aDiagram);
+		aContext.addNode(aClassNode1, 0);
+		aContext.addNode(aClassNode2, 0);
+		assertSame(aClassNode1, aContext.getNode(0));
+		assertEquals(2, size());
+	}
+	
 	@Test
 	void testMaintainOrder()
 	{
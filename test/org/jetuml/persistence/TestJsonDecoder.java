@@ -20,10 +20,19 @@
  *******************************************************************************/
 package org.jetuml.persistence;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.StringReader;
+
 import org.jetuml.JavaFXLoader;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.nodes.PackageNode;
+import org.jetuml.persistence.DeserializationException.Category;
 import org.jetuml.persistence.json.JsonObject;
+import org.jetuml.persistence.json.JsonReader;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -58,4 +67,42 @@ public class TestJsonDecoder
 		object.put("diagram", "StateDiagram");
 		assertThrows(DeserializationException.class, () -> new JsonDecoder(object).decode());
 	}
+	
+	private static Diagram decode(String pText)
+	{
+		return new JsonDecoder(new JsonReader(new StringReader(pText))).decode();
+	}
+	
+	/*
+	 * The properties of the diagram are in the reverse of the 
+	 * order in which they are written.
+	 */
+	@Test
+	public void testPropertiesInAnyOrder()
+	{
+		Diagram diagram = decode("{\"version\":\"3.5\",\"edges\":[{\"middleLabel\":\"\",\"start\":0,"
+				+ "\"directionality\":\"Unidirectional\",\"end\":1,\"type\":\"DependencyEdge\"}],"
+				+ "\"nodes\":[{\"name\":\"\",\"x\":10,\"y\":20,\"id\":0,\"type\":\"PackageNode\",\"children\":[1]},"
+				+ "{\"methods\":\"\",\"name\":\"C\",\"x\":30,\"y\":40,\"attributes\":\"\",\"id\":1,\"type\":\"ClassNode\"}],"
+				+ "\"diagram\":\"ClassDiagram\"}");
+		assertSame(DiagramType.CLASS, diagram.getType());
+		assertEquals(1, diagram.rootNodes().size());
+		assertEquals(1, ((PackageNode) diagram.rootNodes().get(0)).getChildren().size());
+		assertEquals(1, diagram.edges().size());
+	}
+	
+	/*
+	 * Malformed JSON text is reported even if it follows
+	 * a structural problem.
+	 */
+	@Test
+	public void testSyntacticErrorAfterStructuralError()
+	{
+		DeserializationException exception = assertThrows(DeserializationException.class, 
+				() -> decode("{\"diagram\":\"FooDiagram\",\"nodes\":[],\"edges\":[,\"version\":\"3.5\"}"));
+		assertSame(Category.SYNTACTIC, exception.category());
+		exception = assertThrows(DeserializationException.class, 
+				() -> decode("{\"diagram\":\"FooDiagram\",\"nodes\":[],\"edges\":[],\"version\":\"3.5\"}"));
+		assertSame(Category.STRUCTURAL, exception.category());
+	}
 }
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.diagram.nodes.PackageNode;
+import org.jetuml.geom.Point;
+import org.jetuml.persistence.json.JsonReader;
+
+/**
+ * Measures the time to load class diagrams of increasing size, to 
+ * check that decoding time grows linearly with the number of nodes.
+ * Each diagram has packages of classes, with a dependency between
+ * consecutive classes, so that decoding resolves one id per child 
+ * and two ids per edge. The time to read the diagram with 
+ * PersistenceService, which also validates it, is reported separately.
+ */
+public final class TestLoadPerformance 
+{
+	private static final int NUMBER_OF_TRIALS = 10;
+	private static final int[] SIZES = {1250, 2500, 5000, 10000};
+	private static final int CLASSES_PER_PACKAGE = 9;
+	
+	private TestLoadPerformance() {}
+	
+	/**
+	 * Test method.
+	 */
+	public static void main(String[] pArgs) throws Exception
+	{
+		for( int size : SIZES )
+		{
+			File file = File.createTempFile("jetuml", ".class.jet");
+			file.deleteOnExit();
+			PersistenceService.save(createDiagram(size), file);
+			
+			double decodeTime = averageTime(() -> decode(file));
+			double readTime = averageTime(() -> PersistenceService.read(file));
+			System.out.println(String.format("%6d nodes: decode %7.1f ms (%5.2f microseconds per node), read %7.1f ms", 
+					size, decodeTime, decodeTime * 1000 / size, readTime));
+		}
+	}
+	
+	private static void decode(File pFile) throws Exception
+	{
+		try( JsonReader reader = new JsonReader(Files.newBufferedReader(pFile.toPath(), StandardCharsets.UTF_8)) )
+		{
+			new JsonDecoder(reader).decode();
+		}
+	}
+	
+	/*
+	 * @return The average duration of pTask in milliseconds, excluding a first warm-up run.
+	 */
+	private static double averageTime(Task pTask) throws Exception
+	{
+		double avgExecutionTime = 0.0;
+		for( int i = 0; i < NUMBER_OF_TRIALS + 1; i++ )
+		{
+			Instant start = Instant.now();
+			pTask.run();
+			Instant stop = Instant.now();
+			if( i > 0 )
+			{
+				avgExecutionTime += Duration.between(start, stop).toMillis();
+			}
+		}
+		return avgExecutionTime / NUMBER_OF_TRIALS;
+	}
+	
+	private interface Task
+	{
+		void run() throws Exception;
+	}
+	
+	private static Diagram createDiagram(int pNumberOfNodes)
+	{
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		PackageNode packageNode = null;
+		Node previous = null;
+		for( int i = 0; i < pNumberOfNodes; i++ )
+		{
+			Point position = new Point(i % 100 * 200, i / 100 * 150);
+			if( i % (CLASSES_PER_PACKAGE + 1) == 0 )
+			{
+				packageNode = new PackageNode();
+				packageNode.moveTo(position);
+				diagram.addRootNode(packageNode);
+				continue;
+			}
+			ClassNode classNode = new ClassNode();
+			classNode.setName("Class" + i);
+			classNode.moveTo(position);
+			packageNode.addChild(classNode);
+			if( previous != null )
+			{
+				DependencyEdge edge = new DependencyEdge();
+				edge.connect(previous, classNode);
+				diagram.addEdge(edge);
+			}
+			previous = classNode;
+		}
+		return diagram;
+	}
+}
@@ -0,0 +1,318 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.builder.DiagramOperationProcessor;
+import org.jetuml.diagram.builder.MoveOperation;
+import org.jetuml.diagram.builder.SimpleOperation;
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.diagram.nodes.NamedNode;
+import org.jetuml.diagram.nodes.PackageNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestOperationJournal
+{
+	@TempDir
+	Path aDirectory;
+
+	private File aFile;
+	private Diagram aDiagram;
+	private OperationJournal aJournal;
+	private final DiagramOperationProcessor aProcessor = new DiagramOperationProcessor();
+
+	@BeforeEach
+	public void setup() throws IOException
+	{
+		aFile = aDirectory.resolve("diagram.class.jet").toFile();
+		PersistenceService.save(PersistenceService.read(Path.of("testdata", "testPersistenceService.class.jet").toFile()), aFile);
+		aDiagram = PersistenceService.read(aFile);
+		aJournal = new OperationJournal(aDiagram, aFile);
+		aProcessor.setObserver(aJournal);
+	}
+
+	private Node node(int pIndex)
+	{
+		return aDiagram.allNodes().get(pIndex);
+	}
+
+	private Edge edge(int pIndex)
+	{
+		return aDiagram.edges().get(pIndex);
+	}
+
+	private List<String> journal() throws IOException
+	{
+		aJournal.flush();
+		return Files.readAllLines(aDirectory.resolve("diagram.class.jet.journal"), StandardCharsets.UTF_8);
+	}
+
+	private void assertRecovered() throws IOException
+	{
+		aJournal.flush();
+		assertTrue(OperationJournal.hasJournal(aFile));
+		assertEquals(JsonEncoder.encode(aDiagram).toString(), JsonEncoder.encode(OperationJournal.recover(aFile)).toString());
+	}
+
+	@Test
+	public void testNoChanges()
+	{
+		aJournal.flush();
+		assertFalse(OperationJournal.hasJournal(aFile));
+	}
+
+	@Test
+	public void testMoves() throws IOException
+	{
+		aProcessor.executeNewOperation(new MoveOperation(node(0), 10, 20));
+		aProcessor.executeNewOperation(new MoveOperation(node(0), 5, -5));
+		aProcessor.executeNewOperation(new MoveOperation(node(1), -30, 0));
+		assertRecovered();
+	}
+
+	@Test
+	public void testUndoAndRedo() throws IOException
+	{
+		aProcessor.executeNewOperation(new MoveOperation(node(0), 10, 20));
+		aProcessor.executeNewOperation(new MoveOperation(node(1), -30, 0));
+		aProcessor.undoLastExecutedOperation();
+		assertRecovered();
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.redoLastUndoneOperation();
+		assertRecovered();
+	}
+
+	@Test
+	public void testAddAndRemoveRootNodes() throws IOException
+	{
+		ClassNode added = new ClassNode();
+		aProcessor.executeNewOperation(new MoveOperation(node(0), 10, 20));
+		aProcessor.executeNewOperation(new SimpleOperation(() -> aDiagram.addRootNode(added),
+				() -> aDiagram.removeRootNode(added)));
+		aProcessor.executeNewOperation(new MoveOperation(added, 100, 100));
+		aProcessor.executeNewOperation(new MoveOperation(node(1), -30, 0));
+		assertRecovered();
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.undoLastExecutedOperation();
+		assertRecovered();
+	}
+
+	@Test
+	public void testMovesOfAddedNode() throws IOException
+	{
+		ClassNode added = new ClassNode();
+		aProcessor.executeNewOperation(new SimpleOperation(() -> aDiagram.addRootNode(added),
+				() -> {}));
+		aProcessor.executeNewOperation(new MoveOperation(node(0), 10, 20));
+		assertRecovered();
+		aProcessor.executeNewOperation(new MoveOperation(added, 5, 5));
+		assertRecovered();
+	}
+
+	@Test
+	public void testPropertyChanges() throws IOException
+	{
+		NamedNode node = (NamedNode) node(2);
+		String name = node.getName();
+		aProcessor.executeNewOperation(new SimpleOperation(() -> node.setName("Renamed"), 
+				() -> node.setName(name)));
+		List<String> journal = journal();
+		assertEquals(2, journal.size());
+		assertTrue(journal.get(1).contains("\"Renamed\""));
+		assertTrue(journal.get(1).contains("\"" + name + "\""));
+		assertFalse(journal.get(1).contains(((NamedNode) node(1)).getName()));
+		assertRecovered();
+		Edge edge = aDiagram.edges().stream().filter(DependencyEdge.class::isInstance).findFirst().get();
+		aProcessor.executeNewOperation(new SimpleOperation(
+				() -> edge.properties().get(PropertyName.DIRECTIONALITY).set("Bidirectional"), 
+				() -> edge.properties().get(PropertyName.DIRECTIONALITY).set("Unidirectional")));
+		assertRecovered();
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.undoLastExecutedOperation();
+		assertRecovered();
+	}
+
+	@Test
+	public void testReconnection() throws IOException
+	{
+		Edge edge = edge(1);
+		Node start = edge.start();
+		Node end = edge.end();
+		aProcessor.executeNewOperation(new SimpleOperation(() -> edge.connect(end, node(0)), 
+				() -> edge.connect(start, end)));
+		assertRecovered();
+		aProcessor.undoLastExecutedOperation();
+		assertRecovered();
+	}
+
+	@Test
+	public void testAddAndRemoveEdges() throws IOException
+	{
+		Edge removed = edge(1);
+		Edge added = new DependencyEdge();
+		added.connect(node(3), node(2));
+		aProcessor.executeNewOperation(new SimpleOperation(() -> 
+		{
+			aDiagram.removeEdge(removed);
+			aDiagram.addEdge(2, added);
+		}, () -> 
+		{
+			aDiagram.removeEdge(added);
+			aDiagram.addEdge(1, removed);
+		}));
+		assertRecovered();
+		aProcessor.undoLastExecutedOperation();
+		assertRecovered();
+		aProcessor.redoLastUndoneOperation();
+		assertRecovered();
+	}
+
+	@Test
+	public void testChildren() throws IOException
+	{
+		PackageNode container = (PackageNode) aDiagram.rootNodes().stream()
+				.filter(PackageNode.class::isInstance).findFirst().get();
+		Node node = node(3);
+		ClassNode added = new ClassNode();
+		aProcessor.executeNewOperation(new SimpleOperation(() -> 
+		{
+			aDiagram.removeRootNode(node);
+			container.addChild(node);
+			container.addChild(0, added);
+		}, () -> 
+		{
+			container.removeChild(added);
+			container.removeChild(node);
+			aDiagram.addRootNode(node);
+		}));
+		assertRecovered();
+		aProcessor.executeNewOperation(new MoveOperation(container, 10, 10));
+		assertRecovered();
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.undoLastExecutedOperation();
+		assertRecovered();
+	}
+
+	@Test
+	public void testFold() throws IOException
+	{
+		ClassNode node = new ClassNode();
+		aProcessor.executeNewOperation(new SimpleOperation(() -> aDiagram.addRootNode(node), 
+				() -> aDiagram.removeRootNode(node)));
+		aProcessor.executeNewOperation(new SimpleOperation(() -> aDiagram.removeRootNode(node), 
+				() -> aDiagram.addRootNode(node)));
+		for( int i = 0; i < 1200; i++ )
+		{
+			aProcessor.executeNewOperation(new MoveOperation(node(i % 2), 1, 0));
+		}
+		List<String> journal = journal();
+		assertTrue(journal.size() < 1000);
+		assertTrue(journal.get(1).startsWith("{\"checkpoint\""));
+		assertRecovered();
+		// The node removed before the journal was folded is recorded completely when it is added back
+		aProcessor.executeNewOperation(new SimpleOperation(() -> aDiagram.addRootNode(node), 
+				() -> aDiagram.removeRootNode(node)));
+		assertRecovered();
+	}
+
+	@Test
+	public void testCheckpoint() throws IOException
+	{
+		node(0).translate(10, 10);
+		aJournal.checkpoint();
+		aProcessor.executeNewOperation(new MoveOperation(node(1), 5, 5));
+		assertRecovered();
+	}
+
+	@Test
+	public void testTruncatedLine() throws IOException
+	{
+		aProcessor.executeNewOperation(new MoveOperation(node(0), 10, 20));
+		aJournal.flush();
+		String expected = JsonEncoder.encode(aDiagram).toString();
+		Files.writeString(aDirectory.resolve("diagram.class.jet.journal"), "{\"nodes\":[{\"id\":0,\"x\":5",
+				StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+		assertEquals(expected, JsonEncoder.encode(OperationJournal.recover(aFile)).toString());
+	}
+
+	@Test
+	public void testDiagramSaved() throws IOException
+	{
+		aProcessor.executeNewOperation(new MoveOperation(node(0), 10, 20));
+		PersistenceService.save(aDiagram, aFile);
+		aJournal.diagramSaved();
+		aJournal.flush();
+		assertFalse(OperationJournal.hasJournal(aFile));
+		aProcessor.executeNewOperation(new MoveOperation(node(0), 5, 5));
+		assertRecovered();
+	}
+
+	@Test
+	public void testClose()
+	{
+		aProcessor.executeNewOperation(new MoveOperation(node(0), 10, 20));
+		aJournal.close();
+		assertFalse(OperationJournal.hasJournal(aFile));
+		aProcessor.executeNewOperation(new MoveOperation(node(0), 5, 5));
+		aJournal.flush();
+		assertFalse(OperationJournal.hasJournal(aFile));
+	}
+
+	@Test
+	public void testSetAside() throws IOException
+	{
+		aProcessor.executeNewOperation(new MoveOperation(node(0), 10, 20));
+		aJournal.flush();
+		String journal = Files.readString(aDirectory.resolve("diagram.class.jet.journal"), StandardCharsets.UTF_8);
+		Path setAside = OperationJournal.setAside(aFile);
+		assertFalse(OperationJournal.hasJournal(aFile));
+		new OperationJournal(aDiagram, aFile).flush();
+		assertEquals(journal, Files.readString(setAside, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testFileModified()
+	{
+		aProcessor.executeNewOperation(new MoveOperation(node(0), 10, 20));
+		aJournal.flush();
+		assertTrue(aFile.setLastModified(aFile.lastModified() - 10_000));
+		assertFalse(OperationJournal.hasJournal(aFile));
+	}
+}
@@ -24,6 +24,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.StringReader;
+
 import org.junit.jupiter.api.Test;
 
 public class TestCharacterBuffer
@@ -156,4 +158,35 @@ public class TestCharacterBuffer
 		aBuffer1.next();
 		assertFalse(aBuffer1.hasMore());
 	}
+	
+	@Test
+	void testReader_AcrossWindows()
+	{
+		String input = "ab".repeat(10000);
+		CharacterBuffer buffer = new CharacterBuffer(new StringReader(input));
+		for( int i = 0; i < input.length(); i++ )
+		{
+			assertTrue(buffer.hasMore(1));
+			assertEquals(input.charAt(i), buffer.next());
+			buffer.backUp();
+			assertEquals(i - 1, buffer.position());
+			assertEquals(input.charAt(i), buffer.next());
+			assertEquals(i, buffer.position());
+		}
+		assertFalse(buffer.hasMore());
+	}
+	
+	@Test
+	void testReader_HasMore_Int()
+	{
+		CharacterBuffer buffer = new CharacterBuffer(new StringReader("abc\nde\r\b\ffg h"));
+		for( int i = 0; i < 7; i++ )
+		{
+			buffer.next();
+		}
+		assertTrue(buffer.hasMore(6));
+		buffer.next();
+		assertFalse(buffer.hasMore(6));
+		assertEquals('\f', buffer.next());
+	}
 }
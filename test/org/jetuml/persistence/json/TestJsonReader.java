@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import org.jetuml.persistence.json.JsonReader.Token;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class TestJsonReader
+{
+	private static JsonReader reader(String pInput)
+	{
+		return new JsonReader(new OneCharacterReader(pInput));
+	}
+	
+	@Test
+	void testTokens()
+	{
+		JsonReader reader = reader("{\"a\" : [1, true,\"x\"], \"b\":{} }");
+		assertSame(Token.BEGIN_OBJECT, reader.peek());
+		reader.beginObject();
+		assertTrue(reader.hasNext());
+		assertEquals("a", reader.nextName());
+		reader.beginArray();
+		assertEquals(1, reader.nextInt());
+		assertTrue(reader.nextBoolean());
+		assertSame(Token.STRING, reader.peek());
+		assertEquals("x", reader.nextString());
+		assertFalse(reader.hasNext());
+		reader.endArray();
+		assertEquals("b", reader.nextName());
+		reader.beginObject();
+		reader.endObject();
+		assertSame(Token.END_OBJECT, reader.peek());
+		reader.endObject();
+		assertSame(Token.END_DOCUMENT, reader.peek());
+	}
+	
+	@Test
+	void testTokens_Unexpected()
+	{
+		JsonReader reader = reader("{\"a\":1}");
+		reader.beginObject();
+		JsonException exception = assertThrows(JsonException.class, () -> reader.nextString());
+		assertFalse(exception instanceof JsonParsingException);
+		assertEquals("a", reader.nextName());
+		assertEquals(1, reader.nextInt());
+	}
+	
+	@Test
+	void testNextObject_SameAsParser()
+	{
+		String input = "{\"a\":[1,[2,{\"c\":\"\\u0041\\n\"}],-3],\"b\":false,\"d\":{\"e\":{}}}";
+		JsonObject object = reader(input).nextObject();
+		assertEquals(JsonParser.parse(input).toString(), object.toString());
+	}
+	
+	@Test
+	void testSkipValue()
+	{
+		JsonReader reader = reader("{\"a\":[1,{\"b\":[]}],\"c\":2}");
+		reader.beginObject();
+		reader.nextName();
+		reader.skipValue();
+		assertEquals("c", reader.nextName());
+		assertEquals(2, reader.nextInt());
+		reader.endObject();
+	}
+	
+	@Test
+	void testSkipToEnd()
+	{
+		JsonReader reader = reader("{\"a\":[1,{\"b\":[]}],\"c\":2}");
+		reader.beginObject();
+		reader.nextName();
+		reader.beginArray();
+		reader.skipToEnd();
+		assertSame(Token.END_DOCUMENT, reader.peek());
+	}
+	
+	@Test
+	void testInputStream()
+	{
+		JsonReader reader = new JsonReader(new ByteArrayInputStream("{\"\u00e9\":\"\u4e2d\"}".getBytes(StandardCharsets.UTF_8)));
+		JsonObject object = reader.nextObject();
+		assertEquals("\u4e2d", object.getString("\u00e9"));
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"", " {}", "[]", "{", "{\"a\"}", "{\"a\":}", "{\"a\":1,}", "{\"a\":1 \"b\":2}",
+			"{\"a\":1,\"a\":[2,3]}", "{\"a\":{\"b\":1,\"b\":2}}", "{\"a\":[1,]}", "{\"a\":[1 2]}", "{\"a\":[1",
+			"{\"a\":tru}", "{\"a\":fals", "{\"a\":-}", "{\"a\":012}", "{\"a\":99999999999}", "{\"a\":\"\\x\"}",
+			"{\"a\":\"\\u12\"}", "{\"a\":\"\\u12G4\"}", "{\"a\":\"abc", "{\"a\":\"a\nb\"}", "{a:1}", "{\"a\":null}"})
+	void testMalformed_SamePositionAsParser(String pInput)
+	{
+		JsonParsingException expected = assertThrows(JsonParsingException.class, () -> JsonParser.parse(pInput));
+		JsonParsingException actual = assertThrows(JsonParsingException.class, () -> reader(pInput).skipToEnd());
+		assertEquals(expected.position(), actual.position());
+		actual = assertThrows(JsonParsingException.class, () -> reader(pInput).nextObject());
+		assertEquals(expected.position(), actual.position());
+	}
+	
+	/*
+	 * Supplies one character at a time, so that the reader has
+	 * to refill its buffer for every character.
+	 */
+	private static final class OneCharacterReader extends Reader
+	{
+		private final Reader aReader;
+		
+		OneCharacterReader(String pInput)
+		{
+			aReader = new StringReader(pInput);
+		}
+
+		@Override
+		public int read(char[] pBuffer, int pOffset, int pLength) throws IOException
+		{
+			return aReader.read(pBuffer, pOffset, Math.min(pLength, 1));
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			aReader.close();
+		}
+	}
+}
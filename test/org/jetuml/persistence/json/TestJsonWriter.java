@@ -23,10 +23,13 @@ package org.jetuml.persistence.json;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.StringWriter;
+
 import org.junit.jupiter.api.Test;
 
 /*
- * Only testing that the operation is despatched as expected.
+ * For the static write method, only testing that the operation 
+ * is despatched as expected.
  */
 public class TestJsonWriter
 {
@@ -68,4 +71,56 @@ public class TestJsonWriter
 	{
 		assertThrows(JsonException.class, () -> JsonWriter.write(null));
 	}
+	
+	@Test
+	void testStreaming_Empty()
+	{
+		StringWriter output = new StringWriter();
+		JsonWriter writer = new JsonWriter(output);
+		writer.beginObject();
+		writer.endObject();
+		assertEquals("{}", output.toString());
+	}
+	
+	@Test
+	void testStreaming_Nested()
+	{
+		StringWriter output = new StringWriter();
+		JsonWriter writer = new JsonWriter(output);
+		writer.beginObject();
+		writer.name("a");
+		writer.beginArray();
+		writer.value(1);
+		writer.beginObject();
+		writer.endObject();
+		writer.beginArray();
+		writer.endArray();
+		writer.value(true);
+		writer.endArray();
+		writer.name("b");
+		writer.value(-5);
+		writer.name("c");
+		writer.beginObject();
+		writer.name("d");
+		writer.value(false);
+		writer.endObject();
+		writer.endObject();
+		assertEquals("{\"a\":[1,{},[],true],\"b\":-5,\"c\":{\"d\":false}}", output.toString());
+	}
+	
+	@Test
+	void testStreaming_Strings()
+	{
+		String value = "a\b\n\"/\\\u0001\u001fx\u00e9";
+		StringWriter output = new StringWriter();
+		JsonWriter writer = new JsonWriter(output);
+		writer.beginObject();
+		writer.name(value);
+		writer.value(value);
+		writer.endObject();
+		JsonObject object = new JsonObject();
+		object.put(value, value);
+		assertEquals(JsonWriter.write(object), output.toString());
+		assertEquals(value, JsonParser.parse(output.toString()).getString(value));
+	}
 }
@@ -24,12 +24,17 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.DependencyEdge;
 import org.jetuml.diagram.nodes.ClassNode;
 import org.jetuml.diagram.nodes.PackageNode;
 import org.jetuml.geom.Point;
+import org.jetuml.geom.Rectangle;
 import org.junit.jupiter.api.Test;
 
 public class TestDiagramRenderer
@@ -107,6 +112,89 @@ public class TestDiagramRenderer
 		assertSame(p2, aRenderer.nodeAt(new Point(15,15)).get());
 	}
 	
+	@Test
+	void testRootNodeNear()
+	{
+		Rectangle bounds = aRenderer.getBounds(aNode);
+		ClassNode other = new ClassNode();
+		other.translate(bounds.maxX() + 20, 0);
+		aDiagram.addRootNode(other);
+		assertSame(aNode, aRenderer.rootNodeNear(new Point(20, 20), 0).get());
+		assertSame(aNode, aRenderer.rootNodeNear(new Point(bounds.maxX() + 5, 10), 8).get());
+		assertSame(other, aRenderer.rootNodeNear(new Point(bounds.maxX() + 15, 10), 8).get());
+		assertTrue(aRenderer.rootNodeNear(new Point(bounds.maxX() + 5, 10), 2).isEmpty());
+		assertTrue(aRenderer.rootNodeNear(new Point(1000, 1000), 8).isEmpty());
+	}
+	
+	@Test
+	void testNodeAt_AfterTranslate()
+	{
+		assertSame(aNode, aRenderer.nodeAt(new Point(20,20)).get());
+		aNode.translate(200, 0);
+		assertTrue(aRenderer.nodeAt(new Point(20,20)).isEmpty());
+		assertSame(aNode, aRenderer.nodeAt(new Point(220,20)).get());
+	}
+	
+	@Test
+	void testNodeAt_AfterAddAndRemove()
+	{
+		assertSame(aNode, aRenderer.nodeAt(new Point(20,20)).get());
+		ClassNode node = new ClassNode();
+		aDiagram.addRootNode(node);
+		assertSame(node, aRenderer.nodeAt(new Point(20,20)).get());
+		aDiagram.placeOnTop(aNode);
+		assertSame(aNode, aRenderer.nodeAt(new Point(20,20)).get());
+		aDiagram.removeRootNode(aNode);
+		assertSame(node, aRenderer.nodeAt(new Point(20,20)).get());
+	}
+	
+	@Test
+	void testNodeAt_AfterChildAdded()
+	{
+		PackageNode packageNode = new PackageNode();
+		aDiagram.addRootNode(packageNode);
+		packageNode.translate(200, 0);
+		assertTrue(aRenderer.nodeAt(new Point(520,20)).isEmpty());
+		ClassNode node = new ClassNode();
+		node.translate(500, 0);
+		packageNode.addChild(node);
+		assertSame(node, aRenderer.nodeAt(new Point(520,20)).get());
+	}
+	
+	@Test
+	void testEdgeAt_AfterLayout()
+	{
+		ClassNode node = new ClassNode();
+		node.translate(300, 0);
+		aDiagram.addRootNode(node);
+		Edge edge = new DependencyEdge();
+		edge.connect(aNode, node);
+		aDiagram.addEdge(edge);
+		aRenderer.layout();
+		assertSame(edge, aRenderer.edgeAt(new Point(200, 30)).get());
+		node.translate(0, 200);
+		aRenderer.incrementalLayout();
+		assertTrue(aRenderer.edgeAt(new Point(200, 30)).isEmpty());
+		assertSame(edge, aRenderer.edgeAt(aRenderer.getConnectionPoints(edge).center()).get());
+	}
+	
+	@Test
+	void testIntersecting()
+	{
+		ClassNode node = new ClassNode();
+		node.translate(300, 0);
+		aDiagram.addRootNode(node);
+		Edge edge = new DependencyEdge();
+		edge.connect(aNode, node);
+		aDiagram.addEdge(edge);
+		aRenderer.layout();
+		assertEquals(List.of(aNode, node), aRenderer.rootNodesIntersecting(new Rectangle(0, 0, 400, 100)));
+		assertEquals(List.of(node), aRenderer.rootNodesIntersecting(new Rectangle(250, 0, 100, 100)));
+		assertEquals(List.of(edge), aRenderer.edgesIntersecting(new Rectangle(150, 0, 100, 100)));
+		assertTrue(aRenderer.rootNodesIntersecting(new Rectangle(0, 500, 100, 100)).isEmpty());
+		assertTrue(aRenderer.edgesIntersecting(new Rectangle(0, 500, 100, 100)).isEmpty());
+	}
+	
 	@Test
 	void testToPoints_topRight()
 	{
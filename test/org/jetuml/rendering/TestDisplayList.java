@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.jetuml.JavaFXLoader;
+import org.jetuml.geom.Rectangle;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.TextAlignment;
+
+public class TestDisplayList
+{
+	private final GraphicsContext aGraphics = new Canvas(100, 100).getGraphicsContext2D();
+
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+
+	@Test
+	void testInitialAttributes()
+	{
+		aGraphics.setFill(Color.WHITE);
+		aGraphics.setLineWidth(0.6);
+		DisplayList displayList = new DisplayList(aGraphics);
+		assertEquals(0, displayList.size());
+		assertEquals(Color.WHITE, displayList.getFill());
+		assertEquals(aGraphics.getStroke(), displayList.getStroke());
+		assertEquals(0.6, displayList.getLineWidth());
+		assertNull(displayList.getLineDashes());
+		assertEquals(aGraphics.getFont(), displayList.getFont());
+		assertEquals(aGraphics.getTextAlign(), displayList.getTextAlign());
+		assertEquals(aGraphics.getTextBaseline(), displayList.getTextBaseline());
+		assertTrue(displayList.hasInitialAttributesOf(aGraphics));
+	}
+
+	@Test
+	void testRecordingDoesNotDraw()
+	{
+		DisplayList displayList = new DisplayList(aGraphics);
+		displayList.setFill(Color.RED);
+		displayList.setLineDashes(3, 3);
+		displayList.fillRect(0, 0, 10, 10);
+		assertEquals(3, displayList.size());
+		assertEquals(Color.RED, displayList.getFill());
+		assertArrayEquals(new double[] {3, 3}, displayList.getLineDashes());
+		assertEquals(Color.BLACK, aGraphics.getFill());
+		assertNull(aGraphics.getLineDashes());
+	}
+
+	@Test
+	void testHasInitialAttributesOf()
+	{
+		DisplayList displayList = new DisplayList(aGraphics);
+		aGraphics.setFill(Color.WHITE);
+		assertFalse(displayList.hasInitialAttributesOf(aGraphics));
+		aGraphics.setFill(Color.BLACK);
+		assertTrue(displayList.hasInitialAttributesOf(aGraphics));
+		aGraphics.setLineDashes(2, 2);
+		assertFalse(displayList.hasInitialAttributesOf(aGraphics));
+	}
+
+	@Test
+	void testReplayAppliesAttributes()
+	{
+		DisplayList displayList = new DisplayList(aGraphics);
+		displayList.setStroke(Color.BLUE);
+		displayList.setLineWidth(2);
+		displayList.setTextAlign(TextAlignment.CENTER);
+		displayList.setTextBaseline(VPos.CENTER);
+		displayList.strokeLine(0, 0, 10, 10);
+		displayList.replay(aGraphics);
+		assertEquals(Color.BLUE, aGraphics.getStroke());
+		assertEquals(2, aGraphics.getLineWidth());
+		assertEquals(TextAlignment.CENTER, aGraphics.getTextAlign());
+		assertEquals(VPos.CENTER, aGraphics.getTextBaseline());
+	}
+
+	@Test
+	void testReplayTwice()
+	{
+		DisplayList displayList = new DisplayList(aGraphics);
+		StringRenderer.get(StringRenderer.Alignment.CENTER_CENTER).draw("Text", displayList, new Rectangle(10, 20, 50, 30));
+		displayList.translate(5, 5);
+		displayList.replay(aGraphics);
+		displayList.replay(aGraphics);
+		assertEquals(10, aGraphics.getTransform().getTx());
+		assertEquals(10, aGraphics.getTransform().getTy());
+		assertTrue(displayList.size() > 0);
+	}
+}
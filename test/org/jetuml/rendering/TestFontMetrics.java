@@ -22,12 +22,17 @@ package org.jetuml.rendering;
 
 import static org.jetuml.rendering.FontMetrics.DEFAULT_FONT;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
+import org.jetuml.application.UserPreferences;
+import org.jetuml.application.UserPreferences.IntegerPreference;
 import org.jetuml.geom.Dimension;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledOnOs;
 import org.junit.jupiter.api.condition.OS;
 
+import javafx.scene.text.Font;
+
 public class TestFontMetrics {
 	
 	@Test
@@ -45,4 +50,55 @@ public class TestFontMetrics {
 	{
 		assertEquals(16, FontMetrics.getHeight(DEFAULT_FONT));	
 	}
+	
+	@Test
+	public void testGetDimension_Cached()
+	{
+		FontMetrics.clearCache();
+		long hits = FontMetrics.getCacheHits();
+		long misses = FontMetrics.getCacheMisses();
+		Dimension dimension = FontMetrics.getDimension("Cached", DEFAULT_FONT);
+		assertSame(dimension, FontMetrics.getDimension("Cached", DEFAULT_FONT));
+		FontMetrics.getDimension("Cached", Font.font(DEFAULT_FONT.getName(), DEFAULT_FONT.getSize() + 1));
+		assertEquals(hits + 1, FontMetrics.getCacheHits());
+		assertEquals(misses + 2, FontMetrics.getCacheMisses());
+		assertEquals(2, FontMetrics.getCacheSize());
+	}
+	
+	@Test
+	public void testGetDimension_LeastRecentlyUsedEvicted()
+	{
+		FontMetrics.clearCache();
+		FontMetrics.getDimension("First", DEFAULT_FONT);
+		FontMetrics.getDimension("Second", DEFAULT_FONT);
+		for( int i = 0; i < 4095; i++ )
+		{
+			FontMetrics.getDimension(Integer.toString(i), DEFAULT_FONT);
+			FontMetrics.getDimension("First", DEFAULT_FONT);
+		}
+		assertEquals(4096, FontMetrics.getCacheSize());
+		long misses = FontMetrics.getCacheMisses();
+		FontMetrics.getDimension("First", DEFAULT_FONT);
+		assertEquals(misses, FontMetrics.getCacheMisses());
+		FontMetrics.getDimension("Second", DEFAULT_FONT);
+		assertEquals(misses + 1, FontMetrics.getCacheMisses());
+	}
+	
+	@Test
+	public void testClearCache_FontSizeChanged()
+	{
+		FontMetrics.getDimension("Cached", DEFAULT_FONT);
+		int height = FontMetrics.getHeight(DEFAULT_FONT);
+		int fontSize = UserPreferences.instance().getInteger(IntegerPreference.fontSize);
+		UserPreferences.instance().setInteger(IntegerPreference.fontSize, fontSize + 1);
+		try
+		{
+			assertEquals(0, FontMetrics.getCacheSize());
+		}
+		finally
+		{
+			UserPreferences.instance().setInteger(IntegerPreference.fontSize, fontSize);
+		}
+		assertEquals(height, FontMetrics.getHeight(DEFAULT_FONT));
+	}
 }
@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.edges.AggregationEdge;
+import org.jetuml.diagram.edges.AssociationEdge;
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.edges.GeneralizationEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.geom.Point;
+import org.jetuml.geom.Rectangle;
+import org.jetuml.persistence.PersistenceService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Compares the paths computed by an incremental layout with the paths
+ * computed by a full layout of the same diagram.
+ */
+public class TestIncrementalLayout
+{
+	private final Diagram aDiagram = new Diagram(DiagramType.CLASS);
+	private final ClassDiagramRenderer aRenderer = new ClassDiagramRenderer(aDiagram);
+	private final List<Node> aNodes = new ArrayList<>();
+
+	TestIncrementalLayout()
+	{
+		for( int i = 0; i < 6; i++ )
+		{
+			Node node = new ClassNode();
+			aNodes.add(node);
+			aDiagram.addRootNode(node);
+		}
+		aNodes.get(0).moveTo(new Point(150, 60));
+		aNodes.get(1).moveTo(new Point(0, 190));
+		aNodes.get(2).moveTo(new Point(100, 190));
+		aNodes.get(3).moveTo(new Point(300, 190));
+		aNodes.get(4).moveTo(new Point(600, 0));
+		aNodes.get(5).moveTo(new Point(800, 200));
+		connect(new GeneralizationEdge(GeneralizationEdge.Type.Inheritance), 1, 0);
+		connect(new GeneralizationEdge(GeneralizationEdge.Type.Inheritance), 2, 0);
+		connect(new AssociationEdge(), 3, 0);
+		connect(new AggregationEdge(AggregationEdge.Type.Composition), 4, 5);
+		connect(new DependencyEdge(), 5, 4);
+		connect(new DependencyEdge(), 5, 5);
+	}
+
+	private void connect(Edge pEdge, int pStart, int pEnd)
+	{
+		pEdge.connect(aNodes.get(pStart), aNodes.get(pEnd));
+		aDiagram.addEdge(pEdge);
+	}
+
+	/*
+	 * Asserts that the paths stored by pRenderer are the ones
+	 * computed by a full layout of its diagram.
+	 */
+	private static void assertSameAsFullLayout(ClassDiagramRenderer pRenderer)
+	{
+		ClassDiagramRenderer reference = new ClassDiagramRenderer(pRenderer.diagram());
+		reference.layout();
+		for( Edge edge : pRenderer.diagram().edges() )
+		{
+			assertEquals(reference.getStoredEdgePath(edge), pRenderer.getStoredEdgePath(edge));
+		}
+	}
+
+	@Test
+	void testIncrementalLayout_Initial()
+	{
+		aRenderer.incrementalLayout();
+		assertSameAsFullLayout(aRenderer);
+	}
+
+	@Test
+	void testIncrementalLayout_NoChange()
+	{
+		aRenderer.incrementalLayout();
+		EdgePath path = aRenderer.getStoredEdgePath(aDiagram.edges().get(0)).get();
+		aRenderer.incrementalLayout();
+		assertTrue(path == aRenderer.getStoredEdgePath(aDiagram.edges().get(0)).get());
+		assertSameAsFullLayout(aRenderer);
+	}
+
+	@Test
+	void testIncrementalLayout_MoveNode()
+	{
+		aRenderer.incrementalLayout();
+		EdgePath unaffected = aRenderer.getStoredEdgePath(aDiagram.edges().get(0)).get();
+		aNodes.get(4).translate(40, 100);
+		aRenderer.incrementalLayout();
+		assertTrue(unaffected == aRenderer.getStoredEdgePath(aDiagram.edges().get(0)).get());
+		assertSameAsFullLayout(aRenderer);
+	}
+
+	@Test
+	void testIncrementalLayout_ChangedRegions()
+	{
+		assertTrue(aRenderer.incrementalLayout().isEmpty());
+		assertEquals(Optional.of(List.of()), aRenderer.incrementalLayout());
+		Edge moved = aDiagram.edges().get(3);
+		Rectangle oldBounds = aRenderer.getBounds(moved);
+		aNodes.get(4).translate(40, 100);
+		List<Rectangle> changedRegions = aRenderer.incrementalLayout().get();
+		assertTrue(changedRegions.contains(oldBounds));
+		assertTrue(changedRegions.contains(aRenderer.getBounds(moved)));
+		assertFalse(changedRegions.contains(aRenderer.getBounds(aDiagram.edges().get(0))));
+		aDiagram.removeEdge(moved);
+		assertTrue(aRenderer.incrementalLayout().isEmpty());
+	}
+	
+	@Test
+	void testIncrementalLayout_MoveNodeIntoOtherGroup()
+	{
+		aRenderer.incrementalLayout();
+		aNodes.get(5).moveTo(new Point(320, 40));
+		aRenderer.incrementalLayout();
+		assertSameAsFullLayout(aRenderer);
+		aNodes.get(5).moveTo(new Point(800, 200));
+		aRenderer.incrementalLayout();
+		assertSameAsFullLayout(aRenderer);
+	}
+
+	@Test
+	void testIncrementalLayout_RemoveEdge()
+	{
+		aRenderer.incrementalLayout();
+		Edge edge = aDiagram.edges().get(1);
+		aDiagram.removeEdge(edge);
+		aRenderer.incrementalLayout();
+		assertTrue(aRenderer.getStoredEdgePath(edge).isEmpty());
+		assertSameAsFullLayout(aRenderer);
+	}
+
+	@Test
+	void testIncrementalLayout_ChangeEdgeType()
+	{
+		aRenderer.incrementalLayout();
+		aDiagram.edges().get(1).properties().get(PropertyName.GENERALIZATION_TYPE).set("Implementation");
+		aRenderer.incrementalLayout();
+		assertSameAsFullLayout(aRenderer);
+	}
+
+	@Test
+	void testSnapshotLayout_UpToDate()
+	{
+		assertTrue(aRenderer.snapshotLayout().isPresent());
+		aRenderer.incrementalLayout();
+		assertTrue(aRenderer.snapshotLayout().isEmpty());
+	}
+
+	@Test
+	void testSnapshotLayout_MoveNode()
+	{
+		aRenderer.incrementalLayout();
+		EdgePath unaffected = aRenderer.getStoredEdgePath(aDiagram.edges().get(0)).get();
+		Edge moved = aDiagram.edges().get(3);
+		Rectangle oldBounds = aRenderer.getBounds(moved);
+		aNodes.get(4).translate(40, 100);
+		LayoutSnapshot snapshot = aRenderer.snapshotLayout().get();
+		snapshot.compute();
+		List<Rectangle> changedRegions = snapshot.publish().get();
+		assertTrue(changedRegions.contains(oldBounds));
+		assertTrue(changedRegions.contains(aRenderer.getBounds(moved)));
+		assertTrue(unaffected == aRenderer.getStoredEdgePath(aDiagram.edges().get(0)).get());
+		assertSameAsFullLayout(aRenderer);
+		assertTrue(aRenderer.snapshotLayout().isEmpty());
+	}
+
+	@Test
+	void testSnapshotLayout_NotComputed()
+	{
+		aRenderer.incrementalLayout();
+		aNodes.get(4).translate(40, 100);
+		EdgePath stale = aRenderer.getStoredEdgePath(aDiagram.edges().get(3)).get();
+		assertEquals(Optional.of(List.of()), aRenderer.snapshotLayout().get().publish());
+		assertTrue(stale == aRenderer.getStoredEdgePath(aDiagram.edges().get(3)).get());
+	}
+
+	@Test
+	void testSnapshotLayout_DiagramChangedDuringComputation()
+	{
+		aRenderer.incrementalLayout();
+		aNodes.get(4).translate(40, 100);
+		LayoutSnapshot snapshot = aRenderer.snapshotLayout().get();
+		snapshot.compute();
+		aNodes.get(5).translate(0, 50);
+		EdgePath stale = aRenderer.getStoredEdgePath(aDiagram.edges().get(3)).get();
+		assertEquals(Optional.of(List.of()), snapshot.publish());
+		assertTrue(stale == aRenderer.getStoredEdgePath(aDiagram.edges().get(3)).get());
+		snapshot = aRenderer.snapshotLayout().get();
+		snapshot.compute();
+		snapshot.publish();
+		assertSameAsFullLayout(aRenderer);
+	}
+
+	@Test
+	void testSnapshotLayout_RemoveEdge()
+	{
+		aRenderer.incrementalLayout();
+		Edge edge = aDiagram.edges().get(1);
+		aDiagram.removeEdge(edge);
+		LayoutSnapshot snapshot = aRenderer.snapshotLayout().get();
+		snapshot.compute();
+		assertTrue(snapshot.publish().isEmpty());
+		assertTrue(aRenderer.getStoredEdgePath(edge).isEmpty());
+		assertSameAsFullLayout(aRenderer);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"testPersistenceService.class.jet", "testPersistenceService2.class.jet",
+			"performanceDiagram.class.jet"})
+	void testIncrementalLayout_MoveEachNode(String pFileName) throws IOException
+	{
+		Diagram diagram = PersistenceService.read(Path.of("testdata", pFileName).toFile());
+		ClassDiagramRenderer renderer = new ClassDiagramRenderer(diagram);
+		renderer.incrementalLayout();
+		assertSameAsFullLayout(renderer);
+		for( Node node : diagram.rootNodes() )
+		{
+			node.translate(35, -25);
+			renderer.incrementalLayout();
+			assertSameAsFullLayout(renderer);
+		}
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"testPersistenceService.class.jet", "testPersistenceService2.class.jet",
+			"performanceDiagram.class.jet"})
+	void testSnapshotLayout_MoveEachNode(String pFileName) throws IOException
+	{
+		Diagram diagram = PersistenceService.read(Path.of("testdata", pFileName).toFile());
+		ClassDiagramRenderer renderer = new ClassDiagramRenderer(diagram);
+		renderer.incrementalLayout();
+		assertTrue(renderer.snapshotLayout().isEmpty());
+		for( Node node : diagram.rootNodes() )
+		{
+			node.translate(35, -25);
+			renderer.snapshotLayout().ifPresent(snapshot -> 
+			{
+				snapshot.compute();
+				snapshot.publish();
+			});
+			assertSameAsFullLayout(renderer);
+			assertTrue(renderer.snapshotLayout().isEmpty());
+		}
+	}
+	
+	@Test
+	void testSnapshotLayout_MoveNodeIntoOtherGroup()
+	{
+		aRenderer.incrementalLayout();
+		aNodes.get(5).moveTo(new Point(320, 40));
+		LayoutSnapshot snapshot = aRenderer.snapshotLayout().get();
+		snapshot.compute();
+		snapshot.publish();
+		assertSameAsFullLayout(aRenderer);
+		aNodes.get(5).moveTo(new Point(800, 200));
+		snapshot = aRenderer.snapshotLayout().get();
+		snapshot.compute();
+		snapshot.publish();
+		assertSameAsFullLayout(aRenderer);
+	}
+}
@@ -2273,9 +2273,9 @@ public class TestLayouter
 	{
 		try 
 		{
-			Method method = ClassDiagramRenderer.class.getDeclaredMethod("layoutSegmentedEdges", EdgePriority.class);
+			Method method = ClassDiagramRenderer.class.getDeclaredMethod("layoutSegmentedEdges", EdgePriority.class, List.class);
 			method.setAccessible(true);
-			method.invoke(aRenderer, pEdgePriority);
+			method.invoke(aRenderer, pEdgePriority, aDiagram.edges());
 		}
 		catch(ReflectiveOperationException e)
 		{
@@ -2316,9 +2316,9 @@ public class TestLayouter
 	{
 		try 
 		{
-			Method method = ClassDiagramRenderer.class.getDeclaredMethod("layoutDependencyEdges");
+			Method method = ClassDiagramRenderer.class.getDeclaredMethod("layoutDependencyEdges", List.class);
 			method.setAccessible(true);
-			method.invoke(aRenderer);
+			method.invoke(aRenderer, aDiagram.edges());
 		}
 		catch(ReflectiveOperationException e)
 		{
@@ -2330,9 +2330,9 @@ public class TestLayouter
 	{
 		try 
 		{
-			Method method = ClassDiagramRenderer.class.getDeclaredMethod("layoutSelfEdges");
+			Method method = ClassDiagramRenderer.class.getDeclaredMethod("layoutSelfEdges", List.class);
 			method.setAccessible(true);
-			method.invoke(aRenderer);
+			method.invoke(aRenderer, aDiagram.edges());
 		}
 		catch(ReflectiveOperationException e)
 		{
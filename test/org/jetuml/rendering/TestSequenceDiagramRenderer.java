@@ -21,11 +21,13 @@
 package org.jetuml.rendering;
 
 import static org.jetuml.rendering.FontMetrics.DEFAULT_FONT_SIZE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Optional;
 
 import org.jetuml.application.UserPreferences;
@@ -155,6 +157,44 @@ public class TestSequenceDiagramRenderer
 		assertSame(callNode2, aRenderer.nodeAt(new Point(42,105)).get());
 	}
 	
+	@Test
+	void testSnapshotLayout()
+	{
+		ImplicitParameterNode node1 = new ImplicitParameterNode();
+		ImplicitParameterNode node2 = new ImplicitParameterNode();
+		node2.translate(100, 0);
+		aDiagram.addRootNode(node1);
+		aDiagram.addRootNode(node2);
+		CallNode callNode1 = new CallNode();
+		CallNode callNode2 = new CallNode();
+		node1.addChild(callNode1);
+		node2.addChild(callNode2);
+		CallEdge edge = new CallEdge();
+		edge.connect(callNode1, callNode2);
+		aDiagram.addEdge(edge);
+		aRenderer.updateLayout();
+		assertTrue(aRenderer.snapshotLayout().isEmpty());
+		
+		CallNode callNode3 = new CallNode();
+		node2.addChild(callNode3);
+		CallEdge edge2 = new CallEdge();
+		edge2.connect(callNode1, callNode3);
+		aDiagram.addEdge(edge2);
+		LayoutSnapshot snapshot = aRenderer.snapshotLayout().get();
+		snapshot.compute();
+		assertTrue(snapshot.publish().isEmpty());
+		assertTrue(aRenderer.snapshotLayout().isEmpty());
+		assertEquals(Optional.of(List.of()), snapshot.publish());
+		
+		SequenceDiagramRenderer reference = new SequenceDiagramRenderer(aDiagram);
+		reference.updateLayout();
+		for( Node node : List.of(callNode1, callNode2, callNode3) )
+		{
+			assertEquals(reference.getY(node), ((SequenceDiagramRenderer) aRenderer).getY(node));
+			assertEquals(reference.getMaxY(node), ((SequenceDiagramRenderer) aRenderer).getMaxY(node));
+		}
+	}
+	
 	@Test
 	void testFindRoot_Empty()
 	{
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.jetuml.geom.Point;
+import org.jetuml.geom.Rectangle;
+import org.junit.jupiter.api.Test;
+
+public class TestSpatialIndex
+{
+	private final SpatialIndex<String> aIndex = new SpatialIndex<>();
+
+	@Test
+	void testEmpty()
+	{
+		assertEquals(0, aIndex.size());
+		assertTrue(aIndex.elementsAt(new Point(0, 0)).isEmpty());
+		assertTrue(aIndex.elementsIntersecting(new Rectangle(-1000, -1000, 2000, 2000)).isEmpty());
+		assertTrue(aIndex.nearest(new Point(0, 0)).isEmpty());
+	}
+
+	@Test
+	void testElementsAt_Boundaries()
+	{
+		aIndex.add("A", new Rectangle(100, 100, 50, 50));
+		assertEquals(List.of("A"), aIndex.elementsAt(new Point(100, 100)));
+		assertEquals(List.of("A"), aIndex.elementsAt(new Point(150, 150)));
+		assertTrue(aIndex.elementsAt(new Point(151, 150)).isEmpty());
+		assertTrue(aIndex.elementsAt(new Point(99, 120)).isEmpty());
+	}
+
+	@Test
+	void testElementsAt_InsertionOrder()
+	{
+		aIndex.add("A", new Rectangle(0, 0, 300, 300));
+		aIndex.add("B", new Rectangle(-200, -200, 250, 250));
+		aIndex.add("C", new Rectangle(20, 20, 10, 10));
+		assertEquals(List.of("A", "B", "C"), aIndex.elementsAt(new Point(25, 25)));
+		assertEquals(List.of("A", "B"), aIndex.elementsAt(new Point(40, 40)));
+		assertEquals(List.of("B"), aIndex.elementsAt(new Point(-150, -150)));
+	}
+
+	@Test
+	void testRemove()
+	{
+		aIndex.add("A", new Rectangle(0, 0, 300, 300));
+		aIndex.add("B", new Rectangle(10, 10, 30, 30));
+		aIndex.remove("A");
+		assertFalse(aIndex.contains("A"));
+		assertTrue(aIndex.contains("B"));
+		assertEquals(1, aIndex.size());
+		assertEquals(List.of("B"), aIndex.elementsAt(new Point(20, 20)));
+		assertTrue(aIndex.elementsAt(new Point(200, 200)).isEmpty());
+		aIndex.add("A", new Rectangle(0, 0, 300, 300));
+		assertEquals(List.of("B", "A"), aIndex.elementsAt(new Point(20, 20)));
+	}
+
+	@Test
+	void testClear()
+	{
+		aIndex.add("A", new Rectangle(0, 0, 300, 300));
+		aIndex.clear();
+		assertEquals(0, aIndex.size());
+		assertTrue(aIndex.elementsAt(new Point(20, 20)).isEmpty());
+		assertTrue(aIndex.nearest(new Point(20, 20)).isEmpty());
+	}
+
+	@Test
+	void testElementsIntersecting()
+	{
+		aIndex.add("A", new Rectangle(0, 0, 10, 10));
+		aIndex.add("B", new Rectangle(500, 500, 10, 10));
+		aIndex.add("C", new Rectangle(1000, 0, 10, 10));
+		assertEquals(List.of("A", "B"), aIndex.elementsIntersecting(new Rectangle(10, 10, 490, 490)));
+		assertEquals(List.of("A", "B", "C"), aIndex.elementsIntersecting(new Rectangle(-5000, -5000, 10000, 10000)));
+		assertTrue(aIndex.elementsIntersecting(new Rectangle(11, 11, 488, 488)).isEmpty());
+	}
+
+	@Test
+	void testNearest()
+	{
+		aIndex.add("A", new Rectangle(0, 0, 10, 10));
+		aIndex.add("B", new Rectangle(1000, 1000, 10, 10));
+		aIndex.add("C", new Rectangle(30, 0, 10, 10));
+		assertEquals(Optional.of("A"), aIndex.nearest(new Point(5, 5)));
+		assertEquals(Optional.of("A"), aIndex.nearest(new Point(20, 5)));
+		assertEquals(Optional.of("C"), aIndex.nearest(new Point(21, 5)));
+		assertEquals(Optional.of("B"), aIndex.nearest(new Point(800, 800)));
+		assertEquals(Optional.of("B"), aIndex.nearest(new Point(100000, 100000)));
+		assertEquals(Optional.of("A"), aIndex.nearest(new Point(-100000, 5)));
+	}
+
+	@Test
+	void testQueries_SameAsLinearScan()
+	{
+		Random random = new Random(0);
+		List<String> elements = new ArrayList<>();
+		List<Rectangle> bounds = new ArrayList<>();
+		for( int i = 0; i < 300; i++ )
+		{
+			Rectangle rectangle = new Rectangle(random.nextInt(4000) - 2000, random.nextInt(4000) - 2000,
+					random.nextInt(300), random.nextInt(300));
+			elements.add(Integer.toString(i));
+			bounds.add(rectangle);
+			aIndex.add(elements.get(i), rectangle);
+		}
+		for( int i = 0; i < 300; i++ )
+		{
+			Point point = new Point(random.nextInt(5000) - 2500, random.nextInt(5000) - 2500);
+			Rectangle region = new Rectangle(point.x(), point.y(), random.nextInt(600), random.nextInt(600));
+			List<String> expectedAt = new ArrayList<>();
+			List<String> expectedIntersecting = new ArrayList<>();
+			for( int j = 0; j < elements.size(); j++ )
+			{
+				if( bounds.get(j).contains(point) )
+				{
+					expectedAt.add(elements.get(j));
+				}
+				if( bounds.get(j).intersects(region) )
+				{
+					expectedIntersecting.add(elements.get(j));
+				}
+			}
+			assertEquals(expectedAt, aIndex.elementsAt(point));
+			assertEquals(expectedIntersecting, aIndex.elementsIntersecting(region));
+			int nearest = elements.indexOf(aIndex.nearest(point).get());
+			double expectedDistance = bounds.stream()
+					.mapToDouble(rectangle -> distance(rectangle, point))
+					.min().getAsDouble();
+			assertEquals(expectedDistance, distance(bounds.get(nearest), point));
+		}
+	}
+
+	@Test
+	void testNearest_AfterRemove_SameAsLinearScan()
+	{
+		Random random = new Random(1);
+		List<String> elements = new ArrayList<>();
+		List<Rectangle> bounds = new ArrayList<>();
+		for( int i = 0; i < 300; i++ )
+		{
+			Rectangle rectangle = new Rectangle(random.nextInt(4000) - 2000, random.nextInt(4000) - 2000,
+					random.nextInt(300), random.nextInt(300));
+			elements.add(Integer.toString(i));
+			bounds.add(rectangle);
+			aIndex.add(elements.get(i), rectangle);
+		}
+		while( elements.size() > 1 )
+		{
+			int removed = random.nextInt(elements.size());
+			aIndex.remove(elements.remove(removed));
+			bounds.remove(removed);
+			Point point = new Point(random.nextInt(5000) - 2500, random.nextInt(5000) - 2500);
+			double expectedDistance = bounds.stream()
+					.mapToDouble(rectangle -> distance(rectangle, point))
+					.min().getAsDouble();
+			assertEquals(expectedDistance, distance(bounds.get(elements.indexOf(aIndex.nearest(point).get())), point));
+		}
+	}
+
+	private static double distance(Rectangle pRectangle, Point pPoint)
+	{
+		int dx = Math.max(0, Math.max(pRectangle.x() - pPoint.x(), pPoint.x() - pRectangle.maxX()));
+		int dy = Math.max(0, Math.max(pRectangle.y() - pPoint.y(), pPoint.y() - pRectangle.maxY()));
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+}
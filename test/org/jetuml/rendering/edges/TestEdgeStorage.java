@@ -20,12 +20,15 @@
  *******************************************************************************/
 package org.jetuml.rendering.edges;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
 
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.Node;
 import org.jetuml.diagram.edges.AggregationEdge;
@@ -41,6 +44,7 @@ import org.junit.jupiter.api.Test;
  */
 public class TestEdgeStorage 
 {
+	private final Diagram aDiagram = new Diagram(DiagramType.CLASS);
 	private EdgeStorage aEdgeStorage;
 	private Edge edge1;
 	private Edge edge2;
@@ -60,10 +64,19 @@ public class TestEdgeStorage
 		path1 = new EdgePath(new Point(0,0), new Point(0, 100), new Point(100, 100), new Point(200, 100));
 		path2 = new EdgePath(new Point(300,300), new Point(300,350));
 		path3 = new EdgePath(new Point(0,200), new Point(200, 200), new Point(200, 100), new Point(100, 100));
-		aEdgeStorage = new EdgeStorage();
+		aEdgeStorage = new EdgeStorage(aDiagram);
 		nodeA = new ClassNode();
 		nodeB = new ClassNode();
 		nodeC = new ClassNode();
+		aDiagram.addRootNode(nodeA);
+		aDiagram.addRootNode(nodeB);
+		aDiagram.addRootNode(nodeC);
+	}
+	
+	private void connect(Edge pEdge, Node pStart, Node pEnd)
+	{
+		pEdge.connect(pStart, pEnd);
+		aDiagram.addEdge(pEdge);
 	}
 	
 	@Test
@@ -94,12 +107,9 @@ public class TestEdgeStorage
 	@Test
 	void testEdgesConnectedTo()
 	{
-		nodeA = new ClassNode();
-		nodeB = new ClassNode();
-		nodeC = new ClassNode();
-		edge1.connect(nodeB, nodeA);
-		edge2.connect(nodeA, nodeC);
-		edge3.connect(nodeB, nodeC);
+		connect(edge1, nodeB, nodeA);
+		connect(edge2, nodeA, nodeC);
+		connect(edge3, nodeB, nodeC);
 		aEdgeStorage.store(edge1, path1);
 		aEdgeStorage.store(edge2, path2);
 		aEdgeStorage.store(edge3, path3);
@@ -109,6 +119,45 @@ public class TestEdgeStorage
 		assertFalse(edgesConnectedToNodeA.contains(edge3));
 	}
 	
+	@Test
+	void testEdgesConnectedTo_AfterConnect()
+	{
+		connect(edge1, nodeA, nodeB);
+		aEdgeStorage.store(edge1, path1);
+		edge1.connect(nodeC, nodeB);
+		assertTrue(aEdgeStorage.edgesConnectedTo(nodeA).isEmpty());
+		assertEquals(List.of(edge1), aEdgeStorage.edgesConnectedTo(nodeB));
+		assertEquals(List.of(edge1), aEdgeStorage.edgesConnectedTo(nodeC));
+	}
+	
+	@Test
+	void testEdgesConnectedTo_DiagramOrder()
+	{
+		connect(edge1, nodeA, nodeB);
+		connect(edge2, nodeC, nodeA);
+		connect(edge3, nodeA, nodeA);
+		aEdgeStorage.store(edge3, path3);
+		aEdgeStorage.store(edge2, path2);
+		aEdgeStorage.store(edge1, path1);
+		assertEquals(List.of(edge1, edge2, edge3), aEdgeStorage.edgesConnectedTo(nodeA));
+		aDiagram.removeEdge(edge2);
+		assertEquals(List.of(edge1, edge3), aEdgeStorage.edgesConnectedTo(nodeA));
+	}
+	
+	@Test
+	void testEdgesConnectedTo_SelfEdgeAndRemove()
+	{
+		connect(edge1, nodeA, nodeA);
+		connect(edge2, nodeA, nodeB);
+		aEdgeStorage.store(edge1, path1);
+		aEdgeStorage.store(edge2, path2);
+		assertEquals(2, aEdgeStorage.edgesConnectedTo(nodeA).size());
+		aEdgeStorage.remove(edge1);
+		assertEquals(List.of(edge2), aEdgeStorage.edgesConnectedTo(nodeA));
+		aEdgeStorage.clearStorage();
+		assertTrue(aEdgeStorage.edgesConnectedTo(nodeB).isEmpty());
+	}
+	
 	@Test
 	void testIsEmpty()
 	{
@@ -145,6 +194,18 @@ public class TestEdgeStorage
 		assertTrue(sameNodes.contains(edge2));
 	}
 	
+	@Test
+	void testRemove()
+	{
+		aEdgeStorage.store(edge1, path1);
+		aEdgeStorage.store(edge2, path2);
+		aEdgeStorage.remove(edge1);
+		aEdgeStorage.remove(edge3);
+		assertFalse(aEdgeStorage.contains(edge1));
+		assertTrue(aEdgeStorage.contains(edge2));
+		assertTrue(aEdgeStorage.connectionPointIsAvailable(new Point(0,0)));
+	}
+	
 	@Test
 	void testClearStorage()
 	{
@@ -20,7 +20,9 @@
  *******************************************************************************/
 package org.jetuml.rendering.edges;
 
+import static org.jetuml.rendering.edges.NodeIndex.ZERO;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.lang.reflect.Method;
@@ -31,6 +33,7 @@ import org.jetuml.diagram.Node;
 import org.jetuml.diagram.nodes.ClassNode;
 import org.jetuml.geom.Line;
 import org.jetuml.geom.Point;
+import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.Side;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -114,6 +117,25 @@ public class TestNodeIndex
 		assertEquals(20, spaceBetweenConnectionPoints(new Line(10, 0, 10, pHeight), Side.RIGHT));
 	}
 	
+	@ParameterizedTest
+	@ValueSource(ints = {0,10,45,100,183,300})
+	void testReach_containsAllConnectionPoints(int pLength)
+	{
+		Rectangle bounds = new Rectangle(13, 27, pLength, pLength);
+		Rectangle reach = NodeIndex.reach(bounds);
+		assertTrue(reach.contains(bounds));
+		for( Side side : Side.values() )
+		{
+			for( NodeIndex index : NodeIndex.values() )
+			{
+				if( side.isHorizontal() || Math.abs(index.ordinal() - ZERO.ordinal()) <= 2 )
+				{
+					assertTrue(reach.contains(index.toPoint(side.getCorrespondingLine(bounds), side)));
+				}
+			}
+		}
+	}
+	
 	private static float spaceBetweenConnectionPoints(Line pNodeFace, Side pAttachmentSide)
 	{
 		try
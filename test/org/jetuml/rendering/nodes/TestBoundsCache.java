@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2022 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering.nodes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.function.Function;
+
+import org.jetuml.application.UserPreferences;
+import org.jetuml.application.UserPreferences.IntegerPreference;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.diagram.nodes.FieldNode;
+import org.jetuml.diagram.nodes.ObjectNode;
+import org.jetuml.diagram.nodes.PackageNode;
+import org.jetuml.geom.Rectangle;
+import org.jetuml.rendering.ObjectDiagramRenderer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the BoundsCache.
+ */
+public class TestBoundsCache
+{
+	private final BoundsCache aBoundsCache = new BoundsCache();
+	private final PackageNode aPackage = new PackageNode();
+	private final ClassNode aClass = new ClassNode();
+
+	TestBoundsCache()
+	{
+		aPackage.addChild(aClass);
+	}
+
+	private Rectangle getBounds(Node pNode)
+	{
+		return aBoundsCache.getBounds(pNode, pNode, createDefaultBoundCalculator());
+	}
+
+	@Test
+	void testGetBounds_Unchanged()
+	{
+		assertSame(getBounds(aPackage), getBounds(aPackage));
+		assertSame(getBounds(aClass), getBounds(aClass));
+	}
+
+	@Test
+	void testGetBounds_Translated()
+	{
+		Rectangle bounds = getBounds(aClass);
+		aClass.translate(10, 0);
+		assertEquals(bounds.translated(10, 0), getBounds(aClass));
+	}
+
+	@Test
+	void testGetBounds_PropertyChanged()
+	{
+		Rectangle bounds = getBounds(aClass);
+		aClass.setName("Foo");
+		assertNotSame(bounds, getBounds(aClass));
+	}
+
+	@Test
+	void testGetBounds_DescendantChanged()
+	{
+		Rectangle bounds = getBounds(aPackage);
+		aClass.translate(10, 0);
+		assertNotSame(bounds, getBounds(aPackage));
+		bounds = getBounds(aPackage);
+		aClass.properties().get(PropertyName.METHODS).set("foo()");
+		assertNotSame(bounds, getBounds(aPackage));
+	}
+
+	@Test
+	void testGetBounds_SiblingChanged()
+	{
+		ClassNode sibling = new ClassNode();
+		aPackage.addChild(sibling);
+		Rectangle bounds = getBounds(aClass);
+		sibling.translate(10, 0);
+		sibling.setName("Foo");
+		assertSame(bounds, getBounds(aClass));
+	}
+
+	@Test
+	void testGetBounds_ChildAdded()
+	{
+		Rectangle bounds = getBounds(aPackage);
+		aPackage.addChild(new ClassNode());
+		assertNotSame(bounds, getBounds(aPackage));
+	}
+
+	@Test
+	void testGetBounds_FontChanged()
+	{
+		int fontSize = UserPreferences.instance().getInteger(IntegerPreference.fontSize);
+		Rectangle bounds = getBounds(aClass);
+		UserPreferences.instance().setInteger(IntegerPreference.fontSize, fontSize + 1);
+		try
+		{
+			assertNotSame(bounds, getBounds(aClass));
+		}
+		finally
+		{
+			UserPreferences.instance().setInteger(IntegerPreference.fontSize, fontSize);
+		}
+	}
+
+	@Test
+	void testGetBounds_Clear()
+	{
+		Rectangle bounds = getBounds(aClass);
+		aBoundsCache.clear();
+		assertNotSame(bounds, getBounds(aClass));
+	}
+
+	@Test
+	void testGetBounds_IdenticalFieldsSwapped()
+	{
+		ObjectDiagramRenderer renderer = new ObjectDiagramRenderer(new Diagram(DiagramType.OBJECT));
+		ObjectNode object = new ObjectNode();
+		FieldNode field1 = new FieldNode();
+		FieldNode field2 = new FieldNode();
+		object.addChild(field1);
+		object.addChild(field2);
+		renderer.diagram().addRootNode(object);
+		Rectangle bounds1 = renderer.getBounds(field1);
+		Rectangle bounds2 = renderer.getBounds(field2);
+		assertNotEquals(bounds1, bounds2);
+		object.removeChild(field1);
+		object.addChild(field1);
+		assertEquals(bounds1, renderer.getBounds(field2));
+		assertEquals(bounds2, renderer.getBounds(field1));
+	}
+
+	private static Function<Node, Rectangle> createDefaultBoundCalculator()
+	{
+		return pNode -> new Rectangle(pNode.position().x(), pNode.position().y(), 100, 100);
+	}
+}